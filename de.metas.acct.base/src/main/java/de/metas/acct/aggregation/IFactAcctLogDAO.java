@@ -70,4 +70,9 @@ public interface IFactAcctLogDAO extends ISingletonService
 	boolean hasLogs(Properties ctx, String processingTag);
 
 	void updateFactAcctEndingBalanceForTag(String processingTag);
+
+	/**
+	 * Updates the {@link I_Fact_Acct_Summary} records for all {@link I_Fact_Acct_Log}s tagged with given tag, using set based SQL.
+	 */
+	void updateFactAcctSummaryForTag(String processingTag);
 }
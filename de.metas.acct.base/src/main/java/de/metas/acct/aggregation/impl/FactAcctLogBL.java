@@ -1,18 +1,29 @@
 package de.metas.acct.aggregation.impl;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
+import org.adempiere.acct.api.IFactAcctCubeBL;
+import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.ad.dao.impl.EqualsQueryFilter;
+import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.model.PlainContextAware;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.agg.key.IAggregationKeyBuilder;
+import org.compiere.model.I_PA_ReportCube;
 import org.compiere.util.TimeUtil;
 import org.compiere.util.TrxRunnableAdapter;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.acct.aggregation.IFactAcctLogBL;
 import de.metas.acct.aggregation.IFactAcctLogDAO;
 import de.metas.acct.aggregation.IFactAcctLogIterable;
@@ -24,6 +35,7 @@ import de.metas.util.Check;
 import de.metas.util.ILoggable;
 import de.metas.util.Loggables;
 import de.metas.util.Services;
+import de.metas.util.collections.CollectionUtils;
 import de.metas.util.collections.MapReduceAggregator;
 
 /*
@@ -50,6 +62,15 @@ import de.metas.util.collections.MapReduceAggregator;
 
 public class FactAcctLogBL implements IFactAcctLogBL
 {
+	/** If enabled, the {@link I_PA_ReportCube}s are updated incrementally while the logs are processed. Cubes which were never calculated are not updated. */
+	private static final String SYSCONFIG_UpdateReportCubes = "de.metas.acct.aggregation.impl.FactAcctLogBL.UpdateReportCubes";
+
+	/**
+	 * If enabled, the {@link I_Fact_Acct_Summary} records are updated for the whole chunk of logs by the DB function {@code de_metas_acct.Fact_Acct_Summary_UpdateForTag},
+	 * instead of one select, insert and update per summary key.
+	 */
+	private static final String SYSCONFIG_UpdateSummaryInDB = "de.metas.acct.aggregation.impl.FactAcctLogBL.UpdateSummaryInDB";
+
 	@Override
 	public void processAll(final Properties ctx, final int limit)
 	{
@@ -73,26 +94,95 @@ public class FactAcctLogBL implements IFactAcctLogBL
 	public void process(final IFactAcctLogIterable logs)
 	{
 		final ILoggable loggable = Loggables.get();
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final IFactAcctLogDAO factAcctLogDAO = Services.get(IFactAcctLogDAO.class);
+		final boolean updateSummaryInDB = sysConfigBL.getBooleanValue(SYSCONFIG_UpdateSummaryInDB, false);
+		final boolean updateReportCubes = sysConfigBL.getBooleanValue(SYSCONFIG_UpdateReportCubes, false);
 
 		//
 		// Update Fact_Acct_Summary
-		final FactAcctSummaryUpdater factAcctSummaryUpdater = new FactAcctSummaryUpdater();
-		for (final I_Fact_Acct_Log log : logs)
+		final FactAcctSummaryUpdater factAcctSummaryUpdater = updateSummaryInDB ? null : new FactAcctSummaryUpdater();
+		final Set<IFactAcctSummaryKey> changedKeys = new LinkedHashSet<>();
+		if (factAcctSummaryUpdater != null || updateReportCubes)
+		{
+			for (final I_Fact_Acct_Log log : logs)
+			{
+				if (factAcctSummaryUpdater != null)
+				{
+					factAcctSummaryUpdater.add(log);
+				}
+				if (updateReportCubes)
+				{
+					changedKeys.add(FactAcctSummaryKey.of(log));
+				}
+			}
+		}
+		if (factAcctSummaryUpdater != null)
+		{
+			factAcctSummaryUpdater.closeAllGroups();
+		}
+		else
+		{
+			factAcctLogDAO.updateFactAcctSummaryForTag(logs.getProcessingTag());
+		}
+
+		//
+		// Update the report cubes
+		if (updateReportCubes)
 		{
-			factAcctSummaryUpdater.add(log);
+			updateReportCubes(logs.getCtx(), changedKeys);
 		}
-		factAcctSummaryUpdater.closeAllGroups();
 
 		//
 		// Update Fact_Acct_EndingBalance
-		Services.get(IFactAcctLogDAO.class).updateFactAcctEndingBalanceForTag(logs.getProcessingTag());
+		factAcctLogDAO.updateFactAcctEndingBalanceForTag(logs.getProcessingTag());
 
 		//
 		// Delete all processed logs
 		logs.deleteAll();
 
-		loggable.addLog("Processed {0} {1} records", factAcctSummaryUpdater.getItemsCount(), I_Fact_Acct_Log.Table_Name);
-		loggable.addLog("Created/Updated {0} {1} records", factAcctSummaryUpdater.getGroupsCount(), I_Fact_Acct_Summary.Table_Name);
+		if (factAcctSummaryUpdater != null)
+		{
+			loggable.addLog("Processed {0} {1} records", factAcctSummaryUpdater.getItemsCount(), I_Fact_Acct_Log.Table_Name);
+			loggable.addLog("Created/Updated {0} {1} records", factAcctSummaryUpdater.getGroupsCount(), I_Fact_Acct_Summary.Table_Name);
+		}
+	}
+
+	private void updateReportCubes(final Properties ctx, final Set<IFactAcctSummaryKey> changedKeys)
+	{
+		if (changedKeys.isEmpty())
+		{
+			return;
+		}
+
+		final List<Integer> clientIds = CollectionUtils.extractDistinctElements(changedKeys, IFactAcctSummaryKey::getAD_Client_ID);
+		final List<I_PA_ReportCube> reportCubes = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_PA_ReportCube.class, ctx, ITrx.TRXNAME_ThreadInherited)
+				.addOnlyActiveRecordsFilter()
+				.addInArrayFilter(I_PA_ReportCube.COLUMNNAME_AD_Client_ID, clientIds)
+				.addNotEqualsFilter(I_PA_ReportCube.COLUMNNAME_LastRecalculated, null)
+				.orderBy()
+				.addColumn(I_PA_ReportCube.COLUMNNAME_PA_ReportCube_ID) // to have a predictable locking order
+				.endOrderBy()
+				.create()
+				.list(I_PA_ReportCube.class);
+
+		final ILoggable loggable = Loggables.get();
+		final IFactAcctCubeBL factAcctCubeBL = Services.get(IFactAcctCubeBL.class);
+		for (final I_PA_ReportCube reportCube : reportCubes)
+		{
+			final Collection<IFactAcctSummaryKey> changedKeysOfClient = changedKeys.stream()
+					.filter(key -> key.getAD_Client_ID() == reportCube.getAD_Client_ID())
+					.collect(ImmutableList.toImmutableList());
+
+			final String resultSummary = factAcctCubeBL.createFactAcctCubeUpdater()
+					.setContext(PlainContextAware.newWithThreadInheritedTrx(ctx))
+					.setPA_ReportCube(reportCube)
+					.setChangedSlices(changedKeysOfClient)
+					.update()
+					.getResultSummary();
+			loggable.addLog(resultSummary);
+		}
 	}
 
 	private static class FactAcctSummaryUpdater extends MapReduceAggregator<FactAcctGroup, I_Fact_Acct_Log>
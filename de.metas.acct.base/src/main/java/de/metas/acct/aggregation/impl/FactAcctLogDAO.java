@@ -55,6 +55,8 @@ public class FactAcctLogDAO implements IFactAcctLogDAO
 {
 	/** Function used to check {@link I_Fact_Acct_Log}s for a given tag and update {@link I_Fact_Acct_EndingBalance} */
 	private static final String DB_FUNC_Fact_Acct_EndingBalance_UpdateForTag = IFactAcctDAO.DB_SCHEMA + ".Fact_Acct_EndingBalance_UpdateForTag";
+	/** Function used to check {@link I_Fact_Acct_Log}s for a given tag and update {@link I_Fact_Acct_Summary} */
+	private static final String DB_FUNC_Fact_Acct_Summary_UpdateForTag = IFactAcctDAO.DB_SCHEMA + ".Fact_Acct_Summary_UpdateForTag";
 
 	@Override
 	public IFactAcctLogIterable tagAndRetrieve(final Properties ctx, final int limit)
@@ -164,7 +166,19 @@ public class FactAcctLogDAO implements IFactAcctLogDAO
 	@Override
 	public void updateFactAcctEndingBalanceForTag(final String processingTag)
 	{
-		final String sql = "SELECT " + DB_FUNC_Fact_Acct_EndingBalance_UpdateForTag + "(?)";
+		executeFunctionForTag(DB_FUNC_Fact_Acct_EndingBalance_UpdateForTag, processingTag);
+	}
+
+	@Override
+	public void updateFactAcctSummaryForTag(final String processingTag)
+	{
+		executeFunctionForTag(DB_FUNC_Fact_Acct_Summary_UpdateForTag, processingTag);
+	}
+
+	/** Executes the given DB function for the given tag and logs its result */
+	private void executeFunctionForTag(final String functionName, final String processingTag)
+	{
+		final String sql = "SELECT " + functionName + "(?)";
 		final Object[] sqlParams = new Object[] { processingTag };
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
@@ -34,4 +34,10 @@ public class PlainFactAcctLogDAO extends FactAcctLogDAO
 	{
 		logger.warn("Updating Fact_Acct_EndingBalance not supported. Skipped.");
 	}
+
+	@Override
+	public void updateFactAcctSummaryForTag(final String processingTag)
+	{
+		logger.warn("Updating Fact_Acct_Summary in database not supported. Skipped.");
+	}
 }
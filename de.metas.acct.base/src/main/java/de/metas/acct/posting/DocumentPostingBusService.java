@@ -3,7 +3,13 @@ package de.metas.acct.posting;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import javax.annotation.PreDestroy;
+
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.Adempiere;
 import org.compiere.util.Env;
@@ -21,6 +27,7 @@ import de.metas.event.Topic;
 import de.metas.event.log.EventLogUserService;
 import de.metas.event.log.EventLogUserService.InvokeHandlerandLogRequest;
 import de.metas.logging.LogManager;
+import de.metas.util.Services;
 import lombok.NonNull;
 
 /*
@@ -52,11 +59,22 @@ public class DocumentPostingBusService
 	private static final Topic TOPIC = Topic.remote("de.metas.acct.handler.DocumentPostRequest");
 	public static final String PROPERTY_DocumentPostRequest = "DocumentPostRequest";
 
+	/**
+	 * If greater than zero, the documents are posted by that many threads, see {@link DocumentPostingExecutor}.
+	 * Otherwise they are posted one after another in the event bus thread.
+	 */
+	private static final String SYSCONFIG_ThreadsCount = "de.metas.acct.posting.DocumentPostingBusService.ThreadsCount";
+
+	/** How many requests a thread can have waiting before the event bus thread is blocked */
+	private static final String SYSCONFIG_MaxQueueDepthPerThread = "de.metas.acct.posting.DocumentPostingBusService.MaxQueueDepthPerThread";
+
 	// services
 	private static final Logger logger = LogManager.getLogger(DocumentPostingBusService.class);
 	private final IEventBusFactory eventBusFactory;
 	private final EventLogUserService eventLogUserService;
 
+	private final List<DocumentPostRequestHandlerAsEventListener> listeners = new CopyOnWriteArrayList<>();
+
 	public DocumentPostingBusService(
 			@NonNull final IEventBusFactory eventBusFactory,
 			@NonNull final EventLogUserService eventLogUserService)
@@ -111,27 +129,75 @@ public class DocumentPostingBusService
 
 	public void registerHandler(@NonNull final DocumentPostRequestHandler handler)
 	{
-		getEventBus().subscribe(DocumentPostRequestHandlerAsEventListener.builder()
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final DocumentPostRequestHandlerAsEventListener listener = DocumentPostRequestHandlerAsEventListener.builder()
 				.handler(handler)
 				.eventLogUserService(eventLogUserService)
-				.build());
+				.threadsCount(sysConfigBL.getIntValue(SYSCONFIG_ThreadsCount, 0))
+				.maxQueueDepthPerThread(sysConfigBL.getIntValue(SYSCONFIG_MaxQueueDepthPerThread, 1000))
+				.build();
+		getEventBus().subscribe(listener);
+		listeners.add(listener);
 
 		logger.info("Registered handler: {}", handler);
 	}
 
-	@lombok.ToString
+	/**
+	 * Posts the documents which were already handed to the posting threads, so they are not lost when the application is stopped.
+	 * Requests which are received afterwards are rejected, and that error is stored in their event log.
+	 */
+	@PreDestroy
+	public void shutdown()
+	{
+		listeners.forEach(DocumentPostRequestHandlerAsEventListener::shutdown);
+	}
+
+	@lombok.ToString(exclude = "executor")
 	private static final class DocumentPostRequestHandlerAsEventListener implements IEventListener
 	{
 		private final EventLogUserService eventLogUserService;
 		private final DocumentPostRequestHandler handler;
 
+		/** null if the requests shall be handled in the event bus thread */
+		private final DocumentPostingExecutor executor;
+
 		@lombok.Builder
 		private DocumentPostRequestHandlerAsEventListener(
 				@NonNull final DocumentPostRequestHandler handler,
-				@NonNull final EventLogUserService eventLogUserService)
+				@NonNull final EventLogUserService eventLogUserService,
+				final int threadsCount,
+				final int maxQueueDepthPerThread)
 		{
 			this.handler = handler;
 			this.eventLogUserService = eventLogUserService;
+			this.executor = createExecutorOrNull(threadsCount, maxQueueDepthPerThread);
+		}
+
+		private DocumentPostingExecutor createExecutorOrNull(final int threadsCount, final int maxQueueDepthPerThread)
+		{
+			if (threadsCount <= 0)
+			{
+				return null;
+			}
+
+			final DocumentPostingExecutor executor = new DocumentPostingExecutor(
+					threadsCount,
+					maxQueueDepthPerThread,
+					new DocumentPostingLaneKeyProvider()::getLaneKeyOrNull,
+					this::handleRequestInCtx);
+
+			final String jmxName = "de.metas.acct.posting:type=DocumentPostingExecutor,handler=" + handler.getClass().getSimpleName();
+			JMXRegistry.get().registerJMX(new JMXDocumentPostingExecutor(jmxName, executor), OnJMXAlreadyExistsPolicy.Replace);
+
+			return executor;
+		}
+
+		public void shutdown()
+		{
+			if (executor != null)
+			{
+				executor.shutdown();
+			}
 		}
 
 		@Override
@@ -139,6 +205,18 @@ public class DocumentPostingBusService
 		{
 			final DocumentPostRequest request = extractDocumentPostRequest(event);
 
+			if (executor != null)
+			{
+				executor.submit(event, request);
+			}
+			else
+			{
+				handleRequestInCtx(request);
+			}
+		}
+
+		private void handleRequestInCtx(final DocumentPostRequest request)
+		{
 			try (final IAutoCloseable c = switchCtx(request))
 			{
 				eventLogUserService.invokeHandlerAndLog(InvokeHandlerandLogRequest.builder()
@@ -0,0 +1,199 @@
+package de.metas.acct.posting;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.adempiere.util.concurrent.StripedExecutor;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.Adempiere;
+import org.slf4j.Logger;
+
+import de.metas.event.Event;
+import de.metas.event.log.EventLogSystemBusTools;
+import de.metas.event.log.EventLogUserService;
+import de.metas.event.log.impl.EventLogEntryCollector;
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Posts documents in parallel, using a fixed number of lanes which have one thread each.
+ * <p>
+ * Requests are assigned to a lane by the key which the lane key provider returns for their document (see {@link DocumentPostingLaneKeyProvider}),
+ * so the requests with the same key are processed one after another, in the order they were submitted.
+ * <p>
+ * The documents for which there is no key (e.g. allocations and matchings, which are posted based on the accounting of other documents) are processed as barriers:
+ * we wait until all the requests submitted so far were processed, then post the document in the submitting thread and only then accept new requests.
+ * That way those documents are posted after the invoices, payments, shipments etc. which they refer to, just like when all documents were posted one after another.
+ * <p>
+ * If a request fails in a lane, the error is logged and stored in the event's log, like the event bus does for the events which it processes itself.
+ * A failing barrier request's exception is propagated to the event bus.
+ * <p>
+ * {@link #shutdown()} processes the requests which were already submitted, so they are not lost when the application is stopped.
+ *
+ * @see StripedExecutor
+ */
+public final class DocumentPostingExecutor
+{
+	private static final Logger logger = LogManager.getLogger(DocumentPostingExecutor.class);
+
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 60;
+
+	private final Function<TableRecordReference, Object> laneKeyProvider;
+	private final Consumer<DocumentPostRequest> requestHandler;
+	private final StripedExecutor lanes;
+
+	private volatile long statisticsResetMillis = System.currentTimeMillis();
+
+	/**
+	 * @param maxQueueDepthPerLane how many requests a lane can have waiting before {@link #submit(Event, DocumentPostRequest)} blocks
+	 * @param laneKeyProvider returns the key of the lane in which the given document shall be posted, or <code>null</code> if it shall be posted as a barrier; it's invoked in the submitting thread
+	 * @param requestHandler posts the document of one request; it's invoked in the lane's thread
+	 */
+	public DocumentPostingExecutor(
+			final int lanesCount,
+			final int maxQueueDepthPerLane,
+			@NonNull final Function<TableRecordReference, Object> laneKeyProvider,
+			@NonNull final Consumer<DocumentPostRequest> requestHandler)
+	{
+		this.laneKeyProvider = laneKeyProvider;
+		this.requestHandler = requestHandler;
+		this.lanes = new StripedExecutor(DocumentPostingExecutor.class.getName(), lanesCount, maxQueueDepthPerLane);
+	}
+
+	/**
+	 * @param event the event bus event which was received; it's needed to collect the event log entries of the handler
+	 * @param request the request which was extracted from <code>event</code>
+	 */
+	public void submit(@NonNull final Event event, @NonNull final DocumentPostRequest request)
+	{
+		final Object laneKey = getLaneKeyOrNull(request);
+		if (laneKey == null)
+		{
+			// NOTE: the event bus already provided an event log collector for the current thread and stores the error if the posting fails
+			lanes.executeAsBarrier(() -> requestHandler.accept(request));
+		}
+		else
+		{
+			lanes.execute(laneKey, () -> {
+				try (final EventLogEntryCollector collector = EventLogSystemBusTools.provideEventLogEntryCollectorForCurrentThread(event))
+				{
+					handleInLane(request);
+				}
+			});
+		}
+	}
+
+	private Object getLaneKeyOrNull(final DocumentPostRequest request)
+	{
+		try
+		{
+			return laneKeyProvider.apply(request.getRecord());
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed getting the lane of {}. Posting it as barrier.", request, ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Handles the request and, because there is nobody to propagate to, logs and stores the error if it fails.
+	 */
+	private void handleInLane(final DocumentPostRequest request)
+	{
+		try
+		{
+			requestHandler.accept(request);
+		}
+		catch (final RuntimeException e)
+		{
+			logger.error("Failed posting {}", request, e);
+			if (!Adempiere.isUnitTestMode())
+			{
+				final EventLogUserService eventLogUserService = Adempiere.getBean(EventLogUserService.class);
+				eventLogUserService
+						.newErrorLogEntry(requestHandler.getClass(), e)
+						.createAndStore();
+			}
+		}
+	}
+
+	/**
+	 * Stops accepting new requests and waits until the requests which were already submitted were processed.
+	 */
+	public void shutdown()
+	{
+		logger.info("Shutting down; waiting for {} requests to be processed", lanes.getBacklog());
+		if (!lanes.shutdownAndAwaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+		{
+			logger.warn("Not all documents were posted after {} seconds; {} requests are lost", SHUTDOWN_TIMEOUT_SECONDS, lanes.getBacklog());
+		}
+	}
+
+	public int getLanesCount()
+	{
+		return lanes.getStripesCount();
+	}
+
+	/**
+	 * @return how many requests are waiting to be processed or are processing, summed over all lanes
+	 */
+	public int getQueueDepth()
+	{
+		return lanes.getBacklog();
+	}
+
+	public long getProcessedRequestsCount()
+	{
+		return lanes.getExecutedTasksCount() + lanes.getBarrierTasksCount();
+	}
+
+	public long getBarrierRequestsCount()
+	{
+		return lanes.getBarrierTasksCount();
+	}
+
+	/**
+	 * @return processed requests per second, since the last statistics reset
+	 */
+	public double getThroughputPerSecond()
+	{
+		final long elapsedMillis = System.currentTimeMillis() - statisticsResetMillis;
+		return elapsedMillis > 0 ? getProcessedRequestsCount() * 1000d / elapsedMillis : 0;
+	}
+
+	public List<String> getLaneInfos()
+	{
+		return lanes.getStripeInfos();
+	}
+
+	public void resetStatistics()
+	{
+		lanes.resetStatistics();
+		statisticsResetMillis = System.currentTimeMillis();
+	}
+}
@@ -0,0 +1,158 @@
+package de.metas.acct.posting;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.model.PlainContextAware;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_AllocationHdr;
+import org.compiere.model.I_C_Invoice;
+import org.compiere.model.I_C_InvoiceLine;
+import org.compiere.model.I_M_InOut;
+import org.compiere.model.I_M_InOutLine;
+import org.compiere.model.I_M_Inventory;
+import org.compiere.model.I_M_InventoryLine;
+import org.compiere.model.I_M_MatchInv;
+import org.compiere.model.I_M_MatchPO;
+import org.compiere.model.I_M_Movement;
+import org.compiere.model.I_M_MovementLine;
+import org.eevolution.model.I_PP_Cost_Collector;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.product.ProductId;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Decides in which lane of {@link DocumentPostingExecutor} a document is posted:
+ * <ul>
+ * <li>allocations and matchings are posted based on the accounting of other documents, so they are posted as barriers
+ * <li>documents which create cost details (shipments/receipts, inventories, movements, invoices, cost collectors) are posted in the lane of their product,
+ * because the costs of a product depend on the order in which its cost details are created.
+ * If such a document has more than one product, it's posted as a barrier.
+ * <li>all the other documents are posted in the lane of their record. A reversal is posted in the lane of its original, because it's posted based on the original's accounting.
+ * </ul>
+ * Since a costing document and its reversal have the same products, they also end up in the same lane.
+ * <p>
+ * NOTE: this is called for each request before it's submitted, so it shall be fast. It's running up to two simple queries.
+ */
+public class DocumentPostingLaneKeyProvider
+{
+	private static final Set<String> TABLENAMES_ToPostAsBarrier = ImmutableSet.of(
+			I_C_AllocationHdr.Table_Name,
+			I_M_MatchInv.Table_Name,
+			I_M_MatchPO.Table_Name);
+
+	private static final String COLUMNNAME_Reversal_ID = "Reversal_ID";
+	private static final String COLUMNNAME_M_Product_ID = "M_Product_ID";
+
+	/** Costing relevant document table name to where to find its products */
+	private static final Map<String, ProductsSource> PRODUCTS_SOURCES_ByTableName = ImmutableMap.<String, ProductsSource> builder()
+			.put(I_M_InOut.Table_Name, ProductsSource.of(I_M_InOutLine.Table_Name, I_M_InOutLine.COLUMNNAME_M_InOut_ID))
+			.put(I_M_Inventory.Table_Name, ProductsSource.of(I_M_InventoryLine.Table_Name, I_M_InventoryLine.COLUMNNAME_M_Inventory_ID))
+			.put(I_M_Movement.Table_Name, ProductsSource.of(I_M_MovementLine.Table_Name, I_M_MovementLine.COLUMNNAME_M_Movement_ID))
+			.put(I_C_Invoice.Table_Name, ProductsSource.of(I_C_InvoiceLine.Table_Name, I_C_InvoiceLine.COLUMNNAME_C_Invoice_ID))
+			.put(I_PP_Cost_Collector.Table_Name, ProductsSource.of(I_PP_Cost_Collector.Table_Name, I_PP_Cost_Collector.COLUMNNAME_PP_Cost_Collector_ID))
+			.build();
+
+	/**
+	 * @return the key of the lane in which given document shall be posted, or <code>null</code> if it shall be posted as a barrier
+	 */
+	@Nullable
+	public Object getLaneKeyOrNull(@NonNull final TableRecordReference record)
+	{
+		final String tableName = record.getTableName();
+		if (TABLENAMES_ToPostAsBarrier.contains(tableName))
+		{
+			return null;
+		}
+
+		final ProductsSource productsSource = PRODUCTS_SOURCES_ByTableName.get(tableName);
+		if (productsSource != null)
+		{
+			final List<Integer> productIds = retrieveProductIds(productsSource, record.getRecord_ID());
+			if (productIds.size() == 1)
+			{
+				return ProductId.ofRepoId(productIds.get(0));
+			}
+			else if (productIds.size() > 1)
+			{
+				return null;
+			}
+			// else: document without products; it's not creating cost details
+		}
+
+		return getOriginalRecord(record);
+	}
+
+	private static List<Integer> retrieveProductIds(final ProductsSource productsSource, final int recordId)
+	{
+		return Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(productsSource.getTableName())
+				.addEqualsFilter(productsSource.getLinkColumnName(), recordId)
+				.addNotNull(COLUMNNAME_M_Product_ID)
+				.create()
+				.listDistinct(COLUMNNAME_M_Product_ID, Integer.class);
+	}
+
+	/**
+	 * @return the original document if given document is a reversal; given document otherwise
+	 */
+	private static TableRecordReference getOriginalRecord(final TableRecordReference record)
+	{
+		// NOTE: we are loading a copy of the record reference, because we don't want the request's reference to cache a model which was loaded out of transaction
+		final TableRecordReference recordCopy = TableRecordReference.of(record.getTableName(), record.getRecord_ID());
+		final Object model = recordCopy.getModel(PlainContextAware.newOutOfTrx());
+		if (model == null || !InterfaceWrapperHelper.hasModelColumnName(model, COLUMNNAME_Reversal_ID))
+		{
+			return recordCopy;
+		}
+
+		// The original and its reversal are pointing to each other, so the one with the lower ID is the original
+		final Integer reversalId = InterfaceWrapperHelper.getValueOrNull(model, COLUMNNAME_Reversal_ID);
+		if (reversalId == null || reversalId <= 0 || reversalId >= recordCopy.getRecord_ID())
+		{
+			return recordCopy;
+		}
+		return TableRecordReference.of(recordCopy.getTableName(), reversalId);
+	}
+
+	@Value(staticConstructor = "of")
+	private static class ProductsSource
+	{
+		@NonNull
+		String tableName;
+		@NonNull
+		String linkColumnName;
+	}
+}
@@ -0,0 +1,87 @@
+package de.metas.acct.posting;
+
+import org.adempiere.util.jmx.IJMXNameAware;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class JMXDocumentPostingExecutor implements JMXDocumentPostingExecutorMBean, IJMXNameAware
+{
+	private final String jmxName;
+	private final DocumentPostingExecutor executor;
+
+	/* package */ JMXDocumentPostingExecutor(@NonNull final String jmxName, @NonNull final DocumentPostingExecutor executor)
+	{
+		this.jmxName = jmxName;
+		this.executor = executor;
+	}
+
+	@Override
+	public String getJMXName()
+	{
+		return jmxName;
+	}
+
+	@Override
+	public int getLanesCount()
+	{
+		return executor.getLanesCount();
+	}
+
+	@Override
+	public int getQueueDepth()
+	{
+		return executor.getQueueDepth();
+	}
+
+	@Override
+	public long getProcessedRequestsCount()
+	{
+		return executor.getProcessedRequestsCount();
+	}
+
+	@Override
+	public long getBarrierRequestsCount()
+	{
+		return executor.getBarrierRequestsCount();
+	}
+
+	@Override
+	public double getThroughputPerSecond()
+	{
+		return executor.getThroughputPerSecond();
+	}
+
+	@Override
+	public String[] getLaneInfos()
+	{
+		return executor.getLaneInfos().toArray(new String[0]);
+	}
+
+	@Override
+	public void resetStatistics()
+	{
+		executor.resetStatistics();
+	}
+}
@@ -0,0 +1,52 @@
+package de.metas.acct.posting;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public interface JMXDocumentPostingExecutorMBean
+{
+	int getLanesCount();
+
+	/**
+	 * @return how many posting requests are waiting to be processed or are processing, summed over all lanes
+	 */
+	int getQueueDepth();
+
+	long getProcessedRequestsCount();
+
+	/**
+	 * @return how many requests were about allocations, matchings or costing documents of several products and therefore had to wait for all lanes
+	 */
+	long getBarrierRequestsCount();
+
+	/**
+	 * @return processed requests per second since the last statistics reset
+	 */
+	double getThroughputPerSecond();
+
+	/**
+	 * @return backlog and latencies of each lane
+	 */
+	String[] getLaneInfos();
+
+	void resetStatistics();
+}
@@ -1,5 +1,9 @@
 package org.adempiere.acct.api;
 
+import org.adempiere.util.lang.IContextAware;
+import org.compiere.model.I_PA_ReportCube;
+
+import de.metas.acct.model.I_Fact_Acct_Summary;
 import de.metas.util.ISingletonService;
 
 /*
@@ -27,4 +31,11 @@ import de.metas.util.ISingletonService;
 public interface IFactAcctCubeBL extends ISingletonService
 {
 	IFactAcctCubeUpdater createFactAcctCubeUpdater();
+
+	/**
+	 * Compares the cube's {@link I_Fact_Acct_Summary} records with a fresh aggregation of the Fact_Acct records.
+	 *
+	 * @return how many summary records are missing, different or superfluous; zero if the cube is consistent
+	 */
+	int countInconsistentSummaries(IContextAware context, I_PA_ReportCube reportCube);
 }
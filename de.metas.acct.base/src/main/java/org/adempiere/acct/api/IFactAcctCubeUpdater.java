@@ -1,8 +1,11 @@
 package org.adempiere.acct.api;
 
+import java.util.Collection;
+
 import org.adempiere.util.lang.IContextAware;
 import org.compiere.model.I_PA_ReportCube;
 
+import de.metas.acct.aggregation.IFactAcctSummaryKey;
 import de.metas.acct.model.I_Fact_Acct_Summary;
 
 public interface IFactAcctCubeUpdater
@@ -25,6 +28,18 @@ public interface IFactAcctCubeUpdater
 	 */
 	IFactAcctCubeUpdater setForceUpdate(final boolean forceUpdate);
 
+	/**
+	 * Makes the {@link #update()} incremental: only the cube's summaries of the given slices are recalculated from Fact_Acct.
+	 * <p>
+	 * A slice is identified by client, organization, accounting schema, account, posting type and the cube's period which contains the key's DateAcct.
+	 * All the other key values are not considered.
+	 * The cube's record is locked (<code>SELECT ... FOR UPDATE</code>) until the current transaction ends, so concurrent incremental updates of the same cube are serialized,
+	 * but its {@link I_PA_ReportCube#isProcessing()} flag is not set and its {@link I_PA_ReportCube#getLastRecalculated()} is not changed, so a full update will still consider the changed periods.
+	 *
+	 * @param changedSlices the keys of the changed Fact_Acct records; <code>null</code> means full update
+	 */
+	IFactAcctCubeUpdater setChangedSlices(final Collection<? extends IFactAcctSummaryKey> changedSlices);
+
 	/**
 	 * @return result summary string or null
 	 */
@@ -2,6 +2,8 @@ package org.adempiere.acct.api.impl;
 
 import org.adempiere.acct.api.IFactAcctCubeBL;
 import org.adempiere.acct.api.IFactAcctCubeUpdater;
+import org.adempiere.util.lang.IContextAware;
+import org.compiere.model.I_PA_ReportCube;
 
 /*
  * #%L
@@ -32,4 +34,10 @@ public class FactAcctCubeBL implements IFactAcctCubeBL
 	{
 		return new FactAcctCubeUpdater();
 	}
+
+	@Override
+	public int countInconsistentSummaries(final IContextAware context, final I_PA_ReportCube reportCube)
+	{
+		return new FactAcctCubeConsistencyChecker(context, reportCube).countInconsistentSummaries();
+	}
 }
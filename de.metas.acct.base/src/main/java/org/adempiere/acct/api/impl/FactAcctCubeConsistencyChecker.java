@@ -0,0 +1,87 @@
+package org.adempiere.acct.api.impl;
+
+import java.util.List;
+
+import org.adempiere.util.lang.IContextAware;
+import org.compiere.model.I_PA_ReportCube;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import de.metas.acct.model.I_Fact_Acct_Summary;
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Checks if a cube's {@link I_Fact_Acct_Summary} records are matching the Fact_Acct records, i.e. if a full update of the cube would produce the same records.
+ * <p>
+ * Useful to verify the incremental updates (see {@link FactAcctCubeUpdater#setChangedSlices(java.util.Collection)}).
+ */
+/* package */ final class FactAcctCubeConsistencyChecker
+{
+	private static final Logger logger = LogManager.getLogger(FactAcctCubeConsistencyChecker.class);
+
+	private final IContextAware context;
+	private final I_PA_ReportCube reportCube;
+
+	public FactAcctCubeConsistencyChecker(@NonNull final IContextAware context, @NonNull final I_PA_ReportCube reportCube)
+	{
+		this.context = context;
+		this.reportCube = reportCube;
+	}
+
+	public int countInconsistentSummaries()
+	{
+		final List<String> dimensionColumnNames = FactAcctCubeUpdater.getDimensionColumnNames(reportCube);
+
+		final StringBuilder expectedColumns = new StringBuilder("f.AD_Client_ID, f.AD_Org_ID, f.C_AcctSchema_ID, f.Account_ID, f.PostingType, f.GL_Budget_ID, p.C_Period_ID, p.StartDate");
+		final StringBuilder actualColumns = new StringBuilder("AD_Client_ID, AD_Org_ID, C_AcctSchema_ID, Account_ID, PostingType, GL_Budget_ID, C_Period_ID, DateAcct");
+		for (final String dim : dimensionColumnNames)
+		{
+			expectedColumns.append(", f.").append(dim);
+			actualColumns.append(", ").append(dim);
+		}
+
+		// NOTE: EXCEPT ALL also reports duplicate summaries
+		final String sqlExpected = "SELECT " + expectedColumns + ", COALESCE(SUM(f.AmtAcctDr),0), COALESCE(SUM(f.AmtAcctCr),0), COALESCE(SUM(f.Qty),0)"
+				+ FactAcctCubeUpdater.buildFromSql("")
+				+ " GROUP BY " + expectedColumns;
+		final String sqlActual = "SELECT " + actualColumns + ", AmtAcctDr, AmtAcctCr, Qty"
+				+ " FROM Fact_Acct_Summary WHERE PA_ReportCube_ID=?";
+		final String sql = "SELECT COUNT(1) FROM ("
+				+ "(" + sqlExpected + " EXCEPT ALL " + sqlActual + ")"
+				+ " UNION ALL "
+				+ "(" + sqlActual + " EXCEPT ALL " + sqlExpected + ")"
+				+ ") t";
+		final Object[] sqlParams = new Object[] {
+				reportCube.getC_Calendar_ID(), reportCube.getPA_ReportCube_ID(),
+				reportCube.getPA_ReportCube_ID(), reportCube.getC_Calendar_ID() };
+
+		final long startMillis = System.currentTimeMillis();
+		final int inconsistentCount = DB.getSQLValueEx(context.getTrxName(), sql, sqlParams);
+		logger.debug("{}: found {} inconsistent summaries in {} ms", reportCube.getName(), inconsistentCount, System.currentTimeMillis() - startMillis);
+
+		return inconsistentCount;
+	}
+}
@@ -25,7 +25,10 @@ package org.adempiere.acct.api.impl;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import org.slf4j.Logger;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
@@ -39,7 +42,12 @@ import org.slf4j.Logger;
 import de.metas.logging.LogManager;
 import org.compiere.util.DB;
 import org.compiere.util.KeyNamePair;
+import org.compiere.util.TimeUtil;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+
+import de.metas.acct.aggregation.IFactAcctSummaryKey;
 import de.metas.acct.model.I_Fact_Acct_Summary;
 
 /*package*/class FactAcctCubeUpdater implements IFactAcctCubeUpdater
@@ -51,6 +59,7 @@ import de.metas.acct.model.I_Fact_Acct_Summary;
 	private I_PA_ReportCube _reportCube;
 	private boolean _resetCube;
 	private boolean _forceUpdate;
+	private Collection<? extends IFactAcctSummaryKey> _changedSlices;
 
 	// Status
 	private String _resultSummary = null;
@@ -110,6 +119,13 @@ import de.metas.acct.model.I_Fact_Acct_Summary;
 		return this._forceUpdate;
 	}
 
+	@Override
+	public IFactAcctCubeUpdater setChangedSlices(final Collection<? extends IFactAcctSummaryKey> changedSlices)
+	{
+		this._changedSlices = changedSlices;
+		return this;
+	}
+
 	private int getPA_ReportCube_ID()
 	{
 		return getPA_ReportCube().getPA_ReportCube_ID();
@@ -133,6 +149,11 @@ import de.metas.acct.model.I_Fact_Acct_Summary;
 	@Override
 	public IFactAcctCubeUpdater update()
 	{
+		if (_changedSlices != null)
+		{
+			return updateChangedSlices(_changedSlices);
+		}
+
 		//
 		// Extract parameters
 		final I_PA_ReportCube paReportCube = getPA_ReportCube();
@@ -185,43 +206,7 @@ import de.metas.acct.model.I_Fact_Acct_Summary;
 
 			//
 			// Insert into Fact_Acct_Summary
-			StringBuilder insert = new StringBuilder("INSERT " +
-					"INTO FACT_ACCT_SUMMARY (PA_ReportCube_ID , AD_Client_ID, " +
-					"AD_Org_ID, Created, CreatedBy, Updated, UpdatedBy, IsActive, " +
-					"C_AcctSchema_ID, Account_ID, PostingType, " +
-					"GL_Budget_ID, C_Period_ID, DateAcct, AmtAcctDr, AmtAcctCr, Qty");
-
-			final StringBuilder select = new StringBuilder(" ) SELECT " +
-					"?, f.AD_CLIENT_ID, f.AD_ORG_ID, " +
-					"max(f.Created), max(f.CreatedBy), max(f.Updated), max(f.UpdatedBy), 'Y', " +
-					"f.C_ACCTSCHEMA_ID, f.ACCOUNT_ID, f.POSTINGTYPE, GL_Budget_ID, " +
-					"p.c_period_id," +
-					"p.StartDate, " + // DateAcct
-					"COALESCE(SUM(AmtAcctDr),0), COALESCE(SUM(AmtAcctCr),0), " +
-					"COALESCE(SUM(Qty),0)");
-			String from = " FROM fact_acct f " +
-					" INNER JOIN C_Period p ON ( f.DateAcct BETWEEN p.StartDate AND p.EndDate ) " +
-					" INNER JOIN C_Year y ON ( p.C_Year_ID = y.C_Year_ID ) " +
-					" WHERE p.PeriodType = 'S' " +
-					" AND y.C_Calendar_ID = ? ";
-			if (filterOnlyChangedPeriods)
-			{
-				from += "AND  p.C_Period_ID IN " + sqlPeriodIn;
-			}
-
-			final StringBuilder groups = new StringBuilder(" GROUP BY " +
-					"f.AD_CLIENT_ID, f.AD_ORG_ID, f.C_ACCTSCHEMA_ID, f.ACCOUNT_ID, " +
-					"f.POSTINGTYPE, GL_Budget_ID, p.c_period_id, p.StartDate ");
-
-			final List<String> dimensionColumnNames = getDimensionColumnNames(paReportCube);
-			for (final String dim : dimensionColumnNames)
-			{
-				insert.append(", " + dim);
-				select.append(", f." + dim);
-				groups.append(", f." + dim);
-			}
-
-			final String sql = insert.append(select.toString()).append(from).append(groups.toString()).toString();
+			final String sql = buildInsertSql(paReportCube, filterOnlyChangedPeriods ? " AND p.C_Period_ID IN " + sqlPeriodIn : "");
 			log.debug(sql);
 			final Object[] sqlParams = new Object[] { paReportCubeId, paReportCube.getC_Calendar_ID() };
 
@@ -249,6 +234,153 @@ import de.metas.acct.model.I_Fact_Acct_Summary;
 		return this;
 	}
 
+	/**
+	 * Recalculates the cube's summaries of the given slices only, by deleting and re-inserting them.
+	 * <p>
+	 * The slices are processed in chunks, to keep the number of SQL parameters in limits.
+	 */
+	private IFactAcctCubeUpdater updateChangedSlices(final Collection<? extends IFactAcctSummaryKey> changedSlices)
+	{
+		final I_PA_ReportCube paReportCube = getPA_ReportCube();
+		final int paReportCubeId = getPA_ReportCube_ID();
+		final String paReportCubeName = paReportCube.getName();
+		final String trxName = getContext().getTrxName();
+
+		final Set<List<Object>> slices = extractSlices(changedSlices);
+		if (slices.isEmpty())
+		{
+			setResultSummary("Nothing to update in " + paReportCubeName);
+			return this;
+		}
+
+		//
+		// Make sure nobody else is updating the same cube in the meantime, else we could end up with duplicate summaries
+		DB.getSQLValueEx(trxName, "SELECT PA_ReportCube_ID FROM PA_ReportCube WHERE PA_ReportCube_ID=? FOR UPDATE", paReportCubeId);
+
+		final long startMillis = System.currentTimeMillis();
+		int deleted = 0;
+		int inserted = 0;
+		for (final List<List<Object>> slicesChunk : Iterables.partition(slices, SLICES_CHUNK_SIZE))
+		{
+			final List<Object> slicesSqlParams = new ArrayList<>();
+			final String slicesSql = buildSlicesSql(slicesChunk, paReportCube.getC_Calendar_ID(), slicesSqlParams);
+
+			final List<Object> deleteSqlParams = new ArrayList<>();
+			deleteSqlParams.add(paReportCubeId);
+			deleteSqlParams.addAll(slicesSqlParams);
+			deleted += deleteFactAcctSummary(" WHERE PA_ReportCube_ID=?"
+					+ " AND (AD_Client_ID, AD_Org_ID, C_AcctSchema_ID, Account_ID, PostingType, C_Period_ID) IN (" + slicesSql + ")",
+					deleteSqlParams.toArray());
+
+			final String insertSql = buildInsertSql(paReportCube,
+					" AND (f.AD_Client_ID, f.AD_Org_ID, f.C_AcctSchema_ID, f.Account_ID, f.PostingType, p.C_Period_ID) IN (" + slicesSql + ")");
+			final List<Object> insertSqlParams = new ArrayList<>();
+			insertSqlParams.add(paReportCubeId);
+			insertSqlParams.add(paReportCube.getC_Calendar_ID());
+			insertSqlParams.addAll(slicesSqlParams);
+			inserted += DB.executeUpdateEx(insertSql, insertSqlParams.toArray(), trxName);
+		}
+
+		final long elapsedMillis = System.currentTimeMillis() - startMillis;
+		setResultSummary(paReportCubeName + ": Deleted " + deleted + ", inserted " + inserted + " for " + slices.size() + " changed slices in " + elapsedMillis + " ms");
+
+		return this;
+	}
+
+	private static final int SLICES_CHUNK_SIZE = 1000;
+
+	/**
+	 * @return distinct AD_Client_ID, AD_Org_ID, C_AcctSchema_ID, Account_ID, PostingType, DateAcct tuples
+	 */
+	private static Set<List<Object>> extractSlices(final Collection<? extends IFactAcctSummaryKey> keys)
+	{
+		final Set<List<Object>> slices = new LinkedHashSet<>();
+		for (final IFactAcctSummaryKey key : keys)
+		{
+			slices.add(ImmutableList.of(
+					key.getAD_Client_ID(),
+					key.getAD_Org_ID(),
+					key.getC_AcctSchema_ID(),
+					key.getC_ElementValue_ID(),
+					key.getPostingType(),
+					TimeUtil.asTimestamp(key.getDateAcct())));
+		}
+		return slices;
+	}
+
+	/**
+	 * @return SQL which selects the AD_Client_ID, AD_Org_ID, C_AcctSchema_ID, Account_ID, PostingType, C_Period_ID of given slices, where C_Period_ID is the calendar's standard period which contains the slice's DateAcct
+	 */
+	private static String buildSlicesSql(final List<List<Object>> slices, final int calendarId, final List<Object> sqlParams)
+	{
+		final StringBuilder sqlValues = new StringBuilder();
+		for (final List<Object> slice : slices)
+		{
+			if (sqlValues.length() > 0)
+			{
+				sqlValues.append(", ");
+			}
+			sqlValues.append("(?::numeric, ?::numeric, ?::numeric, ?::numeric, ?::char(1), ?::timestamp)");
+			sqlParams.addAll(slice);
+		}
+
+		sqlParams.add(calendarId);
+		return "SELECT v.AD_Client_ID, v.AD_Org_ID, v.C_AcctSchema_ID, v.Account_ID, v.PostingType, sp.C_Period_ID"
+				+ " FROM (VALUES " + sqlValues + ") v (AD_Client_ID, AD_Org_ID, C_AcctSchema_ID, Account_ID, PostingType, DateAcct)"
+				+ " INNER JOIN C_Period sp ON ( v.DateAcct BETWEEN sp.StartDate AND sp.EndDate ) "
+				+ " INNER JOIN C_Year sy ON ( sp.C_Year_ID = sy.C_Year_ID ) "
+				+ " WHERE sp.PeriodType = 'S' "
+				+ " AND sy.C_Calendar_ID = ? ";
+	}
+
+	/**
+	 * @param sqlWhereExtra additional where clause for the Fact_Acct (f) and C_Period (p) records to be aggregated, starting with " AND"
+	 * @return insert SQL which expects the PA_ReportCube_ID and the C_Calendar_ID as first parameters
+	 */
+	private static String buildInsertSql(final I_PA_ReportCube paReportCube, final String sqlWhereExtra)
+	{
+		final StringBuilder insert = new StringBuilder("INSERT " +
+				"INTO FACT_ACCT_SUMMARY (PA_ReportCube_ID , AD_Client_ID, " +
+				"AD_Org_ID, Created, CreatedBy, Updated, UpdatedBy, IsActive, " +
+				"C_AcctSchema_ID, Account_ID, PostingType, " +
+				"GL_Budget_ID, C_Period_ID, DateAcct, AmtAcctDr, AmtAcctCr, Qty");
+
+		final StringBuilder select = new StringBuilder(" ) SELECT " +
+				"?, f.AD_CLIENT_ID, f.AD_ORG_ID, " +
+				"max(f.Created), max(f.CreatedBy), max(f.Updated), max(f.UpdatedBy), 'Y', " +
+				"f.C_ACCTSCHEMA_ID, f.ACCOUNT_ID, f.POSTINGTYPE, GL_Budget_ID, " +
+				"p.c_period_id," +
+				"p.StartDate, " + // DateAcct
+				"COALESCE(SUM(AmtAcctDr),0), COALESCE(SUM(AmtAcctCr),0), " +
+				"COALESCE(SUM(Qty),0)");
+
+		final StringBuilder groups = new StringBuilder(" GROUP BY " +
+				"f.AD_CLIENT_ID, f.AD_ORG_ID, f.C_ACCTSCHEMA_ID, f.ACCOUNT_ID, " +
+				"f.POSTINGTYPE, GL_Budget_ID, p.c_period_id, p.StartDate ");
+
+		for (final String dim : getDimensionColumnNames(paReportCube))
+		{
+			insert.append(", " + dim);
+			select.append(", f." + dim);
+			groups.append(", f." + dim);
+		}
+
+		return insert.append(select).append(buildFromSql(sqlWhereExtra)).append(groups).toString();
+	}
+
+	/**
+	 * @return the FROM and WHERE clause which joins the Fact_Acct (f) records with the C_Period (p) of the calendar which is expected as SQL parameter
+	 */
+	/* package */ static String buildFromSql(final String sqlWhereExtra)
+	{
+		return " FROM fact_acct f " +
+				" INNER JOIN C_Period p ON ( f.DateAcct BETWEEN p.StartDate AND p.EndDate ) " +
+				" INNER JOIN C_Year y ON ( p.C_Year_ID = y.C_Year_ID ) " +
+				" WHERE p.PeriodType = 'S' " +
+				" AND y.C_Calendar_ID = ? " +
+				sqlWhereExtra;
+	}
+
 	/**
 	 * 
 	 * @return C_Period_ID/Name pairs
@@ -377,6 +509,11 @@ import de.metas.acct.model.I_Fact_Acct_Summary;
 	}
 
 	private int deleteFactAcctSummary(final String where)
+	{
+		return deleteFactAcctSummary(where, new Object[] {});
+	}
+
+	private int deleteFactAcctSummary(final String where, final Object[] sqlParams)
 	{
 		final String trxName = getContext().getTrxName();
 
@@ -384,11 +521,11 @@ import de.metas.acct.model.I_Fact_Acct_Summary;
 		final String sql = "DELETE FROM Fact_Acct_Summary fas " + where;
 		log.debug("Delete sql: " + sql);
 
-		final int deletedNo = DB.executeUpdateEx(sql, trxName);
+		final int deletedNo = DB.executeUpdateEx(sql, sqlParams, trxName);
 		return deletedNo;
 	}
 
-	private List<String> getDimensionColumnNames(final I_PA_ReportCube paReportCube)
+	/* package */ static List<String> getDimensionColumnNames(final I_PA_ReportCube paReportCube)
 	{
 		final List<String> values = new ArrayList<String>();
 		if (paReportCube.isProductDim())
@@ -0,0 +1,129 @@
+drop function if exists de_metas_acct.Fact_Acct_Summary_UpdateForTag(p_ProcessingTag varchar);
+create or replace function de_metas_acct.Fact_Acct_Summary_UpdateForTag(p_ProcessingTag varchar)
+returns text
+AS
+$BODY$
+declare
+	v_CountUpdated integer;
+	v_CountInserted integer;
+begin
+	if exists (select 1 from Fact_Acct_Log log where log.ProcessingTag=p_ProcessingTag and log.Action not in ('I', 'D')) then
+		raise exception 'Log action not supported for tag=%', p_ProcessingTag;
+	end if;
+
+	with
+	--
+	-- The net changes of the tagged logs, per summary key (see FactAcctSummaryKey).
+	-- Keys whose logs are cancelling each other out are skipped.
+	delta as (
+		select
+			log.AD_Client_ID, log.AD_Org_ID, log.C_AcctSchema_ID, log.C_ElementValue_ID as Account_ID, log.PostingType
+			, log.C_Period_ID, p.C_Year_ID
+			, date_trunc('day', log.DateAcct) as DateAcct
+			, sum(case when log.Action='D' then -log.AmtAcctDr else log.AmtAcctDr end) as AmtAcctDr
+			, sum(case when log.Action='D' then -log.AmtAcctCr else log.AmtAcctCr end) as AmtAcctCr
+			, sum(case when log.Action='D' then -log.Qty else log.Qty end) as Qty
+		from Fact_Acct_Log log
+		inner join C_Period p on (p.C_Period_ID=log.C_Period_ID)
+		where log.ProcessingTag=p_ProcessingTag
+		group by log.AD_Client_ID, log.AD_Org_ID, log.C_AcctSchema_ID, log.C_ElementValue_ID, log.PostingType, log.C_Period_ID, p.C_Year_ID, date_trunc('day', log.DateAcct)
+		having sum(case when log.Action='D' then -log.AmtAcctDr else log.AmtAcctDr end) <> 0
+			or sum(case when log.Action='D' then -log.AmtAcctCr else log.AmtAcctCr end) <> 0
+			or sum(case when log.Action='D' then -log.Qty else log.Qty end) <> 0
+	)
+	--
+	-- Existing summaries: add all deltas up to the summary's DateAcct; the year-to-date amounts only get the deltas of the same year.
+	, updated as (
+		update Fact_Acct_Summary s set
+			AmtAcctDr = s.AmtAcctDr + x.AmtAcctDr
+			, AmtAcctCr = s.AmtAcctCr + x.AmtAcctCr
+			, Qty = s.Qty + x.Qty
+			, AmtAcctDr_YTD = s.AmtAcctDr_YTD + x.AmtAcctDr_YTD
+			, AmtAcctCr_YTD = s.AmtAcctCr_YTD + x.AmtAcctCr_YTD
+		from (
+			select
+				s2.AD_Client_ID, s2.AD_Org_ID, s2.C_AcctSchema_ID, s2.Account_ID, s2.PostingType, s2.DateAcct
+				, sum(d.AmtAcctDr) as AmtAcctDr
+				, sum(d.AmtAcctCr) as AmtAcctCr
+				, sum(d.Qty) as Qty
+				, sum(case when d.C_Year_ID=s2.C_Year_ID then d.AmtAcctDr else 0 end) as AmtAcctDr_YTD
+				, sum(case when d.C_Year_ID=s2.C_Year_ID then d.AmtAcctCr else 0 end) as AmtAcctCr_YTD
+			from Fact_Acct_Summary s2
+			inner join delta d on (
+				d.AD_Client_ID=s2.AD_Client_ID
+				and d.AD_Org_ID=s2.AD_Org_ID
+				and d.C_AcctSchema_ID=s2.C_AcctSchema_ID
+				and d.Account_ID=s2.Account_ID
+				and d.PostingType=s2.PostingType
+				and d.DateAcct<=s2.DateAcct
+			)
+			where s2.PA_ReportCube_ID is null
+			group by s2.AD_Client_ID, s2.AD_Org_ID, s2.C_AcctSchema_ID, s2.Account_ID, s2.PostingType, s2.DateAcct
+		) x
+		where s.PA_ReportCube_ID is null
+		and s.AD_Client_ID=x.AD_Client_ID
+		and s.AD_Org_ID=x.AD_Org_ID
+		and s.C_AcctSchema_ID=x.C_AcctSchema_ID
+		and s.Account_ID=x.Account_ID
+		and s.PostingType=x.PostingType
+		and s.DateAcct=x.DateAcct
+		returning 1
+	)
+	--
+	-- Missing summaries: start from the previous summary (like FactAcctLogBL does) and add all deltas up to the new summary's DateAcct.
+	-- NOTE: all parts of this statement are working on the same snapshot, so the previous summaries are not yet containing any of the deltas.
+	, inserted as (
+		insert into Fact_Acct_Summary
+		(
+			AD_Client_ID, AD_Org_ID, Account_ID, C_AcctSchema_ID, PostingType
+			, C_Period_ID, C_Year_ID, DateAcct, PA_ReportCube_ID
+			, AmtAcctDr, AmtAcctCr, Qty
+			, AmtAcctDr_YTD, AmtAcctCr_YTD
+			, Created, CreatedBy, Updated, UpdatedBy, IsActive
+		)
+		select
+			n.AD_Client_ID, n.AD_Org_ID, n.Account_ID, n.C_AcctSchema_ID, n.PostingType
+			, n.C_Period_ID, n.C_Year_ID, n.DateAcct, null
+			, coalesce(prev.AmtAcctDr, 0) + sum(d.AmtAcctDr)
+			, coalesce(prev.AmtAcctCr, 0) + sum(d.AmtAcctCr)
+			, coalesce(prev.Qty, 0) + sum(d.Qty)
+			, (case when prev.C_Year_ID=n.C_Year_ID then prev.AmtAcctDr_YTD else 0 end) + sum(case when d.C_Year_ID=n.C_Year_ID then d.AmtAcctDr else 0 end)
+			, (case when prev.C_Year_ID=n.C_Year_ID then prev.AmtAcctCr_YTD else 0 end) + sum(case when d.C_Year_ID=n.C_Year_ID then d.AmtAcctCr else 0 end)
+			, now(), 0, now(), 0, 'Y'
+		from delta n
+		left outer join lateral (
+			select s.DateAcct, s.C_Year_ID, s.AmtAcctDr, s.AmtAcctCr, s.Qty, s.AmtAcctDr_YTD, s.AmtAcctCr_YTD
+			from Fact_Acct_Summary s
+			where s.PA_ReportCube_ID is null
+			and s.AD_Client_ID=n.AD_Client_ID
+			and s.AD_Org_ID=n.AD_Org_ID
+			and s.C_AcctSchema_ID=n.C_AcctSchema_ID
+			and s.Account_ID=n.Account_ID
+			and s.PostingType=n.PostingType
+			and s.DateAcct<=n.DateAcct
+			order by s.DateAcct desc
+			limit 1
+		) prev on true
+		inner join delta d on (
+			d.AD_Client_ID=n.AD_Client_ID
+			and d.AD_Org_ID=n.AD_Org_ID
+			and d.C_AcctSchema_ID=n.C_AcctSchema_ID
+			and d.Account_ID=n.Account_ID
+			and d.PostingType=n.PostingType
+			and d.DateAcct<=n.DateAcct
+		)
+		where prev.DateAcct is null or prev.DateAcct<>n.DateAcct
+		group by n.AD_Client_ID, n.AD_Org_ID, n.Account_ID, n.C_AcctSchema_ID, n.PostingType, n.C_Period_ID, n.C_Year_ID, n.DateAcct
+			, prev.C_Year_ID, prev.AmtAcctDr, prev.AmtAcctCr, prev.Qty, prev.AmtAcctDr_YTD, prev.AmtAcctCr_YTD
+		returning 1
+	)
+	select (select count(1) from updated), (select count(1) from inserted)
+	into v_CountUpdated, v_CountInserted;
+
+	return ''||v_CountUpdated||' rows updated, '||v_CountInserted||' rows inserted into Fact_Acct_Summary for tag='||p_ProcessingTag;
+end;
+$BODY$
+LANGUAGE plpgsql;
+
+COMMENT ON FUNCTION de_metas_acct.Fact_Acct_Summary_UpdateForTag(character varying) IS 'Checks Fact_Acct_Log for given tag and updates the Fact_Acct_Summary records which are not part of a report cube, with a few set based statements instead of a few statements per summary key.
+Please keep in sync with FactAcctLogBL.';
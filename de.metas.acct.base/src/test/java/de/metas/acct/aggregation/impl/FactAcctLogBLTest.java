@@ -62,6 +62,7 @@ public class FactAcctLogBLTest
 
 	private final int C_AcctSchema_ID1 = 1;
 	private final int C_ElementValue_ID1 = 1;
+	private final int C_ElementValue_ID2 = 2;
 
 	private I_C_Period year2014_p1;
 
@@ -197,6 +198,41 @@ public class FactAcctLogBLTest
 
 	}
 
+	@Test
+	public void test_LogsCancellingEachOther()
+	{
+		final I_Fact_Acct_Log log1 = newFactAcctLogBuilder()
+				.setDateAcct(2014, 01, 7)
+				.setC_ElementValue_ID(C_ElementValue_ID1)
+				.setAction(X_Fact_Acct_Log.ACTION_Insert)
+				.setAmtAcctDr(100)
+				.setQty(2)
+				.build();
+		newFactAcctLogBuilder()
+				.setDateAcct(2014, 01, 7)
+				.setC_ElementValue_ID(C_ElementValue_ID1)
+				.setAction(X_Fact_Acct_Log.ACTION_Delete)
+				.setAmtAcctDr(100)
+				.setQty(2)
+				.build();
+		final I_Fact_Acct_Log log3 = newFactAcctLogBuilder()
+				.setDateAcct(2014, 01, 7)
+				.setC_ElementValue_ID(C_ElementValue_ID2)
+				.setAction(X_Fact_Acct_Log.ACTION_Insert)
+				.setAmtAcctCr(40)
+				.build();
+
+		processAllLogs();
+
+		// Check
+		Assert.assertEquals("Summary records count", 0, retrieveAllFactAcctSummariesFor(FactAcctSummaryKey.of(log1)).size());
+
+		final List<I_Fact_Acct_Summary> summaries = retrieveAllFactAcctSummariesFor(FactAcctSummaryKey.of(log3));
+		Assert.assertEquals("Summary records count", 1, summaries.size());
+		Assert.assertEquals("Summary AmtAcctCr", 40, summaries.get(0).getAmtAcctCr().intValueExact());
+		Assert.assertEquals("Summary AmtAcctCr_YTD", 40, summaries.get(0).getAmtAcctCr_YTD().intValueExact());
+	}
+
 	private final Fact_Acct_Log_Builder newFactAcctLogBuilder()
 	{
 		return Fact_Acct_Log_Builder.newBuilder()
@@ -0,0 +1,252 @@
+package de.metas.acct.aggregation.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.model.PlainContextAware;
+import org.adempiere.util.lang.IContextAware;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.model.I_Fact_Acct;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.compiere.util.TimeUtil;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.acct.aggregation.IFactAcctLogDAO;
+import de.metas.acct.model.I_Fact_Acct_Log;
+import de.metas.acct.model.I_Fact_Acct_Summary;
+import de.metas.acct.model.X_Fact_Acct_Log;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Verifies that the DB function {@code de_metas_acct.Fact_Acct_Summary_UpdateForTag} (see {@link FactAcctLogDAO#updateFactAcctSummaryForTag(String)})
+ * updates the summaries the same way as {@link FactAcctLogBL} does when the sysconfig {@code UpdateSummaryInDB} is not set.
+ * <p>
+ * Everything is done in one transaction which is rolled back at the end.
+ */
+@Ignore
+// requires database connection
+public class FactAcctLogDAO_DBTest
+{
+	private Properties ctx;
+	private String trxName;
+	private String trxNameThreadInheritedOld;
+	private IContextAware context;
+
+	private I_Fact_Acct factAcct;
+	private int factAcctYearId;
+
+	@BeforeClass
+	public static void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath()
+					+ File.separator + ".." + File.separator + ".."
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	@Before
+	public void init()
+	{
+		ctx = Env.getCtx();
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		trxName = trxManager.createTrxName(getClass().getSimpleName(), true);
+		context = PlainContextAware.newWithTrxName(ctx, trxName);
+
+		// the DAO is working in the thread inherited transaction
+		trxNameThreadInheritedOld = trxManager.setThreadInheritedTrxName(trxName);
+
+		factAcct = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_Fact_Acct.class, ctx, trxName)
+				.addOnlyActiveRecordsFilter()
+				.addNotEqualsFilter(I_Fact_Acct.COLUMNNAME_C_Period_ID, null)
+				.orderByDescending(I_Fact_Acct.COLUMNNAME_Fact_Acct_ID)
+				.create()
+				.first(I_Fact_Acct.class);
+		Assume.assumeNotNull(factAcct);
+
+		Env.setContext(ctx, Env.CTXNAME_AD_Client_ID, factAcct.getAD_Client_ID());
+		factAcctYearId = DB.getSQLValueEx(trxName, "SELECT C_Year_ID FROM C_Period WHERE C_Period_ID=?", factAcct.getC_Period_ID());
+	}
+
+	@After
+	public void rollback()
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		trxManager.setThreadInheritedTrxName(trxNameThreadInheritedOld);
+
+		final ITrx trx = trxManager.get(trxName, false);
+		if (trx != null)
+		{
+			trx.rollback();
+			trx.close();
+		}
+	}
+
+	@Test
+	public void insertedLog_addedToTheSummariesFromItsDateOn()
+	{
+		final Map<Timestamp, SummaryAmounts> summariesBefore = retrieveSummaries();
+
+		final String processingTag = UUID.randomUUID().toString();
+		createLog(processingTag, X_Fact_Acct_Log.ACTION_Insert, 10, 3, 1);
+		Services.get(IFactAcctLogDAO.class).updateFactAcctSummaryForTag(processingTag);
+
+		final Map<Timestamp, SummaryAmounts> summariesAfter = retrieveSummaries();
+		final Timestamp day = TimeUtil.getDay(factAcct.getDateAcct());
+		assertThat(summariesAfter).containsKey(day);
+
+		summariesBefore.forEach((dateAcct, before) -> {
+			final SummaryAmounts after = summariesAfter.get(dateAcct);
+			if (dateAcct.before(day))
+			{
+				assertThat(after).as("summary of %s", dateAcct).isEqualTo(before);
+			}
+			else
+			{
+				final int deltaYTD = before.getC_Year_ID() == factAcctYearId ? 1 : 0;
+				assertThat(after).as("summary of %s", dateAcct).isEqualTo(before.add(10, 3, 1, 10 * deltaYTD, 3 * deltaYTD));
+			}
+		});
+	}
+
+	@Test
+	public void cancellingLogs_summariesUnchanged()
+	{
+		final Map<Timestamp, SummaryAmounts> summariesBefore = retrieveSummaries();
+
+		final String processingTag = UUID.randomUUID().toString();
+		createLog(processingTag, X_Fact_Acct_Log.ACTION_Insert, 10, 3, 1);
+		createLog(processingTag, X_Fact_Acct_Log.ACTION_Delete, 10, 3, 1);
+		Services.get(IFactAcctLogDAO.class).updateFactAcctSummaryForTag(processingTag);
+
+		assertThat(retrieveSummaries()).isEqualTo(summariesBefore);
+	}
+
+	private void createLog(final String processingTag, final String action, final int amtAcctDr, final int amtAcctCr, final int qty)
+	{
+		final I_Fact_Acct_Log log = InterfaceWrapperHelper.newInstance(I_Fact_Acct_Log.class, context);
+		log.setFact_Acct_ID(factAcct.getFact_Acct_ID());
+		log.setAD_Org_ID(factAcct.getAD_Org_ID());
+		log.setC_AcctSchema_ID(factAcct.getC_AcctSchema_ID());
+		log.setC_ElementValue_ID(factAcct.getAccount_ID());
+		log.setPostingType(factAcct.getPostingType());
+		log.setC_Period_ID(factAcct.getC_Period_ID());
+		log.setDateAcct(factAcct.getDateAcct());
+		log.setAction(action);
+		log.setAmtAcctDr(BigDecimal.valueOf(amtAcctDr));
+		log.setAmtAcctCr(BigDecimal.valueOf(amtAcctCr));
+		log.setQty(BigDecimal.valueOf(qty));
+		log.setProcessingTag(processingTag);
+		InterfaceWrapperHelper.save(log);
+	}
+
+	/**
+	 * @return the summaries of {@link #factAcct}'s key which are not part of a report cube, by their DateAcct
+	 */
+	private Map<Timestamp, SummaryAmounts> retrieveSummaries()
+	{
+		final ImmutableMap.Builder<Timestamp, SummaryAmounts> summaries = ImmutableMap.builder();
+		Services.get(IQueryBL.class)
+				.createQueryBuilder(I_Fact_Acct_Summary.class, ctx, trxName)
+				.addEqualsFilter(I_Fact_Acct_Summary.COLUMNNAME_AD_Client_ID, factAcct.getAD_Client_ID())
+				.addEqualsFilter(I_Fact_Acct_Summary.COLUMNNAME_AD_Org_ID, factAcct.getAD_Org_ID())
+				.addEqualsFilter(I_Fact_Acct_Summary.COLUMNNAME_C_AcctSchema_ID, factAcct.getC_AcctSchema_ID())
+				.addEqualsFilter(I_Fact_Acct_Summary.COLUMNNAME_Account_ID, factAcct.getAccount_ID())
+				.addEqualsFilter(I_Fact_Acct_Summary.COLUMNNAME_PostingType, factAcct.getPostingType())
+				.addEqualsFilter(I_Fact_Acct_Summary.COLUMNNAME_PA_ReportCube_ID, null)
+				.create()
+				.list(I_Fact_Acct_Summary.class)
+				.forEach(summary -> summaries.put(TimeUtil.getDay(summary.getDateAcct()), SummaryAmounts.of(summary)));
+		return summaries.build();
+	}
+
+	@Value
+	private static class SummaryAmounts
+	{
+		public static SummaryAmounts of(final I_Fact_Acct_Summary summary)
+		{
+			return new SummaryAmounts(
+					summary.getC_Year_ID(),
+					normalize(summary.getAmtAcctDr()),
+					normalize(summary.getAmtAcctCr()),
+					normalize(summary.getQty()),
+					normalize(summary.getAmtAcctDr_YTD()),
+					normalize(summary.getAmtAcctCr_YTD()));
+		}
+
+		/** so that the amounts are equal regardless of their scale */
+		private static BigDecimal normalize(final BigDecimal amount)
+		{
+			return amount.stripTrailingZeros();
+		}
+
+		int C_Year_ID;
+		BigDecimal AmtAcctDr;
+		BigDecimal AmtAcctCr;
+		BigDecimal Qty;
+		BigDecimal AmtAcctDr_YTD;
+		BigDecimal AmtAcctCr_YTD;
+
+		public SummaryAmounts add(final int amtAcctDr, final int amtAcctCr, final int qty, final int amtAcctDr_YTD, final int amtAcctCr_YTD)
+		{
+			return new SummaryAmounts(
+					C_Year_ID,
+					normalize(AmtAcctDr.add(BigDecimal.valueOf(amtAcctDr))),
+					normalize(AmtAcctCr.add(BigDecimal.valueOf(amtAcctCr))),
+					normalize(Qty.add(BigDecimal.valueOf(qty))),
+					normalize(AmtAcctDr_YTD.add(BigDecimal.valueOf(amtAcctDr_YTD))),
+					normalize(AmtAcctCr_YTD.add(BigDecimal.valueOf(amtAcctCr_YTD))));
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package de.metas.acct.posting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_AllocationHdr;
+import org.compiere.model.I_C_Invoice;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.event.Event;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DocumentPostingExecutorTest
+{
+	private final List<DocumentPostRequest> handledRequests = Collections.synchronizedList(new ArrayList<>());
+	private DocumentPostingExecutor executor;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		executor = new DocumentPostingExecutor(
+				4,
+				1000,
+				DocumentPostingExecutorTest::getLaneKeyOrNull,
+				handledRequests::add);
+	}
+
+	private static Object getLaneKeyOrNull(final TableRecordReference record)
+	{
+		return I_C_AllocationHdr.Table_Name.equals(record.getTableName()) ? null : record;
+	}
+
+	@After
+	public void shutdown()
+	{
+		executor.shutdown();
+	}
+
+	private static DocumentPostRequest request(final String tableName, final int recordId, final boolean force)
+	{
+		return DocumentPostRequest.builder()
+				.record(TableRecordReference.of(tableName, recordId))
+				.adClientId(1)
+				.force(force)
+				.build();
+	}
+
+	@Test
+	public void sameDocumentInOrder_allocationAfterAll()
+	{
+		for (int invoiceId = 1; invoiceId <= 20; invoiceId++)
+		{
+			executor.submit(Event.builder().build(), request(I_C_Invoice.Table_Name, invoiceId, false));
+			executor.submit(Event.builder().build(), request(I_C_Invoice.Table_Name, invoiceId, true));
+		}
+
+		final DocumentPostRequest allocationRequest = request(I_C_AllocationHdr.Table_Name, 1, false);
+		executor.submit(Event.builder().build(), allocationRequest);
+
+		// the allocation was posted in this thread, after all the invoices
+		assertThat(handledRequests).hasSize(41);
+		assertThat(handledRequests.get(40)).isSameAs(allocationRequest);
+
+		for (int invoiceId = 1; invoiceId <= 20; invoiceId++)
+		{
+			final TableRecordReference invoiceRef = TableRecordReference.of(I_C_Invoice.Table_Name, invoiceId);
+			final List<Boolean> forceFlags = handledRequests.stream()
+					.filter(request -> invoiceRef.equals(request.getRecord()))
+					.map(DocumentPostRequest::isForce)
+					.collect(Collectors.toList());
+			assertThat(forceFlags).containsExactly(false, true);
+		}
+
+		assertThat(executor.getProcessedRequestsCount()).isEqualTo(41);
+		assertThat(executor.getBarrierRequestsCount()).isEqualTo(1);
+		assertThat(executor.getQueueDepth()).isEqualTo(0);
+	}
+
+	@Test
+	public void requestFailsInLane_nextRequestsAreHandled()
+	{
+		executor.shutdown();
+		executor = new DocumentPostingExecutor(
+				4,
+				1000,
+				DocumentPostingExecutorTest::getLaneKeyOrNull,
+				request -> {
+					if (request.isForce())
+					{
+						throw new IllegalStateException("failed");
+					}
+					handledRequests.add(request);
+				});
+
+		executor.submit(Event.builder().build(), request(I_C_Invoice.Table_Name, 1, true));
+		executor.submit(Event.builder().build(), request(I_C_Invoice.Table_Name, 1, false));
+		executor.shutdown();
+
+		assertThat(handledRequests).hasSize(1);
+		assertThat(executor.getProcessedRequestsCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void barrierRequestFails_exceptionIsPropagated()
+	{
+		executor.shutdown();
+		executor = new DocumentPostingExecutor(
+				4,
+				1000,
+				DocumentPostingExecutorTest::getLaneKeyOrNull,
+				request -> {
+					throw new IllegalStateException("failed");
+				});
+
+		assertThatThrownBy(() -> executor.submit(Event.builder().build(), request(I_C_AllocationHdr.Table_Name, 1, false)))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	public void shutdown_handlesTheSubmittedRequests()
+	{
+		for (int invoiceId = 1; invoiceId <= 20; invoiceId++)
+		{
+			executor.submit(Event.builder().build(), request(I_C_Invoice.Table_Name, invoiceId, false));
+		}
+		executor.shutdown();
+
+		assertThat(handledRequests).hasSize(20);
+		assertThat(executor.getQueueDepth()).isEqualTo(0);
+	}
+}
@@ -0,0 +1,136 @@
+package de.metas.acct.posting;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_AllocationHdr;
+import org.compiere.model.I_C_Payment;
+import org.compiere.model.I_M_InOut;
+import org.compiere.model.I_M_InOutLine;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.product.ProductId;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DocumentPostingLaneKeyProviderTest
+{
+	private DocumentPostingLaneKeyProvider laneKeyProvider;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		laneKeyProvider = new DocumentPostingLaneKeyProvider();
+	}
+
+	private I_M_InOut createInOut(final int... productIds)
+	{
+		final I_M_InOut inout = newInstance(I_M_InOut.class);
+		saveRecord(inout);
+
+		for (final int productId : productIds)
+		{
+			final I_M_InOutLine line = newInstance(I_M_InOutLine.class);
+			line.setM_InOut_ID(inout.getM_InOut_ID());
+			line.setM_Product_ID(productId);
+			saveRecord(line);
+		}
+
+		return inout;
+	}
+
+	private Object getLaneKeyOrNull(final Object model)
+	{
+		return laneKeyProvider.getLaneKeyOrNull(TableRecordReference.of(model));
+	}
+
+	@Test
+	public void allocation_isBarrier()
+	{
+		final I_C_AllocationHdr allocation = newInstance(I_C_AllocationHdr.class);
+		saveRecord(allocation);
+
+		assertThat(getLaneKeyOrNull(allocation)).isNull();
+	}
+
+	@Test
+	public void inOut_oneProduct_laneOfProduct()
+	{
+		final I_M_InOut inout1 = createInOut(10, 10);
+		final I_M_InOut inout2 = createInOut(10);
+
+		assertThat(getLaneKeyOrNull(inout1)).isEqualTo(ProductId.ofRepoId(10));
+		assertThat(getLaneKeyOrNull(inout2)).isEqualTo(ProductId.ofRepoId(10));
+	}
+
+	@Test
+	public void inOut_severalProducts_isBarrier()
+	{
+		final I_M_InOut inout = createInOut(10, 20);
+
+		assertThat(getLaneKeyOrNull(inout)).isNull();
+	}
+
+	@Test
+	public void inOut_reversal_laneOfOriginal()
+	{
+		final I_M_InOut original = createInOut(10);
+		final I_M_InOut reversal = createInOut(10);
+		original.setReversal_ID(reversal.getM_InOut_ID());
+		saveRecord(original);
+		reversal.setReversal_ID(original.getM_InOut_ID());
+		saveRecord(reversal);
+
+		assertThat(getLaneKeyOrNull(reversal)).isEqualTo(getLaneKeyOrNull(original));
+	}
+
+	@Test
+	public void inOut_noProducts_laneOfRecord()
+	{
+		final I_M_InOut inout = createInOut();
+
+		assertThat(getLaneKeyOrNull(inout)).isEqualTo(TableRecordReference.of(inout));
+	}
+
+	@Test
+	public void payment_reversal_laneOfOriginal()
+	{
+		final I_C_Payment original = newInstance(I_C_Payment.class);
+		saveRecord(original);
+		final I_C_Payment reversal = newInstance(I_C_Payment.class);
+		saveRecord(reversal);
+		original.setReversal_ID(reversal.getC_Payment_ID());
+		saveRecord(original);
+		reversal.setReversal_ID(original.getC_Payment_ID());
+		saveRecord(reversal);
+
+		final TableRecordReference originalRef = TableRecordReference.of(original);
+		assertThat(getLaneKeyOrNull(original)).isEqualTo(originalRef);
+		assertThat(getLaneKeyOrNull(reversal)).isEqualTo(originalRef);
+	}
+}
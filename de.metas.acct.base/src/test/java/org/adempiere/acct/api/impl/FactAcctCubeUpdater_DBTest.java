@@ -0,0 +1,229 @@
+package org.adempiere.acct.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.Date;
+import java.util.Properties;
+
+import org.adempiere.acct.api.IFactAcctCubeBL;
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.model.PlainContextAware;
+import org.adempiere.util.lang.IContextAware;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.model.I_Fact_Acct;
+import org.compiere.model.I_PA_ReportCube;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.acct.aggregation.IFactAcctSummaryKey;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Verifies that an incremental update of a cube ({@link FactAcctCubeUpdater#setChangedSlices(java.util.Collection)}) gives the same summaries as a full update.
+ * <p>
+ * Everything is done in one transaction which is rolled back at the end.
+ */
+@Ignore
+// requires database connection
+public class FactAcctCubeUpdater_DBTest
+{
+	private Properties ctx;
+	private String trxName;
+	private IContextAware context;
+
+	private I_Fact_Acct factAcct;
+
+	@BeforeClass
+	public static void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath()
+					+ File.separator + ".." + File.separator + ".."
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	@Before
+	public void init()
+	{
+		ctx = Env.getCtx();
+		trxName = Services.get(ITrxManager.class).createTrxName(getClass().getSimpleName(), true);
+		context = PlainContextAware.newWithTrxName(ctx, trxName);
+
+		factAcct = Services.get(IQueryBL.class)
+				.createQueryBuilder(I_Fact_Acct.class, ctx, trxName)
+				.addOnlyActiveRecordsFilter()
+				.orderByDescending(I_Fact_Acct.COLUMNNAME_Fact_Acct_ID)
+				.create()
+				.first(I_Fact_Acct.class);
+		Assume.assumeNotNull(factAcct);
+
+		Env.setContext(ctx, Env.CTXNAME_AD_Client_ID, factAcct.getAD_Client_ID());
+	}
+
+	@After
+	public void rollback()
+	{
+		final ITrx trx = Services.get(ITrxManager.class).get(trxName, false);
+		if (trx != null)
+		{
+			trx.rollback();
+			trx.close();
+		}
+	}
+
+	@Test
+	public void incrementalUpdate_sameAsFullUpdate()
+	{
+		final I_PA_ReportCube incrementalCube = createReportCube("incremental");
+		updateFully(incrementalCube);
+		assertThat(countInconsistentSummaries(incrementalCube)).isZero();
+
+		//
+		// Change the Fact_Acct record, like a repost would
+		DB.executeUpdateEx("UPDATE Fact_Acct SET AmtAcctDr=AmtAcctDr+10, AmtAcctCr=AmtAcctCr+3 WHERE Fact_Acct_ID=?",
+				new Object[] { factAcct.getFact_Acct_ID() },
+				trxName);
+		assertThat(countInconsistentSummaries(incrementalCube)).isGreaterThan(0);
+
+		Services.get(IFactAcctCubeBL.class).createFactAcctCubeUpdater()
+				.setContext(context)
+				.setPA_ReportCube(incrementalCube)
+				.setChangedSlices(ImmutableList.of(SliceKey.of(factAcct)))
+				.update();
+		assertThat(countInconsistentSummaries(incrementalCube)).isZero();
+
+		//
+		// Compare with a cube which was fully updated after the change
+		final I_PA_ReportCube fullCube = createReportCube("full");
+		updateFully(fullCube);
+		assertThat(countDifferentSummaries(incrementalCube, fullCube)).isZero();
+		assertThat(countDifferentSummaries(fullCube, incrementalCube)).isZero();
+	}
+
+	private I_PA_ReportCube createReportCube(final String name)
+	{
+		final int calendarId = DB.getSQLValueEx(trxName, "SELECT C_Calendar_ID FROM AD_ClientInfo WHERE AD_Client_ID=?", factAcct.getAD_Client_ID());
+
+		final I_PA_ReportCube reportCube = InterfaceWrapperHelper.newInstance(I_PA_ReportCube.class, context);
+		reportCube.setName(getClass().getSimpleName() + "_" + name);
+		reportCube.setC_Calendar_ID(calendarId);
+		reportCube.setIsProductDim(true);
+		reportCube.setIsBPartnerDim(true);
+		InterfaceWrapperHelper.save(reportCube);
+		return reportCube;
+	}
+
+	private void updateFully(final I_PA_ReportCube reportCube)
+	{
+		Services.get(IFactAcctCubeBL.class).createFactAcctCubeUpdater()
+				.setContext(context)
+				.setPA_ReportCube(reportCube)
+				.setResetCube(true)
+				.setForceUpdate(true)
+				.update();
+	}
+
+	private int countInconsistentSummaries(final I_PA_ReportCube reportCube)
+	{
+		return Services.get(IFactAcctCubeBL.class).countInconsistentSummaries(context, reportCube);
+	}
+
+	/**
+	 * @return how many summaries of <code>cube1</code> are not matched by a summary of <code>cube2</code>
+	 */
+	private int countDifferentSummaries(final I_PA_ReportCube cube1, final I_PA_ReportCube cube2)
+	{
+		final String sqlColumns = "AD_Client_ID, AD_Org_ID, C_AcctSchema_ID, Account_ID, PostingType, GL_Budget_ID, C_Period_ID, DateAcct, M_Product_ID, C_BPartner_ID, AmtAcctDr, AmtAcctCr, Qty";
+		final String sql = "SELECT COUNT(1) FROM ("
+				+ "SELECT " + sqlColumns + " FROM Fact_Acct_Summary WHERE PA_ReportCube_ID=?"
+				+ " EXCEPT ALL "
+				+ "SELECT " + sqlColumns + " FROM Fact_Acct_Summary WHERE PA_ReportCube_ID=?"
+				+ ") t";
+		return DB.getSQLValueEx(trxName, sql, cube1.getPA_ReportCube_ID(), cube2.getPA_ReportCube_ID());
+	}
+
+	@Value
+	private static class SliceKey implements IFactAcctSummaryKey
+	{
+		public static SliceKey of(final I_Fact_Acct factAcct)
+		{
+			return new SliceKey(
+					factAcct.getAD_Client_ID(),
+					factAcct.getAD_Org_ID(),
+					factAcct.getDateAcct(),
+					factAcct.getPostingType(),
+					factAcct.getC_AcctSchema_ID(),
+					factAcct.getAccount_ID());
+		}
+
+		int AD_Client_ID;
+		int AD_Org_ID;
+		Date DateAcct;
+		String PostingType;
+		int C_AcctSchema_ID;
+		int C_ElementValue_ID;
+
+		@Override
+		public String asString()
+		{
+			return toString();
+		}
+
+		@Override
+		public int getC_Period_ID()
+		{
+			return -1;
+		}
+
+		@Override
+		public int getPA_ReportCube_ID()
+		{
+			return -1;
+		}
+	}
+}
@@ -1,6 +1,17 @@
 package org.adempiere.ad.dao.cache;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import org.adempiere.exceptions.AdempiereException;
 
@@ -8,6 +19,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
 
 /*
  * #%L
@@ -35,6 +47,9 @@ public class CacheInvalidateMultiRequestSerializer
 {
 	private final ObjectMapper jsonObjectMapper = new ObjectMapper();
 
+	private static final int COMPACT_FORMAT_VERSION = 1;
+	private static final short COMPACT_NO_TABLE = -1;
+
 	public String toJson(final CacheInvalidateMultiRequest request)
 	{
 		try
@@ -59,4 +74,130 @@ public class CacheInvalidateMultiRequestSerializer
 		}
 	}
 
+	/**
+	 * Converts the request to a compact, deflated binary form (base64 encoded), meant for sending big batches of requests.
+	 * <p>
+	 * The table names are written only once and the requests refer them by index. The requests IDs are not preserved.
+	 */
+	public String toCompactString(final CacheInvalidateMultiRequest multiRequest)
+	{
+		final Map<String, Short> tableNameIndexes = new LinkedHashMap<>();
+		for (final CacheInvalidateRequest request : multiRequest.getRequests())
+		{
+			addTableName(tableNameIndexes, request.getRootTableName());
+			addTableName(tableNameIndexes, request.getChildTableName());
+		}
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes)))
+		{
+			out.writeByte(COMPACT_FORMAT_VERSION);
+
+			out.writeShort(tableNameIndexes.size());
+			for (final String tableName : tableNameIndexes.keySet())
+			{
+				out.writeUTF(tableName);
+			}
+
+			out.writeInt(multiRequest.getRequests().size());
+			for (final CacheInvalidateRequest request : multiRequest.getRequests())
+			{
+				out.writeShort(getTableNameIndex(tableNameIndexes, request.getRootTableName()));
+				out.writeInt(request.getRootRecordId());
+				out.writeShort(getTableNameIndex(tableNameIndexes, request.getChildTableName()));
+				out.writeInt(request.getChildRecordId());
+			}
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed converting request to compact string: " + multiRequest, ex);
+		}
+
+		return Base64.getEncoder().encodeToString(bytes.toByteArray());
+	}
+
+	private static void addTableName(final Map<String, Short> tableNameIndexes, final String tableName)
+	{
+		if (tableName != null && !tableNameIndexes.containsKey(tableName))
+		{
+			tableNameIndexes.put(tableName, (short)tableNameIndexes.size());
+		}
+	}
+
+	private static short getTableNameIndex(final Map<String, Short> tableNameIndexes, final String tableName)
+	{
+		return tableName != null ? tableNameIndexes.get(tableName) : COMPACT_NO_TABLE;
+	}
+
+	public CacheInvalidateMultiRequest fromCompactString(final String compactString)
+	{
+		final byte[] bytes = Base64.getDecoder().decode(compactString);
+		try (final DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes))))
+		{
+			final int version = in.readByte();
+			if (version != COMPACT_FORMAT_VERSION)
+			{
+				throw new AdempiereException("Unsupported compact format version: " + version);
+			}
+
+			final int tableNamesCount = in.readShort();
+			final List<String> tableNames = new ArrayList<>(tableNamesCount);
+			for (int i = 0; i < tableNamesCount; i++)
+			{
+				tableNames.add(in.readUTF());
+			}
+
+			final int requestsCount = in.readInt();
+			final List<CacheInvalidateRequest> requests = new ArrayList<>(requestsCount);
+			for (int i = 0; i < requestsCount; i++)
+			{
+				final String rootTableName = getTableNameByIndex(tableNames, in.readShort());
+				final int rootRecordId = in.readInt();
+				final String childTableName = getTableNameByIndex(tableNames, in.readShort());
+				final int childRecordId = in.readInt();
+				requests.add(toRequest(rootTableName, rootRecordId, childTableName, childRecordId));
+			}
+
+			return CacheInvalidateMultiRequest.of(requests);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed converting compact string to request: " + compactString, ex);
+		}
+	}
+
+	private static String getTableNameByIndex(final List<String> tableNames, final short index)
+	{
+		return index == COMPACT_NO_TABLE ? null : tableNames.get(index);
+	}
+
+	private static CacheInvalidateRequest toRequest(final String rootTableName, final int rootRecordId, final String childTableName, final int childRecordId)
+	{
+		if (rootTableName == null && childTableName == null)
+		{
+			return CacheInvalidateRequest.all();
+		}
+		else if (childTableName == null)
+		{
+			return rootRecordId >= 0
+					? CacheInvalidateRequest.rootRecord(rootTableName, rootRecordId)
+					: CacheInvalidateRequest.allRecordsForTable(rootTableName);
+		}
+		else if (childRecordId < 0)
+		{
+			return rootTableName != null && rootRecordId >= 0
+					? CacheInvalidateRequest.allChildRecords(rootTableName, rootRecordId, childTableName)
+					: CacheInvalidateRequest.allRecordsForTable(childTableName);
+		}
+		else
+		{
+			final CacheInvalidateRequest.Builder builder = CacheInvalidateRequest.builder();
+			if (rootTableName != null && rootRecordId >= 0)
+			{
+				builder.rootRecord(rootTableName, rootRecordId);
+			}
+			return builder.childRecord(childTableName, childRecordId).build();
+		}
+	}
+
 }
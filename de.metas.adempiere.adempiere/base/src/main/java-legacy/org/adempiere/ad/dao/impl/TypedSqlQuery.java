@@ -32,6 +32,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryFilter;
@@ -107,6 +111,8 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 	private PInstanceId onlySelectionId;
 	private PInstanceId notInSelectionId;
 
+	private static final int DEFAULT_CursorFetchSize = 1000;
+
 	private int limit = NO_LIMIT;
 	private int offset = NO_LIMIT;
 
@@ -195,6 +201,14 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 		return this;
 	}
 
+	/**
+	 * @return the parameters of the where clause (set by {@link #setParameters(List)}); never returns null
+	 */
+	/* package */ List<Object> getParameters()
+	{
+		return parameters == null ? new ArrayList<>() : new ArrayList<>(parameters);
+	}
+
 	/**
 	 * Set query parameters
 	 *
@@ -924,6 +938,23 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 		}
 	}
 
+	@Override
+	public <ET extends T> Stream<ET> streamUsingCursor(final Class<ET> clazz) throws DBException
+	{
+		Check.assumeNull(postQueryFilter, "No post-filter shall be defined when streaming using a cursor");
+
+		final Integer fetchSizeOption = getOption(OPTION_CursorFetchSize);
+		final int fetchSize = fetchSizeOption != null && fetchSizeOption > 0 ? fetchSizeOption : DEFAULT_CursorFetchSize;
+
+		final String sql = buildSQL(null, true);
+		final List<Object> sqlParams = getParametersEffective();
+		final ServerCursorModelIterator<ET> iterator = new ServerCursorModelIterator<>(sql, sqlParams, fetchSize, rs -> retrieveModel(rs, clazz));
+
+		final boolean parallel = false;
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), parallel)
+				.onClose(iterator::close);
+	}
+
 	/**
 	 * Get a List of composed IDs for this Query.
 	 *
@@ -1406,6 +1437,35 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 		return queryOrderBy.getSql();
 	}
 
+	/**
+	 * @return the ORDER BY to be used for keyset pagination or <code>null</code> if this query's ordering is not suitable for it (custom SQL FROM, unions, non-column expressions, nullable columns etc)
+	 */
+	/* package */ KeysetOrderBy getKeysetOrderByOrNull()
+	{
+		if (sqlFrom != null && !sqlFrom.isEmpty())
+		{
+			return null;
+		}
+		if (unions != null && !unions.isEmpty())
+		{
+			return null;
+		}
+
+		final POInfo poInfo = getPOInfo();
+		final String tableName = getTableName();
+		return KeysetOrderBy.ofOrderByOrNull(
+				getOrderBy(),
+				tableName,
+				poInfo.getKeyColumnNames(),
+				columnName -> {
+					final int columnIndex = poInfo.getColumnIndex(columnName);
+					// NOTE: we can't rely on AD_Column.IsMandatory, because rows with NULL would be skipped by the seek where clause
+					return columnIndex >= 0
+							&& !poInfo.isVirtualColumn(columnIndex)
+							&& DBNotNullColumnNames.isNotNullColumn(tableName, columnName);
+				});
+	}
+
 	@Override
 	public final String getTableName()
 	{
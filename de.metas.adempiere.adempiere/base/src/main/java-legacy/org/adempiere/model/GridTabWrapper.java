@@ -27,6 +27,7 @@ import org.adempiere.ad.persistence.TableModelLoader;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.wrapper.GridTabModelInternalAccessor;
 import org.adempiere.ad.wrapper.IInterfaceWrapper;
+import org.adempiere.ad.wrapper.ModelProxyFactory;
 import org.adempiere.exceptions.AdempiereException;
 import org.compiere.model.GridField;
 import org.compiere.model.GridTab;
@@ -121,10 +122,7 @@ public class GridTabWrapper implements InvocationHandler, IInterfaceWrapper
 			throw new AdempiereException("Interface " + cl + " (tableName=" + interfaceTableName + ") is not compatible with " + gridTab + " (tableName=" + gridTab.getTableName() + ")");
 		}
 
-		@SuppressWarnings("unchecked")
-		final T result = (T)Proxy.newProxyInstance(cl.getClassLoader(),
-				new Class<?>[] { cl },
-				new GridTabWrapper(gridTab, useOldValuesEffective));
+		final T result = ModelProxyFactory.newProxyInstance(cl, new GridTabWrapper(gridTab, useOldValuesEffective));
 		return result;
 	}
 
@@ -29,6 +29,7 @@ import org.adempiere.ad.persistence.TableModelLoader;
 import org.adempiere.ad.persistence.exceptions.ModelClassNotSupportedException;
 import org.adempiere.ad.service.IDeveloperModeBL;
 import org.adempiere.ad.wrapper.IInterfaceWrapper;
+import org.adempiere.ad.wrapper.ModelProxyFactory;
 import org.adempiere.ad.wrapper.POModelInternalAccessor;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.util.proxy.ProxyMethodsCache;
@@ -148,9 +149,7 @@ public class POWrapper implements InvocationHandler, IInterfaceWrapper
 			}
 		}
 
-		return (T)Proxy.newProxyInstance(cl.getClassLoader(),
-				new Class<?>[] { cl },
-				new POWrapper(cl, po, useOldValuesEffective, trlAdLanguageEffective));
+		return ModelProxyFactory.newProxyInstance(cl, new POWrapper(cl, po, useOldValuesEffective, trlAdLanguageEffective));
 	}
 
 	/**
@@ -21,7 +21,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Hashtable;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -456,9 +455,9 @@ public class ModelValidationEngine implements IModelValidationEngine
 	/** Validators */
 	private ArrayList<ModelValidator> m_validators = new ArrayList<>();
 	/** Model Change Listeners */
-	private Hashtable<String, ArrayList<ModelValidator>> m_modelChangeListeners = new Hashtable<>();
+	private final ModelValidatorsMap m_modelChangeListeners = new ModelValidatorsMap();
 	/** Document Validation Listeners */
-	private Hashtable<String, ArrayList<ModelValidator>> m_docValidateListeners = new Hashtable<>();
+	private final ModelValidatorsMap m_docValidateListeners = new ModelValidatorsMap();
 	/** Data Import Validation Listeners */
 	private Hashtable<String, ArrayList<IImportInterceptor>> m_impValidateListeners = new Hashtable<>();
 
@@ -638,25 +637,9 @@ public class ModelValidationEngine implements IModelValidationEngine
 		{
 			registerGlobal(listener);
 		}
-		String propertyName = getPropertyName(tableName, listener);
-		ArrayList<ModelValidator> list = m_modelChangeListeners.get(propertyName);
-		if (list == null)
-		{
-			list = new ArrayList<>();
-			list.add(listener);
-			m_modelChangeListeners.put(propertyName, list);
-		}
-		else
+		if (!m_modelChangeListeners.add(tableName, getClientIdOrSystem(listener), listener))
 		{
-			// metas: add listener only if is not already added
-			if (!list.contains(listener))
-			{
-				list.add(listener);
-			}
-			else
-			{
-				log.debug("Listener " + listener + " already added for " + propertyName);
-			}
+			log.debug("Listener {} already added for {}", listener, tableName);
 		}
 	}	// addModelValidator
 
@@ -684,17 +667,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 		{
 			return;
 		}
-		String propertyName = getPropertyName(tableName, listener);
-		ArrayList<ModelValidator> list = m_modelChangeListeners.get(propertyName);
-		if (list == null)
-		{
-			return;
-		}
-		list.remove(listener);
-		if (list.size() == 0)
-		{
-			m_modelChangeListeners.remove(propertyName);
-		}
+		m_modelChangeListeners.remove(tableName, getClientIdOrSystem(listener), listener);
 	}	// removeModelValidator
 
 	@Override
@@ -736,15 +709,13 @@ public class ModelValidationEngine implements IModelValidationEngine
 
 		//
 		// Retrieve system level model interceptors
-		final String propertyNameSystem = getPropertyName(po.get_TableName());
-		final List<ModelValidator> interceptorsSystem = m_modelChangeListeners.get(propertyNameSystem);
+		final List<ModelValidator> interceptorsSystem = m_modelChangeListeners.getSystemValidators(po.get_TableName());
 		final boolean haveSystemInterceptors = interceptorsSystem != null && !interceptorsSystem.isEmpty();
 		haveInterceptors = haveInterceptors || haveSystemInterceptors;
 
 		//
 		// Retrieve client level model interceptors
-		final String propertyNameClient = getPropertyName(po.get_TableName(), po.getAD_Client_ID());
-		final List<ModelValidator> interceptorsClient = m_modelChangeListeners.get(propertyNameClient);
+		final List<ModelValidator> interceptorsClient = m_modelChangeListeners.getClientValidators(po.get_TableName(), po.getAD_Client_ID());
 		final boolean haveClientInterceptors = interceptorsClient != null && !interceptorsClient.isEmpty();
 		haveInterceptors = haveInterceptors || haveClientInterceptors;
 
@@ -1013,17 +984,9 @@ public class ModelValidationEngine implements IModelValidationEngine
 		{
 			registerGlobal(listener);
 		}
-		String propertyName = getPropertyName(tableName, listener);
-		ArrayList<ModelValidator> list = m_docValidateListeners.get(propertyName);
-		if (list == null)
-		{
-			list = new ArrayList<>();
-			list.add(listener);
-			m_docValidateListeners.put(propertyName, list);
-		}
-		else if (!list.contains(listener))
+		if (!m_docValidateListeners.add(tableName, getClientIdOrSystem(listener), listener))
 		{
-			list.add(listener);
+			log.debug("Listener {} already added for {}", listener, tableName);
 		}
 	}	// addDocValidate
 
@@ -1051,17 +1014,7 @@ public class ModelValidationEngine implements IModelValidationEngine
 		{
 			return;
 		}
-		String propertyName = getPropertyName(tableName, listener);
-		ArrayList<ModelValidator> list = m_docValidateListeners.get(propertyName);
-		if (list == null)
-		{
-			return;
-		}
-		list.remove(listener);
-		if (list.size() == 0)
-		{
-			m_docValidateListeners.remove(propertyName);
-		}
+		m_docValidateListeners.remove(tableName, getClientIdOrSystem(listener), listener);
 	}	// removeDocValidate
 
 	/**
@@ -1092,15 +1045,13 @@ public class ModelValidationEngine implements IModelValidationEngine
 
 		//
 		// Retrieve system level model interceptors
-		final String propertyNameSystem = getPropertyName(po.get_TableName());
-		final List<ModelValidator> interceptorsSystem = m_docValidateListeners.get(propertyNameSystem);
+		final List<ModelValidator> interceptorsSystem = m_docValidateListeners.getSystemValidators(po.get_TableName());
 		final boolean haveSystemInterceptors = interceptorsSystem != null && !interceptorsSystem.isEmpty();
 		haveInterceptors = haveInterceptors || haveSystemInterceptors;
 
 		//
 		// Retrieve client level model interceptors
-		final String propertyNameClient = getPropertyName(po.get_TableName(), po.getAD_Client_ID());
-		final List<ModelValidator> interceptorsClient = m_docValidateListeners.get(propertyNameClient);
+		final List<ModelValidator> interceptorsClient = m_docValidateListeners.getClientValidators(po.get_TableName(), po.getAD_Client_ID());
 		final boolean haveClientInterceptors = interceptorsClient != null && !interceptorsClient.isEmpty();
 		haveInterceptors = haveInterceptors || haveClientInterceptors;
 
@@ -1278,29 +1229,11 @@ public class ModelValidationEngine implements IModelValidationEngine
 		sb.append(Env.NL).append(Env.NL);
 		//
 		sb.append("ModelChange #").append(m_modelChangeListeners.size()).append(Env.NL);
-		Iterator<String> it = m_modelChangeListeners.keySet().iterator();
-		while (it.hasNext())
-		{
-			String key = it.next();
-			ArrayList<ModelValidator> list = m_modelChangeListeners.get(key);
-			for (ModelValidator mv : list)
-			{
-				sb.append(key).append(": ").append(mv.toString()).append(Env.NL);
-			}
-		}
+		m_modelChangeListeners.appendInfo(sb, Env.NL);
 		sb.append(Env.NL).append(Env.NL);
 		//
 		sb.append("DocValidate #").append(m_docValidateListeners.size()).append(Env.NL);
-		it = m_docValidateListeners.keySet().iterator();
-		while (it.hasNext())
-		{
-			String key = it.next();
-			ArrayList<ModelValidator> list = m_docValidateListeners.get(key);
-			for (ModelValidator mv : list)
-			{
-				sb.append(key).append(": ").append(mv.toString()).append(Env.NL);
-			}
-		}
+		m_docValidateListeners.appendInfo(sb, Env.NL);
 		sb.append(Env.NL).append(Env.NL);
 		//
 		return sb;
@@ -1401,20 +1334,18 @@ public class ModelValidationEngine implements IModelValidationEngine
 		return tableName + "*";
 	}
 
-	private final String getPropertyName(String tableName, int AD_Client_ID)
-	{
-		return tableName + AD_Client_ID;
-	}
-
-	private final String getPropertyName(String tableName, ModelValidator listener)
+	/**
+	 * @return {@link ModelValidatorsMap#AD_CLIENT_ID_SYSTEM} if the given listener was registered as global listener, else the listener's AD_Client_ID
+	 */
+	private final int getClientIdOrSystem(final ModelValidator listener)
 	{
 		if (m_globalValidators.contains(listener))
 		{
-			return getPropertyName(tableName);
+			return ModelValidatorsMap.AD_CLIENT_ID_SYSTEM;
 		}
 		else
 		{
-			return getPropertyName(tableName, listener.getAD_Client_ID());
+			return listener.getAD_Client_ID();
 		}
 	}
 
@@ -0,0 +1,219 @@
+package org.compiere.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The {@link ModelValidator}s which were registered for a table name, either system wide or for a particular client.
+ * <p>
+ * Each registration creates a new immutable snapshot (copy on write), because validators are registered only on startup but looked up on each save and document action.
+ * So the lookups require no locking, no string concatenation and the returned lists are not affected by registrations which happen in the meantime.
+ */
+/* package */ final class ModelValidatorsMap
+{
+	/** Client ID to be used for validators which shall be invoked for all clients */
+	public static final int AD_CLIENT_ID_SYSTEM = -1;
+
+	private volatile ImmutableMap<String, TableValidators> validatorsByTableName = ImmutableMap.of();
+
+	/**
+	 * @return <code>false</code> if the validator was already registered
+	 */
+	public synchronized boolean add(@NonNull final String tableName, final int clientId, @NonNull final ModelValidator validator)
+	{
+		final TableValidators tableValidators = validatorsByTableName.get(tableName);
+		final ImmutableList<ModelValidator> validators = tableValidators != null ? tableValidators.getValidators(clientId) : ImmutableList.of();
+		if (validators.contains(validator))
+		{
+			return false;
+		}
+
+		final ImmutableList<ModelValidator> validatorsNew = ImmutableList.<ModelValidator> builder()
+				.addAll(validators)
+				.add(validator)
+				.build();
+		put(tableName, (tableValidators != null ? tableValidators : TableValidators.EMPTY).withValidators(clientId, validatorsNew));
+		return true;
+	}
+
+	public synchronized void remove(@NonNull final String tableName, final int clientId, @NonNull final ModelValidator validator)
+	{
+		final TableValidators tableValidators = validatorsByTableName.get(tableName);
+		if (tableValidators == null)
+		{
+			return;
+		}
+
+		final ImmutableList<ModelValidator> validators = tableValidators.getValidators(clientId);
+		if (!validators.contains(validator))
+		{
+			return;
+		}
+
+		final ImmutableList<ModelValidator> validatorsNew = validators.stream()
+				.filter(existingValidator -> !existingValidator.equals(validator))
+				.collect(ImmutableList.toImmutableList());
+		put(tableName, tableValidators.withValidators(clientId, validatorsNew));
+	}
+
+	private void put(final String tableName, final TableValidators tableValidators)
+	{
+		final ImmutableMap.Builder<String, TableValidators> builder = ImmutableMap.builder();
+		validatorsByTableName.forEach((existingTableName, existingTableValidators) -> {
+			if (!existingTableName.equals(tableName))
+			{
+				builder.put(existingTableName, existingTableValidators);
+			}
+		});
+		if (!tableValidators.isEmpty())
+		{
+			builder.put(tableName, tableValidators);
+		}
+
+		validatorsByTableName = builder.build();
+	}
+
+	public boolean isEmpty()
+	{
+		return validatorsByTableName.isEmpty();
+	}
+
+	/**
+	 * @return how many table name and client combinations have validators
+	 */
+	public int size()
+	{
+		return validatorsByTableName.values().stream().mapToInt(TableValidators::size).sum();
+	}
+
+	/**
+	 * @return the validators to be invoked for all clients; never <code>null</code>
+	 */
+	public ImmutableList<ModelValidator> getSystemValidators(final String tableName)
+	{
+		return getValidators(tableName, AD_CLIENT_ID_SYSTEM);
+	}
+
+	/**
+	 * @return the validators to be invoked only for the given client; never <code>null</code>
+	 */
+	public ImmutableList<ModelValidator> getClientValidators(final String tableName, final int clientId)
+	{
+		if (clientId == AD_CLIENT_ID_SYSTEM)
+		{
+			return ImmutableList.of(); // the system validators are not client validators
+		}
+		return getValidators(tableName, clientId);
+	}
+
+	private ImmutableList<ModelValidator> getValidators(final String tableName, final int clientId)
+	{
+		final TableValidators tableValidators = validatorsByTableName.get(tableName);
+		return tableValidators != null ? tableValidators.getValidators(clientId) : ImmutableList.of();
+	}
+
+	/**
+	 * Appends one line per validator, in the format <code>TableName*: validator</code> resp. <code>TableNameClientId: validator</code>.
+	 */
+	public void appendInfo(final StringBuilder sb, final String newLine)
+	{
+		validatorsByTableName.forEach((tableName, tableValidators) -> {
+			for (final ClientValidators clientValidators : tableValidators.getClientValidatorsList())
+			{
+				final int clientId = clientValidators.getClientId();
+				final String key = clientId == AD_CLIENT_ID_SYSTEM ? tableName + "*" : tableName + clientId;
+				for (final ModelValidator validator : clientValidators.getValidators())
+				{
+					sb.append(key).append(": ").append(validator).append(newLine);
+				}
+			}
+		});
+	}
+
+	/**
+	 * The validators of one table. We expect just a few clients, so a list is faster to look up than a map.
+	 */
+	@Value
+	private static final class TableValidators
+	{
+		private static final TableValidators EMPTY = new TableValidators(ImmutableList.of());
+
+		ImmutableList<ClientValidators> clientValidatorsList;
+
+		public ImmutableList<ModelValidator> getValidators(final int clientId)
+		{
+			for (int i = 0, size = clientValidatorsList.size(); i < size; i++)
+			{
+				final ClientValidators clientValidators = clientValidatorsList.get(i);
+				if (clientValidators.getClientId() == clientId)
+				{
+					return clientValidators.getValidators();
+				}
+			}
+			return ImmutableList.of();
+		}
+
+		public TableValidators withValidators(final int clientId, final ImmutableList<ModelValidator> validators)
+		{
+			final List<ClientValidators> clientValidatorsListNew = new ArrayList<>(clientValidatorsList.size() + 1);
+			for (final ClientValidators clientValidators : clientValidatorsList)
+			{
+				if (clientValidators.getClientId() != clientId)
+				{
+					clientValidatorsListNew.add(clientValidators);
+				}
+			}
+			if (!validators.isEmpty())
+			{
+				clientValidatorsListNew.add(new ClientValidators(clientId, validators));
+			}
+
+			return new TableValidators(ImmutableList.copyOf(clientValidatorsListNew));
+		}
+
+		public boolean isEmpty()
+		{
+			return clientValidatorsList.isEmpty();
+		}
+
+		public int size()
+		{
+			return clientValidatorsList.size();
+		}
+	}
+
+	@Value
+	private static final class ClientValidators
+	{
+		int clientId;
+		ImmutableList<ModelValidator> validators;
+	}
+}
@@ -28,6 +28,7 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -245,8 +246,8 @@ public abstract class PO
 		//
 		final int size = p_info.getColumnCount();
 		m_oldValues = new Object[size];
-		m_newValues = new Object[size];
-		m_valueLoaded = new boolean[size]; // metas
+		m_newValues = null;
+		m_valueLoaded = new BitSet(size); // metas
 
 		if (rs != null)
 			load(rs);		// will not have virtual columns
@@ -286,10 +287,10 @@ public abstract class PO
 
 	/** Original Values */
 	private Object[] m_oldValues = null;
-	/** New Values */
+	/** New Values; <code>null</code> until the first column is changed */
 	private Object[] m_newValues = null;
-	/** Flag to mark that a value was loaded */
-	private boolean[] m_valueLoaded = null;
+	/** Flags to mark that a value was loaded */
+	private BitSet m_valueLoaded = null;
 	/** Counts how many times this object was loaded/reloaded */
 	private int m_loadCount = 0;
 
@@ -593,15 +594,16 @@ public abstract class PO
 			log.warn("Index invalid - {}", index, new Exception()); // metas: tsa: added exeption to trace it
 			return null;
 		}
-		if (m_newValues[index] != null)
+		final Object newValue = getNewValue(index);
+		if (newValue != null)
 		{
-			if (m_newValues[index].equals(Null.NULL))
+			if (newValue.equals(Null.NULL))
 				return null;
-			return m_newValues[index];
+			return newValue;
 		}
 
 		loadIfStalled(index); // metas: 01537
-		if (!m_valueLoaded[index])
+		if (!m_valueLoaded.get(index))
 		{
 			loadColumn(index);
 		}
@@ -609,6 +611,32 @@ public abstract class PO
 		return m_oldValues[index];
 	}   // get_Value
 
+	/**
+	 * @return the changed value of given column (could be {@link Null#NULL}) or <code>null</code> if the column was not changed
+	 */
+	private Object getNewValue(final int index)
+	{
+		final Object[] newValues = m_newValues;
+		return newValues != null ? newValues[index] : null;
+	}
+
+	/**
+	 * Sets the changed value of given column. The new values array is allocated only when the first column is changed,
+	 * because most of the loaded records are just read.
+	 */
+	private void setNewValue(final int index, final Object value)
+	{
+		if (m_newValues == null)
+		{
+			if (value == null)
+			{
+				return;
+			}
+			m_newValues = new Object[m_oldValues.length];
+		}
+		m_newValues[index] = value;
+	}
+
 	/**
 	 * Get Value as int
 	 *
@@ -818,11 +846,11 @@ public abstract class PO
 		}
 		// metas: end
 
-		if (m_newValues[index] == null)
+		if (getNewValue(index) == null)
 			return false;
 
 		// metas: normalize null values before comparing them (04219)
-		Object newValue = m_newValues[index];
+		Object newValue = getNewValue(index);
 		if (newValue == null)
 		{
 			newValue = Null.NULL;
@@ -879,7 +907,7 @@ public abstract class PO
 			return null;
 		}
 
-		final Object nValue = m_newValues[index];
+		final Object nValue = getNewValue(index);
 		// No new Value or NULL
 		if (nValue == null || nValue == Null.NULL)
 			return null;
@@ -997,7 +1025,7 @@ public abstract class PO
 				// Don't return here, but allow actually setting the value
 				// because it could be that someone changed the "m_newValues" by using set_ValueNoCheck()
 				// ...but we can do a quick look-ahead and see if that's the case
-				if (Objects.equals(m_newValues[index], valueToUse))
+				if (Objects.equals(getNewValue(index), valueToUse))
 				{
 					return true;
 				}
@@ -1051,7 +1079,7 @@ public abstract class PO
 					throw new IllegalArgumentException(ColumnName + " is mandatory.");
 				}
 			}
-			m_newValues[index] = Null.NULL;          // correct
+			setNewValue(index, Null.NULL);          // correct
 			log.trace("{} = null", ColumnName);
 		}
 		else
@@ -1060,18 +1088,18 @@ public abstract class PO
 			if (valueToUse.getClass().equals(p_info.getColumnClass(index))
 					|| p_info.getColumnClass(index) == Object.class)
 			{
-				m_newValues[index] = valueToUse;     // correct
+				setNewValue(index, valueToUse);     // correct
 			}
 			// Integer can be set as BigDecimal
 			else if (valueToUse.getClass() == BigDecimal.class
 					&& p_info.getColumnClass(index) == Integer.class)
 			{
-				m_newValues[index] = ((BigDecimal)valueToUse).intValue();
+				setNewValue(index, ((BigDecimal)valueToUse).intValue());
 			}
 			// Set Boolean
 			else if (p_info.getColumnClass(index) == Boolean.class)
 			{
-				m_newValues[index] = StringUtils.toBoolean(valueToUse);
+				setNewValue(index, StringUtils.toBoolean(valueToUse));
 			}
 			// added by vpj-cd
 			// To solve BUG [ 1618423 ] Set Project Type button in Project window throws warning
@@ -1080,14 +1108,14 @@ public abstract class PO
 			else if (valueToUse.getClass() == Integer.class
 					&& p_info.getColumnClass(index) == String.class)
 			{
-				m_newValues[index] = valueToUse;
+				setNewValue(index, valueToUse);
 			}
 			else if (valueToUse.getClass() == String.class
 					&& p_info.getColumnClass(index) == Integer.class)
 			{
 				try
 				{
-					m_newValues[index] = Integer.parseInt((String)valueToUse);
+					setNewValue(index, Integer.parseInt((String)valueToUse));
 				}
 				catch (final NumberFormatException e)
 				{
@@ -1120,7 +1148,7 @@ public abstract class PO
 				{
 					log.warn(ColumnName + " - Value too long - truncated to length=" + length
 							+ ": " + (p_info.isEncrypted(index) ? "(encrypted)" : stringValue));
-					m_newValues[index] = stringValue.substring(0, length);
+					setNewValue(index, stringValue.substring(0, length));
 				}
 			}
 			// Validate reference list [1762461]
@@ -1140,10 +1168,10 @@ public abstract class PO
 			}
 			if (log.isTraceEnabled())
 			{
-				log.trace("{} = {}  (OldValue={})", ColumnName, m_newValues[index], m_oldValues[index]);
+				log.trace("{} = {}  (OldValue={})", ColumnName, getNewValue(index), m_oldValues[index]);
 			}
 		}
-		set_Keys(ColumnName, m_newValues[index]);
+		set_Keys(ColumnName, getNewValue(index));
 		return true;
 	}   // setValue
 
@@ -1179,7 +1207,7 @@ public abstract class PO
 		loadIfStalled(-1);
 		if (valueToUse == null || valueToUse == Null.NULL)
 		{
-			m_newValues[index] = Null.NULL;		// write direct
+			setNewValue(index, Null.NULL);		// write direct
 		}
 		else
 		{
@@ -1187,18 +1215,18 @@ public abstract class PO
 			if (valueToUse.getClass().equals(p_info.getColumnClass(index))
 					|| p_info.getColumnClass(index) == Object.class)
 			{
-				m_newValues[index] = valueToUse;     // correct
+				setNewValue(index, valueToUse);     // correct
 			}
 			// Integer can be set as BigDecimal
 			else if (valueToUse.getClass() == BigDecimal.class
 					&& p_info.getColumnClass(index) == Integer.class)
 			{
-				m_newValues[index] = ((BigDecimal)valueToUse).intValue();
+				setNewValue(index, ((BigDecimal)valueToUse).intValue());
 			}
 			// Set Boolean
 			else if (p_info.getColumnClass(index) == Boolean.class)
 			{
-				m_newValues[index] = StringUtils.toBoolean(valueToUse);
+				setNewValue(index, StringUtils.toBoolean(valueToUse));
 			}
 			else if (p_info.getColumnClass(index) == Integer.class
 					&& valueToUse.getClass() == String.class)
@@ -1206,14 +1234,14 @@ public abstract class PO
 				try
 				{
 					final int intValue = Integer.parseInt((String)valueToUse);
-					m_newValues[index] = Integer.valueOf(intValue);
+					setNewValue(index, Integer.valueOf(intValue));
 				}
 				catch (final Exception e)
 				{
 					log.warn(get_ColumnName(index)
 							+ " - Class invalid(3): " + valueToUse.getClass().toString()
 							+ ", Should be " + p_info.getColumnClass(index).toString() + ": " + valueToUse, new Exception("stacktrace"));
-					m_newValues[index] = null;
+					setNewValue(index, null);
 				}
 			}
 			else
@@ -1221,7 +1249,7 @@ public abstract class PO
 				log.warn(get_ColumnName(index)
 						+ " - Class invalid(4): " + valueToUse.getClass().toString()
 						+ ", Should be " + p_info.getColumnClass(index).toString() + ": " + valueToUse, new Exception("stacktrace"));
-				m_newValues[index] = valueToUse;     // correct
+				setNewValue(index, valueToUse);     // correct
 			}
 
 			//
@@ -1239,17 +1267,17 @@ public abstract class PO
 				if (stringValue.length() > length && length > 0)
 				{
 					log.warn(get_ColumnName(index) + " - Value too long - truncated to length=" + length);
-					m_newValues[index] = stringValue.substring(0, length);
+					setNewValue(index, stringValue.substring(0, length));
 				}
 			}
 		}
 
 		if (log.isTraceEnabled())
 		{
-			log.trace(get_ColumnName(index) + " = " + m_newValues[index] + " (" + (m_newValues[index] == null ? "-" : m_newValues[index].getClass().getName()) + ")");
+			log.trace(get_ColumnName(index) + " = " + getNewValue(index) + " (" + (getNewValue(index) == null ? "-" : getNewValue(index).getClass().getName()) + ")");
 		}
 
-		set_Keys(get_ColumnName(index), m_newValues[index]);
+		set_Keys(get_ColumnName(index), getNewValue(index));
 		return true;
 	}   // set_ValueNoCheck
 
@@ -1526,7 +1554,7 @@ public abstract class PO
 							if (to.getDynAttribute(PO.DYNATTR_CopyRecordSupport) != null)
 							{
 								final CopyRecordSupport cps = (CopyRecordSupport)to.getDynAttribute(PO.DYNATTR_CopyRecordSupport);
-								to.m_newValues[toColumnIndex] = cps.getValueToCopy(to, from, fromColumnName);
+								to.setNewValue(toColumnIndex, cps.getValueToCopy(to, from, fromColumnName));
 							}
 							break;
 						}
@@ -1555,7 +1583,7 @@ public abstract class PO
 						final String toColumnName = to.p_info.getColumnName(toColumnIndex);
 						if (toColumnName.equals(fromColumnName))
 						{
-							to.m_newValues[toColumnIndex] = from.m_oldValues[fromColumnIndex];
+							to.setNewValue(toColumnIndex, from.m_oldValues[fromColumnIndex]);
 							break;
 						}
 					}
@@ -1578,7 +1606,7 @@ public abstract class PO
 					final CopyRecordSupport cps = (CopyRecordSupport)to.getDynAttribute(DYNATTR_CopyRecordSupport);
 					if (cps != null)
 					{
-						to.m_newValues[i] = cps.getValueToCopy(to, from, colName);
+						to.setNewValue(i, cps.getValueToCopy(to, from, colName));
 					}
 					else
 					{
@@ -1604,11 +1632,11 @@ public abstract class PO
 				}
 				else
 				{
-					to.m_newValues[i] = from.m_oldValues[i];
+					to.setNewValue(i, from.m_oldValues[i]);
 					// metas: tsa: begin: when dealing with new POs copy their new values because old values are all null
 					if (from.is_new())
 					{
-						to.m_newValues[i] = from.m_newValues[i];
+						to.setNewValue(i, from.getNewValue(i));
 					}
 					// metas: tsa: Copy cached objects
 					// NOTE: is is important because sometimes we have set a new object which is present in PO cache but it's ID is still zero.
@@ -1741,7 +1769,7 @@ public abstract class PO
 
 			m_createNew = false;
 			// reset new values
-			m_newValues = new Object[columnsCount];
+			m_newValues = null;
 
 			//
 			// Set Staled flag to false because we just loaded the object
@@ -1835,8 +1863,8 @@ public abstract class PO
 				m_oldValues[index] = null;
 			}
 
-			m_newValues[index] = null; // reset new value
-			m_valueLoaded[index] = true; // mark the column as loaded
+			setNewValue(index, null); // reset new value
+			m_valueLoaded.set(index); // mark the column as loaded
 			//
 			if (log.isTraceEnabled())
 				log.trace(String.valueOf(index) + ": " + p_info.getColumnName(index) + "(" + p_info.getColumnClass(index) + ") = " + m_oldValues[index]);
@@ -2153,23 +2181,23 @@ public abstract class PO
 			final String colName = p_info.getColumnName(i);
 			// Set Standard Values
 			if (colName.endsWith("tedBy"))
-				m_newValues[i] = Env.getAD_User_ID(ctx);
+				setNewValue(i, Env.getAD_User_ID(ctx));
 			else if (colName.equals("Created") || colName.equals("Updated"))
-				m_newValues[i] = new Timestamp(System.currentTimeMillis());
+				setNewValue(i, new Timestamp(System.currentTimeMillis()));
 			else if (colName.equals(p_info.getTableName() + "_ID"))     // KeyColumn
-				m_newValues[i] = I_ZERO;
+				setNewValue(i, I_ZERO);
 			else if (colName.equals("IsActive"))
-				m_newValues[i] = Boolean.TRUE;
+				setNewValue(i, Boolean.TRUE);
 			else if (colName.equals("AD_Client_ID"))
-				m_newValues[i] = Env.getAD_Client_ID(ctx);
+				setNewValue(i, Env.getAD_Client_ID(ctx));
 			else if (colName.equals("AD_Org_ID"))
-				m_newValues[i] = Env.getAD_Org_ID(ctx);
+				setNewValue(i, Env.getAD_Org_ID(ctx));
 			else if (colName.equals("Processed"))
-				m_newValues[i] = Boolean.FALSE;
+				setNewValue(i, Boolean.FALSE);
 			else if (colName.equals("Processing"))
-				m_newValues[i] = Boolean.FALSE;
+				setNewValue(i, Boolean.FALSE);
 			else if (colName.equals("Posted"))
-				m_newValues[i] = Boolean.FALSE;
+				setNewValue(i, Boolean.FALSE);
 		}
 	}   // setDefaults
 
@@ -2582,12 +2610,12 @@ public abstract class PO
 				// valueOld = copyRecordSupport == null ? copyRecordSupportOldValue : copyRecordSupport.getFromPO_ID();
 
 				valueOld = null;
-				valueNew = m_newValues[i];
+				valueNew = getNewValue(i);
 			}
 			else if (X_AD_ChangeLog.EVENTCHANGELOG_Update.equals(changeLogType))
 			{
 				valueOld = m_oldValues[i];
-				valueNew = m_newValues[i];
+				valueNew = getNewValue(i);
 				if (valueNew == null)
 				{
 					valueNew = valueOld;
@@ -2914,17 +2942,18 @@ public abstract class PO
 
 			//
 			// Copy New to Old values
-			for (int i = 0; i < columnsCount; i++)
+			final Object[] newValues = m_newValues;
+			for (int i = 0; newValues != null && i < columnsCount; i++)
 			{
-				if (m_newValues[i] != null)
+				if (newValues[i] != null)
 				{
-					if (m_newValues[i] == Null.NULL)
+					if (newValues[i] == Null.NULL)
 						m_oldValues[i] = null;
 					else
-						m_oldValues[i] = m_newValues[i];
+						m_oldValues[i] = newValues[i];
 				}
 			}
-			m_newValues = new Object[columnsCount];
+			m_newValues = null;
 		}
 
 		//
@@ -2936,11 +2965,11 @@ public abstract class PO
 				// Skip virtual columns, those need to be loaded for sure
 				if (p_info.isVirtualColumn(i))
 				{
-					m_valueLoaded[i] = false;
+					m_valueLoaded.clear(i);
 					continue;
 				}
 
-				m_valueLoaded[i] = true;
+				m_valueLoaded.set(i);
 			}
 		}
 
@@ -3097,7 +3126,7 @@ public abstract class PO
 		final int size = get_ColumnCount();
 		for (int i = 0; i < size; i++)
 		{
-			Object value = m_newValues[i];
+			Object value = getNewValue(i);
 			if (value == null
 					|| p_info.isVirtualColumn(i))
 				continue;
@@ -3253,7 +3282,9 @@ public abstract class PO
 			// Execute UPDATE SQL
 			log.trace("Save update: SQL={}", sql);
 			final int no;
-			if (isUseTimeoutForUpdate())
+			if (deferWriteIfPossible(sql.toString()))
+				no = 1; // will be checked when flushing
+			else if (isUseTimeoutForUpdate())
 				no = DB.executeUpdateEx(sql.toString(), m_trxName, QUERY_TIME_OUT);
 			else
 				no = DB.executeUpdateEx(sql.toString(), m_trxName);
@@ -3283,6 +3314,42 @@ public abstract class PO
 		return saveFinish(false, true);  // newRecord=false, success=true
 	}   // saveUpdate
 
+	/**
+	 * Queues the given INSERT/UPDATE in this PO's transaction if the deferred write mode is enabled (see {@link ITrx#setDeferredWriteEnabled(boolean)})
+	 * and this PO allows it (see {@link InterfaceWrapperHelper#allowDeferredWrite(Object)}).
+	 * <p>
+	 * NOTE: a deferred statement is assumed to be successful, so the change log, the model interceptors and the cache reset are running right away.
+	 * If it fails (e.g. 0 rows updated or a constraint violation), the whole batch fails later, with a {@link DBException}.
+	 *
+	 * @return <code>true</code> if queued; <code>false</code> if the statement shall be executed right away
+	 */
+	private final boolean deferWriteIfPossible(final String sql)
+	{
+		// Only for the callers which accept that a failure is reported later, when the deferred writes are flushed
+		if (!InterfaceWrapperHelper.ATTR_DeferredWriteAllowed.is(this, Boolean.TRUE))
+		{
+			return false;
+		}
+		// LOBs are saved right after the INSERT/UPDATE, by separate statements
+		if (m_lobInfo != null && !m_lobInfo.isEmpty())
+		{
+			return false;
+		}
+		if (isUseTimeoutForUpdate())
+		{
+			return false;
+		}
+
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.get(m_trxName, OnTrxMissingPolicy.ReturnTrxNone);
+		if (trxManager.isNull(trx))
+		{
+			return false;
+		}
+
+		return trx.deferWrite(sql);
+	}
+
 	private final boolean isUseTimeoutForUpdate()
 	{
 		return "true".equalsIgnoreCase(System.getProperty(USE_TIMEOUT_FOR_UPDATE, "false"))
@@ -3644,12 +3711,23 @@ public abstract class PO
 
 		//
 		// Execute actual database INSERT
-		final int no = DB.executeUpdate(sqlInsert.toString(),
-				(Object[])null,  // params,
-				OnFail.ThrowException,  // onFail
-				m_trxName,
-				0,  // timeOut,
-				loadAfterInsertProcessor);
+		// (or defer it, if there is nothing we need to get back from database right now)
+		final int no;
+		if (loadAfterInsertProcessor == null
+				&& !p_info.isLoadAfterSave()
+				&& deferWriteIfPossible(sqlInsert.toString()))
+		{
+			no = 1; // will be checked when flushing
+		}
+		else
+		{
+			no = DB.executeUpdate(sqlInsert.toString(),
+					(Object[])null,  // params,
+					OnFail.ThrowException,  // onFail
+					m_trxName,
+					0,  // timeOut,
+					loadAfterInsertProcessor);
+		}
 		boolean ok = no == 1;
 
 		//
@@ -4002,8 +4080,8 @@ public abstract class PO
 		{
 			final int size = p_info.getColumnCount();
 			m_oldValues = new Object[size];
-			m_newValues = new Object[size];
-			m_valueLoaded = new boolean[size]; // metas
+			m_newValues = null;
+			m_valueLoaded = new BitSet(size); // metas
 			m_stale = false; // metas: 01537
 			m_idOld = 0;
 		}
@@ -4419,7 +4497,7 @@ public abstract class PO
 		}
 		sb.append(": ").append(get_ColumnName(index))
 				.append(" = ").append(m_oldValues[index])
-				.append(" (").append(m_newValues[index]).append(")");
+				.append(" (").append(getNewValue(index)).append(")");
 		log.trace(sb.toString());
 	}   // dump
 
@@ -5194,7 +5272,7 @@ public abstract class PO
 		poCopy.m_poCacheLocals = null; // don't copy the cache locals for now
 		poCopy.m_stale = this.m_stale;
 		// m_translations : Map<String, Map<String, String>> // TODO: copy the translations
-		poCopy.m_valueLoaded = this.m_valueLoaded == null ? null : Arrays.copyOf(this.m_valueLoaded, this.m_valueLoaded.length);
+		poCopy.m_valueLoaded = this.m_valueLoaded == null ? null : (BitSet)this.m_valueLoaded.clone();
 		poCopy.markedChangedColumns = this.markedChangedColumns == null ? null : new HashSet<>(this.markedChangedColumns);
 		poCopy.s_acctColumns = this.s_acctColumns == null ? null : new ArrayList<>(this.s_acctColumns);
 
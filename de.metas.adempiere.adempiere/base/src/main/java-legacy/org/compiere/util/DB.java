@@ -1740,6 +1740,13 @@ public final class DB
 	 */
 	public static int getNextID(int AD_Client_ID, String TableName, String trxName)
 	{
+		// If configured, take the ID from a block of IDs which was already reserved
+		final TableIdBlockAllocator idBlockAllocator = TableIdBlockAllocator.instance;
+		if (idBlockAllocator.isEnabled(AD_Client_ID, TableName))
+		{
+			return idBlockAllocator.nextId(AD_Client_ID, TableName);
+		}
+
 		final boolean useNativeSequences = DB.isUseNativeSequences(AD_Client_ID, TableName);
 		if (useNativeSequences)
 		{
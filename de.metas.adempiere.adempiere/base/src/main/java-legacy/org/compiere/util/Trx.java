@@ -19,15 +19,20 @@ package org.compiere.util;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyVetoException;
 import java.beans.VetoableChangeListener;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.api.ITrxSavepoint;
 import org.adempiere.ad.trx.api.impl.AbstractTrx;
 import org.adempiere.ad.trx.api.impl.JdbcTrxSavepoint;
+import org.adempiere.ad.trx.api.impl.TrxDeferredWriteStatistics;
 import org.adempiere.exceptions.DBException;
 import org.slf4j.Logger;
 
@@ -139,6 +144,10 @@ public class Trx extends AbstractTrx implements VetoableChangeListener
 
 	private Connection m_connection = null;
 
+	/** Max number of statements to be queued by {@link #deferWriteNative(String)} before they are executed */
+	private static final int DEFERRED_WRITES_MaxBatchSize = 500;
+	private final List<String> deferredWrites = new ArrayList<>();
+
 	/**
 	 * Get Connection
 	 *
@@ -188,6 +197,9 @@ public class Trx extends AbstractTrx implements VetoableChangeListener
 			throw DBException.wrapIfNeeded(e);
 		}
 
+		// Make sure whoever is going to use the connection will see our deferred writes
+		flushDeferredWritesNative();
+
 		return m_connection;
 	}	// getConnection
 
@@ -229,6 +241,84 @@ public class Trx extends AbstractTrx implements VetoableChangeListener
 		}
 	}	// setConnection
 
+	@Override
+	protected boolean deferWriteNative(final String sql)
+	{
+		deferredWrites.add(sql);
+		if (deferredWrites.size() >= DEFERRED_WRITES_MaxBatchSize)
+		{
+			flushDeferredWritesNative();
+		}
+		return true;
+	}
+
+	@Override
+	protected void flushDeferredWritesNative()
+	{
+		if (deferredWrites.isEmpty())
+		{
+			return;
+		}
+
+		// NOTE: clear the queue before calling getConnection() to avoid recursion
+		final List<String> sqls = new ArrayList<>(deferredWrites);
+		deferredWrites.clear();
+
+		final long startMillis = System.currentTimeMillis();
+		Statement stmt = null;
+		String sqlCurrent = sqls.get(0);
+		try
+		{
+			stmt = getConnection().createStatement();
+			for (final String sql : sqls)
+			{
+				stmt.addBatch(sql);
+			}
+
+			final int[] updateCounts = stmt.executeBatch();
+			for (int i = 0; i < updateCounts.length; i++)
+			{
+				sqlCurrent = sqls.get(i);
+				if (updateCounts[i] != 1 && updateCounts[i] != Statement.SUCCESS_NO_INFO)
+				{
+					throw new DBException("Deferred write was expected to affect one row but it affected " + updateCounts[i] + " rows: " + sqlCurrent);
+				}
+			}
+		}
+		catch (final BatchUpdateException e)
+		{
+			// the update counts are reported for the statements before the failing one
+			final int failedIndex = e.getUpdateCounts() != null ? e.getUpdateCounts().length : 0;
+			final String sqlFailed = failedIndex < sqls.size() ? sqls.get(failedIndex) : sqlCurrent;
+			throw new DBException(e.getNextException() != null ? e.getNextException() : e, sqlFailed);
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sqlCurrent);
+		}
+		finally
+		{
+			DB.close(stmt);
+		}
+
+		final long durationMillis = System.currentTimeMillis() - startMillis;
+		TrxDeferredWriteStatistics.instance.recordFlush(sqls.size(), durationMillis);
+		log.debug("Flushed {} deferred writes in {}ms", sqls.size(), durationMillis);
+	}
+
+	/**
+	 * Discards the statements which were queued by {@link #deferWriteNative(String)}, e.g. because they would have been rolled back anyways.
+	 */
+	@Override
+	protected void discardDeferredWritesNative()
+	{
+		if (!deferredWrites.isEmpty())
+		{
+			log.debug("Discarding {} deferred writes", deferredWrites.size());
+			deferredWrites.clear();
+		}
+	}
+
 	@Override
 	protected boolean isJustStarted()
 	{
@@ -244,6 +334,8 @@ public class Trx extends AbstractTrx implements VetoableChangeListener
 	@Override
 	protected boolean rollbackNative(boolean throwException) throws SQLException
 	{
+		discardDeferredWritesNative();
+
 		final String trxName = getTrxName();
 
 		//
@@ -280,6 +372,9 @@ public class Trx extends AbstractTrx implements VetoableChangeListener
 	protected boolean rollbackNative(ITrxSavepoint savepoint) throws SQLException
 	// metas: end: 02367
 	{
+		// the savepoint was created after flushing, so everything which is still queued was issued after the savepoint
+		discardDeferredWritesNative();
+
 		if (m_connection == null || m_connection.getAutoCommit())
 		{
 			log.debug("rollbackNative: doing nothing because we have a null or autocomit connection; this={}, connection={}", this, m_connection);
@@ -312,6 +407,20 @@ public class Trx extends AbstractTrx implements VetoableChangeListener
 	@Override
 	protected boolean commitNative(boolean throwException) throws SQLException
 	{
+		try
+		{
+			flushDeferredWritesNative();
+		}
+		catch (final DBException e)
+		{
+			log.error("commitNative: FAILED to flush the deferred writes - {} (throwException={})", getTrxName(), throwException, e);
+			if (throwException)
+			{
+				throw e;
+			}
+			return false;
+		}
+
 		if (m_connection == null || m_connection.getAutoCommit())
 		{
 			log.debug("commitNative: doing nothing because we have an autocomit connection; this={}, connection={}", this, m_connection);
@@ -401,10 +510,8 @@ public class Trx extends AbstractTrx implements VetoableChangeListener
 	@Override
 	protected ITrxSavepoint createTrxSavepointNative(final String name) throws Exception
 	{
-		if (m_connection == null)
-		{
-			getConnection();
-		}
+		// NOTE: getConnection() is also flushing the deferred writes, which shall be part of the savepoint
+		getConnection();
 
 		if (m_connection.getAutoCommit())
 		{
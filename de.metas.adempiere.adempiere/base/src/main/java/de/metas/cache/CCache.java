@@ -41,6 +41,8 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
 import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ExecutionError;
@@ -77,7 +79,9 @@ public class CCache<K, V> implements CacheInterface
 				null, // additionalTableNamesToResetFor
 				maxSize, // initialCapacity // FIXME this is confusing because in case of LRU, initialCapacity is used as maxSize
 				expireAfterMinutes,
-				CacheMapType.LRU);
+				CacheMapType.LRU,
+				null, // maximumWeightInBytes
+				null); // valueRecordRefsExtractor
 	}
 
 	/**
@@ -92,7 +96,9 @@ public class CCache<K, V> implements CacheInterface
 				null, // additionalTableNamesToResetFor
 				initialCapacity,
 				expireAfterMinutes,
-				CacheMapType.HashMap);
+				CacheMapType.HashMap,
+				null, // maximumWeightInBytes
+				null); // valueRecordRefsExtractor
 	}
 
 	public static enum CacheMapType
@@ -120,6 +126,15 @@ public class CCache<K, V> implements CacheInterface
 
 	private static final Logger logger = LogManager.getLogger(CCache.class);
 
+	/**
+	 * System property prefix which allows the operators to set/override the {@link #getMaximumWeightInBytes()} of a given cache.
+	 * The full property name is this prefix followed by the cache name, e.g. <code>de.metas.cache.CCache.MaximumWeightInBytes.M_Product</code>.
+	 */
+	public static final String SYSTEM_PROPERTY_PREFIX_MaximumWeightInBytes = "de.metas.cache.CCache.MaximumWeightInBytes.";
+
+	/** How many entries are sampled when estimating the heap size of the whole cache */
+	private static final int HEAP_SIZE_ESTIMATION_MaxSampledEntries = 1000;
+
 	/** Internal map that is used as cache */
 	private final Cache<K, V> cache;
 
@@ -132,6 +147,16 @@ public class CCache<K, V> implements CacheInterface
 
 	/** Expire after minutes */
 	private final int expireMinutes;
+	/** Maximum estimated heap size of all cached entries; <code>null</code> if not bounded by weight */
+	private final Long maximumWeightInBytes;
+
+	/**
+	 * Extracts the records from which a cached value was built, i.e. the records which, when changed, shall invalidate that value.
+	 * The records of the child tables shall be returned together with their root records, because when a new child record is created, only its root record is known to be affected.
+	 * <code>null</code> if not available, in which case a record change will reset the whole cache.
+	 */
+	private final Function<V, Collection<TableRecordReference>> valueRecordRefsExtractor;
+	private final CacheKeysByRecordIndex<K> keysByRecordIndex;
 	public static final int EXPIREMINUTES_Never = 0;
 	/** Just reset */
 	private boolean m_justReset = true;
@@ -171,7 +196,9 @@ public class CCache<K, V> implements CacheInterface
 				null, // additionalTableNamesToResetFor
 				initialCapacity,
 				expireMinutes,
-				CacheMapType.HashMap);
+				CacheMapType.HashMap,
+				null, // maximumWeightInBytes
+				null); // valueRecordRefsExtractor
 	}
 
 	@Builder
@@ -181,7 +208,9 @@ public class CCache<K, V> implements CacheInterface
 			@Singular("additionalTableNameToResetFor") final Set<String> additionalTableNamesToResetFor,
 			final Integer initialCapacity,
 			final Integer expireMinutes,
-			final CacheMapType cacheMapType)
+			final CacheMapType cacheMapType,
+			final Long maximumWeightInBytes,
+			final Function<V, Collection<TableRecordReference>> valueRecordRefsExtractor)
 	{
 		this.cacheId = NEXT_CACHE_ID.getAndIncrement();
 
@@ -224,10 +253,16 @@ public class CCache<K, V> implements CacheInterface
 		this.labels = buildCacheLabels(tableNameEffective, additionalTableNamesToResetFor);
 
 		this.expireMinutes = expireMinutes != null ? expireMinutes : EXPIREMINUTES_Never;
+		this.maximumWeightInBytes = extractMaximumWeightInBytes(this.cacheName, maximumWeightInBytes);
+		this.valueRecordRefsExtractor = valueRecordRefsExtractor;
+		this.keysByRecordIndex = valueRecordRefsExtractor != null ? new CacheKeysByRecordIndex<>() : null;
+		final RemovalListener<K, V> removalListener = keysByRecordIndex != null ? this::onEntryRemoved : null;
 		this.cache = buildGuavaCache(
 				cacheMapType != null ? cacheMapType : CacheMapType.HashMap,
 				initialCapacity != null ? initialCapacity : 0,
-				this.expireMinutes);
+				this.expireMinutes,
+				this.maximumWeightInBytes,
+				removalListener);
 
 		if (DEBUG)
 		{
@@ -291,13 +326,30 @@ public class CCache<K, V> implements CacheInterface
 		return builder.build();
 	}
 
+	private static Long extractMaximumWeightInBytes(@NonNull final String cacheName, final Long maximumWeightInBytes)
+	{
+		final Long maximumWeightInBytesOverride = Long.getLong(SYSTEM_PROPERTY_PREFIX_MaximumWeightInBytes + cacheName);
+		final Long maximumWeightInBytesEffective = maximumWeightInBytesOverride != null ? maximumWeightInBytesOverride : maximumWeightInBytes;
+		return maximumWeightInBytesEffective != null && maximumWeightInBytesEffective > 0 ? maximumWeightInBytesEffective : null;
+	}
+
 	private static final <K, V> Cache<K, V> buildGuavaCache(
 			@NonNull final CacheMapType cacheMapType,
 			final int initialCapacity,
-			final int expireMinutes)
+			final int expireMinutes,
+			final Long maximumWeightInBytes,
+			final RemovalListener<K, V> removalListener)
 	{
 		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
-		if (cacheMapType == CacheMapType.HashMap)
+		if (maximumWeightInBytes != null)
+		{
+			// NOTE: guava does not allow maximumSize and maximumWeight together, so in case of LRU, the weight wins
+			cacheBuilder = cacheBuilder
+					.initialCapacity(cacheMapType == CacheMapType.HashMap ? initialCapacity : 16)
+					.maximumWeight(maximumWeightInBytes)
+					.weigher(CCache::weigh);
+		}
+		else if (cacheMapType == CacheMapType.HashMap)
 		{
 			cacheBuilder = cacheBuilder
 					.initialCapacity(initialCapacity);
@@ -317,9 +369,21 @@ public class CCache<K, V> implements CacheInterface
 			cacheBuilder = cacheBuilder.expireAfterWrite(expireMinutes, TimeUnit.MINUTES);
 		}
 
+		if (removalListener != null)
+		{
+			return cacheBuilder.removalListener(removalListener).build();
+		}
+
 		return cacheBuilder.build();
 	}
 
+	private static int weigh(final Object key, final Object value)
+	{
+		final long weight = CacheObjectSizeEstimator.instance.estimateRetainedSizeInBytes(key)
+				+ CacheObjectSizeEstimator.instance.estimateRetainedSizeInBytes(value);
+		return (int)Math.min(weight, Integer.MAX_VALUE);
+	}
+
 	/**
 	 * @return unique cache ID
 	 */
@@ -340,6 +404,14 @@ public class CCache<K, V> implements CacheInterface
 		return labels;
 	}
 
+	/**
+	 * @return maximum estimated heap size of all cached entries, or <code>null</code> if this cache is not bounded by weight
+	 */
+	public final Long getMaximumWeightInBytes()
+	{
+		return maximumWeightInBytes;
+	}
+
 	/**
 	 * Cache was just reset.
 	 *
@@ -398,8 +470,102 @@ public class CCache<K, V> implements CacheInterface
 	@Override
 	public long resetForRecordId(final TableRecordReference recordRef)
 	{
-		// NOTE: reseting only by "key" is not supported at this level, so we are reseting everything
-		return reset();
+		final TableRecordReference parentRecordRef = null;
+		return resetForRecordId(recordRef, parentRecordRef);
+	}
+
+	@Override
+	public long resetForRecordId(final TableRecordReference recordRef, final TableRecordReference parentRecordRefOrNull)
+	{
+		final TableRecordReference parentRecordRef = isResetForParentRecord(parentRecordRefOrNull) ? parentRecordRefOrNull : null;
+
+		// NOTE: if we don't know which keys were built from given record, we have to reset everything
+		if (keysByRecordIndex == null || !keysByRecordIndex.isIndexed(recordRef))
+		{
+			return reset();
+		}
+		if (parentRecordRef != null && !keysByRecordIndex.isIndexed(parentRecordRef))
+		{
+			return reset();
+		}
+
+		final Set<K> keys = new HashSet<>(keysByRecordIndex.getKeys(recordRef));
+		if (parentRecordRef != null)
+		{
+			keys.addAll(keysByRecordIndex.getKeys(parentRecordRef));
+		}
+		else if (keys.isEmpty())
+		{
+			// The record is not part of any cached value, but it might be a new (or reactivated) one which would be part of a cached value.
+			// Since we don't know its parent, we have to reset everything.
+			return reset();
+		}
+
+		return invalidateKeys(keys, recordRef, parentRecordRef);
+	}
+
+	/**
+	 * Resets only the entries which were built from given record.
+	 * Unlike {@link #resetForRecordId(TableRecordReference)}, nothing is reset if no cached value was built from given record.
+	 * So it shall be used only for records which could not become part of more cached values with the change, e.g. the parent of a changed record which is not referenced by the cached values.
+	 */
+	protected final long resetForKnownRecordId(final TableRecordReference recordRef)
+	{
+		if (keysByRecordIndex == null || !keysByRecordIndex.isIndexed(recordRef))
+		{
+			return reset();
+		}
+
+		return invalidateKeys(keysByRecordIndex.getKeys(recordRef), recordRef, null);
+	}
+
+	private long invalidateKeys(final Set<K> keys, final TableRecordReference recordRef, final TableRecordReference parentRecordRef)
+	{
+		if (keys.isEmpty())
+		{
+			return 0;
+		}
+
+		cache.invalidateAll(keys);
+		logger.trace("Reset {} entries for {} (parent: {}) from {}", keys.size(), recordRef, parentRecordRef, this);
+		return keys.size();
+	}
+
+	private Collection<TableRecordReference> extractRecordRefs(final V value)
+	{
+		final Collection<TableRecordReference> recordRefs = valueRecordRefsExtractor.apply(value);
+		return recordRefs != null ? recordRefs : ImmutableList.of();
+	}
+
+	/**
+	 * Adds the records of given (just cached) value to the index.
+	 * <p>
+	 * NOTE: it's important to call this method <b>after</b> the value was added to cache, see {@link #onEntryRemoved(RemovalNotification)}.
+	 */
+	private void indexValue(final K key, final V value)
+	{
+		if (keysByRecordIndex == null || value == null)
+		{
+			return;
+		}
+
+		keysByRecordIndex.add(key, extractRecordRefs(value));
+	}
+
+	private void onEntryRemoved(final RemovalNotification<K, V> notification)
+	{
+		final K key = notification.getKey();
+		final V value = notification.getValue();
+		if (key == null || value == null)
+		{
+			return;
+		}
+
+		keysByRecordIndex.remove(key, extractRecordRefs(value));
+
+		// The old value might share some records with the value which replaced it.
+		// Re-index the current value, because it might have been indexed before this (asynchronous) notification.
+		indexValue(key, cache.getIfPresent(key));
 	}
 
 	@Override
@@ -409,6 +575,10 @@ public class CCache<K, V> implements CacheInterface
 				.append(cacheName)
 				.append(", size").append(cache.size())
 				.append(", id=").append(cacheId);
+		if (maximumWeightInBytes != null)
+		{
+			sb.append(", maximumWeightInBytes=").append(maximumWeightInBytes);
+		}
 
 		if (DEBUG)
 		{
@@ -501,7 +671,23 @@ public class CCache<K, V> implements CacheInterface
 
 		try
 		{
-			return cache.get(key, valueInitializer);
+			if (keysByRecordIndex == null)
+			{
+				return cache.get(key, valueInitializer);
+			}
+
+			// index only the values which were just loaded, and not each time the value is fetched from cache
+			final boolean[] loaded = new boolean[] { false };
+			final V value = cache.get(key, () -> {
+				final V valueLoaded = valueInitializer.call();
+				loaded[0] = true;
+				return valueLoaded;
+			});
+			if (loaded[0])
+			{
+				indexValue(key, value);
+			}
+			return value;
 		}
 		catch (final InvalidCacheLoadException e)
 		{
@@ -585,7 +771,7 @@ public class CCache<K, V> implements CacheInterface
 		if (!keysToLoad.isEmpty())
 		{
 			final Map<K, V> valuesLoaded = valuesLoader.apply(keysToLoad);
-			valuesLoaded.forEach(cache::put); // add loaded values to cache
+			valuesLoaded.forEach(this::putToCache); // add loaded values to cache
 			values.addAll(valuesLoaded.values()); // add loaded values to the list we will return
 		}
 
@@ -627,10 +813,16 @@ public class CCache<K, V> implements CacheInterface
 		}
 		else
 		{
-			cache.put(key, value);
+			putToCache(key, value);
 		}
 	}	// put
 
+	private void putToCache(final K key, final V value)
+	{
+		cache.put(key, value);
+		indexValue(key, value);
+	}
+
 	/**
 	 * Add all key/value pairs to this cache.
 	 *
@@ -638,7 +830,14 @@ public class CCache<K, V> implements CacheInterface
 	 */
 	public void putAll(final Map<? extends K, ? extends V> map)
 	{
-		cache.putAll(map);
+		if (keysByRecordIndex == null)
+		{
+			cache.putAll(map);
+		}
+		else
+		{
+			map.forEach(this::putToCache);
+		}
 	}
 
 	/**
@@ -666,6 +865,37 @@ public class CCache<K, V> implements CacheInterface
 		return cache.size();
 	}	// size
 
+	/**
+	 * Estimates the heap size by weighing at most {@value #HEAP_SIZE_ESTIMATION_MaxSampledEntries} entries and extrapolating the result to the whole cache.
+	 */
+	@Override
+	public long estimateHeapSizeInBytes()
+	{
+		final long size = cache.size();
+		if (size <= 0)
+		{
+			return 0;
+		}
+
+		long sampledWeight = 0;
+		int sampledEntries = 0;
+		for (final Map.Entry<K, V> entry : cache.asMap().entrySet())
+		{
+			if (sampledEntries >= HEAP_SIZE_ESTIMATION_MaxSampledEntries)
+			{
+				break;
+			}
+			sampledWeight += weigh(entry.getKey(), entry.getValue());
+			sampledEntries++;
+		}
+
+		if (sampledEntries <= 0)
+		{
+			return 0;
+		}
+		return sampledWeight * size / sampledEntries;
+	}
+
 	/**
 	 * @see java.util.Map#values()
 	 */
@@ -42,6 +42,31 @@ public interface CacheInterface
 	 */
 	long resetForRecordId(TableRecordReference recordRef);
 
+	/**
+	 * Invalidate the cache for given (child) record and its parent record, e.g. an order line and its order.
+	 * Implementations which don't know the child record (e.g. because it's new) can reset the entries of the parent record instead of resetting everything.
+	 * <p>
+	 * The parent record is considered only if this cache has its table name as label.
+	 *
+	 * @param parentRecordRef might be <code>null</code>
+	 * @return how many cache entries were invalidated
+	 */
+	default long resetForRecordId(final TableRecordReference recordRef, final TableRecordReference parentRecordRef)
+	{
+		long resetCount = resetForRecordId(recordRef);
+		if (isResetForParentRecord(parentRecordRef))
+		{
+			resetCount += resetForRecordId(parentRecordRef);
+		}
+		return resetCount;
+	}
+
+	default boolean isResetForParentRecord(final TableRecordReference parentRecordRef)
+	{
+		return parentRecordRef != null
+				&& getLabels().contains(CacheLabel.ofTableName(parentRecordRef.getTableName()));
+	}
+
 	/**
 	 * Reset Cache
 	 * 
@@ -55,4 +80,15 @@ public interface CacheInterface
 	 * @return number of items
 	 */
 	public long size();
+
+	/**
+	 * Estimates how much heap is retained by the cached entries.
+	 *
+	 * @return estimated heap size, in bytes; 0 if not supported
+	 * @see CacheObjectSizeEstimator
+	 */
+	default long estimateHeapSizeInBytes()
+	{
+		return 0;
+	}
 }	// CacheInterface
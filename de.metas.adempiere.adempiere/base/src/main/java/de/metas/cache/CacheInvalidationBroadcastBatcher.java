@@ -0,0 +1,302 @@
+package de.metas.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects the cache invalidation requests which shall be broadcasted and sends them in batches.
+ * <p>
+ * The first posted request starts a window of {@link #windowMillisSupplier} milliseconds. All requests posted during that window are coalesced and sent together, see {@link #coalesce(Collection, int)}.
+ * If the window is not positive, each request is sent right away, like before.
+ */
+/* package */ final class CacheInvalidationBroadcastBatcher
+{
+	private static final Logger logger = LogManager.getLogger(CacheInvalidationBroadcastBatcher.class);
+
+	private final Consumer<CacheInvalidateMultiRequest> sender;
+	private final IntSupplier windowMillisSupplier;
+	private final IntSupplier maxRecordsPerTableSupplier;
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
+			.setThreadNamePrefix(CacheInvalidationBroadcastBatcher.class.getName())
+			.setDaemon(true)
+			.build());
+
+	private final Object lock = new Object();
+	private List<CacheInvalidateRequest> pendingRequests = new ArrayList<>();
+	private boolean flushScheduled = false;
+
+	private final AtomicLong eventsPostedCount = new AtomicLong(0);
+	private final AtomicLong requestsPostedCount = new AtomicLong(0);
+	private final AtomicLong requestsSentCount = new AtomicLong(0);
+	private final AtomicLong eventsSentCount = new AtomicLong(0);
+	private final AtomicLong tablesCollapsedCount = new AtomicLong(0);
+
+	/**
+	 * @param sender sends one (coalesced) request
+	 * @param windowMillisSupplier for how long requests are collected before sending them
+	 * @param maxRecordsPerTableSupplier if there are more record requests than this for one table, they are collapsed to one table reset; not positive means never collapse
+	 */
+	public CacheInvalidationBroadcastBatcher(
+			@NonNull final Consumer<CacheInvalidateMultiRequest> sender,
+			@NonNull final IntSupplier windowMillisSupplier,
+			@NonNull final IntSupplier maxRecordsPerTableSupplier)
+	{
+		this.sender = sender;
+		this.windowMillisSupplier = windowMillisSupplier;
+		this.maxRecordsPerTableSupplier = maxRecordsPerTableSupplier;
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("eventsPostedCount", getEventsPostedCount())
+				.add("requestsPostedCount", getRequestsPostedCount())
+				.add("requestsSentCount", getRequestsSentCount())
+				.add("eventsSentCount", getEventsSentCount())
+				.add("tablesCollapsedCount", getTablesCollapsedCount())
+				.toString();
+	}
+
+	public void post(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		eventsPostedCount.incrementAndGet();
+		requestsPostedCount.addAndGet(multiRequest.getRequests().size());
+
+		final int windowMillis = windowMillisSupplier.getAsInt();
+		if (windowMillis <= 0)
+		{
+			send(multiRequest.getRequests());
+			return;
+		}
+
+		synchronized (lock)
+		{
+			pendingRequests.addAll(multiRequest.getRequests());
+			if (!flushScheduled)
+			{
+				scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+				flushScheduled = true;
+			}
+		}
+	}
+
+	@VisibleForTesting
+	void flush()
+	{
+		final List<CacheInvalidateRequest> requests;
+		synchronized (lock)
+		{
+			requests = pendingRequests;
+			pendingRequests = new ArrayList<>();
+			flushScheduled = false;
+		}
+
+		if (requests.isEmpty())
+		{
+			return;
+		}
+
+		try
+		{
+			send(requests);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed broadcasting {} cache invalidation requests. Ignored.", requests.size(), ex);
+		}
+	}
+
+	private void send(final Collection<CacheInvalidateRequest> requests)
+	{
+		final CoalesceResult result = coalesce(requests, maxRecordsPerTableSupplier.getAsInt());
+		final CacheInvalidateMultiRequest multiRequest = result.getMultiRequest();
+
+		sender.accept(multiRequest);
+
+		requestsSentCount.addAndGet(multiRequest.getRequests().size());
+		eventsSentCount.incrementAndGet();
+		tablesCollapsedCount.addAndGet(result.getTablesCollapsedCount());
+		logger.debug("Sent {} requests (coalesced from {})", multiRequest.getRequests().size(), requests.size());
+	}
+
+	@Value
+	@VisibleForTesting
+	static final class CoalesceResult
+	{
+		private final CacheInvalidateMultiRequest multiRequest;
+		private final int tablesCollapsedCount;
+	}
+
+	/**
+	 * Merges the given requests into one multi request which invalidates at least the same things:
+	 * <ul>
+	 * <li>duplicate requests are removed
+	 * <li>if there is a "reset all" request, only that one is kept
+	 * <li>if there are more than <code>maxRecordsPerTable</code> record requests for a table, they are replaced by one request which resets that whole table.
+	 * The root records of child requests are still invalidated, unless their table is also reset.
+	 * </ul>
+	 */
+	@VisibleForTesting
+	static CoalesceResult coalesce(@NonNull final Collection<CacheInvalidateRequest> requests, final int maxRecordsPerTable)
+	{
+		if (requests.stream().anyMatch(CacheInvalidateRequest::isAll))
+		{
+			return new CoalesceResult(CacheInvalidateMultiRequest.all(), 0);
+		}
+
+		final Set<String> tableNamesToReset = new LinkedHashSet<>();
+		final Map<String, Map<RequestKey, CacheInvalidateRequest>> recordRequestsByTableName = new LinkedHashMap<>();
+		for (final CacheInvalidateRequest request : requests)
+		{
+			final String tableName = request.getTableNameEffective();
+			if (request.isAllRecords())
+			{
+				tableNamesToReset.add(tableName);
+			}
+			else
+			{
+				recordRequestsByTableName
+						.computeIfAbsent(tableName, k -> new LinkedHashMap<>())
+						.putIfAbsent(RequestKey.of(request), request);
+			}
+		}
+
+		int tablesCollapsedCount = 0;
+		if (maxRecordsPerTable > 0)
+		{
+			for (final Map.Entry<String, Map<RequestKey, CacheInvalidateRequest>> entry : recordRequestsByTableName.entrySet())
+			{
+				if (entry.getValue().size() > maxRecordsPerTable && tableNamesToReset.add(entry.getKey()))
+				{
+					tablesCollapsedCount++;
+				}
+			}
+		}
+
+		final Map<RequestKey, CacheInvalidateRequest> result = new LinkedHashMap<>();
+		for (final String tableName : tableNamesToReset)
+		{
+			final CacheInvalidateRequest request = CacheInvalidateRequest.allRecordsForTable(tableName);
+			result.put(RequestKey.of(request), request);
+		}
+
+		for (final Map.Entry<String, Map<RequestKey, CacheInvalidateRequest>> entry : recordRequestsByTableName.entrySet())
+		{
+			final boolean tableReset = tableNamesToReset.contains(entry.getKey());
+			for (final CacheInvalidateRequest request : entry.getValue().values())
+			{
+				if (!tableReset)
+				{
+					result.putIfAbsent(RequestKey.of(request), request);
+				}
+				else if (request.getChildTableName() != null
+						&& request.getRootTableName() != null
+						&& request.getRootRecordId() >= 0
+						&& !tableNamesToReset.contains(request.getRootTableName()))
+				{
+					final CacheInvalidateRequest rootRequest = CacheInvalidateRequest.rootRecord(request.getRootTableName(), request.getRootRecordId());
+					result.putIfAbsent(RequestKey.of(rootRequest), rootRequest);
+				}
+			}
+		}
+
+		return new CoalesceResult(CacheInvalidateMultiRequest.of(ImmutableList.copyOf(result.values())), tablesCollapsedCount);
+	}
+
+	/** Identifies a request by what it invalidates, i.e. without {@link CacheInvalidateRequest#getId()} */
+	@Value(staticConstructor = "of")
+	private static final class RequestKey
+	{
+		public static RequestKey of(final CacheInvalidateRequest request)
+		{
+			return of(request.getRootTableName(), request.getRootRecordId(), request.getChildTableName(), request.getChildRecordId());
+		}
+
+		private final String rootTableName;
+		private final int rootRecordId;
+		private final String childTableName;
+		private final int childRecordId;
+	}
+
+	public long getEventsPostedCount()
+	{
+		return eventsPostedCount.get();
+	}
+
+	public long getRequestsPostedCount()
+	{
+		return requestsPostedCount.get();
+	}
+
+	public long getRequestsSentCount()
+	{
+		return requestsSentCount.get();
+	}
+
+	public long getEventsSentCount()
+	{
+		return eventsSentCount.get();
+	}
+
+	public long getTablesCollapsedCount()
+	{
+		return tablesCollapsedCount.get();
+	}
+
+	/**
+	 * @return how many events were posted for each event that was actually sent; 0 if nothing was sent yet
+	 */
+	public double getCoalescingRatio()
+	{
+		final long eventsSentCount = getEventsSentCount();
+		return eventsSentCount > 0 ? (double)getEventsPostedCount() / eventsSentCount : 0;
+	}
+}
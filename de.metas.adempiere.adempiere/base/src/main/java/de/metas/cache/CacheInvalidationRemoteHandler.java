@@ -5,6 +5,7 @@ import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.adempiere.ad.dao.cache.CacheInvalidateMultiRequestSerializer;
+import org.adempiere.service.ISysConfigBL;
 import org.slf4j.Logger;
 
 import com.google.common.collect.ImmutableSet;
@@ -57,12 +58,25 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 			.build();
 
 	private static final String EVENT_PROPERTY = CacheInvalidateRequest.class.getSimpleName();
+	private static final String EVENT_PROPERTY_Compact = CacheInvalidateRequest.class.getSimpleName() + "Compact";
+
+	private static final String SYSCONFIG_CoalesceWindowMillis = "de.metas.cache.CacheInvalidationRemoteHandler.CoalesceWindowMillis";
+	private static final int DEFAULT_CoalesceWindowMillis = 50;
+	private static final String SYSCONFIG_CoalesceMaxRecordsPerTable = "de.metas.cache.CacheInvalidationRemoteHandler.CoalesceMaxRecordsPerTable";
+	private static final int DEFAULT_CoalesceMaxRecordsPerTable = 100;
+	/** Set it to <code>Y</code> only after all nodes in the cluster understand the compact format; old nodes would silently drop the invalidations */
+	private static final String SYSCONFIG_UseCompactFormat = "de.metas.cache.CacheInvalidationRemoteHandler.UseCompactFormat";
 
 	private final AtomicBoolean _initalized = new AtomicBoolean(false);
 	private final CopyOnWriteArraySet<String> tableNamesToBroadcast = new CopyOnWriteArraySet<>();
 
 	private final CacheInvalidateMultiRequestSerializer jsonSerializer = new CacheInvalidateMultiRequestSerializer();
 
+	private final CacheInvalidationBroadcastBatcher broadcastBatcher = new CacheInvalidationBroadcastBatcher(
+			this::sendEvent,
+			() -> Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_CoalesceWindowMillis, DEFAULT_CoalesceWindowMillis),
+			() -> Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_CoalesceMaxRecordsPerTable, DEFAULT_CoalesceMaxRecordsPerTable));
+
 	private CacheInvalidationRemoteHandler()
 	{
 	}
@@ -105,6 +119,14 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 		return ImmutableSet.copyOf(tableNamesToBroadcast);
 	}
 
+	/**
+	 * @return the batcher which coalesces the broadcasted requests; also provides the coalescing statistics
+	 */
+	CacheInvalidationBroadcastBatcher getBroadcastBatcher()
+	{
+		return broadcastBatcher;
+	}
+
 	/**
 	 * Broadcast a cache invalidation request.
 	 *
@@ -127,7 +149,12 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 			return;
 		}
 
-		// Broadcast the event.
+		// Broadcast the event, together with the other requests which are posted in the coalescing window
+		broadcastBatcher.post(request);
+	}
+
+	private void sendEvent(final CacheInvalidateMultiRequest request)
+	{
 		final Event event = createEventFromRequest(request);
 		Services.get(IEventBusFactory.class)
 				.getEventBus(TOPIC_CacheInvalidation)
@@ -175,8 +202,10 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 
 	private final Event createEventFromRequest(@NonNull final CacheInvalidateMultiRequest request)
 	{
+		final boolean useCompactFormat = Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_UseCompactFormat, false);
 		final Event event = Event.builder()
-				.putProperty(EVENT_PROPERTY, jsonSerializer.toJson(request))
+				.putProperty(useCompactFormat ? EVENT_PROPERTY_Compact : EVENT_PROPERTY,
+						useCompactFormat ? jsonSerializer.toCompactString(request) : jsonSerializer.toJson(request))
 				.build();
 
 		return event;
@@ -184,6 +213,12 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 
 	private final CacheInvalidateMultiRequest createRequestFromEvent(final Event event)
 	{
+		final String compactRequest = event.getProperty(EVENT_PROPERTY_Compact);
+		if (!Check.isEmpty(compactRequest, true))
+		{
+			return jsonSerializer.fromCompactString(compactRequest);
+		}
+
 		final String jsonRequest = event.getProperty(EVENT_PROPERTY);
 		if (Check.isEmpty(jsonRequest, true))
 		{
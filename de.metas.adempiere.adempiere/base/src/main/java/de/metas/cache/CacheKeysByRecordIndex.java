@@ -0,0 +1,99 @@
+package de.metas.cache;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+
+import com.google.common.collect.ImmutableSet;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Reverse index from records to the cache keys whose cached values were built from those records.
+ * Used by {@link CCache} to invalidate only the affected keys when a record changes.
+ * <p>
+ * The index also remembers the table names for which it ever got a record.
+ * For all the other tables we cannot know which keys are affected, so the caller shall reset everything.
+ *
+ * @param <K> cache key type
+ */
+/* package */ final class CacheKeysByRecordIndex<K>
+{
+	private final ConcurrentHashMap<TableRecordReference, Set<K>> keysByRecordRef = new ConcurrentHashMap<>();
+	private final Set<String> indexedTableNames = ConcurrentHashMap.newKeySet();
+
+	@Override
+	public String toString()
+	{
+		return "CacheKeysByRecordIndex[records=" + keysByRecordRef.size() + ", indexedTableNames=" + indexedTableNames + "]";
+	}
+
+	public void add(@NonNull final K key, @NonNull final Collection<TableRecordReference> recordRefs)
+	{
+		for (final TableRecordReference recordRef : recordRefs)
+		{
+			indexedTableNames.add(recordRef.getTableName());
+
+			// NOTE: we change the keys set inside compute(), so there is no race with remove() which drops empty sets
+			keysByRecordRef.compute(recordRef, (k, keys) -> {
+				final Set<K> keysEffective = keys != null ? keys : ConcurrentHashMap.newKeySet();
+				keysEffective.add(key);
+				return keysEffective;
+			});
+		}
+	}
+
+	public void remove(@NonNull final K key, @NonNull final Collection<TableRecordReference> recordRefs)
+	{
+		for (final TableRecordReference recordRef : recordRefs)
+		{
+			keysByRecordRef.computeIfPresent(recordRef, (k, keys) -> {
+				keys.remove(key);
+				return keys.isEmpty() ? null : keys;
+			});
+		}
+	}
+
+	/**
+	 * @return true if we know which keys are affected by given record (if any)
+	 */
+	public boolean isIndexed(@NonNull final TableRecordReference recordRef)
+	{
+		return indexedTableNames.contains(recordRef.getTableName());
+	}
+
+	public Set<K> getKeys(@NonNull final TableRecordReference recordRef)
+	{
+		final Set<K> keys = keysByRecordRef.get(recordRef);
+		return keys != null ? ImmutableSet.copyOf(keys) : ImmutableSet.of();
+	}
+
+	public int size()
+	{
+		return keysByRecordRef.size();
+	}
+}
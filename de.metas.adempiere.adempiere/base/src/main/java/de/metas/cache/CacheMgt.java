@@ -16,6 +16,8 @@
  *****************************************************************************/
 package de.metas.cache;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -38,6 +40,7 @@ import org.slf4j.Logger;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
@@ -360,22 +363,29 @@ public final class CacheMgt
 		{
 			long resetCount = 0;
 
+			// The caches of the child record are also told about the root record, because if they don't know the child record (e.g. it's a new one),
+			// they can reset the entries of the root record instead of resetting everything.
+			// Those caches are not invalidated again for the root record.
 			final TableRecordReference childRecordRef = request.getChildRecordOrNull();
+			final TableRecordReference rootRecordRef = request.getRootRecordOrNull();
+			final Set<Long> invalidatedCacheIds = new HashSet<>();
 			if (childRecordRef != null)
 			{
-				resetCount += invalidateForRecord(childRecordRef);
+				resetCount += invalidateForRecord(childRecordRef, rootRecordRef, invalidatedCacheIds);
 			}
-			final TableRecordReference rootRecordRef = request.getRootRecordOrNull();
 			if (rootRecordRef != null)
 			{
-				resetCount += invalidateForRecord(rootRecordRef);
+				resetCount += invalidateForRecord(rootRecordRef, null, invalidatedCacheIds);
 			}
 
 			return resetCount;
 		}
 	}
 
-	private final long invalidateForRecord(final TableRecordReference recordRef)
+	private final long invalidateForRecord(
+			final TableRecordReference recordRef,
+			final TableRecordReference parentRecordRef,
+			final Set<Long> alreadyInvalidatedCacheIds)
 	{
 		final CacheLabel label = CacheLabel.ofTableName(recordRef.getTableName());
 		final CachesGroup cachesGroup = getCachesGroupIfPresent(label);
@@ -384,7 +394,7 @@ public final class CacheMgt
 			return 0;
 		}
 
-		return cachesGroup.invalidateForRecordNoFail(recordRef);
+		return cachesGroup.invalidateForRecordNoFail(recordRef, parentRecordRef, alreadyInvalidatedCacheIds);
 	}
 
 	/**
@@ -398,6 +408,36 @@ public final class CacheMgt
 				.sum();
 	}
 
+	/**
+	 * Estimates the heap retained by the caches of each label.
+	 * <p>
+	 * NOTE: a cache having more than one label is counted for each of its labels.
+	 *
+	 * @return estimated heap size in bytes, indexed by cache label
+	 * @see CacheInterface#estimateHeapSizeInBytes()
+	 */
+	public Map<CacheLabel, Long> estimateHeapSizeInBytesByLabel()
+	{
+		final Map<Long, Long> heapSizeByCacheId = new HashMap<>();
+		final ImmutableMap.Builder<CacheLabel, Long> result = ImmutableMap.builder();
+		cachesByLabel.forEach((label, cachesGroup) -> result.put(label, cachesGroup.estimateTotalHeapSizeInBytes(heapSizeByCacheId)));
+		return result.build();
+	}
+
+	/**
+	 * @return estimated heap size, in bytes, retained by all caches; each cache is counted once, no matter how many labels it has
+	 * @see CacheInterface#estimateHeapSizeInBytes()
+	 */
+	public long estimateTotalHeapSizeInBytes()
+	{
+		final Map<Long, Long> heapSizeByCacheId = new HashMap<>();
+		cachesByLabel.values().forEach(cachesGroup -> cachesGroup.estimateTotalHeapSizeInBytes(heapSizeByCacheId));
+		return heapSizeByCacheId.values()
+				.stream()
+				.mapToLong(Long::longValue)
+				.sum();
+	}
+
 	/**
 	 * String Representation
 	 *
@@ -578,6 +618,30 @@ public final class CacheMgt
 					.sum();
 		}
 
+		/**
+		 * @param heapSizeByCacheId already estimated heap sizes; used to avoid estimating a cache more than once. Newly estimated caches are added here.
+		 */
+		public long estimateTotalHeapSizeInBytes(final Map<Long, Long> heapSizeByCacheId)
+		{
+			return streamCaches()
+					.mapToLong(cache -> heapSizeByCacheId.computeIfAbsent(cache.getCacheId(), cacheId -> estimateHeapSizeInBytesNoFail(cache)))
+					.sum();
+		}
+
+		private static long estimateHeapSizeInBytesNoFail(final CacheInterface cacheInstance)
+		{
+			try
+			{
+				return cacheInstance.estimateHeapSizeInBytes();
+			}
+			catch (final Exception ex)
+			{
+				// log but don't fail
+				logger.warn("Error while estimating the heap size of {}. Ignored.", cacheInstance, ex);
+				return 0;
+			}
+		}
+
 		public long invalidateAllNoFail()
 		{
 			return streamCaches()
@@ -585,18 +649,25 @@ public final class CacheMgt
 					.sum();
 		}
 
-		public long invalidateForRecordNoFail(final TableRecordReference recordRef)
+		/**
+		 * @param alreadyInvalidatedCacheIds caches which shall be skipped; the IDs of the caches invalidated by this method are added here
+		 */
+		public long invalidateForRecordNoFail(
+				final TableRecordReference recordRef,
+				final TableRecordReference parentRecordRef,
+				final Set<Long> alreadyInvalidatedCacheIds)
 		{
 			return streamCaches()
-					.mapToLong(cache -> invalidateNoFail(cache, recordRef))
+					.filter(cache -> alreadyInvalidatedCacheIds.add(cache.getCacheId()))
+					.mapToLong(cache -> invalidateNoFail(cache, recordRef, parentRecordRef))
 					.sum();
 		}
 
-		private static final long invalidateNoFail(final CacheInterface cacheInstance, final TableRecordReference recordRef)
+		private static final long invalidateNoFail(final CacheInterface cacheInstance, final TableRecordReference recordRef, final TableRecordReference parentRecordRef)
 		{
 			try
 			{
-				return cacheInstance.resetForRecordId(recordRef);
+				return cacheInstance.resetForRecordId(recordRef, parentRecordRef);
 			}
 			catch (final Exception ex)
 			{
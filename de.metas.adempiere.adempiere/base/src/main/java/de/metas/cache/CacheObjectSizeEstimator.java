@@ -0,0 +1,396 @@
+package de.metas.cache;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.compiere.model.POInfo;
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.logging.LogManager;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Estimates the retained heap size of an object graph, by walking it via reflection.
+ * <p>
+ * The estimation is approximative:
+ * <ul>
+ * <li>it assumes a 64bit JVM with compressed oops (12 bytes object header, 4 bytes references, 8 bytes alignment)
+ * <li>objects which are usually shared by many graphs are not counted and not walked: context {@link Properties}, {@link POInfo}s, loggers, threads, class loaders
+ * and instances which are held by a static field of their own class (i.e. singletons like <code>SomeService.instance</code>)
+ * <li>other objects which are shared with other graphs are counted for each graph
+ * <li>JDK classes are not walked by reflection; well known ones (strings, numbers, dates, collections, maps, arrays) are handled explicitly, the others are counted shallow
+ * <li>enums and {@link Class} instances are not counted at all
+ * <li>the walk stops after {@value #MAX_OBJECTS_TO_VISIT} objects
+ * </ul>
+ * It is meant for cache weighing and reporting, and shall not be used where exact values are required.
+ */
+public final class CacheObjectSizeEstimator
+{
+	public static final transient CacheObjectSizeEstimator instance = new CacheObjectSizeEstimator();
+
+	private static final Logger logger = LogManager.getLogger(CacheObjectSizeEstimator.class);
+
+	private static final int OBJECT_HEADER_SIZE = 12;
+	private static final int ARRAY_HEADER_SIZE = 16;
+	private static final int REFERENCE_SIZE = 4;
+	private static final int ALIGNMENT = 8;
+
+	/** Keep it low, because the estimation is done on each put into a weight-bounded cache */
+	private static final int MAX_OBJECTS_TO_VISIT = 2000;
+
+	/** Objects of these types are shared by many graphs, so they are neither counted nor walked */
+	private static final ImmutableList<Class<?>> SHARED_TYPES = ImmutableList.of(
+			Class.class,
+			ClassLoader.class,
+			Thread.class,
+			Properties.class,
+			POInfo.class,
+			Logger.class);
+
+	private final ConcurrentHashMap<Class<?>, ClassLayout> classLayouts = new ConcurrentHashMap<>();
+
+	private CacheObjectSizeEstimator()
+	{
+	}
+
+	/**
+	 * @return estimated retained size, in bytes, of given object and of all objects reachable from it; 0 if the object is <code>null</code>
+	 */
+	public long estimateRetainedSizeInBytes(final Object object)
+	{
+		if (object == null)
+		{
+			return 0;
+		}
+
+		final IdentityHashMap<Object, Boolean> visited = new IdentityHashMap<>();
+		final Deque<Object> toVisit = new ArrayDeque<>();
+		toVisit.add(object);
+
+		long size = 0;
+		while (!toVisit.isEmpty())
+		{
+			if (visited.size() >= MAX_OBJECTS_TO_VISIT)
+			{
+				logger.debug("Stopped estimating the size of {} after visiting {} objects", object.getClass(), visited.size());
+				break;
+			}
+
+			final Object current = toVisit.pop();
+			if (visited.put(current, Boolean.TRUE) != null)
+			{
+				continue;
+			}
+
+			try
+			{
+				size += visit(current, toVisit);
+			}
+			catch (final RuntimeException e)
+			{
+				// e.g. ConcurrentModificationException while iterating a collection which is changed by another thread
+				logger.trace("Failed estimating the size of {}. Ignored.", current.getClass(), e);
+			}
+		}
+
+		return size;
+	}
+
+	/**
+	 * Computes the shallow size of given object and adds the objects it references to <code>toVisit</code>.
+	 */
+	private long visit(final Object object, final Deque<Object> toVisit)
+	{
+		final Class<?> clazz = object.getClass();
+		if (clazz.isEnum() || object instanceof Enum || isSharedObject(object))
+		{
+			return 0;
+		}
+
+		if (object instanceof String)
+		{
+			// value array (latin1 or UTF-16 coded chars) + String object (hash, coder, reference to value)
+			final String string = (String)object;
+			return align(ARRAY_HEADER_SIZE + 2L * string.length()) + align(OBJECT_HEADER_SIZE + REFERENCE_SIZE + 8);
+		}
+		if (object instanceof BigDecimal)
+		{
+			final BigDecimal bigDecimal = (BigDecimal)object;
+			final BigInteger unscaledValue = bigDecimal.unscaledValue();
+			return align(OBJECT_HEADER_SIZE + 2 * REFERENCE_SIZE + 16)
+					+ (unscaledValue.bitLength() < 63 ? 0 : estimateBigIntegerSize(unscaledValue));
+		}
+		if (object instanceof BigInteger)
+		{
+			return estimateBigIntegerSize((BigInteger)object);
+		}
+		if (object instanceof Date)
+		{
+			// fastTime, cdate reference and, for Timestamp, the nanos
+			return align(OBJECT_HEADER_SIZE + 8 + REFERENCE_SIZE + 4);
+		}
+
+		if (clazz.isArray())
+		{
+			return visitArray(object, clazz, toVisit);
+		}
+
+		if (object instanceof Map)
+		{
+			final Map<?, ?> map = (Map<?, ?>)object;
+			for (final Map.Entry<?, ?> entry : map.entrySet())
+			{
+				addIfNotNull(toVisit, entry.getKey());
+				addIfNotNull(toVisit, entry.getValue());
+			}
+
+			// map object + table (one reference per bucket) + one node per entry (hash, key, value, next)
+			final int size = map.size();
+			return getClassLayout(clazz).getShallowSize()
+					+ align(ARRAY_HEADER_SIZE + (long)REFERENCE_SIZE * Math.max(16, size * 4 / 3))
+					+ size * align(OBJECT_HEADER_SIZE + 4 + 3 * REFERENCE_SIZE);
+		}
+		if (object instanceof Collection)
+		{
+			final Collection<?> collection = (Collection<?>)object;
+			for (final Object element : collection)
+			{
+				addIfNotNull(toVisit, element);
+			}
+
+			// collection object + backing array
+			return getClassLayout(clazz).getShallowSize()
+					+ align(ARRAY_HEADER_SIZE + (long)REFERENCE_SIZE * collection.size());
+		}
+
+		final ClassLayout classLayout = getClassLayout(clazz);
+		for (final Field field : classLayout.getReferenceFields())
+		{
+			try
+			{
+				addIfNotNull(toVisit, field.get(object));
+			}
+			catch (final IllegalAccessException | RuntimeException e)
+			{
+				logger.trace("Cannot read {}. Ignored.", field, e);
+			}
+		}
+
+		return classLayout.getShallowSize();
+	}
+
+	private boolean isSharedObject(final Object object)
+	{
+		for (final Class<?> sharedType : SHARED_TYPES)
+		{
+			if (sharedType.isInstance(object))
+			{
+				return true;
+			}
+		}
+
+		return getClassLayout(object.getClass()).isStaticInstance(object);
+	}
+
+	private static long visitArray(final Object array, final Class<?> arrayClass, final Deque<Object> toVisit)
+	{
+		final int length = Array.getLength(array);
+		final Class<?> componentType = arrayClass.getComponentType();
+		if (componentType.isPrimitive())
+		{
+			return align(ARRAY_HEADER_SIZE + (long)getPrimitiveSize(componentType) * length);
+		}
+
+		final Object[] objects = (Object[])array;
+		for (final Object element : objects)
+		{
+			addIfNotNull(toVisit, element);
+		}
+		return align(ARRAY_HEADER_SIZE + (long)REFERENCE_SIZE * length);
+	}
+
+	private static void addIfNotNull(final Deque<Object> toVisit, final Object object)
+	{
+		if (object != null)
+		{
+			toVisit.push(object);
+		}
+	}
+
+	private static long estimateBigIntegerSize(final BigInteger bigInteger)
+	{
+		final int intsCount = (bigInteger.bitLength() + 31) / 32;
+		return align(OBJECT_HEADER_SIZE + REFERENCE_SIZE + 4 * 4) + align(ARRAY_HEADER_SIZE + 4L * intsCount);
+	}
+
+	private static long align(final long size)
+	{
+		return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+
+	private static int getPrimitiveSize(final Class<?> type)
+	{
+		if (type == long.class || type == double.class)
+		{
+			return 8;
+		}
+		else if (type == int.class || type == float.class)
+		{
+			return 4;
+		}
+		else if (type == short.class || type == char.class)
+		{
+			return 2;
+		}
+		else
+		{
+			return 1; // byte, boolean
+		}
+	}
+
+	private ClassLayout getClassLayout(final Class<?> clazz)
+	{
+		return classLayouts.computeIfAbsent(clazz, ClassLayout::of);
+	}
+
+	private static final class ClassLayout
+	{
+		public static ClassLayout of(final Class<?> clazz)
+		{
+			// JDK internals are not walked, because they are either handled explicitly or they are not accessible anyways
+			final boolean walkReferences = !isJdkClass(clazz);
+
+			long shallowSize = OBJECT_HEADER_SIZE;
+			final List<Field> referenceFields = new ArrayList<>();
+			final List<Field> staticInstanceFields = new ArrayList<>();
+			for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass())
+			{
+				for (final Field field : c.getDeclaredFields())
+				{
+					if (Modifier.isStatic(field.getModifiers()))
+					{
+						if (walkReferences && c == clazz && field.getType().isAssignableFrom(clazz) && trySetAccessible(field))
+						{
+							staticInstanceFields.add(field);
+						}
+						continue;
+					}
+
+					final Class<?> fieldType = field.getType();
+					if (fieldType.isPrimitive())
+					{
+						shallowSize += getPrimitiveSize(fieldType);
+						continue;
+					}
+
+					shallowSize += REFERENCE_SIZE;
+					if (walkReferences && trySetAccessible(field))
+					{
+						referenceFields.add(field);
+					}
+				}
+			}
+
+			return new ClassLayout(align(shallowSize), ImmutableList.copyOf(referenceFields), ImmutableList.copyOf(staticInstanceFields));
+		}
+
+		private static boolean isJdkClass(final Class<?> clazz)
+		{
+			final String className = clazz.getName();
+			return className.startsWith("java.") || className.startsWith("javax.") || className.startsWith("sun.") || className.startsWith("jdk.");
+		}
+
+		private static boolean trySetAccessible(final Field field)
+		{
+			try
+			{
+				field.setAccessible(true);
+				return true;
+			}
+			catch (final RuntimeException e)
+			{
+				return false;
+			}
+		}
+
+		private final long shallowSize;
+		private final ImmutableList<Field> referenceFields;
+		/** static fields of the class itself which can hold an instance of it */
+		private final ImmutableList<Field> staticInstanceFields;
+
+		private ClassLayout(final long shallowSize, final ImmutableList<Field> referenceFields, final ImmutableList<Field> staticInstanceFields)
+		{
+			this.shallowSize = shallowSize;
+			this.referenceFields = referenceFields;
+			this.staticInstanceFields = staticInstanceFields;
+		}
+
+		/**
+		 * @return true if given object is held by a static field of its class, e.g. <code>SomeService.instance</code>
+		 */
+		public boolean isStaticInstance(final Object object)
+		{
+			for (final Field field : staticInstanceFields)
+			{
+				try
+				{
+					if (field.get(null) == object)
+					{
+						return true;
+					}
+				}
+				catch (final IllegalAccessException | RuntimeException e)
+				{
+					logger.trace("Cannot read {}. Ignored.", field, e);
+				}
+			}
+			return false;
+		}
+
+		public long getShallowSize()
+		{
+			return shallowSize;
+		}
+
+		public ImmutableList<Field> getReferenceFields()
+		{
+			return referenceFields;
+		}
+	}
+}
@@ -32,7 +32,9 @@ public class IDCache<V> extends CCache<Object, V>
 				null, // additionalTableNamesToResetFor
 				initialCapacity,
 				expireMinutes,
-				cacheMapType);
+				cacheMapType,
+				null, // maximumWeightInBytes
+				null); // valueRecordRefsExtractor
 
 		Check.assumeNotEmpty(tableName, "tableName not empty");
 	}
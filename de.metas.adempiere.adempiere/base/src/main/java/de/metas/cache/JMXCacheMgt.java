@@ -1,6 +1,8 @@
 package de.metas.cache;
 
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
 import java.util.Set;
 
 import org.adempiere.util.jmx.IJMXNameAware;
@@ -77,6 +79,59 @@ public class JMXCacheMgt implements JMXCacheMgtMBean, IJMXNameAware
 		return tableNamesArray;
 	}
 
+	@Override
+	public String[] getCacheHeapUsage()
+	{
+		return getCacheMgt()
+				.estimateHeapSizeInBytesByLabel()
+				.entrySet()
+				.stream()
+				.sorted(Comparator.comparing(Map.Entry<CacheLabel, Long>::getValue).reversed())
+				.map(entry -> entry.getKey() + ": " + entry.getValue() / 1024 + " KB")
+				.toArray(size -> new String[size]);
+	}
+
+	@Override
+	public long getEstimatedHeapSizeInBytes()
+	{
+		return getCacheMgt().estimateTotalHeapSizeInBytes();
+	}
+
+	private static CacheInvalidationBroadcastBatcher getBroadcastBatcher()
+	{
+		return CacheInvalidationRemoteHandler.instance.getBroadcastBatcher();
+	}
+
+	@Override
+	public long getRemoteInvalidationEventsPostedCount()
+	{
+		return getBroadcastBatcher().getEventsPostedCount();
+	}
+
+	@Override
+	public long getRemoteInvalidationEventsSentCount()
+	{
+		return getBroadcastBatcher().getEventsSentCount();
+	}
+
+	@Override
+	public long getRemoteInvalidationRequestsSentCount()
+	{
+		return getBroadcastBatcher().getRequestsSentCount();
+	}
+
+	@Override
+	public long getRemoteInvalidationTablesCollapsedCount()
+	{
+		return getBroadcastBatcher().getTablesCollapsedCount();
+	}
+
+	@Override
+	public double getRemoteInvalidationCoalescingRatio()
+	{
+		return getBroadcastBatcher().getCoalescingRatio();
+	}
+
 	@Override
 	public void enableRemoteCacheInvalidationForTableName(final String tableName)
 	{
@@ -18,6 +18,26 @@ public interface JMXCacheMgtMBean
 
 	String[] getTableNamesToBroadcast();
 
+	/**
+	 * @return estimated heap usage per cache label, biggest first
+	 */
+	String[] getCacheHeapUsage();
+
+	long getEstimatedHeapSizeInBytes();
+
+	long getRemoteInvalidationEventsPostedCount();
+
+	long getRemoteInvalidationEventsSentCount();
+
+	long getRemoteInvalidationRequestsSentCount();
+
+	long getRemoteInvalidationTablesCollapsedCount();
+
+	/**
+	 * @return how many cache invalidation events were posted for each event that was actually broadcasted
+	 */
+	double getRemoteInvalidationCoalescingRatio();
+
 	void enableRemoteCacheInvalidationForTableName(String tableName);
 
 	long resetAll();
@@ -37,7 +37,7 @@ import lombok.ToString;
 @EqualsAndHashCode
 @ToString
 @Getter
-final class GenericModelCacheInvalidateRequestFactory implements ModelCacheInvalidateRequestFactory
+public final class GenericModelCacheInvalidateRequestFactory implements ModelCacheInvalidateRequestFactory
 {
 	private final String rootTableName;
 	private final String childTableName;
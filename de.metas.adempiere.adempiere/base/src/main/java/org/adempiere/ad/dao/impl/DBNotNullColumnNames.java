@@ -0,0 +1,70 @@
+package org.adempiere.ad.dao.impl;
+
+import java.util.List;
+
+import org.compiere.util.DB;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.cache.CCache;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+/**
+ * Tells which columns of a table are <code>NOT NULL</code> in the database.
+ * <p>
+ * NOTE: this is not the same as the application dictionary's <code>AD_Column.IsMandatory</code>, which is not enforced in the database.
+ *
+ * @see KeysetOrderBy
+ */
+/* package */ final class DBNotNullColumnNames
+{
+	private static final CCache<String, ImmutableSet<String>> notNullColumnNamesUCByTableNameUC = new CCache<>("DBNotNullColumnNames", 100);
+
+	private DBNotNullColumnNames()
+	{
+	}
+
+	public static boolean isNotNullColumn(@NonNull final String tableName, @NonNull final String columnName)
+	{
+		final ImmutableSet<String> notNullColumnNamesUC = notNullColumnNamesUCByTableNameUC.getOrLoad(tableName.toUpperCase(), DBNotNullColumnNames::retrieveNotNullColumnNamesUC);
+		return notNullColumnNamesUC.contains(columnName.toUpperCase());
+	}
+
+	private static ImmutableSet<String> retrieveNotNullColumnNamesUC(final String tableNameUC)
+	{
+		final String sql = "SELECT a.attname"
+				+ " FROM pg_catalog.pg_attribute a"
+				+ " WHERE a.attrelid = to_regclass(lower(?))" // NULL if the table does not exist => no rows
+				+ " AND a.attnum > 0 AND NOT a.attisdropped"
+				+ " AND a.attnotnull";
+		final List<Object> sqlParams = ImmutableList.of(tableNameUC);
+
+		return DB.retrieveRowsOutOfTrx(sql, sqlParams, rs -> rs.getString(1).toUpperCase())
+				.stream()
+				.collect(ImmutableSet.toImmutableSet());
+	}
+}
@@ -0,0 +1,195 @@
+package org.adempiere.ad.dao.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.util.Check;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * A deterministic ORDER BY which allows keyset (a.k.a. seek) pagination, i.e. fetching the next page using <code>WHERE (orderBy columns) &gt; (last seen values)</code> instead of <code>OFFSET</code>.
+ * <p>
+ * Thanks to http://use-the-index-luke.com/no-offset.
+ *
+ * @see POBufferedIterator
+ */
+@Value
+/* package */ final class KeysetOrderBy
+{
+	/** Matches <code>ColumnName [ASC|DESC] [NULLS FIRST|LAST]</code> */
+	private static final Pattern PATTERN_OrderByItem = Pattern.compile("^(\\w+)(?:\\s+(ASC|DESC))?(?:\\s+NULLS\\s+(?:FIRST|LAST))?$", Pattern.CASE_INSENSITIVE);
+
+	/**
+	 * @param orderBy SQL ORDER BY clause (without <code>ORDER BY</code>); might be empty
+	 * @param keyColumnNames the key columns. They will be appended as tie breakers if they are not already part of the ORDER BY
+	 * @param isNotNullColumn tells if the given column name is a physical column which never contains <code>NULL</code>
+	 * @return keyset ORDER BY or <code>null</code> if the given ORDER BY cannot be used for keyset pagination
+	 */
+	public static KeysetOrderBy ofOrderByOrNull(
+			final String orderBy,
+			@NonNull final String tableName,
+			@NonNull final List<String> keyColumnNames,
+			@NonNull final Predicate<String> isNotNullColumn)
+	{
+		if (keyColumnNames.isEmpty())
+		{
+			return null;
+		}
+
+		final List<Item> items = new ArrayList<>();
+		final List<String> columnNamesUC = new ArrayList<>();
+		if (!Check.isEmpty(orderBy, true))
+		{
+			for (final String orderByItem : orderBy.split(","))
+			{
+				final Matcher matcher = PATTERN_OrderByItem.matcher(orderByItem.trim());
+				if (!matcher.matches())
+				{
+					return null;
+				}
+
+				final String columnName = matcher.group(1);
+				if (!keyColumnNames.contains(columnName) && !isNotNullColumn.test(columnName))
+				{
+					return null;
+				}
+
+				items.add(new Item(columnName, "DESC".equalsIgnoreCase(matcher.group(2))));
+				columnNamesUC.add(columnName.toUpperCase());
+			}
+		}
+
+		for (final String keyColumnName : keyColumnNames)
+		{
+			if (!columnNamesUC.contains(keyColumnName.toUpperCase()))
+			{
+				items.add(new Item(keyColumnName, false));
+			}
+		}
+
+		return new KeysetOrderBy(tableName, ImmutableList.copyOf(items));
+	}
+
+	@Value
+	@VisibleForTesting
+	static final class Item
+	{
+		private final String columnName;
+		private final boolean descending;
+	}
+
+	private final String tableName;
+	private final ImmutableList<Item> items;
+
+	public String getOrderBySql()
+	{
+		final StringBuilder sql = new StringBuilder();
+		for (final Item item : items)
+		{
+			if (sql.length() > 0)
+			{
+				sql.append(", ");
+			}
+			sql.append(getColumnNameFQ(item)).append(item.isDescending() ? " DESC" : " ASC");
+		}
+		return sql.toString();
+	}
+
+	public List<String> getColumnNames()
+	{
+		return items.stream().map(Item::getColumnName).collect(ImmutableList.toImmutableList());
+	}
+
+	private String getColumnNameFQ(final Item item)
+	{
+		return tableName + "." + item.getColumnName();
+	}
+
+	/**
+	 * Builds the where clause which matches all rows coming after the given row.
+	 *
+	 * @param lastValues the values of the last seen row, in the same order as {@link #getColumnNames()}
+	 * @param sqlParamsOut where the SQL parameters will be added
+	 */
+	public String buildSeekWhereClause(@NonNull final List<Object> lastValues, @NonNull final List<Object> sqlParamsOut)
+	{
+		Check.assumeEquals(lastValues.size(), items.size(), "lastValues.size");
+
+		//
+		// All columns have the same direction => use the row value comparison, which can be resolved by one index range scan
+		final boolean allDescending = items.stream().allMatch(Item::isDescending);
+		final boolean allAscending = items.stream().noneMatch(Item::isDescending);
+		if (allAscending || allDescending)
+		{
+			final StringBuilder columns = new StringBuilder();
+			final StringBuilder placeholders = new StringBuilder();
+			for (final Item item : items)
+			{
+				if (columns.length() > 0)
+				{
+					columns.append(", ");
+					placeholders.append(", ");
+				}
+				columns.append(getColumnNameFQ(item));
+				placeholders.append("?");
+			}
+			sqlParamsOut.addAll(lastValues);
+
+			return "(" + columns + ")" + (allDescending ? " < " : " > ") + "(" + placeholders + ")";
+		}
+
+		//
+		// Mixed directions => (c1 > ?) OR (c1 = ? AND c2 < ?) OR ...
+		final StringBuilder sql = new StringBuilder();
+		for (int i = 0; i < items.size(); i++)
+		{
+			if (sql.length() > 0)
+			{
+				sql.append(" OR ");
+			}
+
+			sql.append("(");
+			for (int j = 0; j < i; j++)
+			{
+				sql.append(getColumnNameFQ(items.get(j))).append("=? AND ");
+				sqlParamsOut.add(lastValues.get(j));
+			}
+
+			final Item item = items.get(i);
+			sql.append(getColumnNameFQ(item)).append(item.isDescending() ? "<?" : ">?");
+			sqlParamsOut.add(lastValues.get(i));
+			sql.append(")");
+		}
+
+		return "(" + sql + ")";
+	}
+}
@@ -22,10 +22,13 @@ package org.adempiere.ad.dao.impl;
  * #L%
  */
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
 import org.adempiere.exceptions.DBException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.IQuery;
 import org.compiere.model.POInfo;
 import org.compiere.model.Query;
 import org.compiere.util.DB;
@@ -36,6 +39,13 @@ import de.metas.util.Check;
 
 /**
  * Buffered {@link Iterator} over a {@link TypedSqlQuery} result.
+ * <p>
+ * Pages are loaded using one of following strategies:
+ * <ul>
+ * <li>row number column: if a <code>rowNumberColumn</code> was provided, the next page is fetched using <code>rowNumberColumn &gt; offset</code>
+ * <li>keyset (seek): if the query's ordering is deterministic (see {@link KeysetOrderBy}), the next page is fetched using <code>WHERE (orderBy columns) &gt; (last seen values)</code>
+ * <li>offset: fallback, the next page is fetched using <code>LIMIT/OFFSET</code>, which means the database has to re-scan and discard <code>offset</code> rows for each page
+ * </ul>
  *
  * @author tsa
  *
@@ -49,7 +59,19 @@ import de.metas.util.Check;
 	private final Class<ET> clazz;
 	private final String rowNumberColumn;
 
-	private int bufferSize = 50;
+	/** Keyset ORDER BY or <code>null</code> if keyset pagination shall not be used */
+	private KeysetOrderBy keysetOrderBy;
+	/** The where clause parameters of the original query; the keyset parameters will be appended to them */
+	private final List<Object> keysetBaseParameters;
+	/** The {@link #keysetOrderBy} values of the last loaded row or <code>null</code> if no page was loaded yet */
+	private List<Object> keysetLastValues = null;
+
+	private static final int DEFAULT_BufferSize_Min = 50;
+	private static final int DEFAULT_BufferSize_Max = 500;
+	/** Used to compute the default buffer size: how many column values we want to load at a time */
+	private static final int DEFAULT_BufferSize_ValuesPerPage = 10000;
+
+	private int bufferSize;
 	private int offset = 0; // in the DB, line is set via the row_number() window function wich starts at 1
 
 	private Iterator<ET> bufferIterator;
@@ -98,6 +120,43 @@ import de.metas.util.Check;
 		// Check.assume(clazz != null, "clazz != null"); // class can be null
 		this.clazz = clazz;
 		this.rowNumberColumn = rowNumberColumn;
+
+		if (Check.isEmpty(rowNumberColumn, true))
+		{
+			this.keysetOrderBy = this.query.getKeysetOrderByOrNull();
+		}
+		else
+		{
+			this.keysetOrderBy = null;
+		}
+		if (keysetOrderBy != null)
+		{
+			this.query.setOrderBy(keysetOrderBy.getOrderBySql());
+			this.keysetBaseParameters = this.query.getParameters();
+			logger.trace("Using keyset pagination with ORDER BY: {}", keysetOrderBy);
+		}
+		else
+		{
+			this.keysetBaseParameters = null;
+		}
+
+		this.bufferSize = computeDefaultBufferSize(this.query.getTableName());
+	}
+
+	/**
+	 * @return default buffer size, such that we load around {@value #DEFAULT_BufferSize_ValuesPerPage} values per page, i.e. less rows for wide tables and more rows for narrow tables.
+	 */
+	private static int computeDefaultBufferSize(final String tableName)
+	{
+		final POInfo poInfo = POInfo.getPOInfo(tableName);
+		final int columnCount = poInfo != null ? poInfo.getColumnCount() : 0;
+		if (columnCount <= 0)
+		{
+			return DEFAULT_BufferSize_Min;
+		}
+
+		final int bufferSize = DEFAULT_BufferSize_ValuesPerPage / columnCount;
+		return Math.max(DEFAULT_BufferSize_Min, Math.min(bufferSize, DEFAULT_BufferSize_Max));
 	}
 
 	/**
@@ -167,8 +226,13 @@ import de.metas.util.Check;
 	{
 		final TypedSqlQuery<T> queryToUse;
 
-		query.setLimit(bufferSize);
-		if (Check.isEmpty(rowNumberColumn, true))
+		if (keysetOrderBy != null)
+		{
+			// the page is selected by the seek where clause, so make sure no offset (e.g. set by the caller) is applied on each page
+			query.setLimit(bufferSize, IQuery.NO_LIMIT);
+			queryToUse = keysetLastValues != null ? createKeysetQuery(keysetLastValues) : query;
+		}
+		else if (Check.isEmpty(rowNumberColumn, true))
 		{
 			query.setLimit(bufferSize, offset);
 			queryToUse = query;
@@ -186,10 +250,45 @@ import de.metas.util.Check;
 
 		if (logger.isDebugEnabled())
 		{
-			logger.debug("Loaded next page: bufferSize=" + bufferSize + ", offset=" + offset + " => " + bufferSizeActual + " records (fullyLoaded=" + bufferFullyLoaded + ")");
+			logger.debug("Loaded next page: bufferSize=" + bufferSize + ", offset=" + offset + ", keysetLastValues=" + keysetLastValues + " => " + bufferSizeActual + " records (fullyLoaded=" + bufferFullyLoaded + ")");
 		}
 
 		offset += bufferSizeActual;
+
+		if (keysetOrderBy != null && bufferSizeActual > 0)
+		{
+			keysetLastValues = extractKeysetValues(buffer.get(bufferSizeActual - 1));
+		}
+	}
+
+	private TypedSqlQuery<T> createKeysetQuery(final List<Object> lastValues)
+	{
+		final List<Object> sqlParams = new ArrayList<>(keysetBaseParameters);
+		final String seekWhereClause = keysetOrderBy.buildSeekWhereClause(lastValues, sqlParams);
+		return query.addWhereClause(true, seekWhereClause)
+				.setParameters(sqlParams);
+	}
+
+	/**
+	 * @return the {@link #keysetOrderBy} values of given model or <code>null</code> if the keyset pagination shall not be used from now on
+	 */
+	private List<Object> extractKeysetValues(final ET model)
+	{
+		final List<Object> values = new ArrayList<>();
+		for (final String columnName : keysetOrderBy.getColumnNames())
+		{
+			final Object value = InterfaceWrapperHelper.getValueOrNull(model, columnName);
+			if (value == null)
+			{
+				// Shall not happen because we are considering only the columns which are NOT NULL in database, but if it happens we can still continue with OFFSET,
+				// because the ORDER BY is the same.
+				logger.warn("Got null value for {} in {}. Switching from keyset to offset pagination for {}", columnName, model, this);
+				keysetOrderBy = null;
+				return null;
+			}
+			values.add(value);
+		}
+		return values;
 	}
 
 	/**
@@ -215,6 +314,7 @@ import de.metas.util.Check;
 		return "POBufferedIterator [clazz=" + clazz
 				+ ", bufferSize=" + bufferSize
 				+ ", offset=" + offset
+				+ ", keysetOrderBy=" + keysetOrderBy
 				+ ", query=" + query
 				+ "]";
 	}
@@ -0,0 +1,208 @@
+package org.adempiere.ad.dao.impl;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import org.adempiere.exceptions.DBException;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import com.google.common.base.MoreObjects;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * {@link Iterator} which runs one single SELECT on a dedicated read-only connection and loads the models lazily while the server side cursor advances.
+ * <p>
+ * The JDBC driver is fetching <code>fetchSize</code> rows at a time, so the memory consumption is constant, no matter how many rows are matched.
+ * To make this happen (at least on PostgreSQL), the connection must not be in auto-commit mode and the result set must be forward only.
+ * <p>
+ * NOTE: because a dedicated connection is used, this iterator sees only committed data.
+ * <p>
+ * The iterator is closed automatically when it reached the end. If the caller stops earlier, it has to call {@link #close()}, else the connection is leaked.
+ *
+ * @param <ET> model type
+ */
+/* package */ final class ServerCursorModelIterator<ET> implements Iterator<ET>, Closeable
+{
+	private static final transient Logger logger = LogManager.getLogger(ServerCursorModelIterator.class);
+
+	private final String sql;
+	private final Function<ResultSet, ET> modelLoader;
+
+	private Connection connection;
+	private PreparedStatement pstmt;
+	private ResultSet rs;
+
+	private boolean hasNextRow = false;
+	private boolean hasNextRowLoaded = false;
+	private int rowsFetched = 0;
+
+	/* package */ ServerCursorModelIterator(
+			@NonNull final String sql,
+			final List<Object> sqlParams,
+			final int fetchSize,
+			@NonNull final Function<ResultSet, ET> modelLoader)
+	{
+		Check.assume(fetchSize > 0, "fetchSize > 0");
+
+		this.sql = sql;
+		this.modelLoader = modelLoader;
+
+		boolean ok = false;
+		try
+		{
+			connection = DB.getConnectionRO();
+			connection.setAutoCommit(false);
+
+			pstmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			pstmt.setFetchSize(fetchSize);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+			ok = true;
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sql, sqlParams);
+		}
+		finally
+		{
+			if (!ok)
+			{
+				close();
+			}
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("sql", sql)
+				.add("rowsFetched", rowsFetched)
+				.add("closed", isClosed())
+				.toString();
+	}
+
+	private boolean isClosed()
+	{
+		return connection == null;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		if (isClosed())
+		{
+			return false;
+		}
+
+		if (!hasNextRowLoaded)
+		{
+			try
+			{
+				hasNextRow = rs.next();
+				hasNextRowLoaded = true;
+			}
+			catch (final SQLException e)
+			{
+				close();
+				throw new DBException(e, sql);
+			}
+
+			if (!hasNextRow)
+			{
+				close();
+			}
+		}
+
+		return hasNextRow;
+	}
+
+	@Override
+	public ET next()
+	{
+		if (!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+
+		hasNextRowLoaded = false;
+		rowsFetched++;
+		try
+		{
+			return modelLoader.apply(rs);
+		}
+		catch (final RuntimeException e)
+		{
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Releases the database resources. It's safe to call this method more than once.
+	 */
+	@Override
+	public void close()
+	{
+		if (isClosed())
+		{
+			return;
+		}
+
+		DB.close(rs, pstmt);
+		rs = null;
+		pstmt = null;
+
+		final Connection connection = this.connection;
+		this.connection = null;
+		try
+		{
+			// we did not change anything, we just want to end the transaction and give the connection back to the pool like we got it
+			connection.rollback();
+			connection.setAutoCommit(true);
+		}
+		catch (final SQLException e)
+		{
+			logger.warn("Failed to reset the connection of {}. Ignored.", this, e);
+		}
+		finally
+		{
+			DB.close(connection);
+		}
+
+		logger.debug("Closed after fetching {} rows: {}", rowsFetched, sql);
+	}
+}
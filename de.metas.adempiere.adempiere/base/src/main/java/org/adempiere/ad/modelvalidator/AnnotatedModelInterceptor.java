@@ -1,6 +1,5 @@
 package org.adempiere.ad.modelvalidator;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -32,6 +31,9 @@ import org.slf4j.Logger;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
@@ -73,6 +75,12 @@ import lombok.NonNull;
 	 */
 	private final transient Map<PointcutKey, SortedSet<Pointcut>> mapPointcuts = new HashMap<>();
 
+	/**
+	 * Pointcuts by table name and timing, for each {@link PointcutType}, in the same order as in {@link #mapPointcuts}.
+	 * It's built once after the pointcuts were loaded, so we don't have to filter the pointcuts on each model change.
+	 */
+	private transient ImmutableMap<PointcutType, ImmutableMap<String, ImmutableListMultimap<Integer, Pointcut>>> pointcutsDispatchTable = ImmutableMap.of();
+
 	private int clientId = -1;
 
 	/**
@@ -87,6 +95,34 @@ import lombok.NonNull;
 
 		loadAnnotatedClassDefinition();
 		loadPointcuts();
+		pointcutsDispatchTable = createPointcutsDispatchTable(mapPointcuts);
+	}
+
+	private static ImmutableMap<PointcutType, ImmutableMap<String, ImmutableListMultimap<Integer, Pointcut>>> createPointcutsDispatchTable(final Map<PointcutKey, SortedSet<Pointcut>> mapPointcuts)
+	{
+		final Map<PointcutType, Map<String, ImmutableListMultimap.Builder<Integer, Pointcut>>> builders = new HashMap<>();
+		for (final Map.Entry<PointcutKey, SortedSet<Pointcut>> e : mapPointcuts.entrySet())
+		{
+			final PointcutKey key = e.getKey();
+			final ImmutableListMultimap.Builder<Integer, Pointcut> pointcutsByTiming = builders
+					.computeIfAbsent(key.getType(), type -> new HashMap<>())
+					.computeIfAbsent(key.getTableName(), tableName -> ImmutableListMultimap.builder());
+			for (final Pointcut pointcut : e.getValue())
+			{
+				for (final Integer timing : pointcut.getTimings())
+				{
+					pointcutsByTiming.put(timing, pointcut);
+				}
+			}
+		}
+
+		final ImmutableMap.Builder<PointcutType, ImmutableMap<String, ImmutableListMultimap<Integer, Pointcut>>> dispatchTable = ImmutableMap.builder();
+		builders.forEach((type, pointcutsByTableName) -> {
+			final ImmutableMap.Builder<String, ImmutableListMultimap<Integer, Pointcut>> pointcutsByTableNameBuilder = ImmutableMap.builder();
+			pointcutsByTableName.forEach((tableName, pointcutsByTiming) -> pointcutsByTableNameBuilder.put(tableName, pointcutsByTiming.build()));
+			dispatchTable.put(type, pointcutsByTableNameBuilder.build());
+		});
+		return dispatchTable.build();
 	}
 
 	/**
@@ -451,30 +487,31 @@ import lombok.NonNull;
 
 	private void execute(final PointcutType type, final Object po, final int timing)
 	{
-		final String tableName = InterfaceWrapperHelper.getModelTableName(po);
-		final PointcutKey key = mkKey(tableName, type);
-		final SortedSet<Pointcut> list = mapPointcuts.get(key);
-		if (list == null || list.isEmpty())
+		final ImmutableMap<String, ImmutableListMultimap<Integer, Pointcut>> pointcutsByTableName = pointcutsDispatchTable.get(type);
+		if (pointcutsByTableName == null)
 		{
 			return;
 		}
 
-		for (final IPointcut info : list)
+		final String tableName = InterfaceWrapperHelper.getModelTableName(po);
+		final ImmutableListMultimap<Integer, Pointcut> pointcutsByTiming = pointcutsByTableName.get(tableName);
+		if (pointcutsByTiming == null)
 		{
-			execute(info, po, timing);
+			return;
 		}
-	}
 
-	private void execute(final IPointcut pointcut, final Object po, final int timing)
-	{
-		//
-		// Check timings
-		final Set<Integer> timings = pointcut.getTimings();
-		if (!timings.contains(timing))
+		final ImmutableList<Pointcut> pointcuts = pointcutsByTiming.get(timing);
+		for (int i = 0, size = pointcuts.size(); i < size; i++)
 		{
-			return;
+			execute(pointcuts.get(i), po, timing);
 		}
+	}
 
+	/**
+	 * NOTE: the pointcut's timings are not checked here, because the pointcuts were already looked up by timing.
+	 */
+	private void execute(final Pointcut pointcut, final Object po, final int timing)
+	{
 		//
 		// Check if UserAction required (i.e. user manually changed this record from a window)
 		if (pointcut.isOnlyIfUIAction())
@@ -547,7 +584,7 @@ import lombok.NonNull;
 	@VisibleForTesting
 	private final void executeNow(
 			@NonNull final Object po,
-			@NonNull final IPointcut pointcut,
+			@NonNull final Pointcut pointcut,
 			final int timing)
 	{
 		if (AnnotatedModelInterceptorDisabler.get().isDisabled(pointcut))
@@ -562,7 +599,7 @@ import lombok.NonNull;
 		{
 			executeNow0(model, pointcut, timing);
 		}
-		catch (final Exception e)
+		catch (final Throwable e)
 		{
 			final AdempiereException adempiereException = appendAndLogHowtoDisableMessage(e, pointcut);
 			throw adempiereException;
@@ -570,7 +607,7 @@ import lombok.NonNull;
 	}
 
 	private AdempiereException appendAndLogHowtoDisableMessage(
-			@NonNull final Exception e,
+			@NonNull final Throwable e,
 			@NonNull final IPointcut pointcut)
 	{
 		final String parameterName = "HowtoDisableModelInterceptor";
@@ -588,28 +625,11 @@ import lombok.NonNull;
 
 	private void executeNow0(
 			@NonNull final Object model,
-			@NonNull final IPointcut pointcut,
-			final int timing) throws IllegalAccessException, InvocationTargetException
+			@NonNull final Pointcut pointcut,
+			final int timing) throws Throwable
 	{
-		final Method method = pointcut.getMethod();
-
-		// Make sure the method is accessible
-		if (!method.isAccessible())
-		{
-			method.setAccessible(true);
-		}
-
 		logger.debug("Executing: {}", pointcut);
-
-		if (pointcut.isMethodRequiresTiming())
-		{
-			final Object timingParam = pointcut.convertToMethodTimingParameterType(timing);
-			method.invoke(annotatedObject, model, timingParam);
-		}
-		else
-		{
-			method.invoke(annotatedObject, model);
-		}
+		pointcut.invoke(annotatedObject, model, timing);
 	}
 
 	/**
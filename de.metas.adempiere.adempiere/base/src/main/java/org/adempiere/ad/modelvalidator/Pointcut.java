@@ -22,7 +22,11 @@ package org.adempiere.ad.modelvalidator;
  * #L%
  */
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.Set;
 
 import org.adempiere.ad.service.IDeveloperModeBL;
@@ -48,6 +52,8 @@ import lombok.Setter;
 	private String tableName;
 	private Class<?> modelClass;
 	private Class<?> methodTimingParameterType;
+	/** {@link #method} bound as <code>(Object annotatedObject, Object model[, Object timing])void</code>; created when the timing parameter type is set */
+	private MethodHandle methodHandle;
 	private Set<String> modelColumnNames = ImmutableSet.of();
 	private Set<String> changedColumns = ImmutableSet.of();
 	private Set<String> ignoredColumns = ImmutableSet.of();
@@ -187,6 +193,55 @@ import lombok.Setter;
 		{
 			throw new AdempiereException("Invalid timing parameter type " + methodTimingParameterType + " for method " + getMethod());
 		}
+
+		this.methodHandle = createMethodHandle(method, isMethodRequiresTiming());
+	}
+
+	private static MethodHandle createMethodHandle(final Method method, final boolean methodRequiresTiming)
+	{
+		// Make sure the method is accessible
+		if (!method.isAccessible())
+		{
+			method.setAccessible(true);
+		}
+
+		MethodHandle methodHandle;
+		try
+		{
+			methodHandle = MethodHandles.lookup().unreflect(method);
+		}
+		catch (final IllegalAccessException e)
+		{
+			throw new AdempiereException("Cannot access method " + method, e);
+		}
+
+		if (Modifier.isStatic(method.getModifiers()))
+		{
+			methodHandle = MethodHandles.dropArguments(methodHandle, 0, Object.class); // ignore the annotated object
+		}
+
+		final MethodType methodType = methodRequiresTiming
+				? MethodType.methodType(void.class, Object.class, Object.class, Object.class)
+				: MethodType.methodType(void.class, Object.class, Object.class);
+		return methodHandle.asType(methodType);
+	}
+
+	/**
+	 * Invokes the pointcut's method directly, without reflection.
+	 *
+	 * @param model model, already converted to {@link #getModelClass()}
+	 */
+	public void invoke(final Object annotatedObject, final Object model, final int timing) throws Throwable
+	{
+		if (methodTimingParameterType == null)
+		{
+			methodHandle.invokeExact(annotatedObject, model);
+		}
+		else
+		{
+			final Object timingParam = convertToMethodTimingParameterType(timing);
+			methodHandle.invokeExact(annotatedObject, model, timingParam);
+		}
 	}
 
 	@Override
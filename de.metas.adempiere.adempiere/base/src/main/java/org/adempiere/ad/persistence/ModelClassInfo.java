@@ -25,9 +25,8 @@ package org.adempiere.ad.persistence;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.reflections.ReflectionUtils;
 
@@ -43,8 +42,7 @@ class ModelClassInfo implements IModelClassInfo
 	private final Class<?> modelClass;
 	private final String tableName;
 
-	private Map<Method, IModelMethodInfo> _modelMethodInfos;
-	private final ReentrantLock modelMethodInfosLock = new ReentrantLock();
+	private volatile ConcurrentHashMap<Method, IModelMethodInfo> _modelMethodInfos;
 
 	private Set<String> _definedColumnNames = null;
 
@@ -83,51 +81,55 @@ class ModelClassInfo implements IModelClassInfo
 		return tableName;
 	}
 
+	/**
+	 * Gets the method info of given method. This method is called on each model getter/setter invocation, so it shall not require locking.
+	 */
 	@Override
 	public final IModelMethodInfo getMethodInfo(final Method method)
 	{
-		modelMethodInfosLock.lock();
-		try
-		{
-			final Map<Method, IModelMethodInfo> methodInfos = getMethodInfos0();
-
-			IModelMethodInfo methodInfo = methodInfos.get(method);
-
-			//
-			// If methodInfo was not found, try to create it now
-			if (methodInfo == null)
-			{
-				methodInfo = introspector.createModelMethodInfo(method);
-				if (methodInfo == null)
-				{
-					throw new IllegalStateException("No method info was found for " + method + " in " + this);
-				}
-
-				methodInfos.put(method, methodInfo);
-			}
+		final ConcurrentHashMap<Method, IModelMethodInfo> methodInfos = getMethodInfos0();
 
+		final IModelMethodInfo methodInfo = methodInfos.get(method);
+		if (methodInfo != null)
+		{
 			return methodInfo;
 		}
-		finally
+
+		//
+		// If methodInfo was not found, try to create it now
+		return methodInfos.computeIfAbsent(method, this::createMethodInfo);
+	}
+
+	private IModelMethodInfo createMethodInfo(final Method method)
+	{
+		final IModelMethodInfo methodInfo = introspector.createModelMethodInfo(method);
+		if (methodInfo == null)
 		{
-			modelMethodInfosLock.unlock();
+			throw new IllegalStateException("No method info was found for " + method + " in " + this);
 		}
+		return methodInfo;
 	}
 
 	/**
 	 * Gets the inner map of {@link Method} to {@link IModelMethodInfo}.
-	 * 
-	 * NOTE: this method is not thread safe
-	 * 
+	 *
 	 * @return
 	 */
-	private final Map<Method, IModelMethodInfo> getMethodInfos0()
+	private final ConcurrentHashMap<Method, IModelMethodInfo> getMethodInfos0()
 	{
-		if (_modelMethodInfos == null)
+		ConcurrentHashMap<Method, IModelMethodInfo> modelMethodInfos = _modelMethodInfos;
+		if (modelMethodInfos == null)
 		{
-			_modelMethodInfos = introspector.createModelMethodInfos(getModelClass());
+			synchronized (this)
+			{
+				modelMethodInfos = _modelMethodInfos;
+				if (modelMethodInfos == null)
+				{
+					modelMethodInfos = _modelMethodInfos = new ConcurrentHashMap<>(introspector.createModelMethodInfos(getModelClass()));
+				}
+			}
 		}
-		return _modelMethodInfos;
+		return modelMethodInfos;
 	}
 
 	@Override
@@ -219,4 +219,44 @@ public interface ITrx
 	 * @return new value or null in case the remapping function returned null
 	 */
 	<T> T setAndGetProperty(String name, Function<T, T> valueRemappingFunction);
+
+	/**
+	 * Enables/disables the deferred write mode.
+	 * <p>
+	 * In this mode, simple INSERTs and UPDATEs (see {@link #deferWrite(String)}) are not executed right away, but queued and executed as JDBC batches:
+	 * <ul>
+	 * <li>before any other statement is executed on this transaction (so queries will always see the queued changes)
+	 * <li>before a savepoint is created and before commit
+	 * <li>when the batch is full
+	 * </ul>
+	 * If a queued statement fails, the error is reported when the batch is executed, and not when the statement was queued.
+	 * That's why {@link org.compiere.model.PO} defers only the saves of the models which allow it (see {@link org.adempiere.model.InterfaceWrapperHelper#allowDeferredWrite(Object)}).
+	 * <p>
+	 * Disabling it executes the pending statements.
+	 */
+	void setDeferredWriteEnabled(boolean enabled);
+
+	/**
+	 * @see #setDeferredWriteEnabled(boolean)
+	 */
+	boolean isDeferredWriteEnabled();
+
+	/**
+	 * Disables the deferred write mode <b>without</b> executing the pending statements, which are dropped.
+	 * <p>
+	 * To be used when the code which queued the statements failed. The caller shall make sure the transaction is rolled back,
+	 * because the models which were "saved" by the dropped statements are not in the database.
+	 *
+	 * @see #setDeferredWriteEnabled(boolean)
+	 */
+	void discardDeferredWrites();
+
+	/**
+	 * Queues given SQL statement, if the deferred write mode is enabled.
+	 *
+	 * @param sql INSERT or UPDATE statement without parameters, which is expected to affect exactly one row
+	 * @return <code>true</code> if the statement was queued, <code>false</code> if the caller has to execute it
+	 * @see #setDeferredWriteEnabled(boolean)
+	 */
+	boolean deferWrite(String sql);
 }
@@ -169,4 +169,28 @@ public final class NullTrxPlaceholder implements ITrx
 		throw new UnsupportedOperationException();
 	}
 
+	@Override
+	public void setDeferredWriteEnabled(final boolean enabled)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void discardDeferredWrites()
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean isDeferredWriteEnabled()
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean deferWrite(final String sql)
+	{
+		throw new UnsupportedOperationException();
+	}
+
 }
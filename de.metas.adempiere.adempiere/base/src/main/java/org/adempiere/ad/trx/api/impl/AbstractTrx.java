@@ -71,6 +71,8 @@ public abstract class AbstractTrx implements ITrx
 
 	private volatile ConcurrentHashMap<String, Object> _properties = null;
 
+	private boolean deferredWriteEnabled = false;
+
 	//
 	// Debug info
 	private Exception debugCreateStacktrace = null;
@@ -579,6 +581,72 @@ public abstract class AbstractTrx implements ITrx
 		
 	}
 
+	@Override
+	public final void setDeferredWriteEnabled(final boolean enabled)
+	{
+		if (deferredWriteEnabled == enabled)
+		{
+			return;
+		}
+
+		deferredWriteEnabled = enabled;
+		if (!enabled)
+		{
+			flushDeferredWritesNative();
+		}
+	}
+
+	@Override
+	public final void discardDeferredWrites()
+	{
+		deferredWriteEnabled = false;
+		discardDeferredWritesNative();
+	}
+
+	@Override
+	public final boolean isDeferredWriteEnabled()
+	{
+		return deferredWriteEnabled;
+	}
+
+	@Override
+	public final boolean deferWrite(@NonNull final String sql)
+	{
+		if (!deferredWriteEnabled || isAutoCommit())
+		{
+			return false;
+		}
+
+		return deferWriteNative(sql);
+	}
+
+	/**
+	 * Native (actual) deferred write implementation.
+	 *
+	 * NOTE: This method shall be overwritten by actual transaction implementations which support deferred writes.
+	 *
+	 * @return <code>true</code> if the statement was queued; <code>false</code> if deferred writes are not supported
+	 */
+	protected boolean deferWriteNative(final String sql)
+	{
+		return false;
+	}
+
+	/**
+	 * Executes all statements which were queued by {@link #deferWriteNative(String)}.
+	 */
+	protected void flushDeferredWritesNative()
+	{
+		// nothing at this level
+	}
+
+	/**
+	 * Drops all statements which were queued by {@link #deferWriteNative(String)}, without executing them.
+	 */
+	protected void discardDeferredWritesNative()
+	{
+		// nothing at this level
+	}
 
 	protected final void setDebugConnectionBackendId(final String debugConnectionBackendId)
 	{
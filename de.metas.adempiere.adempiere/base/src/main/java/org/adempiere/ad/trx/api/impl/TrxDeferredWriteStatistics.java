@@ -0,0 +1,101 @@
+package org.adempiere.ad.trx.api.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.adempiere.ad.trx.api.ITrx;
+
+import com.google.common.base.MoreObjects;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects how many deferred writes (see {@link ITrx#setDeferredWriteEnabled(boolean)}) were flushed and in how many batches.
+ * Published via JMX, see {@link org.adempiere.ad.trx.jmx.JMXTrxManagerMBean}.
+ */
+public final class TrxDeferredWriteStatistics
+{
+	public static final transient TrxDeferredWriteStatistics instance = new TrxDeferredWriteStatistics();
+
+	private final AtomicLong flushCount = new AtomicLong(0);
+	private final AtomicLong statementsCount = new AtomicLong(0);
+	private final AtomicLong maxFlushSize = new AtomicLong(0);
+	private final AtomicLong flushDurationMillis = new AtomicLong(0);
+
+	private TrxDeferredWriteStatistics()
+	{
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("flushCount", getFlushCount())
+				.add("statementsCount", getStatementsCount())
+				.add("averageFlushSize", getAverageFlushSize())
+				.add("maxFlushSize", getMaxFlushSize())
+				.add("flushDurationMillis", getFlushDurationMillis())
+				.toString();
+	}
+
+	public void recordFlush(final int statementsCount, final long durationMillis)
+	{
+		this.flushCount.incrementAndGet();
+		this.statementsCount.addAndGet(statementsCount);
+		this.maxFlushSize.accumulateAndGet(statementsCount, Math::max);
+		this.flushDurationMillis.addAndGet(durationMillis);
+	}
+
+	public void reset()
+	{
+		flushCount.set(0);
+		statementsCount.set(0);
+		maxFlushSize.set(0);
+		flushDurationMillis.set(0);
+	}
+
+	public long getFlushCount()
+	{
+		return flushCount.get();
+	}
+
+	public long getStatementsCount()
+	{
+		return statementsCount.get();
+	}
+
+	public long getAverageFlushSize()
+	{
+		final long flushCount = getFlushCount();
+		return flushCount > 0 ? getStatementsCount() / flushCount : 0;
+	}
+
+	public long getMaxFlushSize()
+	{
+		return maxFlushSize.get();
+	}
+
+	public long getFlushDurationMillis()
+	{
+		return flushDurationMillis.get();
+	}
+}
@@ -29,6 +29,7 @@ import java.util.List;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.impl.TrxDeferredWriteStatistics;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.util.jmx.IJMXNameAware;
 
@@ -184,4 +185,40 @@ public class JMXTrxManager implements JMXTrxManagerMBean, IJMXNameAware
 		return getTrxManager().isDebugConnectionBackendId();
 	}
 
+	@Override
+	public long getDeferredWriteFlushCount()
+	{
+		return TrxDeferredWriteStatistics.instance.getFlushCount();
+	}
+
+	@Override
+	public long getDeferredWriteStatementsCount()
+	{
+		return TrxDeferredWriteStatistics.instance.getStatementsCount();
+	}
+
+	@Override
+	public long getDeferredWriteAverageFlushSize()
+	{
+		return TrxDeferredWriteStatistics.instance.getAverageFlushSize();
+	}
+
+	@Override
+	public long getDeferredWriteMaxFlushSize()
+	{
+		return TrxDeferredWriteStatistics.instance.getMaxFlushSize();
+	}
+
+	@Override
+	public long getDeferredWriteFlushDurationMillis()
+	{
+		return TrxDeferredWriteStatistics.instance.getFlushDurationMillis();
+	}
+
+	@Override
+	public void resetDeferredWriteStatistics()
+	{
+		TrxDeferredWriteStatistics.instance.reset();
+	}
+
 }
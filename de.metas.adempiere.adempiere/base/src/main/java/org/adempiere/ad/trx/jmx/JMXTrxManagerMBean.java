@@ -48,4 +48,16 @@ public interface JMXTrxManagerMBean
 
 	boolean isDebugConnectionBackendId();
 
+	long getDeferredWriteFlushCount();
+
+	long getDeferredWriteStatementsCount();
+
+	long getDeferredWriteAverageFlushSize();
+
+	long getDeferredWriteMaxFlushSize();
+
+	long getDeferredWriteFlushDurationMillis();
+
+	void resetDeferredWriteStatistics();
+
 }
@@ -0,0 +1,92 @@
+package org.adempiere.ad.wrapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+
+import org.adempiere.exceptions.AdempiereException;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Creates the proxies of model interfaces (e.g. I_C_Order).
+ * <p>
+ * Same as {@link Proxy#newProxyInstance(ClassLoader, Class[], InvocationHandler)}, but the proxy class' constructor is looked up only once per model interface,
+ * so creating a proxy does not need to look up the proxy class in the JDK's proxy cache and the constructor is not invoked by reflection.
+ */
+public final class ModelProxyFactory
+{
+	private static final MethodType PROXY_FACTORY_TYPE = MethodType.methodType(Object.class, InvocationHandler.class);
+
+	private static final ClassValue<MethodHandle> proxyConstructors = new ClassValue<MethodHandle>()
+	{
+		@Override
+		protected MethodHandle computeValue(final Class<?> interfaceClass)
+		{
+			return createProxyConstructor(interfaceClass);
+		}
+	};
+
+	public static <T> T newProxyInstance(@NonNull final Class<T> interfaceClass, @NonNull final InvocationHandler handler)
+	{
+		final MethodHandle proxyConstructor = proxyConstructors.get(interfaceClass);
+		try
+		{
+			final Object proxy = (Object)proxyConstructor.invokeExact(handler);
+			return interfaceClass.cast(proxy);
+		}
+		catch (final Throwable e)
+		{
+			throw AdempiereException.wrapIfNeeded(e);
+		}
+	}
+
+	private static MethodHandle createProxyConstructor(final Class<?> interfaceClass)
+	{
+		final Class<?> proxyClass = Proxy.getProxyClass(interfaceClass.getClassLoader(), interfaceClass);
+		try
+		{
+			// NOTE: if the interface is not public (e.g. a private interface of some callout), then the proxy class is not public either,
+			// so we can't look up its constructor with the public lookup; like Proxy.newProxyInstance, we make the constructor accessible.
+			final Constructor<?> constructor = proxyClass.getConstructor(InvocationHandler.class);
+			constructor.setAccessible(true);
+
+			return MethodHandles.lookup()
+					.unreflectConstructor(constructor)
+					.asType(PROXY_FACTORY_TYPE);
+		}
+		catch (final NoSuchMethodException | IllegalAccessException | SecurityException e)
+		{
+			throw new AdempiereException("Cannot get the proxy constructor for " + interfaceClass, e);
+		}
+	}
+
+	private ModelProxyFactory()
+	{
+	}
+}
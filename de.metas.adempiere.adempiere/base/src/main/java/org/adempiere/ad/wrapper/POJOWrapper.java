@@ -115,10 +115,7 @@ public class POJOWrapper implements InvocationHandler, IInterfaceWrapper
 		final Map<String, Object> values = null;
 		final POJOWrapper wrapper = new POJOWrapper(ctx, tableName, interfaceClass, values, lookup);
 
-		@SuppressWarnings("unchecked")
-		final T object = (T)Proxy.newProxyInstance(interfaceClass.getClassLoader(),
-				new Class<?>[] { interfaceClass },
-				wrapper);
+		final T object = ModelProxyFactory.newProxyInstance(interfaceClass, wrapper);
 
 		setTrxName(object, trxName);
 		return object;
@@ -144,10 +141,7 @@ public class POJOWrapper implements InvocationHandler, IInterfaceWrapper
 
 	public static <T> T create(final Properties ctx, final Class<T> cl, final IPOJOLookupMap lookup)
 	{
-		@SuppressWarnings("unchecked")
-		final T object = (T)Proxy.newProxyInstance(cl.getClassLoader(),
-				new Class<?>[] { cl },
-				new POJOWrapper(ctx, cl, lookup));
+		final T object = ModelProxyFactory.newProxyInstance(cl, new POJOWrapper(ctx, cl, lookup));
 
 		createADTableInstanceIfNeccesary(ctx, cl); // see the method's javadoc
 
@@ -198,10 +192,7 @@ public class POJOWrapper implements InvocationHandler, IInterfaceWrapper
 		final POJOWrapper wrapperNew = new POJOWrapper(cl, wrapper);
 		wrapperNew.useOldValues = useOldValuesEffective;
 
-		@SuppressWarnings("unchecked")
-		final T result = (T)Proxy.newProxyInstance(cl.getClassLoader(),
-				new Class<?>[] { cl },
-				wrapperNew);
+		final T result = ModelProxyFactory.newProxyInstance(cl, wrapperNew);
 
 		setTrxName(result, InterfaceWrapperHelper.getTrxName(model)); // make sure that the model's trxName is forwarded to the new wrapper
 
@@ -296,10 +287,7 @@ public class POJOWrapper implements InvocationHandler, IInterfaceWrapper
 		wrapperCopy.dynAttrs = null;
 
 		@SuppressWarnings("unchecked")
-		final T modelCopy = (T)Proxy.newProxyInstance(
-				wrapper.interfaceClass.getClassLoader(),      // FIXME: better store the class loader as class field and access it; check on InterfaceWrapperHelper and do the same
-				new Class<?>[] { wrapper.interfaceClass },
-				wrapperCopy);
+		final T modelCopy = (T)ModelProxyFactory.newProxyInstance(wrapper.interfaceClass, wrapperCopy);
 
 		return modelCopy;
 	}
@@ -1728,6 +1728,21 @@ public class InterfaceWrapperHelper
 
 	public static final ModelDynAttributeAccessor<Object, Boolean> ATTR_ReadOnlyColumnCheckDisabled = new ModelDynAttributeAccessor<>(InterfaceWrapperHelper.class.getName(), "ReadOnlyColumnCheckDisabled", Boolean.class);
 
+	/**
+	 * Allows the INSERT/UPDATE of given model to be deferred, if the deferred write mode of its transaction is enabled (see {@link ITrx#setDeferredWriteEnabled(boolean)}).
+	 * <p>
+	 * WARNING: a deferred save is reported as successful before it was executed, so the change log, the model interceptors and the cache reset are running right away.
+	 * If the statement fails later (e.g. 0 rows updated or a constraint violation), the error is thrown when the deferred writes are flushed,
+	 * i.e. by whatever is using the transaction next. Call this method only if your code can cope with that.
+	 */
+	public static final void allowDeferredWrite(final Object model)
+	{
+		Check.assumeNotNull(model, "model not null");
+		ATTR_DeferredWriteAllowed.setValue(model, Boolean.TRUE);
+	}
+
+	public static final ModelDynAttributeAccessor<Object, Boolean> ATTR_DeferredWriteAllowed = new ModelDynAttributeAccessor<>(InterfaceWrapperHelper.class.getName(), "DeferredWriteAllowed", Boolean.class);
+
 	public static int getFirstValidIdByColumnName(final String columnName)
 	{
 		return POWrapper.getFirstValidIdByColumnName(columnName);
@@ -79,6 +79,13 @@ public interface IQuery<T>
 	 */
 	boolean DEFAULT_OPTION_GuaranteedIteratorRequired = true;
 
+	/**
+	 * If this instance is used to get a cursor stream, then this option tells how many rows shall be fetched from the database cursor at a time.
+	 *
+	 * @see #streamUsingCursor(Class)
+	 */
+	String OPTION_CursorFetchSize = "CursorFetchSize";
+
 	int NO_LIMIT = -1;
 
 	Properties getCtx();
@@ -584,4 +591,30 @@ public interface IQuery<T>
 	{
 		return list(clazz).stream();
 	}
+
+	/**
+	 * @see #streamUsingCursor(Class)
+	 */
+	default Stream<T> streamUsingCursor() throws DBException
+	{
+		return streamUsingCursor(getModelClass());
+	}
+
+	/**
+	 * Return a stream of all records that match the query criteria, by running one single SELECT with a server side cursor on a dedicated read-only connection.
+	 * The models are loaded lazily while the stream is consumed, so the memory consumption is constant. Intended for exports, reports, migrations etc.
+	 * <p>
+	 * IMPORTANT:
+	 * <ul>
+	 * <li>the caller has to close the stream (e.g. using try-with-resources) if it does not consume it until the end, else the database connection is leaked.
+	 * <li>because a dedicated connection is used, only committed data is seen.
+	 * </ul>
+	 *
+	 * @param clazz all resulting models will be converted to this interface
+	 * @see #OPTION_CursorFetchSize
+	 */
+	default <ET extends T> Stream<ET> streamUsingCursor(final Class<ET> clazz) throws DBException
+	{
+		return stream(clazz);
+	}
 }
@@ -0,0 +1,288 @@
+package org.compiere.util;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.adempiere.ad.migration.logger.IMigrationLogger;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.model.MSequence;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Reserves blocks of table IDs in one database round trip and hands them out from memory.
+ * <p>
+ * The block size is configured per table using the {@value #SYSCONFIG_BlockSize_Prefix}&lt;TableName&gt; sysconfig
+ * (fallback: {@value #SYSCONFIG_BlockSize_Default}). A block size &lt;= 1 means that block allocation is disabled for that table.
+ * <p>
+ * The blocks are reserved atomically in the database (native sequence or <code>AD_Sequence</code>), so it's safe to use it on multiple nodes.
+ * IDs which were reserved but not used (e.g. on shutdown) are lost, i.e. there will be gaps.
+ *
+ * @see DB#getNextID(int, String, String)
+ */
+public final class TableIdBlockAllocator
+{
+	public static final transient TableIdBlockAllocator instance = new TableIdBlockAllocator(new DBIdBlockFetcher());
+
+	private static final Logger logger = LogManager.getLogger(TableIdBlockAllocator.class);
+
+	private static final String SYSCONFIG_BlockSize_Prefix = "org.compiere.util.TableIdBlockAllocator.BlockSize.";
+	private static final String SYSCONFIG_BlockSize_Default = "org.compiere.util.TableIdBlockAllocator.BlockSize";
+
+	/** Reserves a new block of IDs in the database */
+	@VisibleForTesting
+	interface IdBlockFetcher
+	{
+		/** @return reserved IDs; empty if the IDs could not be reserved */
+		int[] fetchIds(int adClientId, String tableName, int blockSize);
+	}
+
+	private final IdBlockFetcher idBlockFetcher;
+	private final ConcurrentHashMap<String, AtomicReference<IdBlock>> blocksByTableName = new ConcurrentHashMap<>();
+
+	@VisibleForTesting
+	TableIdBlockAllocator(@NonNull final IdBlockFetcher idBlockFetcher)
+	{
+		this.idBlockFetcher = idBlockFetcher;
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("tableNames", blocksByTableName.keySet())
+				.toString();
+	}
+
+	/**
+	 * @return true if the IDs of given table shall be allocated in blocks
+	 */
+	public boolean isEnabled(final int adClientId, @NonNull final String tableName)
+	{
+		if (getBlockSize(tableName) <= 1)
+		{
+			return false;
+		}
+
+		// The IDs of migration scripts and dictionary entries must be allocated one by one (and might come from an external ID server)
+		if (Ini.isPropertyBool(Ini.P_LOGMIGRATIONSCRIPT)
+				&& Services.get(IMigrationLogger.class).isLogTableName(tableName))
+		{
+			return false;
+		}
+		if (MSequence.isAdempiereSys(adClientId))
+		{
+			return false;
+		}
+		if (MSequence.isUseExternalIDSystem(tableName, adClientId))
+		{
+			return false;
+		}
+
+		return true;
+	}
+
+	@VisibleForTesting
+	int getBlockSize(final String tableName)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int blockSizeDefault = sysConfigBL.getIntValue(SYSCONFIG_BlockSize_Default, 1);
+		return sysConfigBL.getIntValue(SYSCONFIG_BlockSize_Prefix + tableName, blockSizeDefault);
+	}
+
+	/**
+	 * @return next ID or <code>-1</code> if no ID could be reserved
+	 */
+	public int nextId(final int adClientId, @NonNull final String tableName)
+	{
+		final AtomicReference<IdBlock> currentBlockRef = blocksByTableName.computeIfAbsent(tableName.toUpperCase(), k -> new AtomicReference<>(IdBlock.EMPTY));
+		while (true)
+		{
+			final IdBlock block = currentBlockRef.get();
+			final int id = block.nextId();
+			if (id > 0)
+			{
+				return id;
+			}
+
+			// Current block is exhausted => only one thread shall reserve the next one, the others will wait and then use it
+			synchronized (currentBlockRef)
+			{
+				if (currentBlockRef.get() != block)
+				{
+					continue;
+				}
+
+				final int blockSize = getBlockSize(tableName);
+				final int[] ids = idBlockFetcher.fetchIds(adClientId, tableName, Math.max(blockSize, 1));
+				if (ids.length == 0)
+				{
+					logger.warn("Could not reserve a block of {} IDs for {}", blockSize, tableName);
+					return -1;
+				}
+
+				logger.debug("Reserved {} IDs for {}: {}..{}", ids.length, tableName, ids[0], ids[ids.length - 1]);
+				currentBlockRef.set(new IdBlock(ids));
+			}
+		}
+	}
+
+	/**
+	 * Forgets all reserved IDs. They will be lost.
+	 */
+	public void reset()
+	{
+		blocksByTableName.clear();
+	}
+
+	private static final class IdBlock
+	{
+		private static final IdBlock EMPTY = new IdBlock(new int[] {});
+
+		private final int[] ids;
+		private final AtomicInteger nextIndex = new AtomicInteger(0);
+
+		private IdBlock(final int[] ids)
+		{
+			this.ids = ids;
+		}
+
+		/** @return next ID or <code>-1</code> if this block is exhausted */
+		public int nextId()
+		{
+			final int index = nextIndex.getAndIncrement();
+			return index < ids.length ? ids[index] : -1;
+		}
+	}
+
+	/**
+	 * Reserves the IDs using the table's native sequence or the <code>AD_Sequence</code> record, whatever {@link DB#getNextID(int, String, String)} would use.
+	 * Both are done out of transaction in one single statement.
+	 */
+	private static final class DBIdBlockFetcher implements IdBlockFetcher
+	{
+		@Override
+		public int[] fetchIds(final int adClientId, final String tableName, final int blockSize)
+		{
+			Check.assume(blockSize > 0, "blockSize > 0");
+
+			if (DB.isUseNativeSequences(adClientId, tableName))
+			{
+				return retrieveNativeSequenceIds(tableName, blockSize);
+			}
+			else
+			{
+				return retrieveADSequenceIds(tableName, blockSize);
+			}
+		}
+
+		private static int[] retrieveNativeSequenceIds(final String tableName, final int blockSize)
+		{
+			final String sql = "SELECT nextval(?) FROM generate_series(1, ?)";
+			final Object[] sqlParams = new Object[] { DB.getTableSequenceName(tableName).toLowerCase(), blockSize };
+
+			PreparedStatement pstmt = null;
+			ResultSet rs = null;
+			try
+			{
+				pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+				DB.setParameters(pstmt, sqlParams);
+				rs = pstmt.executeQuery();
+
+				final List<Integer> ids = new ArrayList<>(blockSize);
+				while (rs.next())
+				{
+					ids.add(rs.getInt(1));
+				}
+				return ids.stream().mapToInt(Integer::intValue).toArray();
+			}
+			catch (final SQLException e)
+			{
+				throw new DBException(e, sql, sqlParams);
+			}
+			finally
+			{
+				DB.close(rs, pstmt);
+			}
+		}
+
+		/**
+		 * Moves <code>AD_Sequence.CurrentNext</code> by a whole block and returns the IDs in between.
+		 */
+		private static int[] retrieveADSequenceIds(final String tableName, final int blockSize)
+		{
+			final String sql = "UPDATE AD_Sequence SET CurrentNext = CurrentNext + IncrementNo * ?"
+					+ " WHERE Name=? AND IsActive='Y' AND IsTableID='Y' AND IsAutoSequence='Y'"
+					+ " RETURNING CurrentNext - IncrementNo * ?, IncrementNo";
+			final Object[] sqlParams = new Object[] { blockSize, tableName, blockSize };
+
+			PreparedStatement pstmt = null;
+			ResultSet rs = null;
+			try
+			{
+				pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+				DB.setParameters(pstmt, sqlParams);
+				rs = pstmt.executeQuery();
+				if (!rs.next())
+				{
+					logger.error("No AD_Sequence record found for {}", tableName);
+					return new int[] {};
+				}
+
+				final int firstId = rs.getInt(1);
+				final int incrementNo = rs.getInt(2);
+				final int[] ids = new int[blockSize];
+				for (int i = 0; i < blockSize; i++)
+				{
+					ids[i] = firstId + i * incrementNo;
+				}
+				return ids;
+			}
+			catch (final SQLException e)
+			{
+				throw new DBException(e, sql, sqlParams);
+			}
+			finally
+			{
+				DB.close(rs, pstmt);
+			}
+		}
+	}
+}
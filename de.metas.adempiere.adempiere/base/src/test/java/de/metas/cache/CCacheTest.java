@@ -30,6 +30,7 @@ import java.util.function.Supplier;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 
 import de.metas.cache.CCache;
@@ -228,4 +229,39 @@ public class CCacheTest
 		cache.putAll(Collections.singletonMap("key1", "value1_newValue"));
 		Assert.assertEquals("Value shall exist", "value1_newValue", cache.get("key1"));
 	}
+
+	@Test
+	public void test_maximumWeightInBytes()
+	{
+		final long maximumWeightInBytes = 10000;
+		final CCache<Integer, String> cache = CCache.<Integer, String> builder()
+				.cacheName("Test")
+				.maximumWeightInBytes(maximumWeightInBytes)
+				.build();
+		Assert.assertEquals(Long.valueOf(maximumWeightInBytes), cache.getMaximumWeightInBytes());
+
+		final String value = Strings.repeat("x", 100);
+		for (int i = 0; i < 1000; i++)
+		{
+			cache.put(i, value + i);
+		}
+
+		Assert.assertTrue("some entries shall be cached", cache.size() > 0);
+		Assert.assertTrue("entries shall be evicted when the weight is exceeded: " + cache, cache.size() < 1000);
+		Assert.assertTrue("cache heap size shall not exceed the maximum weight: " + cache, cache.estimateHeapSizeInBytes() <= maximumWeightInBytes);
+	}
+
+	@Test
+	public void test_estimateHeapSizeInBytes()
+	{
+		final CCache<Integer, String> cache = new CCache<>("Test", 10);
+		Assert.assertEquals(0, cache.estimateHeapSizeInBytes());
+
+		cache.put(1, "value1");
+		final long heapSize1 = cache.estimateHeapSizeInBytes();
+		Assert.assertTrue(heapSize1 > 0);
+
+		cache.put(2, "value2");
+		Assert.assertEquals(2 * heapSize1, cache.estimateHeapSizeInBytes());
+	}
 }
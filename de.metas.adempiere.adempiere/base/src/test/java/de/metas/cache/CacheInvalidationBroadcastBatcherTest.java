@@ -0,0 +1,146 @@
+package de.metas.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.cache.CacheInvalidationBroadcastBatcher.CoalesceResult;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class CacheInvalidationBroadcastBatcherTest
+{
+	private static CacheInvalidateRequest childRecord(final int invoiceId, final int invoiceLineId)
+	{
+		return CacheInvalidateRequest.builder()
+				.rootRecord("C_Invoice", invoiceId)
+				.childRecord("C_InvoiceLine", invoiceLineId)
+				.build();
+	}
+
+	private static List<String> toStrings(final CacheInvalidateMultiRequest multiRequest)
+	{
+		final List<String> result = new ArrayList<>();
+		for (final CacheInvalidateRequest request : multiRequest.getRequests())
+		{
+			result.add(request.getRootTableName() + "/" + request.getRootRecordId() + "/" + request.getChildTableName() + "/" + request.getChildRecordId());
+		}
+		return result;
+	}
+
+	@Test
+	public void coalesce_removesDuplicates()
+	{
+		final CoalesceResult result = CacheInvalidationBroadcastBatcher.coalesce(
+				ImmutableList.of(
+						CacheInvalidateRequest.rootRecord("M_Product", 1),
+						CacheInvalidateRequest.rootRecord("M_Product", 1),
+						CacheInvalidateRequest.rootRecord("M_Product", 2)),
+				100);
+
+		assertThat(toStrings(result.getMultiRequest())).containsExactly("M_Product/1/null/-1", "M_Product/2/null/-1");
+		assertThat(result.getTablesCollapsedCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void coalesce_resetAllWins()
+	{
+		final CoalesceResult result = CacheInvalidationBroadcastBatcher.coalesce(
+				ImmutableList.of(
+						CacheInvalidateRequest.rootRecord("M_Product", 1),
+						CacheInvalidateRequest.all()),
+				100);
+
+		assertThat(result.getMultiRequest().isResetAll()).isTrue();
+		assertThat(result.getMultiRequest().getRequests()).hasSize(1);
+	}
+
+	@Test
+	public void coalesce_recordsCoveredByTableReset()
+	{
+		final CoalesceResult result = CacheInvalidationBroadcastBatcher.coalesce(
+				ImmutableList.of(
+						CacheInvalidateRequest.rootRecord("M_Product", 1),
+						CacheInvalidateRequest.allRecordsForTable("M_Product"),
+						CacheInvalidateRequest.rootRecord("C_BPartner", 1)),
+				100);
+
+		assertThat(toStrings(result.getMultiRequest())).containsExactly("M_Product/-1/null/-1", "C_BPartner/1/null/-1");
+		assertThat(result.getTablesCollapsedCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void coalesce_collapseToTableReset_keepsRootRecords()
+	{
+		final CoalesceResult result = CacheInvalidationBroadcastBatcher.coalesce(
+				ImmutableList.of(
+						childRecord(1, 11),
+						childRecord(1, 12),
+						childRecord(2, 21)),
+				2);
+
+		assertThat(toStrings(result.getMultiRequest())).containsExactly("C_InvoiceLine/-1/null/-1", "C_Invoice/1/null/-1", "C_Invoice/2/null/-1");
+		assertThat(result.getTablesCollapsedCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void post_withoutWindow_sendsRightAway()
+	{
+		final List<CacheInvalidateMultiRequest> sent = new ArrayList<>();
+		final CacheInvalidationBroadcastBatcher batcher = new CacheInvalidationBroadcastBatcher(sent::add, () -> 0, () -> 100);
+
+		batcher.post(CacheInvalidateMultiRequest.rootRecord("M_Product", 1));
+		batcher.post(CacheInvalidateMultiRequest.rootRecord("M_Product", 2));
+
+		assertThat(sent).hasSize(2);
+		assertThat(batcher.getCoalescingRatio()).isEqualTo(1);
+	}
+
+	@Test
+	public void post_withWindow_sendsOneBatch()
+	{
+		final List<CacheInvalidateMultiRequest> sent = new ArrayList<>();
+		final CacheInvalidationBroadcastBatcher batcher = new CacheInvalidationBroadcastBatcher(sent::add, () -> 60000, () -> 100);
+
+		for (int i = 1; i <= 10; i++)
+		{
+			batcher.post(CacheInvalidateMultiRequest.rootRecord("M_Product", i));
+		}
+		assertThat(sent).isEmpty();
+
+		batcher.flush();
+
+		assertThat(sent).hasSize(1);
+		assertThat(sent.get(0).getRequests()).hasSize(10);
+		assertThat(batcher.getEventsPostedCount()).isEqualTo(10);
+		assertThat(batcher.getEventsSentCount()).isEqualTo(1);
+		assertThat(batcher.getCoalescingRatio()).isEqualTo(10);
+	}
+}
@@ -3,6 +3,7 @@ package de.metas.cache;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.adempiere.test.AdempiereTestHelper;
@@ -10,6 +11,8 @@ import org.adempiere.util.lang.impl.TableRecordReference;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import de.metas.cache.CacheMgt.ResetMode;
@@ -104,6 +107,88 @@ public class CacheMgtTest
 		invoiceLineCache.assertRecordInvalidated(TableRecordReference.of("C_InvoiceLine", 2));
 	}
 
+	@Test
+	public void resetByRecord_CCacheWithRecordRefsExtractor_resetsOnlyAffectedKeys()
+	{
+		final CCache<Integer, List<TableRecordReference>> cache = CCache.<Integer, List<TableRecordReference>> builder()
+				.tableName("C_Invoice")
+				.additionalTableNameToResetFor("C_InvoiceLine")
+				.additionalTableNameToResetFor("C_BPartner")
+				.valueRecordRefsExtractor(recordRefs -> recordRefs)
+				.build();
+
+		cache.put(1, ImmutableList.of(TableRecordReference.of("C_Invoice", 1), TableRecordReference.of("C_InvoiceLine", 11)));
+		cache.getOrLoad(2, () -> ImmutableList.of(TableRecordReference.of("C_Invoice", 2), TableRecordReference.of("C_InvoiceLine", 21)));
+		cache.putAll(ImmutableMap.of(3, ImmutableList.of(TableRecordReference.of("C_Invoice", 3))));
+		assertThat(cache.keySet()).containsExactlyInAnyOrder(1, 2, 3);
+
+		final CacheMgt cacheManager = CacheMgt.get();
+		cacheManager.reset("C_InvoiceLine", 21);
+		assertThat(cache.keySet()).containsExactlyInAnyOrder(1, 3);
+
+		cacheManager.reset("C_Invoice", 1);
+		assertThat(cache.keySet()).containsExactlyInAnyOrder(3);
+
+		// no cached value was built from a C_BPartner record, so we cannot tell which keys are affected
+		cacheManager.reset("C_BPartner", 1);
+		assertThat(cache.keySet()).isEmpty();
+	}
+
+	@Test
+	public void resetByRecord_CCacheWithRecordRefsExtractor_unknownRecord()
+	{
+		final CCache<Integer, List<TableRecordReference>> cache = CCache.<Integer, List<TableRecordReference>> builder()
+				.tableName("C_Invoice")
+				.additionalTableNameToResetFor("C_InvoiceLine")
+				.valueRecordRefsExtractor(recordRefs -> recordRefs)
+				.build();
+
+		final CacheMgt cacheManager = CacheMgt.get();
+
+		// a new invoice line of a cached invoice => reset the entries of that invoice
+		cache.put(1, ImmutableList.of(TableRecordReference.of("C_Invoice", 1), TableRecordReference.of("C_InvoiceLine", 11)));
+		cache.put(2, ImmutableList.of(TableRecordReference.of("C_Invoice", 2), TableRecordReference.of("C_InvoiceLine", 21)));
+		cacheManager.reset(
+				CacheInvalidateMultiRequest.of(CacheInvalidateRequest.builder()
+						.rootRecord("C_Invoice", 1)
+						.childRecord("C_InvoiceLine", 12)
+						.build()),
+				ResetMode.LOCAL);
+		assertThat(cache.keySet()).containsExactly(2);
+
+		// a new invoice line of an invoice which is not cached => nothing to reset
+		cacheManager.reset(
+				CacheInvalidateMultiRequest.of(CacheInvalidateRequest.builder()
+						.rootRecord("C_Invoice", 3)
+						.childRecord("C_InvoiceLine", 31)
+						.build()),
+				ResetMode.LOCAL);
+		assertThat(cache.keySet()).containsExactly(2);
+
+		// an invoice line we know nothing about => reset everything
+		cacheManager.reset("C_InvoiceLine", 99999);
+		assertThat(cache.keySet()).isEmpty();
+	}
+
+	@Test
+	public void resetByRecord_CCacheWithRecordRefsExtractor_replacedValue()
+	{
+		final CCache<Integer, List<TableRecordReference>> cache = CCache.<Integer, List<TableRecordReference>> builder()
+				.tableName("C_Invoice")
+				.valueRecordRefsExtractor(recordRefs -> recordRefs)
+				.build();
+
+		cache.put(1, ImmutableList.of(TableRecordReference.of("C_Invoice", 1), TableRecordReference.of("C_Invoice", 2)));
+		cache.put(1, ImmutableList.of(TableRecordReference.of("C_Invoice", 2), TableRecordReference.of("C_Invoice", 3)));
+		cache.put(4, ImmutableList.of(TableRecordReference.of("C_Invoice", 4)));
+
+		CacheMgt.get().reset("C_Invoice", 4);
+		assertThat(cache.keySet()).containsExactly(1);
+
+		CacheMgt.get().reset("C_Invoice", 3);
+		assertThat(cache.keySet()).isEmpty();
+	}
+
 	private static class AssertCache implements CacheInterface
 	{
 		public static AssertCache newForTableName(final String tableName)
@@ -0,0 +1,180 @@
+package de.metas.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.google.common.base.Strings;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class CacheObjectSizeEstimatorTest
+{
+	private static long estimate(final Object object)
+	{
+		return CacheObjectSizeEstimator.instance.estimateRetainedSizeInBytes(object);
+	}
+
+	private static final class Node
+	{
+		private final String name;
+		private final BigDecimal qty;
+		private Node next;
+
+		private Node(final String name, final BigDecimal qty)
+		{
+			this.name = name;
+			this.qty = qty;
+		}
+	}
+
+	private static final class Holder
+	{
+		private final Object value;
+
+		private Holder(final Object value)
+		{
+			this.value = value;
+		}
+	}
+
+	private static final class SomeSingleton
+	{
+		private static final SomeSingleton instance = new SomeSingleton();
+
+		@SuppressWarnings("unused")
+		private final String data = Strings.repeat("d", 1000);
+	}
+
+	private enum SomeEnum
+	{
+		VALUE
+	}
+
+	@Test
+	public void nullAndSharedConstants()
+	{
+		assertThat(estimate(null)).isEqualTo(0);
+		assertThat(estimate(SomeEnum.VALUE)).isEqualTo(0);
+		assertThat(estimate(String.class)).isEqualTo(0);
+	}
+
+	@Test
+	public void string_growsWithLength()
+	{
+		final long shortStringSize = estimate("a");
+		final long longStringSize = estimate(Strings.repeat("a", 1000));
+
+		assertThat(shortStringSize).isGreaterThan(0);
+		assertThat(longStringSize).isGreaterThan(shortStringSize + 1000);
+	}
+
+	@Test
+	public void modelObject_includesReferencedObjects()
+	{
+		final String name = Strings.repeat("n", 100);
+		final Node node = new Node(name, new BigDecimal("12.34"));
+
+		assertThat(estimate(node)).isGreaterThan(estimate(name) + estimate(node.qty));
+	}
+
+	@Test
+	public void sharedObjectsAreCountedOnce()
+	{
+		final String value = Strings.repeat("v", 1000);
+
+		final List<String> listWithSameValue = new ArrayList<>();
+		final List<String> listWithDistinctValues = new ArrayList<>();
+		for (int i = 0; i < 10; i++)
+		{
+			listWithSameValue.add(value);
+			listWithDistinctValues.add(new String(value));
+		}
+
+		assertThat(estimate(listWithDistinctValues)).isGreaterThan(estimate(listWithSameValue) + 9 * 1000);
+	}
+
+	@Test
+	public void cyclicGraph()
+	{
+		final Node node1 = new Node("node1", BigDecimal.ONE);
+		final Node node2 = new Node("node2", BigDecimal.TEN);
+		node1.next = node2;
+		node2.next = node1;
+
+		assertThat(estimate(node1)).isEqualTo(estimate(node2));
+	}
+
+	@Test
+	public void map_includesKeysAndValues()
+	{
+		final Map<Integer, String> map = new HashMap<>();
+		final long emptyMapSize = estimate(map);
+
+		map.put(1, Strings.repeat("v", 1000));
+
+		assertThat(estimate(map)).isGreaterThan(emptyMapSize + 1000);
+	}
+
+	@Test
+	public void sharedObjects_notCounted()
+	{
+		final long emptyHolderSize = estimate(new Holder(null));
+
+		final Properties ctx = new Properties();
+		ctx.setProperty("#AD_Client_ID", Strings.repeat("1", 1000));
+		assertThat(estimate(new Holder(ctx))).isEqualTo(emptyHolderSize);
+
+		assertThat(estimate(new Holder(SomeSingleton.instance))).isEqualTo(emptyHolderSize);
+		assertThat(estimate(new Holder(new SomeSingleton()))).isGreaterThan(emptyHolderSize + 1000);
+	}
+
+	@Test
+	public void walkIsCapped()
+	{
+		Node head = null;
+		for (int i = 0; i < 100000; i++)
+		{
+			final Node node = new Node(null, null);
+			node.next = head;
+			head = node;
+		}
+
+		final long nodeSize = estimate(new Node(null, null));
+		assertThat(estimate(head)).isLessThan(nodeSize * 10000);
+	}
+
+	@Test
+	public void primitiveArray()
+	{
+		assertThat(estimate(new long[100])).isGreaterThanOrEqualTo(800);
+		assertThat(estimate(new byte[100])).isLessThan(estimate(new long[100]));
+	}
+}
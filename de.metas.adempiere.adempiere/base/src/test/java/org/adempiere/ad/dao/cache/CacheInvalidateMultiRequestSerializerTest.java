@@ -2,6 +2,11 @@ package org.adempiere.ad.dao.cache;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.junit.Test;
 
 import de.metas.cache.model.CacheInvalidateMultiRequest;
@@ -39,6 +44,44 @@ public class CacheInvalidateMultiRequestSerializerTest
 		final String json = jsonSerializer.toJson(multiRequest);
 		final CacheInvalidateMultiRequest multiRequest2 = jsonSerializer.fromJson(json);
 		assertThat(multiRequest2).isEqualTo(multiRequest);
+
+		testCompactSerializeDeserialize(multiRequest);
+	}
+
+	private void testCompactSerializeDeserialize(final CacheInvalidateMultiRequest multiRequest)
+	{
+		final String compactString = jsonSerializer.toCompactString(multiRequest);
+		final CacheInvalidateMultiRequest multiRequest2 = jsonSerializer.fromCompactString(compactString);
+
+		// NOTE: request IDs are not preserved by the compact format
+		assertThat(toComparableList(multiRequest2)).isEqualTo(toComparableList(multiRequest));
+		assertThat(multiRequest2.isResetAll()).isEqualTo(multiRequest.isResetAll());
+	}
+
+	private static List<List<Object>> toComparableList(final CacheInvalidateMultiRequest multiRequest)
+	{
+		return multiRequest.getRequests()
+				.stream()
+				.map(request -> Arrays.<Object> asList(request.getRootTableName(), request.getRootRecordId(), request.getChildTableName(), request.getChildRecordId()))
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void compact_multipleRequests()
+	{
+		final List<CacheInvalidateRequest> requests = new ArrayList<>();
+		for (int i = 0; i < 1000; i++)
+		{
+			requests.add(CacheInvalidateRequest.builder()
+					.rootRecord("C_Invoice", i)
+					.childRecord("C_InvoiceLine", 1000 + i)
+					.build());
+		}
+		requests.add(CacheInvalidateRequest.allRecordsForTable("M_Product"));
+		final CacheInvalidateMultiRequest multiRequest = CacheInvalidateMultiRequest.of(requests);
+
+		testCompactSerializeDeserialize(multiRequest);
+		assertThat(jsonSerializer.toCompactString(multiRequest).length()).isLessThan(jsonSerializer.toJson(multiRequest).length() / 10);
 	}
 
 	@Test
@@ -0,0 +1,94 @@
+package org.adempiere.ad.dao.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class KeysetOrderByTest
+{
+	private static final ImmutableSet<String> NOT_NULL_COLUMNS = ImmutableSet.of("DocumentNo", "DateOrdered");
+
+	private static KeysetOrderBy keysetOrderBy(final String orderBy)
+	{
+		return KeysetOrderBy.ofOrderByOrNull(orderBy, "C_Order", ImmutableList.of("C_Order_ID"), NOT_NULL_COLUMNS::contains);
+	}
+
+	@Test
+	public void noOrderBy_usesKeyColumn()
+	{
+		final KeysetOrderBy keysetOrderBy = keysetOrderBy(null);
+
+		assertThat(keysetOrderBy.getOrderBySql()).isEqualTo("C_Order.C_Order_ID ASC");
+		assertThat(keysetOrderBy.getColumnNames()).containsExactly("C_Order_ID");
+	}
+
+	@Test
+	public void keyColumnIsAppendedAsTieBreaker()
+	{
+		final KeysetOrderBy keysetOrderBy = keysetOrderBy("DocumentNo DESC NULLS FIRST");
+
+		assertThat(keysetOrderBy.getOrderBySql()).isEqualTo("C_Order.DocumentNo DESC, C_Order.C_Order_ID ASC");
+		assertThat(keysetOrderBy.getColumnNames()).containsExactly("DocumentNo", "C_Order_ID");
+	}
+
+	@Test
+	public void notSeekable()
+	{
+		assertThat(keysetOrderBy("Description")).as("nullable column").isNull();
+		assertThat(keysetOrderBy("COALESCE(DocumentNo, '')")).as("expression").isNull();
+		assertThat(keysetOrderBy("o.DocumentNo")).as("qualified column").isNull();
+	}
+
+	@Test
+	public void buildSeekWhereClause_sameDirection()
+	{
+		final KeysetOrderBy keysetOrderBy = keysetOrderBy("DateOrdered, C_Order_ID");
+
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = keysetOrderBy.buildSeekWhereClause(ImmutableList.of("2018-01-01", 10), sqlParams);
+
+		assertThat(sql).isEqualTo("(C_Order.DateOrdered, C_Order.C_Order_ID) > (?, ?)");
+		assertThat(sqlParams).containsExactly("2018-01-01", 10);
+	}
+
+	@Test
+	public void buildSeekWhereClause_mixedDirections()
+	{
+		final KeysetOrderBy keysetOrderBy = keysetOrderBy("DateOrdered DESC");
+
+		final List<Object> sqlParams = new ArrayList<>();
+		sqlParams.add("existingParam");
+		final String sql = keysetOrderBy.buildSeekWhereClause(ImmutableList.of("2018-01-01", 10), sqlParams);
+
+		assertThat(sql).isEqualTo("((C_Order.DateOrdered<?) OR (C_Order.DateOrdered=? AND C_Order.C_Order_ID>?))");
+		assertThat(sqlParams).containsExactly("existingParam", "2018-01-01", "2018-01-01", 10);
+	}
+}
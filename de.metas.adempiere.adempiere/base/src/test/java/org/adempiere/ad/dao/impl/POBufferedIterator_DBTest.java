@@ -0,0 +1,139 @@
+package org.adempiere.ad.dao.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.model.IQuery;
+import org.compiere.model.I_Test;
+import org.compiere.util.Env;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import de.metas.util.Check;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+/**
+ * Iterates over several pages with {@link POBufferedIterator} and compares the result with a plain {@link IQuery#list()}.
+ */
+@Ignore
+// requires database connection
+public class POBufferedIterator_DBTest
+{
+	private static final int PAGE_SIZE = 3;
+
+	private static List<Integer> recordIds;
+
+	@BeforeClass
+	public static void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath() // e.g. C:\workspaces\\de.metas.adempiere.adempiere\base\
+					+ File.separator + ".." + File.separator + ".." // e.g. C:\workspaces\
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+
+		//
+		// 4 pages of records, every second one having T_Integer=NULL and the others having duplicate T_Integer values
+		recordIds = new ArrayList<>();
+		for (int i = 1; i <= 4 * PAGE_SIZE; i++)
+		{
+			final I_Test record = InterfaceWrapperHelper.create(Env.getCtx(), I_Test.class, ITrx.TRXNAME_None);
+			record.setName("Test_" + UUID.randomUUID());
+			if (i % 2 == 0)
+			{
+				record.setT_Integer(i % 3);
+			}
+			InterfaceWrapperHelper.save(record);
+			recordIds.add(record.getTest_ID());
+		}
+	}
+
+	@Test
+	public void nullableColumnIsNotUsedForKeyset()
+	{
+		assertThat(DBNotNullColumnNames.isNotNullColumn(I_Test.Table_Name, I_Test.COLUMNNAME_Test_ID)).isTrue();
+		assertThat(DBNotNullColumnNames.isNotNullColumn(I_Test.Table_Name, I_Test.COLUMNNAME_T_Integer)).isFalse();
+
+		assertThat(createQuery(I_Test.COLUMNNAME_T_Integer + ", " + I_Test.COLUMNNAME_Test_ID).getKeysetOrderByOrNull()).isNull();
+		assertThat(createQuery(I_Test.COLUMNNAME_Test_ID + " DESC").getKeysetOrderByOrNull()).isNotNull();
+	}
+
+	@Test
+	public void orderByKey_multiplePages()
+	{
+		assertIteratorSameAsList(I_Test.COLUMNNAME_Test_ID);
+		assertIteratorSameAsList(I_Test.COLUMNNAME_Test_ID + " DESC");
+	}
+
+	@Test
+	public void orderByNullableColumn_multiplePages()
+	{
+		assertIteratorSameAsList(I_Test.COLUMNNAME_T_Integer + ", " + I_Test.COLUMNNAME_Test_ID);
+		assertIteratorSameAsList(I_Test.COLUMNNAME_T_Integer + " DESC NULLS LAST, " + I_Test.COLUMNNAME_Test_ID + " DESC");
+	}
+
+	private TypedSqlQuery<I_Test> createQuery(final String orderBy)
+	{
+		final TypedSqlQuery<I_Test> query = TypedSqlQuery.cast(Services.get(IQueryBL.class)
+				.createQueryBuilder(I_Test.class, Env.getCtx(), ITrx.TRXNAME_None)
+				.addInArrayFilter(I_Test.COLUMNNAME_Test_ID, recordIds)
+				.create());
+		query.setOrderBy(orderBy);
+		return query;
+	}
+
+	private void assertIteratorSameAsList(final String orderBy)
+	{
+		final List<Integer> expectedIds = createQuery(orderBy).listIds();
+		assertThat(expectedIds).hasSameSizeAs(recordIds);
+
+		final Iterator<I_Test> iterator = createQuery(orderBy)
+				.setOption(IQuery.OPTION_IteratorBufferSize, PAGE_SIZE)
+				.iterate(I_Test.class, false); // guaranteed=false
+		final List<Integer> actualIds = new ArrayList<>();
+		iterator.forEachRemaining(record -> actualIds.add(record.getTest_ID()));
+
+		assertThat(actualIds).as("ORDER BY " + orderBy).isEqualTo(expectedIds);
+	}
+}
@@ -0,0 +1,78 @@
+package org.adempiere.ad.wrapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+
+import org.compiere.model.I_C_BPartner;
+import org.junit.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ModelProxyFactoryTest
+{
+	@Test
+	public void newProxyInstance()
+	{
+		final InvocationHandler handler = (proxy, method, args) -> "getName".equals(method.getName()) ? "name1" : null;
+
+		final I_C_BPartner bpartner = ModelProxyFactory.newProxyInstance(I_C_BPartner.class, handler);
+
+		assertThat(bpartner.getName()).isEqualTo("name1");
+		assertThat(Proxy.isProxyClass(bpartner.getClass())).isTrue();
+		assertThat(Proxy.getInvocationHandler(bpartner)).isSameAs(handler);
+	}
+
+	@Test
+	public void newProxyInstance_reusesProxyClass()
+	{
+		final InvocationHandler handler1 = (proxy, method, args) -> null;
+		final InvocationHandler handler2 = (proxy, method, args) -> null;
+
+		final I_C_BPartner bpartner1 = ModelProxyFactory.newProxyInstance(I_C_BPartner.class, handler1);
+		final I_C_BPartner bpartner2 = ModelProxyFactory.newProxyInstance(I_C_BPartner.class, handler2);
+
+		assertThat(bpartner1).isNotSameAs(bpartner2);
+		assertThat(bpartner1.getClass()).isSameAs(bpartner2.getClass());
+		assertThat(bpartner1.getClass()).isSameAs(Proxy.getProxyClass(I_C_BPartner.class.getClassLoader(), I_C_BPartner.class));
+	}
+
+	private interface PrivateModel
+	{
+		String getName();
+	}
+
+	@Test
+	public void newProxyInstance_nonPublicInterface()
+	{
+		final InvocationHandler handler = (proxy, method, args) -> "getName".equals(method.getName()) ? "name1" : null;
+
+		final PrivateModel model1 = ModelProxyFactory.newProxyInstance(PrivateModel.class, handler);
+		final PrivateModel model2 = ModelProxyFactory.newProxyInstance(PrivateModel.class, handler);
+
+		assertThat(model1.getName()).isEqualTo("name1");
+		assertThat(Proxy.getInvocationHandler(model1)).isSameAs(handler);
+		assertThat(model1.getClass()).isSameAs(model2.getClass());
+	}
+}
@@ -0,0 +1,131 @@
+package org.compiere.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ModelValidatorsMapTest
+{
+	private static final int CLIENT_ID = 1000000;
+
+	private ModelValidatorsMap map;
+
+	@Before
+	public void init()
+	{
+		map = new ModelValidatorsMap();
+	}
+
+	@Test
+	public void add_systemAndClientValidators()
+	{
+		final TestModelValidator validator1 = new TestModelValidator();
+		final TestModelValidator validator2 = new TestModelValidator();
+		final TestModelValidator validator3 = new TestModelValidator();
+
+		assertThat(map.add("C_Order", ModelValidatorsMap.AD_CLIENT_ID_SYSTEM, validator1)).isTrue();
+		assertThat(map.add("C_Order", ModelValidatorsMap.AD_CLIENT_ID_SYSTEM, validator2)).isTrue();
+		assertThat(map.add("C_Order", CLIENT_ID, validator3)).isTrue();
+
+		assertThat(map.getSystemValidators("C_Order")).containsExactly(validator1, validator2);
+		assertThat(map.getClientValidators("C_Order", CLIENT_ID)).containsExactly(validator3);
+		assertThat(map.getClientValidators("C_Order", ModelValidatorsMap.AD_CLIENT_ID_SYSTEM)).isEmpty();
+		assertThat(map.getSystemValidators("C_Invoice")).isEmpty();
+		assertThat(map.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void add_sameValidatorTwice()
+	{
+		final TestModelValidator validator = new TestModelValidator();
+
+		assertThat(map.add("C_Order", CLIENT_ID, validator)).isTrue();
+		assertThat(map.add("C_Order", CLIENT_ID, validator)).isFalse();
+
+		assertThat(map.getClientValidators("C_Order", CLIENT_ID)).containsExactly(validator);
+	}
+
+	@Test
+	public void remove()
+	{
+		final TestModelValidator validator1 = new TestModelValidator();
+		final TestModelValidator validator2 = new TestModelValidator();
+		map.add("C_Order", CLIENT_ID, validator1);
+		map.add("C_Order", CLIENT_ID, validator2);
+
+		map.remove("C_Order", CLIENT_ID, validator1);
+		assertThat(map.getClientValidators("C_Order", CLIENT_ID)).containsExactly(validator2);
+
+		map.remove("C_Order", CLIENT_ID, validator2);
+		assertThat(map.isEmpty()).isTrue();
+	}
+
+	@Test
+	public void add_doesNotChangePreviouslyRetrievedLists()
+	{
+		final TestModelValidator validator1 = new TestModelValidator();
+		map.add("C_Order", CLIENT_ID, validator1);
+		final List<ModelValidator> validators = map.getClientValidators("C_Order", CLIENT_ID);
+
+		map.add("C_Order", CLIENT_ID, new TestModelValidator());
+
+		assertThat(validators).containsExactly(validator1);
+	}
+
+	private static final class TestModelValidator implements ModelValidator
+	{
+		@Override
+		public void initialize(final ModelValidationEngine engine, final MClient client)
+		{
+		}
+
+		@Override
+		public int getAD_Client_ID()
+		{
+			return CLIENT_ID;
+		}
+
+		@Override
+		public String login(final int AD_Org_ID, final int AD_Role_ID, final int AD_User_ID)
+		{
+			return null;
+		}
+
+		@Override
+		public String modelChange(final PO po, final int type)
+		{
+			return null;
+		}
+
+		@Override
+		public String docValidate(final PO po, final int timing)
+		{
+			return null;
+		}
+	}
+}
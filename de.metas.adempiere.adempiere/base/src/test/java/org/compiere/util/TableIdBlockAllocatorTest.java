@@ -0,0 +1,158 @@
+package org.compiere.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class TableIdBlockAllocatorTest
+{
+	private static final int AD_Client_ID = 1000000;
+
+	private MockedIdBlockFetcher idBlockFetcher;
+	private TableIdBlockAllocator allocator;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		idBlockFetcher = new MockedIdBlockFetcher();
+		allocator = new TableIdBlockAllocator(idBlockFetcher);
+	}
+
+	private static void setBlockSize(final String tableName, final int blockSize)
+	{
+		Services.get(ISysConfigBL.class).setValue("org.compiere.util.TableIdBlockAllocator.BlockSize." + tableName, blockSize, 0);
+	}
+
+	@Test
+	public void notEnabledByDefault()
+	{
+		assertThat(allocator.isEnabled(AD_Client_ID, "C_Order")).isFalse();
+	}
+
+	@Test
+	public void enabledPerTable()
+	{
+		setBlockSize("C_Order", 10);
+
+		assertThat(allocator.isEnabled(AD_Client_ID, "C_Order")).isTrue();
+		assertThat(allocator.isEnabled(AD_Client_ID, "C_OrderLine")).isFalse();
+	}
+
+	@Test
+	public void nextId_fetchesOneBlockPerBlockSizeIds()
+	{
+		setBlockSize("C_Order", 3);
+
+		final List<Integer> ids = new ArrayList<>();
+		for (int i = 0; i < 7; i++)
+		{
+			ids.add(allocator.nextId(AD_Client_ID, "C_Order"));
+		}
+
+		assertThat(ids).containsExactly(1, 2, 3, 4, 5, 6, 7);
+		assertThat(idBlockFetcher.getFetchCount()).isEqualTo(3);
+	}
+
+	@Test
+	public void nextId_concurrentCallersGetUniqueIds() throws Exception
+	{
+		setBlockSize("C_Order", 7);
+
+		final int threads = 8;
+		final int idsPerThread = 500;
+		final Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try
+		{
+			final List<Callable<Void>> tasks = new ArrayList<>();
+			for (int i = 0; i < threads; i++)
+			{
+				tasks.add(() -> {
+					for (int j = 0; j < idsPerThread; j++)
+					{
+						final int id = allocator.nextId(AD_Client_ID, "C_Order");
+						assertThat(ids.add(id)).as("unique ID %s", id).isTrue();
+					}
+					return null;
+				});
+			}
+
+			for (final Future<Void> future : executor.invokeAll(tasks))
+			{
+				future.get();
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+
+		assertThat(ids).hasSize(threads * idsPerThread);
+	}
+
+	private static final class MockedIdBlockFetcher implements TableIdBlockAllocator.IdBlockFetcher
+	{
+		private final AtomicInteger lastId = new AtomicInteger(0);
+		private final AtomicInteger fetchCount = new AtomicInteger(0);
+
+		@Override
+		public int[] fetchIds(final int adClientId, final String tableName, final int blockSize)
+		{
+			fetchCount.incrementAndGet();
+
+			final int[] ids = new int[blockSize];
+			for (int i = 0; i < blockSize; i++)
+			{
+				ids[i] = lastId.incrementAndGet();
+			}
+			return ids;
+		}
+
+		public int getFetchCount()
+		{
+			return fetchCount.get();
+		}
+	}
+}
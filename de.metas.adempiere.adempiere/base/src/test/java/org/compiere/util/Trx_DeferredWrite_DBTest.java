@@ -0,0 +1,197 @@
+package org.compiere.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.util.UUID;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.ITrxSavepoint;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.ad.trx.api.impl.TrxDeferredWriteStatistics;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.model.I_Test;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import de.metas.util.Check;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+/**
+ * Tests the deferred write mode of {@link Trx} (see {@link ITrx#setDeferredWriteEnabled(boolean)}) together with {@link org.compiere.model.PO}.
+ */
+@Ignore
+// requires database connection
+public class Trx_DeferredWrite_DBTest
+{
+	private ITrxManager trxManager;
+	private ITrx trx;
+
+	@BeforeClass
+	public static void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath() // e.g. C:\workspaces\\de.metas.adempiere.adempiere\base\
+					+ File.separator + ".." + File.separator + ".." // e.g. C:\workspaces\
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	@Before
+	public void init()
+	{
+		trxManager = Services.get(ITrxManager.class);
+		trx = trxManager.get(trxManager.createTrxName("Trx_DeferredWrite_DBTest", true), OnTrxMissingPolicy.Fail);
+		trx.setDeferredWriteEnabled(true);
+	}
+
+	@After
+	public void close()
+	{
+		trx.rollback();
+		trx.close();
+	}
+
+	private I_Test newRecord(final boolean allowDeferredWrite)
+	{
+		final I_Test record = InterfaceWrapperHelper.create(Env.getCtx(), I_Test.class, trx.getTrxName());
+		record.setName("Test_" + UUID.randomUUID());
+		if (allowDeferredWrite)
+		{
+			InterfaceWrapperHelper.allowDeferredWrite(record);
+		}
+		return record;
+	}
+
+	private String retrieveName(final I_Test record, final String trxName)
+	{
+		return DB.getSQLValueStringEx(trxName, "SELECT Name FROM Test WHERE Test_ID=?", record.getTest_ID());
+	}
+
+	private long getDeferredStatementsCount()
+	{
+		return TrxDeferredWriteStatistics.instance.getStatementsCount();
+	}
+
+	@Test
+	public void notAllowedByModel_executedRightAway()
+	{
+		final long statementsCountBefore = getDeferredStatementsCount();
+
+		final I_Test record = newRecord(false);
+		InterfaceWrapperHelper.save(record);
+
+		assertThat(retrieveName(record, trx.getTrxName())).isEqualTo(record.getName());
+		assertThat(getDeferredStatementsCount()).isEqualTo(statementsCountBefore);
+	}
+
+	@Test
+	public void flushedOnRead()
+	{
+		final long statementsCountBefore = getDeferredStatementsCount();
+
+		final I_Test record = newRecord(true);
+		InterfaceWrapperHelper.save(record);
+		record.setName(record.getName() + "_changed");
+		InterfaceWrapperHelper.save(record);
+		assertThat(getDeferredStatementsCount()).isEqualTo(statementsCountBefore); // nothing was executed yet
+
+		assertThat(retrieveName(record, trx.getTrxName())).isEqualTo(record.getName());
+		assertThat(getDeferredStatementsCount()).isEqualTo(statementsCountBefore + 2); // INSERT and UPDATE
+	}
+
+	@Test
+	public void flushedOnSavepoint()
+	{
+		final I_Test record = newRecord(true);
+		InterfaceWrapperHelper.save(record);
+		final String nameBeforeSavepoint = record.getName();
+
+		final ITrxSavepoint savepoint = trx.createTrxSavepoint(null);
+		record.setName(nameBeforeSavepoint + "_changed");
+		InterfaceWrapperHelper.save(record);
+		trx.rollback(savepoint);
+
+		// the INSERT was executed before the savepoint, the UPDATE was discarded by the rollback
+		assertThat(retrieveName(record, trx.getTrxName())).isEqualTo(nameBeforeSavepoint);
+	}
+
+	@Test
+	public void discardedOnRollback()
+	{
+		final I_Test record = newRecord(true);
+		InterfaceWrapperHelper.save(record);
+		trx.rollback();
+
+		assertThat(retrieveName(record, trx.getTrxName())).isNull();
+		assertThat(retrieveName(record, ITrx.TRXNAME_None)).isNull();
+	}
+
+	@Test
+	public void updateNoRows_failsOnFlush()
+	{
+		final I_Test record = newRecord(false);
+		InterfaceWrapperHelper.save(record);
+		DB.executeUpdateEx("DELETE FROM Test WHERE Test_ID=?", new Object[] { record.getTest_ID() }, trx.getTrxName());
+
+		InterfaceWrapperHelper.allowDeferredWrite(record);
+		record.setName(record.getName() + "_changed");
+		InterfaceWrapperHelper.save(record); // queued => no error yet
+
+		assertThatThrownBy(() -> retrieveName(record, trx.getTrxName()))
+				.isInstanceOf(DBException.class)
+				.hasMessageContaining("expected to affect one row");
+	}
+
+	@Test
+	public void duplicateKey_failsOnFlush()
+	{
+		final I_Test record = newRecord(true);
+		InterfaceWrapperHelper.save(record);
+
+		final I_Test duplicate = newRecord(true);
+		duplicate.setTest_ID(record.getTest_ID());
+		InterfaceWrapperHelper.save(duplicate); // queued => no error yet
+
+		assertThatThrownBy(() -> retrieveName(record, trx.getTrxName()))
+				.isInstanceOf(DBException.class);
+	}
+}
@@ -87,6 +87,22 @@ public interface IWorkPackageQueue
 	 */
 	I_C_Queue_WorkPackage pollAndLock(long timeoutMillis);
 
+	/**
+	 * Retrieves and locks up to <code>maxWorkpackages</code> work packages (highest priority first), using one single lock statement.
+	 * <p>
+	 * Same as for {@link #pollAndLock(long)}, each returned package has its own <code>ctx</code>.
+	 * Unlike {@link #pollAndLock(long)}, this method does not wait if there are no packages available.
+	 *
+	 * @return locked work packages; might be empty but never <code>null</code>
+	 */
+	List<I_C_Queue_WorkPackage> pollAndLockMultiple(int maxWorkpackages);
+
+	/**
+	 * Unlocks the work packages which were locked in advance by {@link #pollAndLock(long)} but were not yet handed out.
+	 * To be called when the queue processor has no free worker for them or is shut down.
+	 */
+	void releasePrefetchedWorkpackages();
+
 	/**
 	 * Unlocks given package
 	 * 
@@ -22,6 +22,8 @@ package de.metas.async.api.impl;
  * #L%
  */
 
+import java.sql.Timestamp;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -78,6 +80,15 @@ public class WorkPackageQueue implements IWorkPackageQueue
 {
 	private final static String SYSCONFIG_POLLINTERVAL = "de.metas.async.PollIntervallMillis";
 
+	/**
+	 * If enabled (default), the queue is woken up by {@link WorkpackageReadyNotifier} as soon as a workpackage is ready,
+	 * and polls the database only as a fallback, using the (longer) interval from {@link #SYSCONFIG_NOTIFICATION_FALLBACK_POLLINTERVAL}.
+	 * Besides {@link #markReadyForProcessing(I_C_Queue_WorkPackage)}, the queue is also woken up when a workpackage is unlocked (see {@link #unlock(I_C_Queue_WorkPackage)}),
+	 * right away or when its skip timeout elapsed.
+	 */
+	private final static String SYSCONFIG_NOTIFICATION_ENABLED = "de.metas.async.WorkpackageReadyNotification.Enabled";
+	private final static String SYSCONFIG_NOTIFICATION_FALLBACK_POLLINTERVAL = "de.metas.async.WorkpackageReadyNotification.FallbackPollIntervalMillis";
+
 	private static final transient Logger logger = LogManager.getLogger(WorkPackageQueue.class);
 
 	private final transient IQueueDAO dao;
@@ -90,6 +101,17 @@ public class WorkPackageQueue implements IWorkPackageQueue
 	private final String priorityFrom;
 	private final int skipRetryTimeoutMillis;
 
+	/**
+	 * How many workpackages shall be locked in one go when polling. If <code>1</code>, each workpackage is retrieved and locked on its own.
+	 */
+	private final int prefetchSize;
+
+	/**
+	 * IDs of workpackages which were already locked by us, but which were not yet returned by {@link #pollAndLock(long)}.
+	 * Guarded by {@link #mainLock}.
+	 */
+	private final ArrayDeque<Integer> prefetchedWorkpackageIds = new ArrayDeque<>();
+
 	/**
 	 * C_Queue_PackageProcessor_ID used for enquing
 	 */
@@ -109,33 +131,41 @@ public class WorkPackageQueue implements IWorkPackageQueue
 
 	private final ReentrantLock mainLock = new ReentrantLock();
 
+	/** Signaled when a workpackage for one of our {@link #packageProcessorIds} becomes ready; <code>null</code> if this queue is only for enqueuing. */
+	private final WorkpackageReadyNotifier.Subscription workpackageReadySubscription;
+
 	private WorkPackageQueue(final Properties ctx,
 			final List<Integer> packageProcessorIds,
 			final String enquingPackageProcessorInternalName,
 			final String priorityFrom,
+			final int prefetchSize,
 			final boolean forEnqueing)
 	{
 		Check.assumeNotNull(ctx, "ctx is not null");
 		Check.assumeNotNull(packageProcessorIds, "packageProcessorIds not null");
 		Check.assume(!packageProcessorIds.isEmpty(), "packageProcessorIds not empty");
 		// Check.assume(retryTimeoutMillis >= 0, "retryTimeoutMillis={} >= 0", retryTimeoutMillis);
+		Check.assume(prefetchSize > 0, "prefetchSize > 0");
 
 		dao = Services.get(IQueueDAO.class);
 
 		this.ctx = ctx;
 		this.packageProcessorIds = Collections.unmodifiableList(new ArrayList<>(packageProcessorIds));
 		this.priorityFrom = priorityFrom;
+		this.prefetchSize = prefetchSize;
 		skipRetryTimeoutMillis = Async_Constants.DEFAULT_RETRY_TIMEOUT_MILLIS;
 
 		if (forEnqueing)
 		{
 			enquingPackageProcessorId = packageProcessorIds.get(0);
 			this.enquingPackageProcessorInternalName = enquingPackageProcessorInternalName;
+			workpackageReadySubscription = null;
 		}
 		else
 		{
 			enquingPackageProcessorId = -1;
 			this.enquingPackageProcessorInternalName = null;
+			workpackageReadySubscription = WorkpackageReadyNotifier.instance.subscribe(this.packageProcessorIds);
 		}
 	}
 
@@ -146,18 +176,32 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		return new WorkPackageQueue(ctx,
 				Collections.singletonList(packageProcessorId),
 				enquingPackageProcessorInternalName,
-				null,
+				null, // priorityFrom
+				1, // prefetchSize
 				true);
 	}
 
 	public static WorkPackageQueue createForQueueProcessing(final Properties ctx,
 			final List<Integer> packageProcessorIds,
 			final String priorityFrom)
+	{
+		final int prefetchSize = 1;
+		return createForQueueProcessing(ctx, packageProcessorIds, priorityFrom, prefetchSize);
+	}
+
+	/**
+	 * @param prefetchSize how many workpackages shall be locked in one go when polling
+	 */
+	public static WorkPackageQueue createForQueueProcessing(final Properties ctx,
+			final List<Integer> packageProcessorIds,
+			final String priorityFrom,
+			final int prefetchSize)
 	{
 		return new WorkPackageQueue(ctx,
 				packageProcessorIds,
 				null, // enquingPackageProcessorInternalName
 				priorityFrom,
+				prefetchSize,
 				false);
 	}
 
@@ -168,6 +212,7 @@ public class WorkPackageQueue implements IWorkPackageQueue
 				+ "packageProcessorIds=" + packageProcessorIds
 				+ ", priorityFrom=" + priorityFrom
 				+ ", skipRetryTimeoutMillis=" + skipRetryTimeoutMillis
+				+ ", prefetchSize=" + prefetchSize
 				+ ", enquingPackageProcessorId=" + enquingPackageProcessorId
 				+ "]";
 	}
@@ -206,12 +251,8 @@ public class WorkPackageQueue implements IWorkPackageQueue
 
 	private I_C_Queue_WorkPackage pollAndLock0(final long timeoutMillis)
 	{
-		final Properties workPackageCtx = Env.newTemporaryCtx();
-
-		final IQuery<I_C_Queue_WorkPackage> query = createQuery(workPackageCtx);
-
 		final long startTS = SystemTime.millis();
-		I_C_Queue_WorkPackage workPackage = retrieveAndLock(query);
+		I_C_Queue_WorkPackage workPackage = retrieveAndLockNext();
 		if (timeoutMillis == TIMEOUT_OneTimeOnly && workPackage == null)
 		{
 			// We are running in one time only mode (synchronous mode) and we did not get the package from the first time
@@ -230,26 +271,30 @@ public class WorkPackageQueue implements IWorkPackageQueue
 				if (elapsedMillis >= timeoutMillis)
 				{
 					logger.debug("Poll waiting time exceeded. Returning null");
+					releasePrefetchedWorkpackages0();
 					return null;
 				}
 			}
 
-			// No workpackages were found. Sleep 1sec and then try again
+			// No workpackages were found. Wait until we are notified about a new workpackage or the poll interval elapsed, and then try again
 			try
 			{
-				// note: we always get the new service, because things might have changed since this method started
-				final int pollIntervalMs = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_POLLINTERVAL, 1000);
-				Thread.sleep(pollIntervalMs);
+				final long pollIntervalMs = getPollIntervalMillis();
+				final long waitMillis = timeoutMillis == TIMEOUT_Infinite
+						? pollIntervalMs
+						: Math.max(1, Math.min(pollIntervalMs, timeoutMillis - (SystemTime.millis() - startTS)));
+				waitForWorkpackageReady(waitMillis);
 			}
 			catch (final InterruptedException e)
 			{
 				logger.debug("Got interrupted signal. Returning null", e);
+				releasePrefetchedWorkpackages0();
 				return null;
 			}
 
 			// Try fetching the workpackage again
 			logger.trace("Retry retrieving next workpackage");
-			workPackage = retrieveAndLock(query);
+			workPackage = retrieveAndLockNext();
 		}
 
 		Check.assumeNotNull(workPackage, "workPackage not null");
@@ -262,13 +307,161 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		// workPackage.setAD_PInstance_ID(adPInstanceId);
 		// saveInLocalTrx(workPackage);
 
-		//
-		// Update context from work package
-		// NOTE: this will be the context that work package processors will use on processing
-		setupWorkpackageContext(workPackageCtx, workPackage);
 		return workPackage;
 	}
 
+	/**
+	 * Retrieves and locks the next workpackage, either on its own or from the prefetched ones.
+	 *
+	 * @return locked workpackage, with its context already set up; <code>null</code> if there is none
+	 */
+	private I_C_Queue_WorkPackage retrieveAndLockNext()
+	{
+		if (prefetchSize <= 1)
+		{
+			final Properties workPackageCtx = Env.newTemporaryCtx();
+			final I_C_Queue_WorkPackage workPackage = retrieveAndLock(createQuery(workPackageCtx));
+			if (workPackage == null)
+			{
+				return null;
+			}
+
+			//
+			// Update context from work package
+			// NOTE: this will be the context that work package processors will use on processing
+			setupWorkpackageContext(workPackageCtx, workPackage);
+			return workPackage;
+		}
+
+		if (prefetchedWorkpackageIds.isEmpty())
+		{
+			prefetch(prefetchSize);
+		}
+		return pollPrefetched();
+	}
+
+	@Override
+	public List<I_C_Queue_WorkPackage> pollAndLockMultiple(final int maxWorkpackages)
+	{
+		Check.assume(maxWorkpackages > 0, "maxWorkpackages > 0");
+
+		mainLock.lock();
+		try
+		{
+			final int countToLock = maxWorkpackages - prefetchedWorkpackageIds.size();
+			if (countToLock > 0)
+			{
+				prefetch(countToLock);
+			}
+
+			final List<I_C_Queue_WorkPackage> workPackages = new ArrayList<>();
+			while (workPackages.size() < maxWorkpackages)
+			{
+				final I_C_Queue_WorkPackage workPackage = pollPrefetched();
+				if (workPackage == null)
+				{
+					break;
+				}
+				workPackages.add(workPackage);
+			}
+			return workPackages;
+		}
+		finally
+		{
+			mainLock.unlock();
+		}
+	}
+
+	/**
+	 * Locks up to <code>count</code> workpackages, using one single lock statement, and adds them to {@link #prefetchedWorkpackageIds}.
+	 */
+	private void prefetch(final int count)
+	{
+		final IQuery<I_C_Queue_WorkPackage> query = createQuery(Env.newTemporaryCtx());
+		final List<Integer> lockedWorkpackageIds = Services.get(ILockManager.class).retrieveAndLockMultipleRecordIds(query, count);
+		prefetchedWorkpackageIds.addAll(lockedWorkpackageIds);
+		logger.trace("Prefetched {} workpackages", lockedWorkpackageIds.size());
+	}
+
+	/**
+	 * Loads the next prefetched workpackage in its own context.
+	 *
+	 * @return locked workpackage; <code>null</code> if there are no more prefetched workpackages
+	 */
+	private I_C_Queue_WorkPackage pollPrefetched()
+	{
+		Integer workPackageId;
+		while ((workPackageId = prefetchedWorkpackageIds.poll()) != null)
+		{
+			final Properties workPackageCtx = Env.newTemporaryCtx();
+			final I_C_Queue_WorkPackage workPackage = InterfaceWrapperHelper.create(workPackageCtx, workPackageId, I_C_Queue_WorkPackage.class, ITrx.TRXNAME_None);
+			if (!isValid(workPackage))
+			{
+				unlockNoFail(workPackage);
+				logger.warn("Prefetched {} on thread {} but is not valid anymore. Unlocked it.", workPackage, Thread.currentThread().getName());
+				continue;
+			}
+
+			setupWorkpackageContext(workPackageCtx, workPackage);
+			return workPackage;
+		}
+		return null;
+	}
+
+	@Override
+	public void releasePrefetchedWorkpackages()
+	{
+		mainLock.lock();
+		try
+		{
+			releasePrefetchedWorkpackages0();
+		}
+		finally
+		{
+			mainLock.unlock();
+		}
+	}
+
+	private void releasePrefetchedWorkpackages0()
+	{
+		if (prefetchedWorkpackageIds.isEmpty())
+		{
+			return;
+		}
+
+		logger.debug("Releasing {} prefetched workpackages which were not handed out", prefetchedWorkpackageIds.size());
+
+		Integer workPackageId;
+		while ((workPackageId = prefetchedWorkpackageIds.poll()) != null)
+		{
+			final I_C_Queue_WorkPackage workPackage = InterfaceWrapperHelper.create(ctx, workPackageId, I_C_Queue_WorkPackage.class, ITrx.TRXNAME_None);
+			unlockNoFail(workPackage);
+		}
+	}
+
+	private long getPollIntervalMillis()
+	{
+		// note: we always get the new service, because things might have changed since this method started
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		if (workpackageReadySubscription != null && sysConfigBL.getBooleanValue(SYSCONFIG_NOTIFICATION_ENABLED, true))
+		{
+			return sysConfigBL.getIntValue(SYSCONFIG_NOTIFICATION_FALLBACK_POLLINTERVAL, 10000);
+		}
+		return sysConfigBL.getIntValue(SYSCONFIG_POLLINTERVAL, 1000);
+	}
+
+	private void waitForWorkpackageReady(final long waitMillis) throws InterruptedException
+	{
+		if (workpackageReadySubscription == null)
+		{
+			Thread.sleep(waitMillis);
+			return;
+		}
+
+		final boolean notified = workpackageReadySubscription.await(waitMillis);
+		logger.trace("Woke up after {}", notified ? "notification" : "poll interval");
+	}
+
 	/**
 	 * Update context from work package (AD_Client_ID, AD_Org_ID, AD_User_ID, AD_Role_ID etc).
 	 *
@@ -386,6 +579,49 @@ public class WorkPackageQueue implements IWorkPackageQueue
 			throw UnlockFailedException.wrapIfNeeded(e)
 					.setParameter("Workpackage", workPackage);
 		}
+
+		notifyReadyAfterUnlock(workPackage);
+	}
+
+	/**
+	 * Wakes up the queue processors (also on other nodes) when given unlocked workpackage can be processed again, i.e. right away or when its skip timeout elapsed.
+	 * That way they don't have to wait for their next fallback poll.
+	 */
+	private void notifyReadyAfterUnlock(final I_C_Queue_WorkPackage workPackage)
+	{
+		try
+		{
+			if (workPackage.isProcessed() || workPackage.isError() || !workPackage.isReadyForProcessing())
+			{
+				return;
+			}
+
+			final I_C_Queue_Block block = workPackage.getC_Queue_Block();
+			if (block == null)
+			{
+				return;
+			}
+
+			WorkpackageReadyNotifier.instance.notifyReadyAfterDelay(
+					block.getC_Queue_PackageProcessor_ID(),
+					getMillisUntilRetry(workPackage));
+		}
+		catch (final Exception e)
+		{
+			logger.warn("Failed notifying the queue processors about unlocked {}. Ignored.", workPackage, e);
+		}
+	}
+
+	private long getMillisUntilRetry(final I_C_Queue_WorkPackage workPackage)
+	{
+		final Timestamp skippedAt = workPackage.getSkippedAt();
+		if (skippedAt == null)
+		{
+			return 0;
+		}
+
+		final int skipTimeoutMillis = workPackage.getSkipTimeoutMillis() > 0 ? workPackage.getSkipTimeoutMillis() : skipRetryTimeoutMillis;
+		return skippedAt.getTime() + skipTimeoutMillis - SystemTime.millis();
 	}
 
 	@Override
@@ -747,6 +983,15 @@ public class WorkPackageQueue implements IWorkPackageQueue
 			workPackage.setIsReadyForProcessing(true);
 			dao.save(workPackage);
 
+			// Wake up the queue processors (also on other nodes), so they don't have to wait for their next poll
+			final I_C_Queue_Block block = workPackage.getC_Queue_Block();
+			if (block != null)
+			{
+				WorkpackageReadyNotifier.instance.notifyReadyAfterCommit(
+						block.getC_Queue_PackageProcessor_ID(),
+						InterfaceWrapperHelper.getTrxName(workPackage));
+			}
+
 			success = true;
 		}
 		finally
@@ -0,0 +1,275 @@
+package de.metas.async.api.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.MapMaker;
+
+import de.metas.event.Event;
+import de.metas.event.IEventBus;
+import de.metas.event.IEventBusFactory;
+import de.metas.event.IEventListener;
+import de.metas.event.Topic;
+import de.metas.event.Type;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Wakes up the polling {@link WorkPackageQueue}s as soon as a workpackage was marked as ready for processing.
+ * <p>
+ * Local queues are signaled directly. Queues running on other nodes are signaled via a remote event bus topic.
+ * Because events might be lost (e.g. the broker is down), the queues still poll the database, but with a much longer interval.
+ */
+public final class WorkpackageReadyNotifier implements IEventListener
+{
+	public static final transient WorkpackageReadyNotifier instance = new WorkpackageReadyNotifier();
+
+	private static final Logger logger = LogManager.getLogger(WorkpackageReadyNotifier.class);
+
+	private static final Topic TOPIC_WorkpackageReady = Topic.builder()
+			.name("de.metas.async.WorkpackageReady")
+			.type(Type.REMOTE)
+			.build();
+
+	private static final String EVENT_PROPERTY_C_Queue_PackageProcessor_ID = "C_Queue_PackageProcessor_ID";
+
+	private final AtomicBoolean _initalized = new AtomicBoolean(false);
+
+	/** Subscriptions are referenced weakly, so they will go away together with their queue */
+	private final Set<Subscription> subscriptions = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+
+	private final ScheduledExecutorService delayedNotificationsExecutor = Executors.newSingleThreadScheduledExecutor(
+			CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(WorkpackageReadyNotifier.class.getName() + "-delayed")
+					.setDaemon(true)
+					.build());
+
+	private WorkpackageReadyNotifier()
+	{
+	}
+
+	public void enable()
+	{
+		// Do nothing if already registered.
+		if (_initalized.getAndSet(true))
+		{
+			return;
+		}
+
+		Services.get(IEventBusFactory.class).registerGlobalEventListener(TOPIC_WorkpackageReady, this);
+		logger.info("Registered to {}", TOPIC_WorkpackageReady);
+	}
+
+	/**
+	 * Creates a new subscription for the given package processors. The caller shall keep a reference to it for as long as it's interested in being notified.
+	 */
+	public Subscription subscribe(@NonNull final Collection<Integer> packageProcessorIds)
+	{
+		final Subscription subscription = new Subscription(packageProcessorIds);
+		subscriptions.add(subscription);
+		return subscription;
+	}
+
+	/**
+	 * Notifies local and remote queues after the given transaction was committed (or right away if there is no running transaction).
+	 */
+	public void notifyReadyAfterCommit(final int packageProcessorId, final String trxName)
+	{
+		Services.get(ITrxManager.class)
+				.getTrxListenerManagerOrAutoCommit(trxName)
+				.newEventListener(TrxEventTiming.AFTER_COMMIT)
+				.registerHandlingMethod(trx -> notifyReady(packageProcessorId));
+	}
+
+	/**
+	 * Notifies local and remote queues after the given delay, e.g. when the skip timeout of a workpackage elapsed (or right away if the delay is not positive).
+	 * <p>
+	 * NOTE: the delayed notification is only kept in memory; if this node is stopped before, the queues will find the workpackage on their fallback poll.
+	 */
+	public void notifyReadyAfterDelay(final int packageProcessorId, final long delayMillis)
+	{
+		if (delayMillis <= 0)
+		{
+			notifyReady(packageProcessorId);
+			return;
+		}
+
+		delayedNotificationsExecutor.schedule(() -> notifyReadyNoFail(packageProcessorId), delayMillis, TimeUnit.MILLISECONDS);
+	}
+
+	private void notifyReadyNoFail(final int packageProcessorId)
+	{
+		try
+		{
+			notifyReady(packageProcessorId);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed notifying the queues about package processor {}. Ignored.", packageProcessorId, ex);
+		}
+	}
+
+	private void notifyReady(final int packageProcessorId)
+	{
+		signalLocalSubscriptions(packageProcessorId);
+
+		if (!_initalized.get())
+		{
+			return;
+		}
+
+		final Event event = Event.builder()
+				.putProperty(EVENT_PROPERTY_C_Queue_PackageProcessor_ID, packageProcessorId)
+				.build();
+		Services.get(IEventBusFactory.class)
+				.getEventBus(TOPIC_WorkpackageReady)
+				.postEvent(event);
+	}
+
+	/**
+	 * Called when another node marked a workpackage as ready for processing.
+	 */
+	@Override
+	public void onEvent(final IEventBus eventBus, final Event event)
+	{
+		// Local events were already dispatched in notifyReady
+		if (event.isLocalEvent())
+		{
+			return;
+		}
+
+		final int packageProcessorId = event.getPropertyAsInt(EVENT_PROPERTY_C_Queue_PackageProcessor_ID, -1);
+		if (packageProcessorId <= 0)
+		{
+			logger.debug("Ignored event without {}: {}", EVENT_PROPERTY_C_Queue_PackageProcessor_ID, event);
+			return;
+		}
+
+		signalLocalSubscriptions(packageProcessorId);
+	}
+
+	private void signalLocalSubscriptions(final int packageProcessorId)
+	{
+		for (final Subscription subscription : ImmutableSet.copyOf(subscriptions))
+		{
+			if (subscription.isMatching(packageProcessorId))
+			{
+				subscription.signal();
+			}
+		}
+	}
+
+	/**
+	 * A latch which is signaled when a workpackage for one of the subscribed package processors is ready.
+	 * A signal which arrives while nobody is waiting is not lost, but consumed by the next {@link #await(long)}.
+	 */
+	static final class Subscription
+	{
+		private final ImmutableSet<Integer> packageProcessorIds;
+
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Condition signaledCondition = lock.newCondition();
+		private boolean signaled = false;
+
+		private Subscription(final Collection<Integer> packageProcessorIds)
+		{
+			Check.assumeNotEmpty(packageProcessorIds, "packageProcessorIds not empty");
+			this.packageProcessorIds = ImmutableSet.copyOf(packageProcessorIds);
+		}
+
+		@Override
+		public String toString()
+		{
+			return MoreObjects.toStringHelper(this)
+					.add("packageProcessorIds", packageProcessorIds)
+					.add("signaled", signaled)
+					.toString();
+		}
+
+		private boolean isMatching(final int packageProcessorId)
+		{
+			return packageProcessorIds.contains(packageProcessorId);
+		}
+
+		void signal()
+		{
+			lock.lock();
+			try
+			{
+				signaled = true;
+				signaledCondition.signalAll();
+			}
+			finally
+			{
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Waits until this subscription is signaled or the given timeout elapsed.
+		 *
+		 * @return <code>true</code> if we were signaled, <code>false</code> if the timeout elapsed
+		 */
+		boolean await(final long timeoutMillis) throws InterruptedException
+		{
+			lock.lock();
+			try
+			{
+				long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+				while (!signaled)
+				{
+					if (remainingNanos <= 0)
+					{
+						return false;
+					}
+					remainingNanos = signaledCondition.awaitNanos(remainingNanos);
+				}
+
+				signaled = false;
+				return true;
+			}
+			finally
+			{
+				lock.unlock();
+			}
+		}
+	}
+}
@@ -42,6 +42,7 @@ import de.metas.Profiles;
 import de.metas.async.Async_Constants;
 import de.metas.async.api.IAsyncBatchListeners;
 import de.metas.async.api.impl.AsyncBatchDAO;
+import de.metas.async.api.impl.WorkpackageReadyNotifier;
 import de.metas.async.model.I_C_Queue_WorkPackage;
 import de.metas.async.model.I_C_Queue_WorkPackage_Log;
 import de.metas.async.model.I_C_Queue_WorkPackage_Param;
@@ -93,6 +94,9 @@ public class Main extends AbstractModuleInterceptor
 		// Data import (async support)
 		Services.get(IImportProcessFactory.class).setAsyncImportProcessBuilderSupplier(AsyncImportProcessBuilder.instanceSupplier);
 		Services.get(IAsyncBatchListeners.class).registerAsyncBatchNoticeListener(new DefaultAsyncBatchListener(), AsyncBatchDAO.ASYNC_BATCH_TYPE_DEFAULT); // task 08917
+
+		// Notify the queue processors of all nodes when a workpackage is ready, instead of letting them just poll
+		WorkpackageReadyNotifier.instance.enable();
 	}
 
 	/**
@@ -108,6 +108,13 @@ class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 	@Override
 	protected void executeTask(WorkpackageProcessorTask task)
 	{
+		if (executor.getActiveCount() >= executor.getMaximumPoolSize())
+		{
+			// All workers are busy, so we will block until one becomes free.
+			// Meanwhile, don't keep other workpackages locked, so that other processors can take them.
+			getQueue().releasePrefetchedWorkpackages();
+		}
+
 		executor.submit(task);
 	}
 
@@ -149,6 +156,7 @@ class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 		}
 
 		executor.shutdownNow();
+		getQueue().releasePrefetchedWorkpackages();
 		logger.info("Shutdown finished");
 
 		running.set(false);
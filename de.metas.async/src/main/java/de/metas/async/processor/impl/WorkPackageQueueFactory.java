@@ -55,7 +55,10 @@ public class WorkPackageQueueFactory implements IWorkPackageQueueFactory
 		final Properties ctx = InterfaceWrapperHelper.getCtx(processor);
 		final String priorityFrom = processor.getPriority();
 
-		return WorkPackageQueue.createForQueueProcessing(ctx, packageProcessorIds, priorityFrom);
+		// Lock as many workpackages in one go as we have threads to process them
+		final int prefetchSize = Math.max(processor.getPoolSize(), 1);
+
+		return WorkPackageQueue.createForQueueProcessing(ctx, packageProcessorIds, priorityFrom, prefetchSize);
 	}
 
 	@Override
@@ -23,6 +23,8 @@ package de.metas.lock.api;
  */
 
 
+import java.util.List;
+
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryFilter;
 import org.compiere.model.IQuery;
@@ -94,6 +96,14 @@ public interface ILockManager extends ISingletonService
 	 */
 	<T> T retrieveAndLock(IQuery<T> query, Class<T> clazz);
 
+	/**
+	 * Retrieves up to <code>limit</code> records from query and locks them (using {@link LockOwner#NONE}), in one go.
+	 * Records which are already locked, or which were locked concurrently by somebody else, are skipped.
+	 *
+	 * @return IDs of the records which were locked, in query order; might be less than <code>limit</code>
+	 */
+	<T> List<Integer> retrieveAndLockMultipleRecordIds(IQuery<T> query, int limit);
+
 	/**
 	 * Builds a SQL where clause to be used in other queries to filter the results.
 	 *
@@ -23,16 +23,20 @@ package de.metas.lock.api.impl;
  */
 
 import java.util.Iterator;
+import java.util.List;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.impl.TypedSqlQueryFilter;
+import org.adempiere.ad.table.api.IADTableDAO;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.util.lang.ITableRecordReference;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.IQuery;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.lock.api.ILock;
 import de.metas.lock.api.ILockCommand;
 import de.metas.lock.api.ILockCommand.AllowAdditionalLocks;
@@ -266,14 +270,20 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 
 	protected abstract boolean unlockRecord(IUnlockCommand unlockCommand, ITableRecordReference record);
 
+	/** @return the lock command used to lock the records in the <code>retrieveAndLock*</code> methods */
+	protected final ILockCommand newRetrieveAndLockCommand()
+	{
+		return new LockCommand(this)
+				.setOwner(LockOwner.NONE);
+	}
+
 	@Override
 	public final <T> T retrieveAndLock(final IQuery<T> query, final Class<T> clazz)
 	{
 		final IQuery<T> finalQuery = retrieveNotLockedQuery(query);
 
 		final int maxLockRetries = 50;
-		final ILockCommand lockCommand = new LockCommand(this)
-				.setOwner(LockOwner.NONE);
+		final ILockCommand lockCommand = newRetrieveAndLockCommand();
 
 		int retryCounter = 0;
 		while (retryCounter < maxLockRetries)
@@ -311,6 +321,39 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 		return null;
 	}
 
+	/**
+	 * Retrieves the candidates and locks them one by one.
+	 *
+	 * Implementations which are able to do this in one go shall override it.
+	 */
+	@Override
+	public <T> List<Integer> retrieveAndLockMultipleRecordIds(final IQuery<T> query, final int limit)
+	{
+		Check.assume(limit > 0, "limit > 0");
+
+		final List<Integer> candidateIds = retrieveNotLockedQuery(query)
+				.copy()
+				.setLimit(limit)
+				.listIds();
+		if (candidateIds.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final int adTableId = Services.get(IADTableDAO.class).retrieveTableId(query.getTableName());
+		final ILockCommand lockCommand = newRetrieveAndLockCommand();
+
+		final ImmutableList.Builder<Integer> lockedIds = ImmutableList.builder();
+		for (final int recordId : candidateIds)
+		{
+			if (lockRecord(lockCommand, TableRecordReference.of(adTableId, recordId)))
+			{
+				lockedIds.add(recordId);
+			}
+		}
+		return lockedIds.build();
+	}
+
 	@Override
 	public final String getLockedWhereClause(final Class<?> modelClass, final String joinColumnNameFQ, final LockOwner lockOwner)
 	{
@@ -23,26 +23,46 @@ package de.metas.lock.api.impl;
  */
 
 
+import java.util.List;
+
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryFilter;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.model.IQuery;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+
 import de.metas.lock.api.ILock;
 import de.metas.lock.api.ILockCommand;
 import de.metas.lock.api.ILockManager;
 import de.metas.lock.api.IUnlockCommand;
 import de.metas.lock.api.LockOwner;
 import de.metas.lock.spi.ILockDatabase;
+import de.metas.lock.spi.impl.InMemoryLockDatabase;
 import de.metas.lock.spi.impl.SqlLockDatabase;
 import de.metas.util.Check;
+import de.metas.util.Services;
 
 public class LockManager implements ILockManager
 {
-	private final ILockDatabase lockDatabase = new SqlLockDatabase();
+	/** If enabled, the {@link InMemoryLockDatabase} is used. Enable it only if there is one single node which is creating locks. */
+	private static final String SYSCONFIG_InMemoryLockDatabase = "de.metas.lock.spi.impl.InMemoryLockDatabase.Enabled";
+
+	private final Supplier<ILockDatabase> lockDatabaseSupplier = Suppliers.memoize(LockManager::createLockDatabase);
 
 	public ILockDatabase getLockDatabase()
 	{
-		return lockDatabase;
+		return lockDatabaseSupplier.get();
+	}
+
+	private static ILockDatabase createLockDatabase()
+	{
+		if (Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_InMemoryLockDatabase, false))
+		{
+			return new InMemoryLockDatabase();
+		}
+		return new SqlLockDatabase();
 	}
 
 	@Override
@@ -128,6 +148,12 @@ public class LockManager implements ILockManager
 		return getLockDatabase().retrieveAndLock(query, clazz);
 	}
 
+	@Override
+	public final <T> List<Integer> retrieveAndLockMultipleRecordIds(final IQuery<T> query, final int limit)
+	{
+		return getLockDatabase().retrieveAndLockMultipleRecordIds(query, limit);
+	}
+
 	@Override
 	public final String getNotLockedWhereClause(final String tableName, final String joinColumnNameFQ)
 	{
@@ -23,6 +23,8 @@ package de.metas.lock.spi;
  */
 
 
+import java.util.List;
+
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryFilter;
 import org.compiere.model.IQuery;
@@ -53,6 +55,13 @@ public interface ILockDatabase
 
 	<T> T retrieveAndLock(IQuery<T> query, Class<T> clazz);
 
+	/**
+	 * Retrieves up to <code>limit</code> not locked records from given query and locks them (using {@link LockOwner#NONE}).
+	 *
+	 * @return IDs of the records which were locked, in query order
+	 */
+	<T> List<Integer> retrieveAndLockMultipleRecordIds(IQuery<T> query, int limit);
+
 	<T> IQueryFilter<T> getLockedByFilter(Class<T> modelClass, LockOwner lockOwner);
 	
 	<T> IQueryFilter<T> getNotLockedFilter(Class<T> modelClass);
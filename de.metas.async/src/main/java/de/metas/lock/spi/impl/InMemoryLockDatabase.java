@@ -0,0 +1,222 @@
+package de.metas.lock.spi.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.adempiere.ad.table.api.IADTableDAO;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.util.lang.ITableRecordReference;
+import org.compiere.model.IQuery;
+import org.compiere.util.DB;
+import org.compiere.util.DB.OnFail;
+import org.compiere.util.DisplayType;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.lock.api.ILock;
+import de.metas.lock.api.ILockCommand;
+import de.metas.lock.api.LockOwner;
+import de.metas.lock.exceptions.LockFailedException;
+import de.metas.lock.model.I_T_Lock;
+import de.metas.lock.spi.ILockDatabase;
+import de.metas.lock.spi.impl.InMemoryLockTable.LockRecord;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * {@link ILockDatabase} implementation which keeps a copy of the {@link I_T_Lock} records in memory.
+ * <p>
+ * All changes are still written to {@link I_T_Lock}, because the not-locked/locked-by filters and where clauses are used in SQL queries
+ * and because the database's unique indices remain the final arbiter if two threads are locking the same record at the same time.
+ * The in-memory copy is maintained from the rows which are returned by those INSERT and DELETE statements,
+ * so {@link #isLocked(int, int, LockOwner)} and {@link #retrieveLockForOwner(LockOwner)} don't need a database roundtrip
+ * and locking an already locked record fails without sending an INSERT which would fail anyways.
+ * <p>
+ * Locks which are created by other cluster nodes are not seen, so use this implementation only if there is just one node which is creating locks.
+ */
+public class InMemoryLockDatabase extends SqlLockDatabase
+{
+	private static final String SQL_LockColumns = I_T_Lock.COLUMNNAME_AD_Table_ID
+			+ ", " + I_T_Lock.COLUMNNAME_Record_ID
+			+ ", " + I_T_Lock.COLUMNNAME_Owner
+			+ ", " + I_T_Lock.COLUMNNAME_IsAutoCleanup
+			+ ", " + I_T_Lock.COLUMNNAME_IsAllowMultipleOwners;
+
+	private final InMemoryLockTable lockTable = new InMemoryLockTable();
+
+	public InMemoryLockDatabase()
+	{
+		loadFromDatabase();
+	}
+
+	private void loadFromDatabase()
+	{
+		final String sql = "SELECT " + SQL_LockColumns + " FROM " + I_T_Lock.Table_Name;
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				lockTable.add(retrieveLockRecord(rs));
+			}
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sql);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+
+		logger.info("Loaded the locks of {} records from {}", lockTable.getRecordsCount(), I_T_Lock.Table_Name);
+	}
+
+	private static LockRecord retrieveLockRecord(final ResultSet rs) throws SQLException
+	{
+		return LockRecord.builder()
+				.adTableId(rs.getInt(I_T_Lock.COLUMNNAME_AD_Table_ID))
+				.recordId(rs.getInt(I_T_Lock.COLUMNNAME_Record_ID))
+				.ownerName(rs.getString(I_T_Lock.COLUMNNAME_Owner))
+				.autoCleanup(DisplayType.toBoolean(rs.getString(I_T_Lock.COLUMNNAME_IsAutoCleanup), false))
+				.allowMultipleOwners(DisplayType.toBoolean(rs.getString(I_T_Lock.COLUMNNAME_IsAllowMultipleOwners), false))
+				.build();
+	}
+
+	private static LockRecord toLockRecord(final ILockCommand lockCommand, final int adTableId, final int recordId)
+	{
+		return LockRecord.builder()
+				.adTableId(adTableId)
+				.recordId(recordId)
+				.ownerName(lockCommand.getOwner().getOwnerName())
+				.autoCleanup(lockCommand.isAutoCleanup())
+				.allowMultipleOwners(isAllowMultipleOwners(lockCommand.getAllowAdditionalLocks()))
+				.build();
+	}
+
+	@Override
+	public boolean isLocked(final int adTableId, final int recordId, final LockOwner lockOwner)
+	{
+		Check.assume(adTableId > 0, "asTableId > 0");
+
+		if (recordId < 0)
+		{
+			return false;
+		}
+
+		return lockTable.isLocked(adTableId, recordId, lockOwner);
+	}
+
+	@Override
+	protected boolean lockRecord(final ILockCommand lockCommand, @NonNull final ITableRecordReference record)
+	{
+		final int recordId = record.getRecord_ID();
+		if (recordId >= 0 && lockTable.isConflicting(toLockRecord(lockCommand, record.getAD_Table_ID(), recordId)))
+		{
+			// the INSERT would fail because of T_Lock's unique indices, so don't bother the database
+			if (lockCommand.isFailIfAlreadyLocked())
+			{
+				throw new LockFailedException("Record was already locked: " + record)
+						.setLockCommand(lockCommand)
+						.setRecordToLock(record);
+			}
+			return false;
+		}
+
+		return super.lockRecord(lockCommand, record);
+	}
+
+	@Override
+	protected boolean changeLockRecord(final ILockCommand lockCommand, final ITableRecordReference record)
+	{
+		final boolean changed = super.changeLockRecord(lockCommand, record);
+		if (changed)
+		{
+			final LockOwner ownerCurrent = lockCommand.getParentLock().getOwner();
+			lockTable.change(ownerCurrent, toLockRecord(lockCommand, record.getAD_Table_ID(), record.getRecord_ID()));
+		}
+		return changed;
+	}
+
+	@Override
+	protected int executeLockInsert(final String sql, final List<Object> sqlParams)
+	{
+		return executeAndProcessReturnedLocks(sql, sqlParams, lockTable::add);
+	}
+
+	@Override
+	protected int executeLockDelete(final String sql, final List<Object> sqlParams)
+	{
+		return executeAndProcessReturnedLocks(sql, sqlParams, lockTable::remove);
+	}
+
+	private int executeAndProcessReturnedLocks(final String sql, final List<Object> sqlParams, final Consumer<LockRecord> processor)
+	{
+		final String sqlWithReturning = sql + " RETURNING " + SQL_LockColumns;
+		final int timeOut = 0;
+		return DB.executeUpdate(sqlWithReturning, sqlParams.toArray(), OnFail.ThrowException, ITrx.TRXNAME_None, timeOut,
+				rs -> processor.accept(retrieveLockRecord(rs)));
+	}
+
+	@Override
+	public <T> List<Integer> retrieveAndLockMultipleRecordIds(final IQuery<T> query, final int limit)
+	{
+		final List<Integer> lockedRecordIds = super.retrieveAndLockMultipleRecordIds(query, limit);
+		if (!lockedRecordIds.isEmpty())
+		{
+			final int adTableId = Services.get(IADTableDAO.class).retrieveTableId(query.getTableName());
+			final ILockCommand lockCommand = newRetrieveAndLockCommand();
+			lockedRecordIds.forEach(recordId -> lockTable.add(toLockRecord(lockCommand, adTableId, recordId)));
+		}
+		return lockedRecordIds;
+	}
+
+	@Override
+	public ILock retrieveLockForOwner(final LockOwner lockOwner)
+	{
+		Check.assumeNotNull(lockOwner, "Lock owner shall not be null");
+		Check.assumeNotNull(lockOwner.isRealOwner(), "Lock owner shall be real owner but it was {}", lockOwner);
+
+		final List<LockRecord> locks = lockTable.getLocksByOwnerName(lockOwner.getOwnerName());
+		if (locks.isEmpty())
+		{
+			throw new LockFailedException("No lock found for " + lockOwner);
+		}
+
+		final Set<Boolean> autoCleanups = locks.stream().map(LockRecord::isAutoCleanup).collect(ImmutableSet.toImmutableSet());
+		Check.assume(autoCleanups.size() == 1, "More then one lock found for owner");
+
+		return newLock(lockOwner, autoCleanups.iterator().next(), locks.size());
+	}
+}
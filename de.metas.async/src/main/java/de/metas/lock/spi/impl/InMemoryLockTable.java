@@ -0,0 +1,216 @@
+package de.metas.lock.spi.impl;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.compiere.util.Util.ArrayKey;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.lock.api.LockOwner;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In-memory copy of the {@link de.metas.lock.model.I_T_Lock} records, used by {@link InMemoryLockDatabase}.
+ * <p>
+ * The locks of one record are kept in an immutable list which is replaced atomically, so reading is lock-free and writers only contend on the same record.
+ * An additional index by owner name allows releasing all locks of one owner without scanning the whole table.
+ */
+/* package */ final class InMemoryLockTable
+{
+	private final ConcurrentHashMap<ArrayKey, ImmutableList<LockRecord>> locksByRecord = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, Set<ArrayKey>> recordKeysByOwnerName = new ConcurrentHashMap<>();
+
+	private static ArrayKey createRecordKey(final int adTableId, final int recordId)
+	{
+		return new ArrayKey(adTableId, recordId);
+	}
+
+	public void add(@NonNull final LockRecord lock)
+	{
+		final ArrayKey recordKey = createRecordKey(lock.getAdTableId(), lock.getRecordId());
+		locksByRecord.compute(recordKey, (key, locks) -> {
+			addToOwnerIndex(lock.getOwnerName(), key);
+
+			if (locks == null)
+			{
+				return ImmutableList.of(lock);
+			}
+			return ImmutableList.<LockRecord> builder()
+					.addAll(locks)
+					.add(lock)
+					.build();
+		});
+	}
+
+	/**
+	 * Removes the given lock, i.e. the lock of the same record, owner and IsAllowMultipleOwners flag.
+	 *
+	 * @return how many locks were removed
+	 */
+	public int remove(@NonNull final LockRecord lockToRemove)
+	{
+		final ArrayKey recordKey = createRecordKey(lockToRemove.getAdTableId(), lockToRemove.getRecordId());
+		return removeIf(recordKey, lock -> lock.getOwnerName().equals(lockToRemove.getOwnerName())
+				&& lock.isAllowMultipleOwners() == lockToRemove.isAllowMultipleOwners());
+	}
+
+	private int removeIf(final ArrayKey recordKey, final Predicate<LockRecord> filter)
+	{
+		final int[] countRemoved = new int[] { 0 };
+		locksByRecord.computeIfPresent(recordKey, (key, locks) -> {
+			final ImmutableList<LockRecord> locksToKeep = locks.stream()
+					.filter(filter.negate())
+					.collect(ImmutableList.toImmutableList());
+
+			locks.stream()
+					.filter(filter)
+					.map(LockRecord::getOwnerName)
+					.distinct()
+					.filter(ownerName -> locksToKeep.stream().noneMatch(lock -> ownerName.equals(lock.getOwnerName())))
+					.forEach(ownerName -> removeFromOwnerIndex(ownerName, key));
+
+			countRemoved[0] = locks.size() - locksToKeep.size();
+			return locksToKeep.isEmpty() ? null : locksToKeep;
+		});
+		return countRemoved[0];
+	}
+
+	private void addToOwnerIndex(final String ownerName, final ArrayKey recordKey)
+	{
+		recordKeysByOwnerName.compute(ownerName, (name, recordKeys) -> {
+			final Set<ArrayKey> recordKeysNew = recordKeys != null ? recordKeys : ConcurrentHashMap.newKeySet();
+			recordKeysNew.add(recordKey);
+			return recordKeysNew;
+		});
+	}
+
+	private void removeFromOwnerIndex(final String ownerName, final ArrayKey recordKey)
+	{
+		recordKeysByOwnerName.computeIfPresent(ownerName, (name, recordKeys) -> {
+			recordKeys.remove(recordKey);
+			return recordKeys.isEmpty() ? null : recordKeys;
+		});
+	}
+
+	/**
+	 * Replaces the locks of given record which match the current owner with the given new lock.
+	 * Like the SQL UPDATE, each matching lock is replaced, so we end up with the same number of locks.
+	 */
+	public void change(@NonNull final LockOwner ownerCurrent, @NonNull final LockRecord lockNew)
+	{
+		final ArrayKey recordKey = createRecordKey(lockNew.getAdTableId(), lockNew.getRecordId());
+		final int countRemoved = removeIf(recordKey, lock -> isMatchingOwner(lock, ownerCurrent));
+		for (int i = 0; i < countRemoved; i++)
+		{
+			add(lockNew);
+		}
+	}
+
+	public boolean isLocked(final int adTableId, final int recordId, final LockOwner lockOwner)
+	{
+		final ImmutableList<LockRecord> locks = locksByRecord.get(createRecordKey(adTableId, recordId));
+		if (locks == null)
+		{
+			return false;
+		}
+
+		return locks.stream().anyMatch(lock -> isMatchingOwner(lock, lockOwner));
+	}
+
+	private static boolean isMatchingOwner(final LockRecord lock, final LockOwner lockOwner)
+	{
+		if (lockOwner == null || lockOwner.isAnyOwner())
+		{
+			return true;
+		}
+		return Objects.equals(lock.getOwnerName(), lockOwner.getOwnerName());
+	}
+
+	/**
+	 * @return <code>true</code> if inserting given lock would violate the unique indices of <code>T_Lock</code>, i.e.
+	 *         <ul>
+	 *         <li>there is already a lock with IsAllowMultipleOwners=N and the new lock has IsAllowMultipleOwners=N
+	 *         <li>there is already a lock with IsAllowMultipleOwners=Y for the same owner and the new lock has IsAllowMultipleOwners=Y
+	 *         </ul>
+	 */
+	public boolean isConflicting(@NonNull final LockRecord lockNew)
+	{
+		final ImmutableList<LockRecord> locks = locksByRecord.get(createRecordKey(lockNew.getAdTableId(), lockNew.getRecordId()));
+		if (locks == null)
+		{
+			return false;
+		}
+
+		return locks.stream()
+				.filter(lock -> lock.isAllowMultipleOwners() == lockNew.isAllowMultipleOwners())
+				.anyMatch(lock -> !lockNew.isAllowMultipleOwners() || lock.getOwnerName().equals(lockNew.getOwnerName()));
+	}
+
+	public List<LockRecord> getLocksByOwnerName(@NonNull final String ownerName)
+	{
+		final Set<ArrayKey> recordKeys = recordKeysByOwnerName.get(ownerName);
+		if (recordKeys == null)
+		{
+			return ImmutableList.of();
+		}
+
+		final ImmutableList.Builder<LockRecord> result = ImmutableList.builder();
+		for (final ArrayKey recordKey : recordKeys)
+		{
+			final ImmutableList<LockRecord> locks = locksByRecord.get(recordKey);
+			if (locks == null)
+			{
+				continue;
+			}
+			locks.stream()
+					.filter(lock -> ownerName.equals(lock.getOwnerName()))
+					.forEach(result::add);
+		}
+		return result.build();
+	}
+
+	public int getRecordsCount()
+	{
+		return locksByRecord.size();
+	}
+
+	@Value
+	@Builder
+	public static class LockRecord
+	{
+		int adTableId;
+		int recordId;
+		@NonNull
+		String ownerName;
+		boolean autoCleanup;
+		boolean allowMultipleOwners;
+	}
+}
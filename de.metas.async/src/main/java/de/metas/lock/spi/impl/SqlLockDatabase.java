@@ -220,7 +220,7 @@ public class SqlLockDatabase extends AbstractLockDatabase
 	{
 		try
 		{
-			final int countLocked = DB.executeUpdateEx(sql, sqlParams.toArray(), ITrx.TRXNAME_None);
+			final int countLocked = executeLockInsert(sql, sqlParams);
 			if (countLocked <= 0 && lockCommand.isFailIfNothingLocked())
 			{
 				throw new LockFailedException("Nothing locked for selection");
@@ -245,6 +245,26 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		}
 	}
 
+	/**
+	 * Executes the given {@link I_T_Lock} INSERT statement.
+	 *
+	 * @return how many lock records were inserted
+	 */
+	protected int executeLockInsert(final String sql, final List<Object> sqlParams)
+	{
+		return DB.executeUpdateEx(sql, sqlParams.toArray(), ITrx.TRXNAME_None);
+	}
+
+	/**
+	 * Executes the given {@link I_T_Lock} DELETE statement.
+	 *
+	 * @return how many lock records were deleted
+	 */
+	protected int executeLockDelete(final String sql, final List<Object> sqlParams)
+	{
+		return DB.executeUpdateEx(sql, sqlParams.toArray(), ITrx.TRXNAME_None);
+	}
+
 	@Override
 	protected boolean lockRecord(final ILockCommand lockCommand, final ITableRecordReference record)
 	{
@@ -281,7 +301,7 @@ public class SqlLockDatabase extends AbstractLockDatabase
 
 		try
 		{
-			DB.executeUpdateEx(sql, sqlParams.toArray(), ITrx.TRXNAME_None);
+			executeLockInsert(sql, sqlParams);
 			return true;
 		}
 		catch (final DBUniqueConstraintException e)
@@ -375,7 +395,7 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		int countUnlocked = -1;
 		try
 		{
-			countUnlocked = DB.executeUpdateEx(sql.toString(), sqlParams.toArray(), ITrx.TRXNAME_None);
+			countUnlocked = executeLockDelete(sql.toString(), sqlParams);
 		}
 		catch (final Exception e)
 		{
@@ -401,7 +421,7 @@ public class SqlLockDatabase extends AbstractLockDatabase
 
 		try
 		{
-			final int countUnlocked = DB.executeUpdateEx(sql.toString(), sqlParams.toArray(), ITrx.TRXNAME_None);
+			final int countUnlocked = executeLockDelete(sql.toString(), sqlParams);
 			return countUnlocked > 0;
 		}
 		catch (final Exception e)
@@ -425,7 +445,7 @@ public class SqlLockDatabase extends AbstractLockDatabase
 
 		try
 		{
-			final int countUnlocked = DB.executeUpdateEx(sql.toString(), sqlParams.toArray(), ITrx.TRXNAME_None);
+			final int countUnlocked = executeLockDelete(sql.toString(), sqlParams);
 			return countUnlocked;
 		}
 		catch (final Exception e)
@@ -436,6 +456,84 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		}
 	}
 
+	/**
+	 * Selects the candidates and inserts the {@link I_T_Lock} records using one single SQL statement.
+	 * Records which were locked concurrently in the meantime are silently skipped.
+	 * <p>
+	 * NOTE: <code>INSERT ... RETURNING</code> does not guarantee any order, so we number the candidates in query order
+	 * and sort the inserted locks by that number.
+	 */
+	@Override
+	public <T> List<Integer> retrieveAndLockMultipleRecordIds(final IQuery<T> query, final int limit)
+	{
+		Check.assume(limit > 0, "limit > 0");
+
+		final TypedSqlQuery<T> candidatesQuery = TypedSqlQuery.cast(retrieveNotLockedQuery(query))
+				.copy()
+				.setLimit(limit);
+
+		final String tableName = candidatesQuery.getTableName();
+		final String keyColumnNameFQ = tableName + "." + candidatesQuery.getKeyColumnName();
+		final int adTableId = Services.get(IADTableDAO.class).retrieveTableId(tableName);
+		final ILockCommand lockCommand = newRetrieveAndLockCommand();
+
+		final List<Object> sqlParams = new ArrayList<>(candidatesQuery.getParametersEffective());
+		final String sql = "WITH candidates AS ("
+				// ARRAY(subquery) keeps the subquery's ORDER BY and WITH ORDINALITY numbers the elements in array order
+				+ " SELECT c.Record_ID, c.SeqNo"
+				+ " FROM unnest(ARRAY(" + candidatesQuery.buildSQL(new StringBuilder("SELECT " + keyColumnNameFQ + " FROM " + tableName), true) + ")) WITH ORDINALITY AS c(Record_ID, SeqNo)"
+				+ ")"
+				//
+				+ ", locked AS ("
+				+ " INSERT INTO " + I_T_Lock.Table_Name + " ("
+				+ I_T_Lock.COLUMNNAME_AD_Table_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Record_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Owner
+				+ ", " + I_T_Lock.COLUMNNAME_IsAutoCleanup
+				+ ", " + I_T_Lock.COLUMNNAME_IsAllowMultipleOwners
+				+ ")"
+				+ " SELECT "
+				+ toSqlParam(adTableId, sqlParams) // AD_Table_ID
+				+ ", candidates.Record_ID" // Record_ID
+				+ ", " + toSqlParam(lockCommand.getOwner().getOwnerName(), sqlParams) // Owner
+				+ ", " + toSqlParam(lockCommand.isAutoCleanup(), sqlParams) // IsAutoCleanup
+				+ ", " + toSqlParam(isAllowMultipleOwners(lockCommand.getAllowAdditionalLocks()), sqlParams) // IsAllowMultipleOwners
+				+ " FROM candidates"
+				+ " ON CONFLICT DO NOTHING" // the record was locked by someone else since our select
+				+ " RETURNING " + I_T_Lock.COLUMNNAME_Record_ID
+				+ ")"
+				//
+				+ " SELECT locked.Record_ID"
+				+ " FROM locked"
+				+ " INNER JOIN candidates ON candidates.Record_ID = locked.Record_ID"
+				+ " ORDER BY candidates.SeqNo";
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			DB.setParameters(pstmt, sqlParams);
+			rs = pstmt.executeQuery();
+
+			final List<Integer> lockedRecordIds = new ArrayList<>();
+			while (rs.next())
+			{
+				lockedRecordIds.add(rs.getInt(1));
+			}
+			return lockedRecordIds;
+		}
+		catch (final SQLException e)
+		{
+			throw new LockFailedException("Failed locking records of " + tableName, e)
+					.setSql(sql, sqlParams.toArray());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
 	@Override
 	protected <T> IQuery<T> retrieveNotLockedQuery(final IQuery<T> query)
 	{
@@ -525,7 +623,7 @@ public class SqlLockDatabase extends AbstractLockDatabase
 	}
 
 	@Override
-	public final ILock retrieveLockForOwner(final LockOwner lockOwner)
+	public ILock retrieveLockForOwner(final LockOwner lockOwner)
 	{
 		Check.assumeNotNull(lockOwner, "Lock owner shall not be null");
 		Check.assumeNotNull(lockOwner.isRealOwner(), "Lock owner shall be real owner but it was {}", lockOwner);
@@ -578,8 +676,8 @@ public class SqlLockDatabase extends AbstractLockDatabase
 	public int removeAutoCleanupLocks()
 	{
 		final String sql = "DELETE FROM " + I_T_Lock.Table_Name + " WHERE " + I_T_Lock.COLUMNNAME_IsAutoCleanup + "=?";
-		final Object[] sqlParams = new Object[] { true };
-		final int countLocksReleased = DB.executeUpdateEx(sql, sqlParams, ITrx.TRXNAME_None);
+		final List<Object> sqlParams = Arrays.<Object> asList(true);
+		final int countLocksReleased = executeLockDelete(sql, sqlParams);
 		if (countLocksReleased > 0)
 		{
 			logger.info("Deleted {} lock records from {} which were flagged with IsAutoCleanup=true", countLocksReleased, I_T_Lock.Table_Name);
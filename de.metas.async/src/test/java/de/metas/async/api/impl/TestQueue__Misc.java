@@ -6,10 +6,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.Env;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.Helper;
 import de.metas.async.api.IWorkPackageQueue;
+import de.metas.async.model.I_C_Queue_PackageProcessor;
 import de.metas.async.model.I_C_Queue_WorkPackage;
 import de.metas.async.processor.IWorkPackageQueueFactory;
 import de.metas.async.spi.WorkpackageProcessorAdapter;
@@ -58,6 +63,44 @@ public class TestQueue__Misc
 		assertThat(workpackage.isReadyForProcessing()).isTrue();
 	}
 
+	@Test
+	public void pollAndLockMultiple()
+	{
+		final Helper helper = new Helper();
+		final I_C_Queue_PackageProcessor packageProcessor = helper.createPackageProcessor(Env.getCtx(), NOPWorkpackageProcessor.class);
+		final int packageProcessorId = packageProcessor.getC_Queue_PackageProcessor_ID();
+
+		final IWorkPackageQueue queueForEnqueuing = WorkPackageQueue.createForEnqueuing(Env.getCtx(), packageProcessorId, "test");
+		helper.createAndEnqueueWorkpackages(queueForEnqueuing, 5, true);
+
+		final int prefetchSize = 3;
+		final IWorkPackageQueue queueForProcessing = WorkPackageQueue.createForQueueProcessing(Env.getCtx(), ImmutableList.of(packageProcessorId), null, prefetchSize);
+		assertThat(queueForProcessing.pollAndLockMultiple(3)).hasSize(3);
+		assertThat(queueForProcessing.pollAndLockMultiple(3)).hasSize(2);
+		assertThat(queueForProcessing.pollAndLockMultiple(3)).isEmpty();
+	}
+
+	@Test
+	public void releasePrefetchedWorkpackages()
+	{
+		final Helper helper = new Helper();
+		final I_C_Queue_PackageProcessor packageProcessor = helper.createPackageProcessor(Env.getCtx(), NOPWorkpackageProcessor.class);
+		final int packageProcessorId = packageProcessor.getC_Queue_PackageProcessor_ID();
+
+		final IWorkPackageQueue queueForEnqueuing = WorkPackageQueue.createForEnqueuing(Env.getCtx(), packageProcessorId, "test");
+		helper.createAndEnqueueWorkpackages(queueForEnqueuing, 5, true);
+
+		final int prefetchSize = 3;
+		final IWorkPackageQueue queue1 = WorkPackageQueue.createForQueueProcessing(Env.getCtx(), ImmutableList.of(packageProcessorId), null, prefetchSize);
+		assertThat(queue1.pollAndLock(IWorkPackageQueue.TIMEOUT_OneTimeOnly)).isNotNull(); // prefetched 3, handed out 1
+
+		final IWorkPackageQueue queue2 = WorkPackageQueue.createForQueueProcessing(Env.getCtx(), ImmutableList.of(packageProcessorId), null, prefetchSize);
+		assertThat(queue2.pollAndLockMultiple(5)).hasSize(2);
+
+		queue1.releasePrefetchedWorkpackages();
+		assertThat(queue2.pollAndLockMultiple(5)).hasSize(2);
+	}
+
 	private static final class NOPWorkpackageProcessor extends WorkpackageProcessorAdapter
 	{
 		@Override
@@ -0,0 +1,88 @@
+package de.metas.async.api.impl;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.api.impl.WorkpackageReadyNotifier.Subscription;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class WorkpackageReadyNotifierTest
+{
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@Test
+	public void notifyOutOfTrx_signalsMatchingSubscriptionOnlyOnce()
+	{
+		final Subscription subscription = WorkpackageReadyNotifier.instance.subscribe(ImmutableList.of(10, 20));
+
+		WorkpackageReadyNotifier.instance.notifyReadyAfterCommit(20, ITrx.TRXNAME_None);
+
+		assertTrue("first await shall consume the signal", await(subscription));
+		assertFalse("signal shall be consumed", await(subscription));
+	}
+
+	@Test
+	public void notifyOtherPackageProcessor_doesNotSignal()
+	{
+		final Subscription subscription = WorkpackageReadyNotifier.instance.subscribe(ImmutableList.of(10));
+
+		WorkpackageReadyNotifier.instance.notifyReadyAfterCommit(30, ITrx.TRXNAME_None);
+
+		assertFalse(await(subscription));
+	}
+
+	@Test
+	public void notifyAfterDelay_signalsWhenDelayElapsed() throws InterruptedException
+	{
+		final Subscription subscription = WorkpackageReadyNotifier.instance.subscribe(ImmutableList.of(10));
+
+		WorkpackageReadyNotifier.instance.notifyReadyAfterDelay(10, 200);
+
+		assertFalse("shall not be signaled before the delay elapsed", await(subscription));
+		assertTrue("shall be signaled after the delay elapsed", subscription.await(5000));
+	}
+
+	private static boolean await(final Subscription subscription)
+	{
+		try
+		{
+			return subscription.await(10);
+		}
+		catch (final InterruptedException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+}
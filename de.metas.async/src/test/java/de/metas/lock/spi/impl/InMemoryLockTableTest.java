@@ -0,0 +1,140 @@
+package de.metas.lock.spi.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.lock.api.LockOwner;
+import de.metas.lock.spi.impl.InMemoryLockTable.LockRecord;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class InMemoryLockTableTest
+{
+	private static final int AD_Table_ID = 100;
+
+	private final LockOwner owner1 = LockOwner.forOwnerName("owner1");
+	private final LockOwner owner2 = LockOwner.forOwnerName("owner2");
+
+	private InMemoryLockTable lockTable;
+
+	@Before
+	public void init()
+	{
+		lockTable = new InMemoryLockTable();
+	}
+
+	@Test
+	public void add_isLocked_remove()
+	{
+		final LockRecord lock = createLock(1, owner1, false);
+		lockTable.add(lock);
+
+		assertThat(lockTable.isLocked(AD_Table_ID, 1, LockOwner.ANY)).isTrue();
+		assertThat(lockTable.isLocked(AD_Table_ID, 1, owner1)).isTrue();
+		assertThat(lockTable.isLocked(AD_Table_ID, 1, owner2)).isFalse();
+		assertThat(lockTable.isLocked(AD_Table_ID, 2, LockOwner.ANY)).isFalse();
+
+		assertThat(lockTable.remove(lock)).isEqualTo(1);
+		assertThat(lockTable.isLocked(AD_Table_ID, 1, LockOwner.ANY)).isFalse();
+		assertThat(lockTable.getRecordsCount()).isZero();
+	}
+
+	@Test
+	public void isConflicting_singleOwner()
+	{
+		lockTable.add(createLock(1, owner1, false));
+
+		assertThat(lockTable.isConflicting(createLock(1, owner2, false))).isTrue();
+		assertThat(lockTable.isConflicting(createLock(2, owner2, false))).isFalse();
+
+		// like T_Lock's unique indices, a lock which allows multiple owners is not checked against the single owner locks
+		assertThat(lockTable.isConflicting(createLock(1, owner2, true))).isFalse();
+	}
+
+	@Test
+	public void isConflicting_multipleOwners()
+	{
+		lockTable.add(createLock(1, owner1, true));
+
+		assertThat(lockTable.isConflicting(createLock(1, owner1, true))).isTrue();
+		assertThat(lockTable.isConflicting(createLock(1, owner2, true))).isFalse();
+		assertThat(lockTable.isConflicting(createLock(1, owner2, false))).isFalse();
+	}
+
+	@Test
+	public void getLocksByOwnerName()
+	{
+		final LockRecord lock1 = createLock(1, owner1, true);
+		final LockRecord lock2 = createLock(2, owner1, true);
+		lockTable.add(lock1);
+		lockTable.add(lock2);
+		lockTable.add(createLock(1, owner2, true));
+
+		assertThat(lockTable.getLocksByOwnerName(owner1.getOwnerName())).containsExactlyInAnyOrder(lock1, lock2);
+
+		lockTable.remove(lock1);
+		assertThat(lockTable.getLocksByOwnerName(owner1.getOwnerName())).containsExactly(lock2);
+		assertThat(lockTable.isLocked(AD_Table_ID, 1, owner2)).isTrue();
+
+		lockTable.remove(lock2);
+		assertThat(lockTable.getLocksByOwnerName(owner1.getOwnerName())).isEmpty();
+	}
+
+	@Test
+	public void change()
+	{
+		lockTable.add(createLock(1, owner1, false));
+
+		final LockRecord lockNew = createLock(1, owner2, false);
+		lockTable.change(owner1, lockNew);
+
+		assertThat(lockTable.isLocked(AD_Table_ID, 1, owner1)).isFalse();
+		assertThat(lockTable.isLocked(AD_Table_ID, 1, owner2)).isTrue();
+		assertThat(lockTable.getLocksByOwnerName(owner1.getOwnerName())).isEmpty();
+		assertThat(lockTable.getLocksByOwnerName(owner2.getOwnerName())).containsExactly(lockNew);
+	}
+
+	@Test
+	public void change_notMatchingOwner()
+	{
+		lockTable.add(createLock(1, owner1, false));
+
+		lockTable.change(owner2, createLock(1, owner2, false));
+
+		assertThat(lockTable.isLocked(AD_Table_ID, 1, owner1)).isTrue();
+		assertThat(lockTable.isLocked(AD_Table_ID, 1, owner2)).isFalse();
+	}
+
+	private static LockRecord createLock(final int recordId, final LockOwner owner, final boolean allowMultipleOwners)
+	{
+		return LockRecord.builder()
+				.adTableId(AD_Table_ID)
+				.recordId(recordId)
+				.ownerName(owner.getOwnerName())
+				.autoCleanup(true)
+				.allowMultipleOwners(allowMultipleOwners)
+				.build();
+	}
+}
@@ -43,6 +43,7 @@ import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.mm.attributes.AttributeId;
 import org.adempiere.mm.attributes.AttributeValueId;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.Adempiere;
 import org.compiere.model.I_M_DiscountSchema;
 import org.compiere.model.I_M_DiscountSchemaBreak;
@@ -52,6 +53,7 @@ import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ListMultimap;
@@ -91,8 +93,22 @@ public class PricingConditionsRepository implements IPricingConditionsRepository
 			.tableName(I_M_DiscountSchema.Table_Name)
 			.initialCapacity(10)
 			.additionalTableNameToResetFor(I_M_DiscountSchemaBreak.Table_Name)
+			.valueRecordRefsExtractor(PricingConditionsRepository::extractRecordRefs)
 			.build();
 
+	private static List<TableRecordReference> extractRecordRefs(final PricingConditions pricingConditions)
+	{
+		final ImmutableList.Builder<TableRecordReference> recordRefs = ImmutableList.builder();
+		recordRefs.add(TableRecordReference.of(I_M_DiscountSchema.Table_Name, pricingConditions.getId().getDiscountSchemaId()));
+		pricingConditions.getBreaks()
+				.stream()
+				.map(PricingConditionsBreak::getId)
+				.filter(Predicates.notNull())
+				.map(breakId -> TableRecordReference.of(I_M_DiscountSchemaBreak.Table_Name, breakId.getDiscountSchemaBreakId()))
+				.forEach(recordRefs::add);
+		return recordRefs.build();
+	}
+
 	@Override
 	public PricingConditions getPricingConditionsById(@NonNull final PricingConditionsId pricingConditionsId)
 	{
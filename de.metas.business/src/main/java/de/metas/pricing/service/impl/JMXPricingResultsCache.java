@@ -0,0 +1,84 @@
+package de.metas.pricing.service.impl;
+
+import org.adempiere.util.jmx.IJMXNameAware;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * JMX bean for {@link PricingResultsCache} (implementation)
+ */
+public class JMXPricingResultsCache implements JMXPricingResultsCacheMBean, IJMXNameAware
+{
+	private final String jmxName;
+	private final PricingResultsCache cache;
+
+	/* package */ JMXPricingResultsCache(@NonNull final PricingResultsCache cache)
+	{
+		this.jmxName = "de.metas.pricing:type=PricingResultsCache";
+		this.cache = cache;
+	}
+
+	@Override
+	public String getJMXName()
+	{
+		return jmxName;
+	}
+
+	@Override
+	public long getSize()
+	{
+		return cache.size();
+	}
+
+	@Override
+	public long getHitsCount()
+	{
+		return cache.getHitsCount();
+	}
+
+	@Override
+	public long getMissesCount()
+	{
+		return cache.getMissesCount();
+	}
+
+	@Override
+	public double getHitRatio()
+	{
+		return cache.getHitRatio();
+	}
+
+	@Override
+	public void resetStatistics()
+	{
+		cache.resetStatistics();
+	}
+
+	@Override
+	public long resetAll()
+	{
+		return cache.reset();
+	}
+}
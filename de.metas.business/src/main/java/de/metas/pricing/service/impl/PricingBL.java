@@ -33,8 +33,11 @@ import java.util.Set;
 
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.pricing.model.I_C_PricingRule;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.uom.UomId;
 import org.adempiere.uom.api.IUOMConversionBL;
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
 import org.adempiere.util.proxy.Cached;
 import org.compiere.model.I_C_UOM;
 import org.compiere.model.I_M_PriceList;
@@ -45,6 +48,10 @@ import org.compiere.util.Env;
 import org.compiere.util.Util;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+
 import de.metas.adempiere.model.I_C_InvoiceLine;
 import de.metas.bpartner.BPartnerId;
 import de.metas.cache.annotation.CacheCtx;
@@ -80,8 +87,18 @@ public class PricingBL implements IPricingBL
 {
 	private static final Logger logger = LogManager.getLogger(PricingBL.class);
 
+	/**
+	 * If enabled, the pricing results are cached, see {@link PricingResultsCache}.
+	 * Only the contexts without a referenced object are cached, see {@link PricingContextFingerprint#ofPricingContextOrNull(IPricingContext)}.
+	 */
+	private static final String SYSCONFIG_ResultsCacheEnabled = "de.metas.pricing.service.impl.PricingBL.ResultsCache.Enabled";
+	private static final String SYSCONFIG_ResultsCacheMaxSize = "de.metas.pricing.service.impl.PricingBL.ResultsCache.MaxSize";
+	private static final String SYSCONFIG_ResultsCacheExpireMinutes = "de.metas.pricing.service.impl.PricingBL.ResultsCache.ExpireMinutes";
+
 	private final CompositePriceLimitRule priceLimitRules = new CompositePriceLimitRule();
 
+	private final Supplier<PricingResultsCache> resultsCacheSupplier = Suppliers.memoize(PricingBL::createResultsCache);
+
 	@Override
 	public IEditablePricingContext createPricingContext()
 	{
@@ -119,6 +136,31 @@ public class PricingBL implements IPricingBL
 	public IPricingResult calculatePrice(final IPricingContext pricingCtx)
 	{
 		final IPricingContext pricingCtxToUse = setupPricingContext(pricingCtx);
+
+		final PricingContextFingerprint fingerprint = isResultsCacheEnabled() ? PricingContextFingerprint.ofPricingContextOrNull(pricingCtxToUse) : null;
+		final PricingResult result = fingerprint != null
+				? getResultsCache().getOrCalculate(fingerprint, () -> calculatePrice0(pricingCtxToUse))
+				: calculatePrice0(pricingCtxToUse);
+
+		//
+		// Fail if not calculated
+		if (pricingCtxToUse.isFailIfNotCalculated() && !result.isCalculated())
+		{
+			throw new ProductNotOnPriceListException(pricingCtxToUse)
+					.setParameter("pricingResult", result);
+		}
+
+		if (logger.isDebugEnabled())
+		{
+			logger.debug("calculatePrice (final context): {}", pricingCtxToUse);
+			logger.debug("calculatePrice (result): {}", result);
+		}
+
+		return result;
+	}
+
+	private PricingResult calculatePrice0(final IPricingContext pricingCtxToUse)
+	{
 		final PricingResult result = createInitialResult(pricingCtxToUse);
 
 		//
@@ -145,11 +187,10 @@ public class PricingBL implements IPricingBL
 		// After calculation
 		//
 
-		// Fail if not calculated
+		// Don't post-process the result if the caller is going to fail anyways
 		if (pricingCtxToUse.isFailIfNotCalculated() && !result.isCalculated())
 		{
-			throw new ProductNotOnPriceListException(pricingCtxToUse)
-					.setParameter("pricingResult", result);
+			return result;
 		}
 
 		// Convert prices to price UOM if required
@@ -157,15 +198,32 @@ public class PricingBL implements IPricingBL
 
 		setPrecisionAndPriceScales(pricingCtxToUse, result);
 
-		if (logger.isDebugEnabled())
-		{
-			logger.debug("calculatePrice (final context): {}", pricingCtxToUse);
-			logger.debug("calculatePrice (result): {}", result);
-		}
-
 		return result;
 	}
 
+	private static boolean isResultsCacheEnabled()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_ResultsCacheEnabled, false);
+	}
+
+	@VisibleForTesting
+	PricingResultsCache getResultsCache()
+	{
+		return resultsCacheSupplier.get();
+	}
+
+	private static PricingResultsCache createResultsCache()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final PricingResultsCache resultsCache = new PricingResultsCache(
+				sysConfigBL.getIntValue(SYSCONFIG_ResultsCacheMaxSize, 10000),
+				sysConfigBL.getIntValue(SYSCONFIG_ResultsCacheExpireMinutes, 60));
+
+		JMXRegistry.get().registerJMX(new JMXPricingResultsCache(resultsCache), OnJMXAlreadyExistsPolicy.Replace);
+
+		return resultsCache;
+	}
+
 	private static boolean isManualPrice(final IPricingContext pricingCtx)
 	{
 		// Direct
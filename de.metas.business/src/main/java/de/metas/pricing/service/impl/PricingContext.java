@@ -24,6 +24,7 @@ package de.metas.pricing.service.impl;
 
 import java.math.BigDecimal;
 import java.sql.Timestamp;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -357,6 +358,14 @@ class PricingContext implements IEditablePricingContext
 		return this;
 	}
 
+	/**
+	 * @return all properties, read-only; used to build the {@link PricingContextFingerprint}
+	 */
+	/* package */ Map<String, Object> getProperties()
+	{
+		return Collections.unmodifiableMap(properties);
+	}
+
 	@Override
 	public Properties getCtx()
 	{
@@ -0,0 +1,168 @@
+package de.metas.pricing.service.impl;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.annotation.Nullable;
+
+import org.compiere.util.Env;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.lang.SOTrx;
+import de.metas.money.CurrencyId;
+import de.metas.pricing.IPricingContext;
+import de.metas.pricing.PriceListId;
+import de.metas.pricing.PriceListVersionId;
+import de.metas.pricing.PricingSystemId;
+import de.metas.product.ProductId;
+import de.metas.util.lang.RepoIdAware;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Normalized, immutable copy of all the {@link IPricingContext} inputs which the pricing engine depends on.
+ * Two contexts with equal fingerprints produce equal pricing results, so the fingerprint is used as {@link PricingResultsCache} key.
+ */
+@Value
+@Builder
+/* package */ final class PricingContextFingerprint
+{
+	/**
+	 * @return fingerprint or <code>null</code> if the result of given context shall not be cached, because it depends on more than the context's plain values, i.e.
+	 *         <ul>
+	 *         <li>the context has a referenced object (pricing rules might read any column of it, including the attribute set instance)
+	 *         <li>the context has a forced pricing conditions break
+	 *         <li>the context has a property value which is not a simple value
+	 *         </ul>
+	 */
+	@Nullable
+	public static PricingContextFingerprint ofPricingContextOrNull(@NonNull final IPricingContext pricingCtx)
+	{
+		if (pricingCtx.getReferencedObject() != null)
+		{
+			return null;
+		}
+		if (pricingCtx.getForcePricingConditionsBreak() != null)
+		{
+			return null;
+		}
+		if (!(pricingCtx instanceof PricingContext))
+		{
+			return null;
+		}
+
+		final ImmutableMap<String, Object> properties = extractSimplePropertiesOrNull(((PricingContext)pricingCtx).getProperties());
+		if (properties == null)
+		{
+			return null;
+		}
+
+		final Properties ctx = pricingCtx.getCtx();
+		final BigDecimal qty = pricingCtx.getQty();
+
+		return builder()
+				.adClientId(Env.getAD_Client_ID(ctx))
+				.adOrgId(Env.getAD_Org_ID(ctx))
+				.pricingSystemId(pricingCtx.getPricingSystemId())
+				.priceListId(pricingCtx.getPriceListId())
+				.priceListVersionId(pricingCtx.getPriceListVersionId())
+				.productId(pricingCtx.getProductId())
+				.priceDateMillis(pricingCtx.getPriceDate() != null ? pricingCtx.getPriceDate().getTime() : 0)
+				.countryId(pricingCtx.getC_Country_ID())
+				.uomId(pricingCtx.getC_UOM_ID())
+				.currencyId(pricingCtx.getCurrencyId())
+				.bpartnerId(pricingCtx.getBPartnerId())
+				.qty(qty != null ? qty.stripTrailingZeros() : null)
+				.soTrx(pricingCtx.getSoTrx())
+				.convertPriceToContextUOM(pricingCtx.isConvertPriceToContextUOM())
+				.manualPrice(pricingCtx.isManualPrice())
+				.failIfNotCalculated(pricingCtx.isFailIfNotCalculated())
+				.disallowDiscount(pricingCtx.isDisallowDiscount())
+				.skipCheckingPriceListSOTrxFlag(pricingCtx.isSkipCheckingPriceListSOTrxFlag())
+				.properties(properties)
+				.build();
+	}
+
+	@Nullable
+	private static ImmutableMap<String, Object> extractSimplePropertiesOrNull(final Map<String, Object> properties)
+	{
+		final ImmutableMap.Builder<String, Object> result = ImmutableMap.builder();
+		for (final Map.Entry<String, Object> entry : properties.entrySet())
+		{
+			final Object value = entry.getValue();
+			if (value == null)
+			{
+				continue; // not set, see IPricingContext.isPropertySet()
+			}
+			else if (value instanceof BigDecimal)
+			{
+				result.put(entry.getKey(), ((BigDecimal)value).stripTrailingZeros());
+			}
+			else if (value instanceof String
+					|| value instanceof Boolean
+					|| value instanceof Integer
+					|| value instanceof Long
+					|| value instanceof Enum
+					|| value instanceof RepoIdAware)
+			{
+				result.put(entry.getKey(), value);
+			}
+			else
+			{
+				// we don't know if the value is immutable and if it has a meaningful equals()
+				return null;
+			}
+		}
+		return result.build();
+	}
+
+	int adClientId;
+	int adOrgId;
+
+	PricingSystemId pricingSystemId;
+	PriceListId priceListId;
+	PriceListVersionId priceListVersionId;
+	ProductId productId;
+	long priceDateMillis;
+	int countryId;
+	int uomId;
+	CurrencyId currencyId;
+	BPartnerId bpartnerId;
+	BigDecimal qty;
+	SOTrx soTrx;
+
+	boolean convertPriceToContextUOM;
+	Boolean manualPrice;
+	boolean failIfNotCalculated;
+	boolean disallowDiscount;
+	boolean skipCheckingPriceListSOTrxFlag;
+
+	@NonNull
+	ImmutableMap<String, Object> properties;
+}
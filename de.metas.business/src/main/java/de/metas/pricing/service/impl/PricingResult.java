@@ -321,6 +321,39 @@ class PricingResult implements IPricingResult
 		return isDiscountEditable;
 	}
 
+	/**
+	 * @return a copy of this result which can be changed without affecting this instance; used to hand out results from {@link PricingResultsCache}
+	 */
+	/* package */ PricingResult copy()
+	{
+		final PricingResult copy = new PricingResult();
+		copy.calculated = calculated;
+		copy.pricingSystemId = pricingSystemId;
+		copy.priceListId = priceListId;
+		copy.currencyId = currencyId;
+		copy.C_UOM_ID = C_UOM_ID;
+		copy.productId = productId;
+		copy.productCategoryId = productCategoryId;
+		copy.priceListVersionId = priceListVersionId;
+		copy.C_TaxCategory_ID = C_TaxCategory_ID;
+		copy.pricingConditions = pricingConditions;
+		copy.precision = precision;
+		copy.priceList = priceList;
+		copy.priceStd = priceStd;
+		copy.priceLimit = priceLimit;
+		copy.discount = discount;
+		copy.enforcePriceLimit = enforcePriceLimit;
+		copy.taxIncluded = taxIncluded;
+		copy.isUseDiscountSchema = isUseDiscountSchema;
+		copy.disallowDiscount = disallowDiscount;
+		copy.priceDateTS = priceDateTS != null ? new Timestamp(priceDateTS.getTime()) : null;
+		copy.isPriceEditable = isPriceEditable;
+		copy.isDiscountEditable = isDiscountEditable;
+		copy.rulesApplied.addAll(rulesApplied);
+		copy.pricingAttributes.addAll(pricingAttributes);
+		return copy;
+	}
+
 	/**
 	 * Supposed to be called by the pricing engine.
 	 *
@@ -0,0 +1,222 @@
+package de.metas.pricing.service.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.pricing.model.I_C_PricingRule;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_BP_Group;
+import org.compiere.model.I_C_BPartner;
+import org.compiere.model.I_C_UOM_Conversion;
+import org.compiere.model.I_M_DiscountSchema;
+import org.compiere.model.I_M_DiscountSchemaBreak;
+import org.compiere.model.I_M_PriceList;
+import org.compiere.model.I_M_PriceList_Version;
+import org.compiere.model.I_M_Product;
+import org.compiere.model.I_M_ProductPrice;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.cache.CCache;
+import de.metas.pricing.conditions.PricingConditionsId;
+import de.metas.pricing.conditions.service.PricingConditionsResult;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Caches the pricing results by {@link PricingContextFingerprint}.
+ * <p>
+ * Each cached result remembers the records it was calculated from (price list version, price list, product, bpartner and discount schema),
+ * so a change of one of those records invalidates only the affected results:
+ * <ul>
+ * <li>a changed {@link I_M_ProductPrice} invalidates the results of its price list version.
+ * It's not narrowed down to the product, because a product's price might be derived from the prices of other products in the same version (e.g. BOM components).
+ * <li>a changed {@link I_M_DiscountSchemaBreak} invalidates the results of its discount schema, because a new or changed break might match other quantities than before
+ * <li>changes of the other tables which we listen to reset the whole cache
+ * </ul>
+ * The cached results are never handed out, the callers always get a copy.
+ */
+/* package */ final class PricingResultsCache extends CCache<PricingContextFingerprint, PricingResultsCache.CachedPricingResult>
+{
+	private static final String CACHE_NAME = "PricingResults";
+
+	/**
+	 * Changed record's table name to the table name of the parent record whose results shall be reset.
+	 * For these tables, the cache invalidation requests need to contain the parent record; see {@link org.adempiere.model.validator.AdempiereBaseValidator}.
+	 */
+	static final ImmutableMap<String, String> PARENT_TABLENAMES_ByChildTableName = ImmutableMap.of(
+			I_M_ProductPrice.Table_Name, I_M_PriceList_Version.Table_Name,
+			I_M_DiscountSchemaBreak.Table_Name, I_M_DiscountSchema.Table_Name);
+
+	private final AtomicLong hitsCount = new AtomicLong(0);
+	private final AtomicLong missesCount = new AtomicLong(0);
+
+	public PricingResultsCache(final int maxSize, final int expireMinutes)
+	{
+		super(CACHE_NAME,
+				I_M_ProductPrice.Table_Name,
+				ImmutableSet.of(
+						I_M_PriceList_Version.Table_Name,
+						I_M_PriceList.Table_Name,
+						I_M_DiscountSchema.Table_Name,
+						I_M_DiscountSchemaBreak.Table_Name,
+						I_M_Product.Table_Name,
+						I_C_BPartner.Table_Name,
+						I_C_BP_Group.Table_Name,
+						I_C_UOM_Conversion.Table_Name,
+						I_C_PricingRule.Table_Name),
+				maxSize,
+				expireMinutes,
+				CacheMapType.LRU,
+				null, // maximumWeightInBytes
+				CachedPricingResult::getRecordRefs);
+	}
+
+	/**
+	 * @return a copy of the cached result; if there is none yet, the result is calculated using given <code>calculator</code> and then cached
+	 */
+	public PricingResult getOrCalculate(
+			@NonNull final PricingContextFingerprint fingerprint,
+			@NonNull final Supplier<PricingResult> calculator)
+	{
+		final boolean[] calculated = new boolean[] { false };
+		final CachedPricingResult cachedResult = getOrLoad(fingerprint, () -> {
+			final PricingResult result = calculator.get();
+			calculated[0] = true;
+			return CachedPricingResult.of(result, extractRecordRefs(fingerprint, result));
+		});
+
+		if (calculated[0])
+		{
+			missesCount.incrementAndGet();
+		}
+		else
+		{
+			hitsCount.incrementAndGet();
+		}
+
+		return cachedResult.getResult().copy();
+	}
+
+	private static List<TableRecordReference> extractRecordRefs(final PricingContextFingerprint fingerprint, final PricingResult result)
+	{
+		final ImmutableList.Builder<TableRecordReference> recordRefs = ImmutableList.builder();
+		if (result.getPriceListVersionId() != null)
+		{
+			recordRefs.add(TableRecordReference.of(I_M_PriceList_Version.Table_Name, result.getPriceListVersionId().getRepoId()));
+		}
+		if (result.getPriceListId() != null)
+		{
+			recordRefs.add(TableRecordReference.of(I_M_PriceList.Table_Name, result.getPriceListId().getRepoId()));
+		}
+		if (fingerprint.getProductId() != null)
+		{
+			recordRefs.add(TableRecordReference.of(I_M_Product.Table_Name, fingerprint.getProductId().getRepoId()));
+		}
+		if (fingerprint.getBpartnerId() != null)
+		{
+			recordRefs.add(TableRecordReference.of(I_C_BPartner.Table_Name, fingerprint.getBpartnerId().getRepoId()));
+		}
+
+		final PricingConditionsResult pricingConditions = result.getPricingConditions();
+		final PricingConditionsId pricingConditionsId = pricingConditions != null ? pricingConditions.getPricingConditionsId() : null;
+		if (pricingConditionsId != null)
+		{
+			recordRefs.add(TableRecordReference.of(I_M_DiscountSchema.Table_Name, pricingConditionsId.getDiscountSchemaId()));
+		}
+
+		return recordRefs.build();
+	}
+
+	/**
+	 * The cached results don't reference the {@link I_M_ProductPrice} and {@link I_M_DiscountSchemaBreak} records, because a new record might change a result which was calculated without it.
+	 * Instead, we reset the results of the parent record, which is part of the cache invalidation request (see {@link #PARENT_TABLENAMES_ByChildTableName}).
+	 * So we don't have to load the changed record, and we can also handle the deleted ones and the requests from other hosts.
+	 */
+	@Override
+	public long resetForRecordId(@NonNull final TableRecordReference recordRef, @Nullable final TableRecordReference parentRecordRef)
+	{
+		final String parentTableName = PARENT_TABLENAMES_ByChildTableName.get(recordRef.getTableName());
+		if (parentTableName == null)
+		{
+			return super.resetForRecordId(recordRef, parentRecordRef);
+		}
+		else if (parentRecordRef == null)
+		{
+			// NOTE: we don't know the parent, e.g. if the record was reset by its ID only
+			return reset();
+		}
+		else if (!parentTableName.equals(parentRecordRef.getTableName()))
+		{
+			// a request with another parent, e.g. from a window based registration; we also get one with the parent we are interested in
+			return 0;
+		}
+		else
+		{
+			return resetForKnownRecordId(parentRecordRef);
+		}
+	}
+
+	public long getHitsCount()
+	{
+		return hitsCount.get();
+	}
+
+	public long getMissesCount()
+	{
+		return missesCount.get();
+	}
+
+	/**
+	 * @return hits / (hits + misses); 0 if the cache was not used yet
+	 */
+	public double getHitRatio()
+	{
+		final long hitsCount = getHitsCount();
+		final long requestsCount = hitsCount + getMissesCount();
+		return requestsCount > 0 ? (double)hitsCount / requestsCount : 0;
+	}
+
+	public void resetStatistics()
+	{
+		hitsCount.set(0);
+		missesCount.set(0);
+	}
+
+	@Value(staticConstructor = "of")
+	static final class CachedPricingResult
+	{
+		@NonNull
+		PricingResult result;
+		@NonNull
+		Collection<TableRecordReference> recordRefs;
+	}
+}
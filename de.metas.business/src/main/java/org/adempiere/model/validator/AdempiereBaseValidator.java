@@ -76,6 +76,8 @@ import de.metas.async.spi.impl.NotifyAsyncBatch;
 import de.metas.bpartner.product.callout.C_BPartner_Product;
 import de.metas.cache.CacheMgt;
 import de.metas.cache.CCache.CacheMapType;
+import de.metas.cache.model.GenericModelCacheInvalidateRequestFactory;
+import de.metas.cache.model.IModelCacheInvalidationService;
 import de.metas.cache.model.IModelCacheService;
 import de.metas.cache.model.ITableCacheConfig;
 import de.metas.cache.model.WindowBasedCacheInvalidateRequestInitializer;
@@ -330,6 +332,22 @@ public final class AdempiereBaseValidator extends AbstractModuleInterceptor
 		cacheMgt.enableRemoteCacheInvalidationForTableName(I_M_PriceList_Version.Table_Name);
 		cacheMgt.enableRemoteCacheInvalidationForTableName(I_M_ProductPrice.Table_Name);
 
+		// the pricing results cache needs to know the price list version of a changed product price and the discount schema of a changed schema break,
+		// also if the record was deleted or was changed on another host
+		final IModelCacheInvalidationService cacheInvalidationService = Services.get(IModelCacheInvalidationService.class);
+		cacheInvalidationService.register(I_M_ProductPrice.Table_Name, GenericModelCacheInvalidateRequestFactory.builder()
+				.rootTableName(I_M_PriceList_Version.Table_Name)
+				.childTableName(I_M_ProductPrice.Table_Name)
+				.childKeyColumnName(I_M_ProductPrice.COLUMNNAME_M_ProductPrice_ID)
+				.childLinkColumnName(I_M_ProductPrice.COLUMNNAME_M_PriceList_Version_ID)
+				.build());
+		cacheInvalidationService.register(I_M_DiscountSchemaBreak.Table_Name, GenericModelCacheInvalidateRequestFactory.builder()
+				.rootTableName(I_M_DiscountSchema.Table_Name)
+				.childTableName(I_M_DiscountSchemaBreak.Table_Name)
+				.childKeyColumnName(I_M_DiscountSchemaBreak.COLUMNNAME_M_DiscountSchemaBreak_ID)
+				.childLinkColumnName(I_M_DiscountSchemaBreak.COLUMNNAME_M_DiscountSchema_ID)
+				.build());
+
 		// gh #1184: also propagate pricing rule changes to other hosts
 		cacheMgt.enableRemoteCacheInvalidationForTableName(I_C_PricingRule.Table_Name);
 
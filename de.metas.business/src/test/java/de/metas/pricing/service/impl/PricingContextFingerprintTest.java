@@ -0,0 +1,114 @@
+package de.metas.pricing.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_Test;
+import org.compiere.util.TimeUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.bpartner.BPartnerId;
+import de.metas.lang.SOTrx;
+import de.metas.pricing.PriceListVersionId;
+import de.metas.product.ProductId;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PricingContextFingerprintTest
+{
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private static PricingContext createPricingContext(final String qty)
+	{
+		final PricingContext pricingCtx = new PricingContext();
+		pricingCtx.setProductId(ProductId.ofRepoId(1));
+		pricingCtx.setBPartnerId(BPartnerId.ofRepoId(2));
+		pricingCtx.setPriceListVersionId(PriceListVersionId.ofRepoId(3));
+		pricingCtx.setPriceDate(TimeUtil.getDay(2018, 10, 1));
+		pricingCtx.setSOTrx(SOTrx.SALES);
+		pricingCtx.setQty(new BigDecimal(qty));
+		return pricingCtx;
+	}
+
+	@Test
+	public void sameInputs_sameFingerprint()
+	{
+		final PricingContextFingerprint fingerprint1 = PricingContextFingerprint.ofPricingContextOrNull(createPricingContext("10"));
+		final PricingContextFingerprint fingerprint2 = PricingContextFingerprint.ofPricingContextOrNull(createPricingContext("10.000"));
+
+		assertThat(fingerprint1).isNotNull();
+		assertThat(fingerprint1).isEqualTo(fingerprint2);
+		assertThat(fingerprint1.hashCode()).isEqualTo(fingerprint2.hashCode());
+	}
+
+	@Test
+	public void differentQty_differentFingerprint()
+	{
+		final PricingContextFingerprint fingerprint1 = PricingContextFingerprint.ofPricingContextOrNull(createPricingContext("10"));
+		final PricingContextFingerprint fingerprint2 = PricingContextFingerprint.ofPricingContextOrNull(createPricingContext("11"));
+
+		assertThat(fingerprint1).isNotEqualTo(fingerprint2);
+	}
+
+	@Test
+	public void simpleProperties_areConsidered()
+	{
+		final PricingContext pricingCtx1 = createPricingContext("10");
+		pricingCtx1.setProperty("Property1");
+		final PricingContext pricingCtx2 = createPricingContext("10");
+
+		final PricingContextFingerprint fingerprint1 = PricingContextFingerprint.ofPricingContextOrNull(pricingCtx1);
+		assertThat(fingerprint1).isNotNull();
+		assertThat(fingerprint1.getProperties()).containsEntry("Property1", Boolean.TRUE);
+		assertThat(fingerprint1).isNotEqualTo(PricingContextFingerprint.ofPricingContextOrNull(pricingCtx2));
+	}
+
+	@Test
+	public void notSimpleProperty_notCacheable()
+	{
+		final PricingContext pricingCtx = createPricingContext("10");
+		pricingCtx.setProperty("Property1", new Object());
+
+		assertThat(PricingContextFingerprint.ofPricingContextOrNull(pricingCtx)).isNull();
+	}
+
+	@Test
+	public void referencedObject_notCacheable()
+	{
+		final I_Test referencedObject = InterfaceWrapperHelper.newInstance(I_Test.class);
+		InterfaceWrapperHelper.saveRecord(referencedObject);
+
+		final PricingContext pricingCtx = createPricingContext("10");
+		pricingCtx.setReferencedObject(referencedObject);
+
+		assertThat(PricingContextFingerprint.ofPricingContextOrNull(pricingCtx)).isNull();
+	}
+}
@@ -0,0 +1,142 @@
+package de.metas.pricing.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_M_PriceList_Version;
+import org.compiere.model.I_M_ProductPrice;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.cache.CacheMgt;
+import de.metas.pricing.PriceListVersionId;
+
+/*
+ * #%L
+ * de.metas.business
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PricingResultsCacheTest
+{
+	private PricingResultsCache cache;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		cache = new PricingResultsCache(100, 0);
+	}
+
+	private static PricingContextFingerprint fingerprint(final int priceListVersionId)
+	{
+		return PricingContextFingerprint.builder()
+				.priceListVersionId(PriceListVersionId.ofRepoId(priceListVersionId))
+				.qty(BigDecimal.ONE)
+				.properties(ImmutableMap.of())
+				.build();
+	}
+
+	private static PricingResult result(final int priceListVersionId, final String priceStd)
+	{
+		final PricingResult result = new PricingResult();
+		result.setPriceListVersionId(PriceListVersionId.ofRepoId(priceListVersionId));
+		result.setPriceStd(new BigDecimal(priceStd));
+		result.setCalculated(true);
+		return result;
+	}
+
+	@Test
+	public void getOrCalculate_countsHitsAndMisses()
+	{
+		final PricingResult result1 = cache.getOrCalculate(fingerprint(1), () -> result(1, "10"));
+		final PricingResult result2 = cache.getOrCalculate(fingerprint(1), () -> result(1, "99"));
+
+		assertThat(result1.getPriceStd()).isEqualByComparingTo("10");
+		assertThat(result2.getPriceStd()).isEqualByComparingTo("10");
+		assertThat(cache.getMissesCount()).isEqualTo(1);
+		assertThat(cache.getHitsCount()).isEqualTo(1);
+		assertThat(cache.getHitRatio()).isEqualTo(0.5);
+	}
+
+	@Test
+	public void getOrCalculate_returnsCopies()
+	{
+		final PricingResult result1 = cache.getOrCalculate(fingerprint(1), () -> result(1, "10"));
+		result1.setPriceStd(new BigDecimal("55"));
+
+		final PricingResult result2 = cache.getOrCalculate(fingerprint(1), () -> result(1, "99"));
+		assertThat(result2).isNotSameAs(result1);
+		assertThat(result2.getPriceStd()).isEqualByComparingTo("10");
+	}
+
+	@Test
+	public void priceListVersionChanged_invalidatesOnlyItsResults()
+	{
+		cache.getOrCalculate(fingerprint(1), () -> result(1, "10"));
+		cache.getOrCalculate(fingerprint(2), () -> result(2, "20"));
+		assertThat(cache.keySet()).containsExactlyInAnyOrder(fingerprint(1), fingerprint(2));
+
+		CacheMgt.get().reset(I_M_PriceList_Version.Table_Name, 1);
+
+		assertThat(cache.keySet()).containsExactly(fingerprint(2));
+	}
+
+	@Test
+	public void productPriceChanged_invalidatesOnlyTheResultsOfItsPriceListVersion()
+	{
+		cache.getOrCalculate(fingerprint(1), () -> result(1, "10"));
+		cache.getOrCalculate(fingerprint(2), () -> result(2, "20"));
+
+		cache.resetForRecordId(
+				TableRecordReference.of(I_M_ProductPrice.Table_Name, 100),
+				TableRecordReference.of(I_M_PriceList_Version.Table_Name, 1));
+
+		assertThat(cache.keySet()).containsExactly(fingerprint(2));
+	}
+
+	@Test
+	public void productPriceChanged_priceListVersionWithoutResults_invalidatesNothing()
+	{
+		cache.getOrCalculate(fingerprint(1), () -> result(1, "10"));
+		cache.getOrCalculate(fingerprint(2), () -> result(2, "20"));
+
+		cache.resetForRecordId(
+				TableRecordReference.of(I_M_ProductPrice.Table_Name, 100),
+				TableRecordReference.of(I_M_PriceList_Version.Table_Name, 3));
+
+		assertThat(cache.keySet()).containsExactlyInAnyOrder(fingerprint(1), fingerprint(2));
+	}
+
+	@Test
+	public void productPriceChanged_unknownPriceListVersion_resetsEverything()
+	{
+		cache.getOrCalculate(fingerprint(1), () -> result(1, "10"));
+		cache.getOrCalculate(fingerprint(2), () -> result(2, "20"));
+
+		CacheMgt.get().reset(I_M_ProductPrice.Table_Name, 100);
+
+		assertThat(cache.keySet()).isEmpty();
+	}
+}
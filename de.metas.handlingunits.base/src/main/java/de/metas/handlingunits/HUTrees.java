@@ -0,0 +1,119 @@
+package de.metas.handlingunits;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+
+import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Attribute;
+import de.metas.handlingunits.model.I_M_HU_Item;
+import de.metas.handlingunits.model.I_M_HU_Item_Storage;
+import de.metas.handlingunits.model.I_M_HU_Storage;
+import de.metas.util.Check;
+import lombok.Builder;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Complete HU trees, as loaded by {@link IHandlingUnitsDAO#preloadHUTrees(IHUContext, java.util.Collection)}.
+ * <p>
+ * The records of the HUs and items contained here are complete, i.e. an HU or item without included records simply has none.
+ * <p>
+ * A subtree which was loaded based on the cached HU topology (see {@link de.metas.handlingunits.topology.HUTopologyCache#retrieveSubtree(I_M_HU, java.util.function.Function)})
+ * only contains the HUs and items whose children are known, and it has no storages and attributes.
+ */
+public final class HUTrees
+{
+	private final ImmutableList<I_M_HU> hus;
+	private final ImmutableList<I_M_HU_Item> items;
+	private final ImmutableListMultimap<Integer, I_M_HU_Item> itemsByHUId;
+	private final ImmutableListMultimap<Integer, I_M_HU> includedHUsByItemId;
+	private final ImmutableListMultimap<Integer, I_M_HU_Storage> storagesByHUId;
+	private final ImmutableListMultimap<Integer, I_M_HU_Item_Storage> itemStoragesByItemId;
+	private final ImmutableListMultimap<Integer, I_M_HU_Attribute> attributesByHUId;
+
+	@Builder
+	private HUTrees(
+			@NonNull final ImmutableList<I_M_HU> hus,
+			@NonNull final ImmutableList<I_M_HU_Item> items,
+			@NonNull final ImmutableListMultimap<Integer, I_M_HU_Item> itemsByHUId,
+			@NonNull final ImmutableListMultimap<Integer, I_M_HU> includedHUsByItemId,
+			@Nullable final ImmutableListMultimap<Integer, I_M_HU_Storage> storagesByHUId,
+			@Nullable final ImmutableListMultimap<Integer, I_M_HU_Item_Storage> itemStoragesByItemId,
+			@Nullable final ImmutableListMultimap<Integer, I_M_HU_Attribute> attributesByHUId)
+	{
+		this.hus = hus;
+		this.items = items;
+		this.itemsByHUId = itemsByHUId;
+		this.includedHUsByItemId = includedHUsByItemId;
+		this.storagesByHUId = storagesByHUId;
+		this.itemStoragesByItemId = itemStoragesByItemId;
+		this.attributesByHUId = attributesByHUId;
+	}
+
+	/** @return all HUs of the trees, top level HUs first */
+	public List<I_M_HU> getHUs()
+	{
+		return hus;
+	}
+
+	/** @return all (active) HU items of the trees */
+	public List<I_M_HU_Item> getItems()
+	{
+		return items;
+	}
+
+	/** @return the active items of given HU, ordered by {@link IHandlingUnitsDAO#HU_ITEMS_COMPARATOR} */
+	public List<I_M_HU_Item> getItems(@NonNull final I_M_HU hu)
+	{
+		return itemsByHUId.get(hu.getM_HU_ID());
+	}
+
+	/** @return the HUs included in given item (including the inactive ones), ordered by M_HU_ID */
+	public List<I_M_HU> getIncludedHUs(@NonNull final I_M_HU_Item item)
+	{
+		return includedHUsByItemId.get(item.getM_HU_Item_ID());
+	}
+
+	public List<I_M_HU_Storage> getStorages(@NonNull final I_M_HU hu)
+	{
+		Check.assumeNotNull(storagesByHUId, "storages were loaded");
+		return storagesByHUId.get(hu.getM_HU_ID());
+	}
+
+	public List<I_M_HU_Item_Storage> getItemStorages(@NonNull final I_M_HU_Item item)
+	{
+		Check.assumeNotNull(itemStoragesByItemId, "item storages were loaded");
+		return itemStoragesByItemId.get(item.getM_HU_Item_ID());
+	}
+
+	public List<I_M_HU_Attribute> getAttributes(@NonNull final I_M_HU hu)
+	{
+		Check.assumeNotNull(attributesByHUId, "attributes were loaded");
+		return attributesByHUId.get(hu.getM_HU_ID());
+	}
+}
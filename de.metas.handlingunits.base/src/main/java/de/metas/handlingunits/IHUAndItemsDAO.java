@@ -85,4 +85,10 @@ public interface IHUAndItemsDAO
 	 * Retrieve the Aggregated Item from an HU in case it has one
 	 */
 	I_M_HU_Item retrieveAggregatedItemOrNull(I_M_HU hu);
+
+	/**
+	 * Puts the items and included HUs of given preloaded HU trees to this DAO's cache (if any).
+	 * HUs and items which are already cached are not changed.
+	 */
+	void cacheHUTrees(HUTrees huTrees);
 }
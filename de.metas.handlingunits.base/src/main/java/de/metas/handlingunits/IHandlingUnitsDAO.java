@@ -179,6 +179,14 @@ public interface IHandlingUnitsDAO extends ISingletonService
 
 	List<I_M_HU> retrieveIncludedHUs(I_M_HU hu);
 
+	/**
+	 * Loads the whole trees of the given HUs (included HUs, items, storages and attributes) using a fixed number of queries per tree level
+	 * and puts them to the current transaction's HU caches, so that iterating the trees afterwards does not hit the database for each HU.
+	 * <p>
+	 * Does nothing if the HUs are not in the current thread inherited transaction, because only there we have caches to populate.
+	 */
+	void preloadHUTrees(IHUContext huContext, Collection<I_M_HU> hus);
+
 	// Handling Unit PI Retrieval
 
 	List<I_M_HU_PI_Item> retrievePIItems(final I_M_HU_PI handlingUnitPI, final I_C_BPartner partner);
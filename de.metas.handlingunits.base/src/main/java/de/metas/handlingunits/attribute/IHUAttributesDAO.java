@@ -4,6 +4,7 @@ import org.adempiere.mm.attributes.AttributeId;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.NullAutoCloseable;
 
+import de.metas.handlingunits.HUTrees;
 import de.metas.handlingunits.attribute.impl.HUAttributesBySeqNoComparator;
 import de.metas.handlingunits.model.I_M_HU;
 import de.metas.handlingunits.model.I_M_HU_Attribute;
@@ -59,4 +60,10 @@ public interface IHUAttributesDAO extends ISingletonService
 	 * If there is no internal cache, this method will do nothing.
 	 */
 	void flushAndClearCache();
+
+	/**
+	 * Puts the attributes of given preloaded HU trees to this DAO's cache (if any).
+	 * HUs whose attributes are already cached are not changed.
+	 */
+	void cacheHUTrees(HUTrees huTrees);
 }
@@ -12,6 +12,7 @@ import org.adempiere.util.lang.NullAutoCloseable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
+import de.metas.handlingunits.HUTrees;
 import de.metas.handlingunits.attribute.HUAndPIAttributes;
 import de.metas.handlingunits.attribute.IHUAttributesDAO;
 import de.metas.handlingunits.attribute.IHUPIAttributesDAO;
@@ -136,4 +137,10 @@ public final class HUAttributesDAO implements IHUAttributesDAO
 		// nothing because there is no internal cache
 	}
 
+	@Override
+	public void cacheHUTrees(final HUTrees huTrees)
+	{
+		// nothing because there is no internal cache
+	}
+
 }
@@ -29,6 +29,7 @@ import org.slf4j.Logger;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
+import de.metas.handlingunits.HUTrees;
 import de.metas.handlingunits.HuId;
 import de.metas.handlingunits.IHandlingUnitsBL;
 import de.metas.handlingunits.attribute.HUAndPIAttributes;
@@ -41,6 +42,7 @@ import de.metas.handlingunits.model.I_M_HU_Attribute;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import lombok.NonNull;
 
 /**
  * {@link IHUAttributesDAO} implementation which acts like a save buffer:
@@ -61,6 +63,12 @@ public class SaveDecoupledHUAttributesDAO implements IHUAttributesDAO
 	 */
 	public static final String SYSCONFIG_AutoFlushEnabledInitial = SaveDecoupledHUAttributesDAO.class.getName() + ".AutoflushEnabledInitial";
 
+	/**
+	 * Set this to <code>true</code> in {@link ISysConfigBL} to send the INSERTs/UPDATEs of {@link #flush()} to database in JDBC batches (see {@link ITrx#setDeferredWriteEnabled(boolean)}).
+	 * Note that a failing INSERT/UPDATE is reported only at the end of the flush then.
+	 */
+	public static final String SYSCONFIG_DeferredWriteEnabled = SaveDecoupledHUAttributesDAO.class.getName() + ".DeferredWriteEnabled";
+
 	// services
 	private static final transient Logger logger = LogManager.getLogger(SaveDecoupledHUAttributesDAO.class);
 	private final transient ITrxManager trxManager = Services.get(ITrxManager.class);
@@ -187,7 +195,7 @@ public class SaveDecoupledHUAttributesDAO implements IHUAttributesDAO
 			{
 				idsToSaveFromLastFlush.add(huAttributeId);
 			}
-			saveToDatabase(huAttribute, ITrx.TRXNAME_ThreadInherited);
+			saveToDatabase(huAttribute, ITrx.TRXNAME_ThreadInherited, false); // deferredWriteAllowed=false
 		}
 
 		final I_M_HU hu = huAttribute.getM_HU();
@@ -315,27 +323,52 @@ public class SaveDecoupledHUAttributesDAO implements IHUAttributesDAO
 
 		//
 		// Save all attributes
-		for (final Iterator<HUAttributesMap> it = _hu2huAttributes.values().iterator(); it.hasNext();)
+		// NOTE: if enabled, we are sending the INSERTs/UPDATEs to database in JDBC batches, because on an LU with hundreds of TUs there can be thousands of them
+		final boolean deferredWriteAllowed = Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_DeferredWriteEnabled, false);
+		final ITrx trx = deferredWriteAllowed ? trxManager.get(trxName, OnTrxMissingPolicy.ReturnTrxNone) : null;
+		final boolean enableDeferredWrite = deferredWriteAllowed && !trxManager.isNull(trx) && !trx.isDeferredWriteEnabled();
+		if (enableDeferredWrite)
+		{
+			trx.setDeferredWriteEnabled(true);
+		}
+		boolean success = false;
+		try
 		{
-			final HUAttributesMap huAttributes = it.next();
-			if (huAttributes == null || huAttributes.isEmpty())
+			for (final Iterator<HUAttributesMap> it = _hu2huAttributes.values().iterator(); it.hasNext();)
 			{
-				continue;
-			}
+				final HUAttributesMap huAttributes = it.next();
+				if (huAttributes == null || huAttributes.isEmpty())
+				{
+					continue;
+				}
+
+				for (final I_M_HU_Attribute huAttribute : huAttributes)
+				{
+					saveToDatabase(huAttribute, trxName, deferredWriteAllowed);
+				}
 
-			for (final I_M_HU_Attribute huAttribute : huAttributes)
+				// NOTE: we are not deleting it from our map because we are using that map as a cache too
+				// it.remove();
+			}
+			success = true;
+		}
+		finally
+		{
+			if (enableDeferredWrite && success)
 			{
-				saveToDatabase(huAttribute, trxName);
+				trx.setDeferredWriteEnabled(false); // executes the pending statements
+			}
+			else if (enableDeferredWrite)
+			{
+				// don't write a partial state; the transaction is going to be rolled back anyways
+				trx.discardDeferredWrites();
 			}
-
-			// NOTE: we are not deleting it from our map because we are using that map as a cache too
-			// it.remove();
 		}
 
 		logger.trace("Flushing done");
 	}
 
-	private final void saveToDatabase(final I_M_HU_Attribute model, final String trxName)
+	private final void saveToDatabase(final I_M_HU_Attribute model, final String trxName, final boolean deferredWriteAllowed)
 	{
 		//
 		// If incremental flush is enabled and our record it's not in the list of records to be saved from last flush
@@ -354,6 +387,11 @@ public class SaveDecoupledHUAttributesDAO implements IHUAttributesDAO
 		{
 			trace("saving to db", model);
 
+			if (deferredWriteAllowed)
+			{
+				InterfaceWrapperHelper.allowDeferredWrite(model);
+			}
+
 			// NOTE: i think it would be better if we would use here the delegated DAO
 			InterfaceWrapperHelper.save(model, trxName);
 
@@ -460,6 +498,15 @@ public class SaveDecoupledHUAttributesDAO implements IHUAttributesDAO
 		logger.trace("cached cleared");
 	}
 
+	@Override
+	public synchronized void cacheHUTrees(@NonNull final HUTrees huTrees)
+	{
+		for (final I_M_HU hu : huTrees.getHUs())
+		{
+			getHUAttributesMap(hu, k -> HUAttributesMap.of(huTrees.getAttributes(hu)));
+		}
+	}
+
 	private static class HUAttributesMap implements Iterable<I_M_HU_Attribute>
 	{
 		public static HUAttributesMap newEmptyInstance()
@@ -469,7 +516,11 @@ public class SaveDecoupledHUAttributesDAO implements IHUAttributesDAO
 
 		public static HUAttributesMap of(final HUAndPIAttributes huAndPIAttributes)
 		{
-			final ImmutableList<I_M_HU_Attribute> huAttributesList = huAndPIAttributes.getHuAttributes();
+			return of(huAndPIAttributes.getHuAttributes());
+		}
+
+		public static HUAttributesMap of(final List<I_M_HU_Attribute> huAttributesList)
+		{
 			final HashMap<AttributeId, I_M_HU_Attribute> huAttributes = new HashMap<>(huAttributesList.size());
 			for (final I_M_HU_Attribute huAttribute : huAttributesList)
 			{
@@ -9,12 +9,14 @@ import org.adempiere.util.lang.NullAutoCloseable;
 
 import com.google.common.base.Supplier;
 
+import de.metas.handlingunits.HUTrees;
 import de.metas.handlingunits.attribute.HUAndPIAttributes;
 import de.metas.handlingunits.attribute.IHUAttributesDAO;
 import de.metas.handlingunits.model.I_M_HU;
 import de.metas.handlingunits.model.I_M_HU_Attribute;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import lombok.NonNull;
 
 public class SaveOnCommitHUAttributesDAO implements IHUAttributesDAO
 {
@@ -121,4 +123,16 @@ public class SaveOnCommitHUAttributesDAO implements IHUAttributesDAO
 		// we need the HU or at least which is the transaction.
 	}
 
+	@Override
+	public void cacheHUTrees(@NonNull final HUTrees huTrees)
+	{
+		if (huTrees.getHUs().isEmpty())
+		{
+			return;
+		}
+
+		final SaveDecoupledHUAttributesDAO delegate = getDelegate(huTrees.getHUs().get(0));
+		delegate.cacheHUTrees(huTrees);
+	}
+
 }
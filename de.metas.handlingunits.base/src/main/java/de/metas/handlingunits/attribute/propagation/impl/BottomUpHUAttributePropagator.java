@@ -24,12 +24,14 @@ package de.metas.handlingunits.attribute.propagation.impl;
 
 
 import java.util.Collection;
+import java.util.Objects;
 
 import org.compiere.model.I_M_Attribute;
 
 import de.metas.handlingunits.attribute.IAttributeValueListener;
 import de.metas.handlingunits.attribute.propagation.IHUAttributePropagationContext;
 import de.metas.handlingunits.attribute.propagation.IHUAttributePropagator;
+import de.metas.handlingunits.attribute.propagation.impl.DeferredBottomUpPropagations.DeferredPropagation;
 import de.metas.handlingunits.attribute.storage.IAttributeStorage;
 import de.metas.handlingunits.attribute.storage.impl.NullAttributeStorage;
 import de.metas.handlingunits.attribute.strategy.IAttributeAggregationStrategy;
@@ -137,6 +139,26 @@ public class BottomUpHUAttributePropagator extends AbstractHUAttributePropagator
 			return;
 		}
 
+		//
+		// If a top-down propagation is running and our value is already set on this level,
+		// don't aggregate now but after the top-down propagation, when all our siblings got their final values too.
+		final DeferredBottomUpPropagations deferredPropagations = DeferredBottomUpPropagations.getCurrentOrNull();
+		if (deferredPropagations != null
+				&& propagationContext.isUpdateStorageValue()
+				&& attributeSet.hasAttribute(attribute)
+				&& Objects.equals(attributeSet.getValue(attribute), value))
+		{
+			deferredPropagations.add(DeferredPropagation.builder()
+					.bottomUpPropagator(this)
+					.parentAttributeStorage(parentAttributeSet)
+					.attribute(attribute)
+					.aggregationStrategy(aggregationStrategy)
+					.parentPropagator(parentPropagator)
+					.parentPropagationContext(propagationContext.cloneForPropagation(parentAttributeSet, attribute, parentPropagator))
+					.build());
+			return;
+		}
+
 		//
 		// Initialize the new value with parent's seed value
 		final Object parentValueNew = aggregateNewParentValue(aggregationStrategy,
@@ -152,13 +174,31 @@ public class BottomUpHUAttributePropagator extends AbstractHUAttributePropagator
 		parentPropagator.propagateValue(propagationContextToUse, parentAttributeSet, parentValueNew);
 	}
 
+	/**
+	 * Aggregates the parent's value from the current values of all its children and propagates it.
+	 */
+	/* package */ final void executeDeferredPropagation(final DeferredPropagation propagation)
+	{
+		final IAttributeStorage parentAttributeSet = propagation.getParentAttributeStorage();
+		final I_M_Attribute attribute = propagation.getAttribute();
+
+		final Object parentValueNew = aggregateNewParentValue(propagation.getAggregationStrategy(),
+				parentAttributeSet,
+				parentAttributeSet.getValueInitial(attribute),
+				null, // attributeSet: all children have their values already set
+				null, // value
+				attribute);
+
+		propagation.getParentPropagator().propagateValue(propagation.getParentPropagationContext(), parentAttributeSet, parentValueNew);
+	}
+
 	/**
 	 * Aggregates new parent value recursively among children (i.e if a child doesn't have an attribute, look deeper in that child's children).
 	 *
 	 * @param aggregationStrategy
 	 * @param parentAttributeSet
 	 * @param parentValueInitial
-	 * @param attributeSet
+	 * @param attributeSet the attribute set whose value was not set yet; might be null
 	 * @param value
 	 * @param attribute
 	 * @return
@@ -188,7 +228,7 @@ public class BottomUpHUAttributePropagator extends AbstractHUAttributePropagator
 
 			//
 			// For the same-level attribute set, aggregate the given value and skip recalculation
-			if (levelAttributeSet.getId().equals(attributeSet.getId()))
+			if (attributeSet != null && levelAttributeSet.getId().equals(attributeSet.getId()))
 			{
 				parentValueNew = aggregationStrategy.aggregate(attribute, parentValueNew, value);
 			}
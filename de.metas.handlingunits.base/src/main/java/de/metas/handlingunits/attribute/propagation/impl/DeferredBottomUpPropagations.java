@@ -0,0 +1,150 @@
+package de.metas.handlingunits.attribute.propagation.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Consumer;
+
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.model.I_M_Attribute;
+import org.compiere.util.Util;
+import org.compiere.util.Util.ArrayKey;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.handlingunits.attribute.propagation.IHUAttributePropagationContext;
+import de.metas.handlingunits.attribute.propagation.IHUAttributePropagator;
+import de.metas.handlingunits.attribute.storage.IAttributeStorage;
+import de.metas.handlingunits.attribute.strategy.IAttributeAggregationStrategy;
+import de.metas.util.Services;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects the bottom-up propagations to parent storages while a top-down propagation is running and executes them at the end, once per parent storage and attribute.
+ * <p>
+ * Without this, setting a value on an LU with N TUs (e.g. the weight) propagates down to each TU, each TU's callouts change some other attribute
+ * which propagates back up and every such hop aggregates the values of all N siblings, i.e. N*N aggregations and N value changes on LU level.
+ * With this, the LU value is aggregated once, after all TUs got their values.
+ * <p>
+ * Executing a collected propagation might request further propagations to the grandparents, which are collected and executed afterwards, so we are going up one level at a time.
+ */
+/* package */ final class DeferredBottomUpPropagations
+{
+	@VisibleForTesting
+	static final String SYSCONFIG_Enabled = "de.metas.handlingunits.attribute.propagation.impl.DeferredBottomUpPropagations.Enabled";
+
+	private static final ThreadLocal<DeferredBottomUpPropagations> current = new ThreadLocal<>();
+
+	/**
+	 * Runs given runnable while collecting the bottom-up propagations, and executes them afterwards.
+	 * <p>
+	 * If we are already collecting (i.e. nested top-down propagation), the runnable is just executed and the propagations are executed when the outermost call ends.
+	 * If the runnable fails, the collected propagations are discarded.
+	 */
+	public static void collectWhile(@NonNull final Runnable runnable)
+	{
+		if (current.get() != null || !isEnabled())
+		{
+			runnable.run();
+			return;
+		}
+
+		final DeferredBottomUpPropagations propagations = new DeferredBottomUpPropagations();
+		current.set(propagations);
+		try
+		{
+			runnable.run();
+			propagations.executeAll(propagation -> propagation.getBottomUpPropagator().executeDeferredPropagation(propagation));
+		}
+		finally
+		{
+			current.remove();
+		}
+	}
+
+	/**
+	 * @return collector of the currently running top-down propagation or <code>null</code>
+	 */
+	public static DeferredBottomUpPropagations getCurrentOrNull()
+	{
+		return current.get();
+	}
+
+	private static boolean isEnabled()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_Enabled, false);
+	}
+
+	private final LinkedHashMap<ArrayKey, DeferredPropagation> propagations = new LinkedHashMap<>();
+
+	@VisibleForTesting
+	DeferredBottomUpPropagations()
+	{
+	}
+
+	/**
+	 * Enqueues given propagation. If there is already one for the same parent storage and attribute, it's replaced, but it keeps its position in the queue.
+	 */
+	public void add(@NonNull final DeferredPropagation propagation)
+	{
+		final ArrayKey key = Util.mkKey(propagation.getParentAttributeStorage().getId(), propagation.getAttribute().getM_Attribute_ID());
+		propagations.put(key, propagation);
+	}
+
+	@VisibleForTesting
+	void executeAll(final Consumer<DeferredPropagation> executor)
+	{
+		while (!propagations.isEmpty())
+		{
+			final Iterator<DeferredPropagation> it = propagations.values().iterator();
+			final DeferredPropagation propagation = it.next();
+			it.remove();
+
+			executor.accept(propagation);
+		}
+	}
+
+	@Value
+	@Builder
+	public static class DeferredPropagation
+	{
+		@NonNull
+		BottomUpHUAttributePropagator bottomUpPropagator;
+
+		@NonNull
+		IAttributeStorage parentAttributeStorage;
+		@NonNull
+		I_M_Attribute attribute;
+		@NonNull
+		IAttributeAggregationStrategy aggregationStrategy;
+		@NonNull
+		IHUAttributePropagator parentPropagator;
+
+		/** the context to be used when propagating to parent, as it would have been used if the propagation would not have been deferred */
+		@NonNull
+		IHUAttributePropagationContext parentPropagationContext;
+	}
+}
@@ -158,6 +158,19 @@ public class TopDownHUAttributePropagator extends AbstractHUAttributePropagator
 		splitRequest.setValueInitial(value);
 		splitRequest.setValueToSplit(value);
 
+		// Propagate to children.
+		// The bottom-up propagations which are caused by this (e.g. a child's callout changes an other attribute) are executed after all children got their values.
+		DeferredBottomUpPropagations.collectWhile(() -> splitToChildren(propagationContext, splitterStrategy, splitRequest, childrenAttributeSets, childrenAttributeSetPropagators));
+	}
+
+	private void splitToChildren(
+			final IHUAttributePropagationContext propagationContext,
+			final IAttributeSplitterStrategy splitterStrategy,
+			final MutableAttributeSplitRequest splitRequest,
+			final List<IAttributeStorage> childrenAttributeSets,
+			final List<IHUAttributePropagator> childrenAttributeSetPropagators)
+	{
+		final I_M_Attribute attribute = propagationContext.getAttribute();
 		for (int i = 0; i < childrenAttributeSets.size(); i++)
 		{
 			final IAttributeStorage childAttributeSet = childrenAttributeSets.get(i);
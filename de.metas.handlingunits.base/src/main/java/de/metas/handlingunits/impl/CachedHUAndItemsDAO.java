@@ -41,6 +41,7 @@ import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.I_AD_Client;
 
+import de.metas.handlingunits.HUTrees;
 import de.metas.handlingunits.IHUAndItemsDAO;
 import de.metas.handlingunits.IHandlingUnitsBL;
 import de.metas.handlingunits.IHandlingUnitsDAO;
@@ -48,12 +49,15 @@ import de.metas.handlingunits.exceptions.HUException;
 import de.metas.handlingunits.model.I_M_HU;
 import de.metas.handlingunits.model.I_M_HU_Item;
 import de.metas.handlingunits.model.I_M_HU_PI_Item;
+import de.metas.handlingunits.topology.HUTopologyCache;
 import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
 
 /**
  * This service wraps a {@link HUAndItemsDAO} and caches its results.
+ * <p>
+ * If enabled, the items and included HUs which are not yet cached here are looked up in the node wide {@link HUTopologyCache} first.
  *
  * @author metas-dev <dev@metasfresh.com>
  *
@@ -315,7 +319,7 @@ public class CachedHUAndItemsDAO extends AbstractHUAndItemsDAO
 		List<I_M_HU_Item> huItems = huKey2huItems.get(huKey);
 		if (huItems == null)
 		{
-			huItems = db.retrieveItems(hu);
+			huItems = retrieveItemsNoCache(hu);
 
 			for (final I_M_HU_Item huItem : huItems)
 			{
@@ -330,6 +334,49 @@ public class CachedHUAndItemsDAO extends AbstractHUAndItemsDAO
 		return new ArrayList<>(huItems);
 	}
 
+	/**
+	 * Retrieves the items of an HU which is not cached here yet.
+	 * If the {@link HUTopologyCache} knows the HU's subtree, the whole subtree is loaded and cached, so that the items and included HUs below won't need any query.
+	 */
+	private List<I_M_HU_Item> retrieveItemsNoCache(final I_M_HU hu)
+	{
+		final HUTopologyCache topologyCache = HUTopologyCache.get();
+		if (!topologyCache.isEnabled())
+		{
+			return db.retrieveItems(hu);
+		}
+
+		final HUTrees subtree = topologyCache.retrieveSubtree(hu, topology -> HUTreesLoader.loadSubtree(hu, topology));
+		if (subtree == null)
+		{
+			return topologyCache.loadItems(hu, db::retrieveItems);
+		}
+
+		cacheHUTrees(subtree);
+		return huKey2huItems.get(mkHUKey(hu));
+	}
+
+	/**
+	 * Retrieves the included HUs of an item which is not cached here yet; see {@link #retrieveItemsNoCache(I_M_HU)}.
+	 */
+	private List<I_M_HU> retrieveIncludedHUsNoCache(final I_M_HU_Item huItem)
+	{
+		final HUTopologyCache topologyCache = HUTopologyCache.get();
+		if (!topologyCache.isEnabled())
+		{
+			return db.retrieveIncludedHUs(huItem);
+		}
+
+		final HUTrees subtree = topologyCache.retrieveSubtree(huItem, topology -> HUTreesLoader.loadSubtree(huItem, topology));
+		if (subtree == null)
+		{
+			return topologyCache.loadIncludedHUs(huItem, db::retrieveIncludedHUs);
+		}
+
+		cacheHUTrees(subtree);
+		return huItemKey2includedHUs.get(mkHUItemKey(huItem));
+	}
+
 	@Override
 	public I_M_HU retrieveParent(final I_M_HU hu)
 	{
@@ -361,7 +408,7 @@ public class CachedHUAndItemsDAO extends AbstractHUAndItemsDAO
 		List<I_M_HU> includedHUs = huItemKey2includedHUs.get(huItemKey);
 		if (includedHUs == null)
 		{
-			includedHUs = db.retrieveIncludedHUs(huItem);
+			includedHUs = retrieveIncludedHUsNoCache(huItem);
 
 			for (final I_M_HU includedHU : includedHUs)
 			{
@@ -375,6 +422,20 @@ public class CachedHUAndItemsDAO extends AbstractHUAndItemsDAO
 		return new ArrayList<>(includedHUs);
 	}
 
+	@Override
+	public void cacheHUTrees(@NonNull final HUTrees huTrees)
+	{
+		for (final I_M_HU hu : huTrees.getHUs())
+		{
+			huKey2huItems.putIfAbsent(mkHUKey(hu), new ArrayList<>(huTrees.getItems(hu)));
+		}
+
+		for (final I_M_HU_Item huItem : huTrees.getItems())
+		{
+			huItemKey2includedHUs.putIfAbsent(mkHUItemKey(huItem), new ArrayList<>(huTrees.getIncludedHUs(huItem)));
+		}
+	}
+
 	@Override
 	public void setParentItem(final I_M_HU hu, final I_M_HU_Item parentItem)
 	{
@@ -28,6 +28,7 @@ import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.model.InterfaceWrapperHelper;
 
+import de.metas.handlingunits.HUTrees;
 import de.metas.handlingunits.IHUAndItemsDAO;
 import de.metas.handlingunits.exceptions.HUException;
 import de.metas.handlingunits.model.I_M_HU;
@@ -181,4 +182,15 @@ public class CachedIfInTransactionHUAndItemsDAO implements IHUAndItemsDAO
 	{
 		return getDelegate(hu).retrieveAggregatedItemOrNull(hu);
 	}
+
+	@Override
+	public void cacheHUTrees(@NonNull final HUTrees huTrees)
+	{
+		if (huTrees.getHUs().isEmpty())
+		{
+			return;
+		}
+
+		getDelegate(huTrees.getHUs().get(0)).cacheHUTrees(huTrees);
+	}
 }
@@ -30,6 +30,7 @@ import org.compiere.util.TrxRunnable;
 
 import com.google.common.annotations.VisibleForTesting;
 
+import de.metas.handlingunits.HUTrees;
 import de.metas.handlingunits.HuPackingInstructionsVersionId;
 import de.metas.handlingunits.IHandlingUnitsBL;
 import de.metas.handlingunits.exceptions.HUPIInvalidConfigurationException;
@@ -167,6 +168,12 @@ public final class HUAndItemsDAO extends AbstractHUAndItemsDAO
 		return huItemsCache.getItems();
 	}
 
+	@Override
+	public void cacheHUTrees(final HUTrees huTrees)
+	{
+		// nothing to do: there is no transaction level cache on this level
+	}
+
 	@VisibleForTesting
 	public static I_M_HU_Item createHUItemNoSave(
 			@NonNull final I_M_HU hu,
@@ -29,10 +29,12 @@ import java.util.List;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.util.TrxRunnable;
 
 import de.metas.handlingunits.IHUContext;
 import de.metas.handlingunits.IHUIterator;
+import de.metas.handlingunits.IHandlingUnitsDAO;
 import de.metas.handlingunits.IMutableHUContext;
 import de.metas.handlingunits.model.I_M_HU;
 import de.metas.handlingunits.model.I_M_HU_Item;
@@ -42,12 +44,40 @@ import de.metas.util.Services;
 
 public class HUIterator extends AbstractHUIterator
 {
+	private static final String SYSCONFIG_PreloadHUTrees = "de.metas.handlingunits.impl.HUIterator.PreloadHUTrees";
+
+	private boolean preloadHUTrees;
+
 	public HUIterator()
 	{
 		registerNodeIterator(I_M_HU.class, new HUNodeIterator());
 		registerNodeIterator(I_M_HU_Item.class, new HUItemNodeIterator());
 
 		setEnableStorageIteration(true); // backward compatibility
+
+		preloadHUTrees = Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_PreloadHUTrees, false);
+	}
+
+	/**
+	 * If true, the whole trees of the HUs to iterate are loaded upfront, using a fixed number of queries per tree level (see {@link IHandlingUnitsDAO#preloadHUTrees(IHUContext, Collection)}).
+	 * Note that this only works if the HUs are in the current thread inherited transaction.
+	 * <p>
+	 * Default is taken from sysconfig {@value #SYSCONFIG_PreloadHUTrees}.
+	 */
+	public final HUIterator setPreloadHUTrees(final boolean preloadHUTrees)
+	{
+		this.preloadHUTrees = preloadHUTrees;
+		return this;
+	}
+
+	private void preloadHUTreesIfEnabled(final Collection<I_M_HU> hus)
+	{
+		if (!preloadHUTrees)
+		{
+			return;
+		}
+
+		Services.get(IHandlingUnitsDAO.class).preloadHUTrees(getHUContext(), hus);
 	}
 
 	/**
@@ -88,6 +118,8 @@ public class HUIterator extends AbstractHUIterator
 
 		setStatus(HUIteratorStatus.Running);
 
+		preloadHUTreesIfEnabled(hus);
+
 		for (final I_M_HU hu : hus)
 		{
 			huNodeIterator.iterate(hu);
@@ -154,6 +186,7 @@ public class HUIterator extends AbstractHUIterator
 						InterfaceWrapperHelper.setTrxName(hu, localTrxName);
 						try
 						{
+							preloadHUTreesIfEnabled(Collections.singletonList(hu));
 							huNodeIterator.iterate(hu);
 						}
 						finally
@@ -0,0 +1,355 @@
+package de.metas.handlingunits.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.model.InterfaceWrapperHelper;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+
+import de.metas.handlingunits.HUTrees;
+import de.metas.handlingunits.IHandlingUnitsDAO;
+import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Attribute;
+import de.metas.handlingunits.model.I_M_HU_Item;
+import de.metas.handlingunits.model.I_M_HU_Item_Storage;
+import de.metas.handlingunits.model.I_M_HU_Storage;
+import de.metas.handlingunits.topology.HUTopologyCache.SubtreeTopology;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Loads complete HU trees level by level, i.e. with two queries per tree level (items and included HUs) plus one query for each of storages, item storages and attributes.
+ * <p>
+ * The loaded records are linked to their loaded parents and ordered the same way as {@link HUAndItemsDAO} and the storage/attribute DAOs would return them.
+ * <p>
+ * It also loads the subtrees whose topology is known from the {@link de.metas.handlingunits.topology.HUTopologyCache}, with one query for the items and one for the HUs.
+ */
+/* package */ final class HUTreesLoader
+{
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+
+	private final Object contextProvider;
+
+	private final Map<Integer, I_M_HU> husById = new LinkedHashMap<>();
+	private final Map<Integer, I_M_HU_Item> itemsById = new LinkedHashMap<>();
+	private final ListMultimap<Integer, I_M_HU_Item> itemsByHUId = ArrayListMultimap.create();
+	private final ListMultimap<Integer, I_M_HU> includedHUsByItemId = ArrayListMultimap.create();
+
+	public static HUTrees load(@NonNull final Collection<I_M_HU> hus)
+	{
+		if (hus.isEmpty())
+		{
+			return HUTrees.builder()
+					.hus(ImmutableList.of())
+					.items(ImmutableList.of())
+					.itemsByHUId(ImmutableListMultimap.of())
+					.includedHUsByItemId(ImmutableListMultimap.of())
+					.storagesByHUId(ImmutableListMultimap.of())
+					.itemStoragesByItemId(ImmutableListMultimap.of())
+					.attributesByHUId(ImmutableListMultimap.of())
+					.build();
+		}
+
+		final I_M_HU contextProvider = hus.iterator().next();
+		return new HUTreesLoader(contextProvider).loadTrees(hus);
+	}
+
+	/**
+	 * @return the subtree of given HU, as described by given topology; <code>null</code> if the records don't match the topology
+	 */
+	@Nullable
+	public static HUTrees loadSubtree(@NonNull final I_M_HU hu, @NonNull final SubtreeTopology topology)
+	{
+		final HUTreesLoader loader = new HUTreesLoader(hu);
+		loader.husById.put(hu.getM_HU_ID(), hu);
+		return loader.loadSubtree(topology);
+	}
+
+	/**
+	 * @return the subtree of given HU item, as described by given topology; <code>null</code> if the records don't match the topology
+	 */
+	@Nullable
+	public static HUTrees loadSubtree(@NonNull final I_M_HU_Item huItem, @NonNull final SubtreeTopology topology)
+	{
+		final HUTreesLoader loader = new HUTreesLoader(huItem);
+		loader.itemsById.put(huItem.getM_HU_Item_ID(), huItem);
+		return loader.loadSubtree(topology);
+	}
+
+	private HUTreesLoader(final Object contextProvider)
+	{
+		this.contextProvider = contextProvider;
+	}
+
+	private HUTrees loadTrees(final Collection<I_M_HU> topLevelHUs)
+	{
+		List<I_M_HU> currentLevelHUs = addNotSeenHUs(topLevelHUs);
+		if (currentLevelHUs.isEmpty())
+		{
+			return load(ImmutableList.of());
+		}
+
+		while (!currentLevelHUs.isEmpty())
+		{
+			final List<I_M_HU_Item> currentLevelItems = loadItems(currentLevelHUs);
+			currentLevelHUs = currentLevelItems.isEmpty() ? ImmutableList.of() : addNotSeenHUs(loadIncludedHUs(currentLevelItems));
+		}
+
+		return HUTrees.builder()
+				.hus(ImmutableList.copyOf(husById.values()))
+				.items(ImmutableList.copyOf(itemsById.values()))
+				.itemsByHUId(ImmutableListMultimap.copyOf(itemsByHUId))
+				.includedHUsByItemId(ImmutableListMultimap.copyOf(includedHUsByItemId))
+				.storagesByHUId(loadStorages())
+				.itemStoragesByItemId(loadItemStorages())
+				.attributesByHUId(loadAttributes())
+				.build();
+	}
+
+	private HUTrees loadSubtree(final SubtreeTopology topology)
+	{
+		final Set<Integer> itemIdsToLoad = topology.getItemIdsByHUId().values().stream()
+				.flatMap(List::stream)
+				.filter(itemId -> !itemsById.containsKey(itemId))
+				.collect(ImmutableSet.toImmutableSet());
+		if (!itemIdsToLoad.isEmpty())
+		{
+			queryBL.createQueryBuilder(I_M_HU_Item.class, contextProvider)
+					.addInArrayFilter(I_M_HU_Item.COLUMNNAME_M_HU_Item_ID, itemIdsToLoad)
+					.addOnlyActiveRecordsFilter()
+					.create()
+					.list()
+					.forEach(item -> itemsById.put(item.getM_HU_Item_ID(), item));
+		}
+
+		final Set<Integer> huIdsToLoad = topology.getIncludedHUIdsByItemId().values().stream()
+				.flatMap(List::stream)
+				.filter(huId -> !husById.containsKey(huId))
+				.collect(ImmutableSet.toImmutableSet());
+		if (!huIdsToLoad.isEmpty())
+		{
+			// NOTE: same as loadIncludedHUs, we also load the inactive HUs
+			queryBL.createQueryBuilder(I_M_HU.class, contextProvider)
+					.addInArrayFilter(I_M_HU.COLUMNNAME_M_HU_ID, huIdsToLoad)
+					.create()
+					.list()
+					.forEach(hu -> husById.put(hu.getM_HU_ID(), hu));
+		}
+
+		//
+		// Link the records in the cached order, making sure that they still belong where the topology says
+		for (final Map.Entry<Integer, ImmutableList<Integer>> huIdAndItemIds : topology.getItemIdsByHUId().entrySet())
+		{
+			final I_M_HU hu = husById.get(huIdAndItemIds.getKey());
+			if (hu == null)
+			{
+				return null;
+			}
+			for (final Integer itemId : huIdAndItemIds.getValue())
+			{
+				final I_M_HU_Item item = itemsById.get(itemId);
+				if (item == null || item.getM_HU_ID() != hu.getM_HU_ID())
+				{
+					return null;
+				}
+				item.setM_HU(hu); // make sure item.getM_HU() will return our HU
+				itemsByHUId.put(hu.getM_HU_ID(), item);
+			}
+		}
+		for (final Map.Entry<Integer, ImmutableList<Integer>> itemIdAndIncludedHUIds : topology.getIncludedHUIdsByItemId().entrySet())
+		{
+			final I_M_HU_Item item = itemsById.get(itemIdAndIncludedHUIds.getKey());
+			if (item == null)
+			{
+				return null;
+			}
+			for (final Integer includedHUId : itemIdAndIncludedHUIds.getValue())
+			{
+				final I_M_HU includedHU = husById.get(includedHUId);
+				if (includedHU == null || includedHU.getM_HU_Item_Parent_ID() != item.getM_HU_Item_ID())
+				{
+					return null;
+				}
+				includedHU.setM_HU_Item_Parent(item); // make sure hu.getM_HU_Item_Parent() returns our item
+				includedHUsByItemId.put(item.getM_HU_Item_ID(), includedHU);
+			}
+		}
+
+		// NOTE: only the HUs and items whose children are known are part of the subtree
+		return HUTrees.builder()
+				.hus(topology.getItemIdsByHUId().keySet().stream().map(husById::get).collect(ImmutableList.toImmutableList()))
+				.items(topology.getIncludedHUIdsByItemId().keySet().stream().map(itemsById::get).collect(ImmutableList.toImmutableList()))
+				.itemsByHUId(ImmutableListMultimap.copyOf(itemsByHUId))
+				.includedHUsByItemId(ImmutableListMultimap.copyOf(includedHUsByItemId))
+				.build();
+	}
+
+	/**
+	 * @return the HUs which were not loaded before; protects us from endless loops in case of corrupted data
+	 */
+	private List<I_M_HU> addNotSeenHUs(final Collection<I_M_HU> hus)
+	{
+		final List<I_M_HU> notSeenHUs = new ArrayList<>(hus.size());
+		for (final I_M_HU hu : hus)
+		{
+			if (hu.getM_HU_ID() > 0 && husById.putIfAbsent(hu.getM_HU_ID(), hu) == null)
+			{
+				notSeenHUs.add(hu);
+			}
+		}
+		return notSeenHUs;
+	}
+
+	private List<I_M_HU_Item> loadItems(final List<I_M_HU> hus)
+	{
+		final Set<Integer> huIds = extractIds(hus);
+		final List<I_M_HU_Item> items = queryBL.createQueryBuilder(I_M_HU_Item.class, contextProvider)
+				.addInArrayFilter(I_M_HU_Item.COLUMNNAME_M_HU_ID, huIds)
+				.addOnlyActiveRecordsFilter()
+				.create()
+				.list();
+
+		final ListMultimap<Integer, I_M_HU_Item> currentLevelItemsByHUId = ArrayListMultimap.create();
+		for (final I_M_HU_Item item : items)
+		{
+			final I_M_HU hu = husById.get(item.getM_HU_ID());
+			item.setM_HU(hu); // make sure item.getM_HU() will return our HU
+			currentLevelItemsByHUId.put(hu.getM_HU_ID(), item);
+		}
+
+		final List<I_M_HU_Item> currentLevelItems = new ArrayList<>(items.size());
+		for (final I_M_HU hu : hus)
+		{
+			final List<I_M_HU_Item> huItems = new ArrayList<>(currentLevelItemsByHUId.get(hu.getM_HU_ID()));
+			huItems.sort(IHandlingUnitsDAO.HU_ITEMS_COMPARATOR);
+
+			itemsByHUId.putAll(hu.getM_HU_ID(), huItems);
+			for (final I_M_HU_Item item : huItems)
+			{
+				itemsById.put(item.getM_HU_Item_ID(), item);
+			}
+			currentLevelItems.addAll(huItems);
+		}
+		return currentLevelItems;
+	}
+
+	private List<I_M_HU> loadIncludedHUs(final List<I_M_HU_Item> items)
+	{
+		// NOTE: same as IncludedHUsLocalCache, we also load the inactive HUs
+		final List<I_M_HU> includedHUs = queryBL.createQueryBuilder(I_M_HU.class, contextProvider)
+				.addInArrayFilter(I_M_HU.COLUMNNAME_M_HU_Item_Parent_ID, extractIds(items))
+				.orderBy()
+				.addColumn(I_M_HU.COLUMNNAME_M_HU_ID)
+				.endOrderBy()
+				.create()
+				.list();
+
+		for (final I_M_HU includedHU : includedHUs)
+		{
+			final I_M_HU_Item parentItem = itemsById.get(includedHU.getM_HU_Item_Parent_ID());
+			includedHU.setM_HU_Item_Parent(parentItem); // make sure hu.getM_HU_Item_Parent() returns our item
+			includedHUsByItemId.put(parentItem.getM_HU_Item_ID(), includedHU);
+		}
+		return includedHUs;
+	}
+
+	private ImmutableListMultimap<Integer, I_M_HU_Storage> loadStorages()
+	{
+		final List<I_M_HU_Storage> storages = queryBL.createQueryBuilder(I_M_HU_Storage.class, contextProvider)
+				.addInArrayFilter(I_M_HU_Storage.COLUMNNAME_M_HU_ID, husById.keySet())
+				.addOnlyActiveRecordsFilter()
+				.create()
+				.list();
+
+		final ImmutableListMultimap.Builder<Integer, I_M_HU_Storage> storagesByHUId = ImmutableListMultimap.builder();
+		for (final I_M_HU_Storage storage : storages)
+		{
+			storage.setM_HU(husById.get(storage.getM_HU_ID()));
+			storagesByHUId.put(storage.getM_HU_ID(), storage);
+		}
+		return storagesByHUId.build();
+	}
+
+	private ImmutableListMultimap<Integer, I_M_HU_Item_Storage> loadItemStorages()
+	{
+		if (itemsById.isEmpty())
+		{
+			return ImmutableListMultimap.of();
+		}
+
+		final List<I_M_HU_Item_Storage> itemStorages = queryBL.createQueryBuilder(I_M_HU_Item_Storage.class, contextProvider)
+				.addInArrayFilter(I_M_HU_Item_Storage.COLUMNNAME_M_HU_Item_ID, itemsById.keySet())
+				.addOnlyActiveRecordsFilter()
+				.orderBy()
+				.addColumn(I_M_HU_Item_Storage.COLUMNNAME_M_HU_Item_Storage_ID) // same predictive order as HUStorageDAO
+				.endOrderBy()
+				.create()
+				.list();
+
+		final ImmutableListMultimap.Builder<Integer, I_M_HU_Item_Storage> itemStoragesByItemId = ImmutableListMultimap.builder();
+		for (final I_M_HU_Item_Storage itemStorage : itemStorages)
+		{
+			itemStorage.setM_HU_Item(itemsById.get(itemStorage.getM_HU_Item_ID()));
+			itemStoragesByItemId.put(itemStorage.getM_HU_Item_ID(), itemStorage);
+		}
+		return itemStoragesByItemId.build();
+	}
+
+	private ImmutableListMultimap<Integer, I_M_HU_Attribute> loadAttributes()
+	{
+		final List<I_M_HU_Attribute> huAttributes = queryBL.createQueryBuilder(I_M_HU_Attribute.class, contextProvider)
+				.addInArrayFilter(I_M_HU_Attribute.COLUMNNAME_M_HU_ID, husById.keySet())
+				.addOnlyActiveRecordsFilter()
+				.create()
+				.list();
+
+		final ImmutableListMultimap.Builder<Integer, I_M_HU_Attribute> attributesByHUId = ImmutableListMultimap.builder();
+		for (final I_M_HU_Attribute huAttribute : huAttributes)
+		{
+			huAttribute.setM_HU(husById.get(huAttribute.getM_HU_ID()));
+			attributesByHUId.put(huAttribute.getM_HU_ID(), huAttribute);
+		}
+		return attributesByHUId.build();
+	}
+
+	private static Set<Integer> extractIds(final List<?> models)
+	{
+		return models.stream()
+				.map(InterfaceWrapperHelper::getId)
+				.collect(ImmutableSet.toImmutableSet());
+	}
+}
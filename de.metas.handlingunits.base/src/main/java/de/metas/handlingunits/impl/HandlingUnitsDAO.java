@@ -49,6 +49,7 @@ import org.adempiere.ad.dao.IQueryOrderBy.Direction;
 import org.adempiere.ad.dao.IQueryOrderBy.Nulls;
 import org.adempiere.ad.dao.impl.EqualsQueryFilter;
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.OrgId;
@@ -74,6 +75,7 @@ import com.google.common.collect.ImmutableSet;
 import de.metas.bpartner.BPartnerId;
 import de.metas.cache.annotation.CacheCtx;
 import de.metas.cache.annotation.CacheTrx;
+import de.metas.handlingunits.HUTrees;
 import de.metas.handlingunits.HuId;
 import de.metas.handlingunits.HuPackingInstructionsId;
 import de.metas.handlingunits.HuPackingInstructionsVersionId;
@@ -121,6 +123,33 @@ public class HandlingUnitsDAO implements IHandlingUnitsDAO
 		return defaultHUAndItemsDAO;
 	}
 
+	@Override
+	public void preloadHUTrees(@NonNull final IHUContext huContext, @NonNull final Collection<I_M_HU> hus)
+	{
+		if (hus.isEmpty())
+		{
+			return;
+		}
+
+		//
+		// The HU caches are living in the thread inherited transaction, so there is nothing to populate if the HUs are not in that transaction
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final String trxName = trxManager.getThreadInheritedTrxName();
+		if (trxManager.isNull(trxName))
+		{
+			return;
+		}
+		if (hus.stream().anyMatch(hu -> !trxManager.isSameTrxName(trxName, InterfaceWrapperHelper.getTrxName(hu))))
+		{
+			return;
+		}
+
+		final HUTrees huTrees = HUTreesLoader.load(hus);
+		getHUAndItemsDAO().cacheHUTrees(huTrees);
+		huContext.getHUStorageFactory().getHUStorageDAO().cacheHUTrees(huTrees);
+		huContext.getHUAttributeStorageFactory().getHUAttributesDAO().cacheHUTrees(huTrees);
+	}
+
 	@Override
 	public I_M_HU getByIdOutOfTrx(@NonNull final HuId huId)
 	{
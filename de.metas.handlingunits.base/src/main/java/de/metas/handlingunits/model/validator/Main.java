@@ -198,6 +198,10 @@ public final class Main extends AbstractModuleInterceptor
 		// https://github.com/metasfresh/metasfresh/issues/2298
 		engine.addModelValidator(de.metas.handlingunits.picking.interceptor.M_HU.INSTANCE, client);
 
+		// shared HU topology cache
+		engine.addModelValidator(de.metas.handlingunits.topology.interceptor.M_HU.INSTANCE, client);
+		engine.addModelValidator(de.metas.handlingunits.topology.interceptor.M_HU_Item.INSTANCE, client);
+
 		//
 		// Tour Planning
 		setupTourPlanning();
@@ -27,6 +27,7 @@ import java.util.List;
 
 import org.compiere.model.I_C_UOM;
 
+import de.metas.handlingunits.HUTrees;
 import de.metas.handlingunits.model.I_M_HU;
 import de.metas.handlingunits.model.I_M_HU_Item;
 import de.metas.handlingunits.model.I_M_HU_Item_Storage;
@@ -55,6 +56,12 @@ public interface IHUStorageDAO
 	 */
 	void initHUItemStorages(I_M_HU_Item item);
 
+	/**
+	 * Puts the storages and item storages of given preloaded HU trees to this DAO's cache (if any).
+	 * HUs and items whose storages are already cached are not changed.
+	 */
+	void cacheHUTrees(HUTrees huTrees);
+
 	I_M_HU_Storage retrieveStorage(I_M_HU hu, ProductId productId);
 
 	void save(I_M_HU_Storage storage);
@@ -31,6 +31,7 @@ import org.adempiere.ad.dao.impl.EqualsQueryFilter;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.I_C_UOM;
 
+import de.metas.handlingunits.HUTrees;
 import de.metas.handlingunits.exceptions.HUException;
 import de.metas.handlingunits.model.I_M_HU;
 import de.metas.handlingunits.model.I_M_HU_Item;
@@ -66,6 +67,12 @@ public class HUStorageDAO extends AbstractHUStorageDAO
 		// nothing
 	}
 
+	@Override
+	public void cacheHUTrees(final HUTrees huTrees)
+	{
+		// nothing
+	}
+
 	@Override
 	public I_M_HU_Storage retrieveStorage(final I_M_HU hu, @NonNull final ProductId productId)
 	{
@@ -33,6 +33,7 @@ import org.adempiere.model.InterfaceWrapperHelper;
 import org.compiere.model.I_C_UOM;
 import org.compiere.util.Util;
 
+import de.metas.handlingunits.HUTrees;
 import de.metas.handlingunits.model.I_M_HU;
 import de.metas.handlingunits.model.I_M_HU_Item;
 import de.metas.handlingunits.model.I_M_HU_Item_Storage;
@@ -160,14 +161,7 @@ public class SaveDecoupledHUStorageDAO extends AbstractHUStorageDAO
 
 		if (retrieveIfNotFound)
 		{
-			final List<I_M_HU_Storage> huStoragesList = db.retrieveStorages(hu);
-			huStorages = new HashMap<>(huStoragesList.size());
-			for (final I_M_HU_Storage huStorage : huStoragesList)
-			{
-				final Object huStorageKey = mkHUStorageKey(huStorage);
-				huStorages.put(huStorageKey, huStorage);
-				setReadonly(huStorage);
-			}
+			huStorages = toHUStoragesMap(db.retrieveStorages(hu));
 		}
 		else
 		{
@@ -179,6 +173,18 @@ public class SaveDecoupledHUStorageDAO extends AbstractHUStorageDAO
 		return huStorages;
 	}
 
+	private final Map<Object, I_M_HU_Storage> toHUStoragesMap(final List<I_M_HU_Storage> huStoragesList)
+	{
+		final Map<Object, I_M_HU_Storage> huStorages = new HashMap<>(huStoragesList.size());
+		for (final I_M_HU_Storage huStorage : huStoragesList)
+		{
+			final Object huStorageKey = mkHUStorageKey(huStorage);
+			huStorages.put(huStorageKey, huStorage);
+			setReadonly(huStorage);
+		}
+		return huStorages;
+	}
+
 	@Override
 	public void save(final I_M_HU_Storage huStorage)
 	{
@@ -211,14 +217,7 @@ public class SaveDecoupledHUStorageDAO extends AbstractHUStorageDAO
 
 		if (retrieveIfNotFound)
 		{
-			final List<I_M_HU_Item_Storage> huItemStoragesList = db.retrieveItemStorages(item);
-			result = new HashMap<>(huItemStoragesList.size());
-			for (final I_M_HU_Item_Storage huItemStorage : huItemStoragesList)
-			{
-				final Object huItemStorageKey = mkHUItemStorageKey(huItemStorage);
-				result.put(huItemStorageKey, huItemStorage);
-				setReadonly(huItemStorage);
-			}
+			result = toHUItemStoragesMap(db.retrieveItemStorages(item));
 		}
 		else
 		{
@@ -230,6 +229,18 @@ public class SaveDecoupledHUStorageDAO extends AbstractHUStorageDAO
 		return result;
 	}
 
+	private final Map<Object, I_M_HU_Item_Storage> toHUItemStoragesMap(final List<I_M_HU_Item_Storage> huItemStoragesList)
+	{
+		final Map<Object, I_M_HU_Item_Storage> huItemStorages = new HashMap<>(huItemStoragesList.size());
+		for (final I_M_HU_Item_Storage huItemStorage : huItemStoragesList)
+		{
+			final Object huItemStorageKey = mkHUItemStorageKey(huItemStorage);
+			huItemStorages.put(huItemStorageKey, huItemStorage);
+			setReadonly(huItemStorage);
+		}
+		return huItemStorages;
+	}
+
 	@Override
 	public void save(final I_M_HU_Item_Storage huItemStorage)
 	{
@@ -280,6 +291,20 @@ public class SaveDecoupledHUStorageDAO extends AbstractHUStorageDAO
 		getHUItemStorages(item, retrieveIfNotFound);
 	}
 
+	@Override
+	public void cacheHUTrees(@NonNull final HUTrees huTrees)
+	{
+		for (final I_M_HU hu : huTrees.getHUs())
+		{
+			_hu2storage.computeIfAbsent(mkHUKey(hu), huKey -> toHUStoragesMap(huTrees.getStorages(hu)));
+		}
+
+		for (final I_M_HU_Item item : huTrees.getItems())
+		{
+			_item2itemStorage.computeIfAbsent(mkHUItemKey(item), itemKey -> toHUItemStoragesMap(huTrees.getItemStorages(item)));
+		}
+	}
+
 	/**
 	 * Save all storages to database
 	 */
@@ -31,6 +31,7 @@ import org.compiere.model.I_C_UOM;
 
 import com.google.common.base.Supplier;
 
+import de.metas.handlingunits.HUTrees;
 import de.metas.handlingunits.model.I_M_HU;
 import de.metas.handlingunits.model.I_M_HU_Item;
 import de.metas.handlingunits.model.I_M_HU_Item_Storage;
@@ -115,6 +116,18 @@ public class SaveOnCommitHUStorageDAO implements IHUStorageDAO
 		delegate.initHUItemStorages(item);
 	}
 
+	@Override
+	public void cacheHUTrees(@NonNull final HUTrees huTrees)
+	{
+		if (huTrees.getHUs().isEmpty())
+		{
+			return;
+		}
+
+		final SaveDecoupledHUStorageDAO delegate = getDelegate(huTrees.getHUs().get(0));
+		delegate.cacheHUTrees(huTrees);
+	}
+
 	@Override
 	public I_M_HU_Storage retrieveStorage(final I_M_HU hu, final ProductId productId)
 	{
@@ -0,0 +1,572 @@
+package de.metas.handlingunits.topology;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.spi.TrxOnCommitCollectorFactory;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+
+import de.metas.cache.CCache;
+import de.metas.cache.CCache.CacheMapType;
+import de.metas.event.Event;
+import de.metas.event.IEventBus;
+import de.metas.event.IEventBusFactory;
+import de.metas.event.IEventListener;
+import de.metas.event.Topic;
+import de.metas.event.Type;
+import de.metas.handlingunits.HUTrees;
+import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Item;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Singular;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Node wide cache of the committed HU topology, i.e. the items of an HU and the HUs included in an HU item.
+ * <p>
+ * Only the IDs are shared, because the models themselves are bound to the transaction which loaded them.
+ * On a hit, the whole cached subtree below the requested HU or item is loaded at once, with one query for the items and one for the included HUs,
+ * regardless of the subtree's depth (see {@link #retrieveSubtree(I_M_HU, Function)}).
+ * <p>
+ * The cache is kept in sync like this:
+ * <ul>
+ * <li>the HU and HU item interceptors collect the changed HU and HU item IDs of a transaction, see {@link #onTopologyChanged(TopologyChange)}
+ * <li>when the transaction is committed, the entries of the collected IDs are removed and the other cluster nodes are notified to do the same;
+ * the IDs of records which were created in that transaction are skipped, because nobody could have cached them
+ * <li>until then, the transaction which did the changes does not use the cache for the changed IDs, because only it can see those changes
+ * <li>each invalidation increments a version; an entry which was loaded while the version changed is not kept, because it might already be stale
+ * </ul>
+ * The cache is disabled by default, see {@link #SYSCONFIG_Enabled}.
+ */
+public final class HUTopologyCache
+{
+	public static HUTopologyCache get()
+	{
+		return instanceSupplier.get();
+	}
+
+	private static final Supplier<HUTopologyCache> instanceSupplier = Suppliers.memoize(HUTopologyCache::createInstance);
+
+	private static final Logger logger = LogManager.getLogger(HUTopologyCache.class);
+
+	public static final String SYSCONFIG_Enabled = "de.metas.handlingunits.topology.HUTopologyCache.Enabled";
+	private static final String SYSCONFIG_MaxSize = "de.metas.handlingunits.topology.HUTopologyCache.MaxSize";
+	private static final int DEFAULT_MaxSize = 50000;
+
+	private static final Topic TOPIC_TopologyChanged = Topic.builder()
+			.name("de.metas.handlingunits.topology.HUTopologyChanged")
+			.type(Type.REMOTE)
+			.build();
+	private static final String EVENT_PROPERTY_HUIds = "HUIds";
+	private static final String EVENT_PROPERTY_HUItemIds = "HUItemIds";
+
+	private final CCache<Integer, ImmutableList<Integer>> huItemIdsByHUId;
+	private final CCache<Integer, ImmutableList<Integer>> includedHUIdsByHUItemId;
+
+	private final AtomicLong version = new AtomicLong(0);
+	private final AtomicBoolean lastEnabled = new AtomicBoolean(false);
+
+	private final AtomicLong hitsCount = new AtomicLong(0);
+	private final AtomicLong missesCount = new AtomicLong(0);
+	private final AtomicLong loadNanos = new AtomicLong(0);
+
+	private final TopologyChangesCollector topologyChangesCollector = new TopologyChangesCollector();
+
+	private static HUTopologyCache createInstance()
+	{
+		final int maxSize = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MaxSize, DEFAULT_MaxSize);
+		final HUTopologyCache cache = new HUTopologyCache(maxSize);
+
+		Services.get(IEventBusFactory.class).registerGlobalEventListener(TOPIC_TopologyChanged, cache.new RemoteTopologyChangedListener());
+		JMXRegistry.get().registerJMX(new JMXHUTopologyCache(cache), OnJMXAlreadyExistsPolicy.Replace);
+
+		return cache;
+	}
+
+	@VisibleForTesting
+	HUTopologyCache(final int maxSize)
+	{
+		// NOTE: the cache names shall not start with a table name, because else each save of such a record would reset the whole cache
+		huItemIdsByHUId = CCache.<Integer, ImmutableList<Integer>> builder()
+				.cacheName("HUTopology.huItemIdsByHUId")
+				.initialCapacity(maxSize)
+				.cacheMapType(CacheMapType.LRU)
+				.build();
+		includedHUIdsByHUItemId = CCache.<Integer, ImmutableList<Integer>> builder()
+				.cacheName("HUTopology.includedHUIdsByHUItemId")
+				.initialCapacity(maxSize)
+				.cacheMapType(CacheMapType.LRU)
+				.build();
+	}
+
+	/**
+	 * @return true if the cache shall be used; when it's enabled (again), the entries cached before are discarded because they were not kept in sync meanwhile
+	 */
+	public boolean isEnabled()
+	{
+		final boolean enabled = Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_Enabled, false);
+		if (lastEnabled.getAndSet(enabled) != enabled && enabled)
+		{
+			reset();
+		}
+		return enabled;
+	}
+
+	/**
+	 * Looks up the cached topology of given HU's subtree and loads it.
+	 *
+	 * @param subtreeLoader loads the records of the given topology in the HU's transaction; returns <code>null</code> if they don't match the topology anymore
+	 * @return the HU's subtree or <code>null</code> if the HU's items are not cached
+	 */
+	@Nullable
+	public HUTrees retrieveSubtree(
+			@NonNull final I_M_HU hu,
+			@NonNull final Function<SubtreeTopology, HUTrees> subtreeLoader)
+	{
+		final int huId = hu.getM_HU_ID();
+		final SubtreeTopology topology = getSubtreeTopology(InterfaceWrapperHelper.getTrxName(hu), ImmutableList.of(huId), ImmutableList.of());
+		if (!topology.getItemIdsByHUId().containsKey(huId))
+		{
+			return null;
+		}
+		return loadSubtree(topology, subtreeLoader);
+	}
+
+	/**
+	 * Looks up the cached topology of given item's subtree and loads it.
+	 *
+	 * @param subtreeLoader loads the records of the given topology in the item's transaction; returns <code>null</code> if they don't match the topology anymore
+	 * @return the item's subtree or <code>null</code> if the item's included HUs are not cached
+	 */
+	@Nullable
+	public HUTrees retrieveSubtree(
+			@NonNull final I_M_HU_Item huItem,
+			@NonNull final Function<SubtreeTopology, HUTrees> subtreeLoader)
+	{
+		final int huItemId = huItem.getM_HU_Item_ID();
+		final SubtreeTopology topology = getSubtreeTopology(InterfaceWrapperHelper.getTrxName(huItem), ImmutableList.of(), ImmutableList.of(huItemId));
+		if (!topology.getIncludedHUIdsByItemId().containsKey(huItemId))
+		{
+			return null;
+		}
+		return loadSubtree(topology, subtreeLoader);
+	}
+
+	private HUTrees loadSubtree(final SubtreeTopology topology, final Function<SubtreeTopology, HUTrees> subtreeLoader)
+	{
+		final HUTrees subtree = subtreeLoader.apply(topology);
+		if (subtree == null)
+		{
+			// the records don't match the cached topology; discard it all, because we can't tell which entry is stale
+			logger.warn("Invalidating HU topology because it does not match the records anymore: {}", topology);
+			invalidate(topology.getItemIdsByHUId().keySet(), topology.getIncludedHUIdsByItemId().keySet());
+			return null;
+		}
+
+		hitsCount.incrementAndGet();
+		return subtree;
+	}
+
+	/**
+	 * @param loader loads the active items of given HU, in the expected order
+	 * @return the items of given HU, loaded in the HU's transaction; their IDs are cached for the next {@link #retrieveSubtree(I_M_HU, Function)}
+	 */
+	public List<I_M_HU_Item> loadItems(
+			@NonNull final I_M_HU hu,
+			@NonNull final Function<I_M_HU, List<I_M_HU_Item>> loader)
+	{
+		final List<I_M_HU_Item> items = load(
+				huItemIdsByHUId,
+				TopologyChanges::getHuIds,
+				hu.getM_HU_ID(),
+				InterfaceWrapperHelper.getTrxName(hu),
+				() -> loader.apply(hu));
+
+		for (final I_M_HU_Item item : items)
+		{
+			item.setM_HU(hu);
+		}
+		return items;
+	}
+
+	/**
+	 * @param loader loads the HUs included in given item, in the expected order
+	 * @return the HUs included in given item, loaded in the item's transaction; their IDs are cached for the next {@link #retrieveSubtree(I_M_HU_Item, Function)}
+	 */
+	public List<I_M_HU> loadIncludedHUs(
+			@NonNull final I_M_HU_Item huItem,
+			@NonNull final Function<I_M_HU_Item, List<I_M_HU>> loader)
+	{
+		final List<I_M_HU> includedHUs = load(
+				includedHUIdsByHUItemId,
+				TopologyChanges::getHuItemIds,
+				huItem.getM_HU_Item_ID(),
+				InterfaceWrapperHelper.getTrxName(huItem),
+				() -> loader.apply(huItem));
+
+		for (final I_M_HU includedHU : includedHUs)
+		{
+			includedHU.setM_HU_Item_Parent(huItem);
+		}
+		return includedHUs;
+	}
+
+	private <T> List<T> load(
+			final CCache<Integer, ImmutableList<Integer>> idsCache,
+			final Function<TopologyChanges, Set<Integer>> changedIdsExtractor,
+			final int id,
+			final String trxName,
+			final Supplier<List<T>> loader)
+	{
+		final TopologyChanges changes = getChangesInTrxOrNull(trxName);
+		if (id <= 0 || (changes != null && changedIdsExtractor.apply(changes).contains(id)))
+		{
+			return loader.get();
+		}
+
+		missesCount.incrementAndGet();
+
+		final long versionBeforeLoad = version.get();
+		final long loadStartNanos = System.nanoTime();
+		final List<T> models = loader.get();
+		loadNanos.addAndGet(System.nanoTime() - loadStartNanos);
+
+		idsCache.put(id, extractIds(models));
+		if (version.get() != versionBeforeLoad)
+		{
+			// something was invalidated while we were loading; we might have loaded stale data
+			idsCache.remove(id);
+		}
+
+		return models;
+	}
+
+	/**
+	 * Walks the cached topology, starting with the given HUs and items, as far as it's cached.
+	 * The HUs and items which were changed in the given transaction are not walked, because only that transaction can see their changes.
+	 */
+	private SubtreeTopology getSubtreeTopology(final String trxName, final Collection<Integer> rootHUIds, final Collection<Integer> rootItemIds)
+	{
+		final TopologyChanges changes = getChangesInTrxOrNull(trxName);
+
+		final Map<Integer, ImmutableList<Integer>> itemIdsByHUId = new LinkedHashMap<>();
+		final Map<Integer, ImmutableList<Integer>> includedHUIdsByItemId = new LinkedHashMap<>();
+
+		final Deque<Integer> huIdsToWalk = new ArrayDeque<>(rootHUIds);
+		final Deque<Integer> itemIdsToWalk = new ArrayDeque<>(rootItemIds);
+		while (!huIdsToWalk.isEmpty() || !itemIdsToWalk.isEmpty())
+		{
+			while (!huIdsToWalk.isEmpty())
+			{
+				final Integer huId = huIdsToWalk.poll();
+				if (huId <= 0 || itemIdsByHUId.containsKey(huId) || (changes != null && changes.getHuIds().contains(huId)))
+				{
+					continue;
+				}
+
+				final ImmutableList<Integer> itemIds = huItemIdsByHUId.get(huId);
+				if (itemIds != null)
+				{
+					itemIdsByHUId.put(huId, itemIds);
+					itemIdsToWalk.addAll(itemIds);
+				}
+			}
+
+			while (!itemIdsToWalk.isEmpty())
+			{
+				final Integer itemId = itemIdsToWalk.poll();
+				if (itemId <= 0 || includedHUIdsByItemId.containsKey(itemId) || (changes != null && changes.getHuItemIds().contains(itemId)))
+				{
+					continue;
+				}
+
+				final ImmutableList<Integer> includedHUIds = includedHUIdsByHUItemId.get(itemId);
+				if (includedHUIds != null)
+				{
+					includedHUIdsByItemId.put(itemId, includedHUIds);
+					huIdsToWalk.addAll(includedHUIds);
+				}
+			}
+		}
+
+		return SubtreeTopology.of(ImmutableMap.copyOf(itemIdsByHUId), ImmutableMap.copyOf(includedHUIdsByItemId));
+	}
+
+	private static ImmutableList<Integer> extractIds(final List<?> models)
+	{
+		return models.stream()
+				.map(InterfaceWrapperHelper::getId)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * @return the topology changes of given transaction which were not committed yet
+	 */
+	@Nullable
+	private TopologyChanges getChangesInTrxOrNull(final String trxName)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.getTrx(trxName);
+		if (!trxManager.isActive(trx))
+		{
+			return null;
+		}
+
+		return trx.getProperty(topologyChangesCollector.getTrxProperyName());
+	}
+
+	/**
+	 * Shall be called when an HU or HU item was created, changed or deleted in a way that affects the topology.
+	 * The entries will be invalidated when the change's transaction is committed.
+	 */
+	public void onTopologyChanged(@NonNull final TopologyChange change)
+	{
+		topologyChangesCollector.collect(change);
+	}
+
+	private void invalidateAndNotify(final TopologyChanges changes)
+	{
+		// the records which were created in the committed transaction can't be cached anywhere, so there is nothing to invalidate about them
+		final Set<Integer> huIds = Sets.difference(changes.getHuIds(), changes.getNewHuIds());
+		final Set<Integer> huItemIds = Sets.difference(changes.getHuItemIds(), changes.getNewHuItemIds());
+		if (huIds.isEmpty() && huItemIds.isEmpty())
+		{
+			return;
+		}
+
+		invalidate(huIds, huItemIds);
+
+		final Event event = Event.builder()
+				.putProperty(EVENT_PROPERTY_HUIds, Joiner.on(",").join(huIds))
+				.putProperty(EVENT_PROPERTY_HUItemIds, Joiner.on(",").join(huItemIds))
+				.build();
+		Services.get(IEventBusFactory.class)
+				.getEventBus(TOPIC_TopologyChanged)
+				.postEvent(event);
+	}
+
+	@VisibleForTesting
+	void invalidate(final Collection<Integer> huIds, final Collection<Integer> huItemIds)
+	{
+		// NOTE: increment the version first, so that a concurrent load which might have read the old data will not keep it
+		version.incrementAndGet();
+		huItemIdsByHUId.removeAll(huIds);
+		includedHUIdsByHUItemId.removeAll(huItemIds);
+	}
+
+	public long reset()
+	{
+		version.incrementAndGet();
+		return huItemIdsByHUId.reset() + includedHUIdsByHUItemId.reset();
+	}
+
+	public long size()
+	{
+		return huItemIdsByHUId.size() + includedHUIdsByHUItemId.size();
+	}
+
+	public long getHitsCount()
+	{
+		return hitsCount.get();
+	}
+
+	public long getMissesCount()
+	{
+		return missesCount.get();
+	}
+
+	public double getHitRatio()
+	{
+		final long hitsCount = getHitsCount();
+		final long requestsCount = hitsCount + getMissesCount();
+		return requestsCount > 0 ? (double)hitsCount / requestsCount : 0;
+	}
+
+	/**
+	 * @return average duration of loading the items or included HUs from database, in case of a cache miss
+	 */
+	public long getAverageLoadMicros()
+	{
+		final long missesCount = getMissesCount();
+		return missesCount > 0 ? TimeUnit.NANOSECONDS.toMicros(loadNanos.get()) / missesCount : 0;
+	}
+
+	public void resetStatistics()
+	{
+		hitsCount.set(0);
+		missesCount.set(0);
+		loadNanos.set(0);
+	}
+
+	/**
+	 * The IDs of a subtree's HUs and items whose children are cached.
+	 * An HU or item which is not a key of the respective map is not known to the cache, i.e. it does not mean that it has no children.
+	 */
+	@Value(staticConstructor = "of")
+	public static class SubtreeTopology
+	{
+		@NonNull
+		ImmutableMap<Integer, ImmutableList<Integer>> itemIdsByHUId;
+		@NonNull
+		ImmutableMap<Integer, ImmutableList<Integer>> includedHUIdsByItemId;
+	}
+
+	@Value
+	@Builder
+	public static class TopologyChange
+	{
+		String trxName;
+		/** HUs whose items changed */
+		@Singular
+		Set<Integer> huIds;
+		/** items whose included HUs changed */
+		@Singular
+		Set<Integer> huItemIds;
+		/** HUs which were created; their items are not loaded from the cache until the transaction is committed, but there is nothing to invalidate afterwards */
+		@Singular
+		Set<Integer> newHuIds;
+		/** items which were created; see {@link #newHuIds} */
+		@Singular
+		Set<Integer> newHuItemIds;
+	}
+
+	@Value
+	private static class TopologyChanges
+	{
+		Set<Integer> huIds = new LinkedHashSet<>();
+		Set<Integer> huItemIds = new LinkedHashSet<>();
+		Set<Integer> newHuIds = new LinkedHashSet<>();
+		Set<Integer> newHuItemIds = new LinkedHashSet<>();
+	}
+
+	/** Collects the topology changes of a transaction and invalidates them when the transaction was committed */
+	private final class TopologyChangesCollector extends TrxOnCommitCollectorFactory<TopologyChanges, TopologyChange>
+	{
+		private final String trxPropertyName = HUTopologyCache.class.getName() + "#" + System.identityHashCode(HUTopologyCache.this);
+
+		@Override
+		protected String getTrxProperyName()
+		{
+			return trxPropertyName;
+		}
+
+		@Override
+		protected String extractTrxNameFromItem(final TopologyChange item)
+		{
+			return item.getTrxName();
+		}
+
+		@Override
+		protected TopologyChanges newCollector(final TopologyChange firstItem)
+		{
+			return new TopologyChanges();
+		}
+
+		@Override
+		protected void collectItem(final TopologyChanges collector, final TopologyChange item)
+		{
+			collector.getHuIds().addAll(item.getHuIds());
+			collector.getHuItemIds().addAll(item.getHuItemIds());
+
+			// a new record is changed in its transaction, but only there
+			collector.getHuIds().addAll(item.getNewHuIds());
+			collector.getHuItemIds().addAll(item.getNewHuItemIds());
+			collector.getNewHuIds().addAll(item.getNewHuIds());
+			collector.getNewHuItemIds().addAll(item.getNewHuItemIds());
+		}
+
+		@Override
+		protected void processCollector(final TopologyChanges collector)
+		{
+			invalidateAndNotify(collector);
+		}
+	}
+
+	/** Invalidates the entries of the HU topology changes which were committed on other nodes */
+	private final class RemoteTopologyChangedListener implements IEventListener
+	{
+		@Override
+		public void onEvent(final IEventBus eventBus, final Event event)
+		{
+			// Ignore local events; we already invalidated when the transaction was committed
+			if (event.isLocalEvent())
+			{
+				return;
+			}
+
+			final List<Integer> huIds = parseIds(event.getPropertyAsString(EVENT_PROPERTY_HUIds));
+			final List<Integer> huItemIds = parseIds(event.getPropertyAsString(EVENT_PROPERTY_HUItemIds));
+			logger.debug("Invalidating HU topology for HUIds={}, HUItemIds={} because we got remote event: {}", huIds, huItemIds, event);
+			invalidate(huIds, huItemIds);
+		}
+
+		private List<Integer> parseIds(final String idsStr)
+		{
+			if (Check.isEmpty(idsStr, true))
+			{
+				return ImmutableList.of();
+			}
+
+			return Splitter.on(",")
+					.trimResults()
+					.omitEmptyStrings()
+					.splitToList(idsStr)
+					.stream()
+					.map(Integer::valueOf)
+					.collect(ImmutableList.toImmutableList());
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package de.metas.handlingunits.topology;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * JMX bean for {@link HUTopologyCache} (interface)
+ */
+public interface JMXHUTopologyCacheMBean
+{
+	long getSize();
+
+	long getHitsCount();
+
+	long getMissesCount();
+
+	/**
+	 * @return hits / (hits + misses)
+	 */
+	double getHitRatio();
+
+	/**
+	 * @return average duration of loading the items or included HUs from database, in case of a cache miss
+	 */
+	long getAverageLoadMicros();
+
+	void resetStatistics();
+
+	long resetAll();
+}
@@ -0,0 +1,116 @@
+package de.metas.handlingunits.topology.interceptor;
+
+import org.adempiere.ad.modelvalidator.annotations.Interceptor;
+import org.adempiere.ad.modelvalidator.annotations.ModelChange;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.ModelValidator;
+
+import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.topology.HUTopologyCache;
+import de.metas.handlingunits.topology.HUTopologyCache.TopologyChange;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tells the {@link HUTopologyCache} about HUs which were added to or removed from an HU item.
+ */
+@Interceptor(I_M_HU.class)
+public class M_HU
+{
+	public static final M_HU INSTANCE = new M_HU();
+
+	private M_HU()
+	{
+	}
+
+	/**
+	 * NOTE: a new HU is not known to the cache of any node, so only its transaction shall not use the cache for it.
+	 */
+	@ModelChange(timings = ModelValidator.TYPE_AFTER_NEW)
+	public void onNew(@NonNull final I_M_HU hu)
+	{
+		final HUTopologyCache topologyCache = HUTopologyCache.get();
+		if (!topologyCache.isEnabled())
+		{
+			return;
+		}
+
+		final TopologyChange.TopologyChangeBuilder change = TopologyChange.builder()
+				.trxName(InterfaceWrapperHelper.getTrxName(hu))
+				.newHuId(hu.getM_HU_ID());
+		if (hu.getM_HU_Item_Parent_ID() > 0)
+		{
+			change.huItemId(hu.getM_HU_Item_Parent_ID());
+		}
+
+		topologyCache.onTopologyChanged(change.build());
+	}
+
+	@ModelChange(timings = ModelValidator.TYPE_AFTER_DELETE)
+	public void onDelete(@NonNull final I_M_HU hu)
+	{
+		final HUTopologyCache topologyCache = HUTopologyCache.get();
+		if (!topologyCache.isEnabled())
+		{
+			return;
+		}
+
+		final TopologyChange.TopologyChangeBuilder change = TopologyChange.builder()
+				.trxName(InterfaceWrapperHelper.getTrxName(hu))
+				.huId(hu.getM_HU_ID());
+		if (hu.getM_HU_Item_Parent_ID() > 0)
+		{
+			change.huItemId(hu.getM_HU_Item_Parent_ID());
+		}
+
+		topologyCache.onTopologyChanged(change.build());
+	}
+
+	@ModelChange( //
+			timings = ModelValidator.TYPE_AFTER_CHANGE, //
+			ifColumnsChanged = I_M_HU.COLUMNNAME_M_HU_Item_Parent_ID)
+	public void onParentItemChanged(@NonNull final I_M_HU hu)
+	{
+		final HUTopologyCache topologyCache = HUTopologyCache.get();
+		if (!topologyCache.isEnabled())
+		{
+			return;
+		}
+
+		final I_M_HU huOld = InterfaceWrapperHelper.createOld(hu, I_M_HU.class);
+
+		final TopologyChange.TopologyChangeBuilder change = TopologyChange.builder()
+				.trxName(InterfaceWrapperHelper.getTrxName(hu));
+		if (huOld.getM_HU_Item_Parent_ID() > 0)
+		{
+			change.huItemId(huOld.getM_HU_Item_Parent_ID());
+		}
+		if (hu.getM_HU_Item_Parent_ID() > 0)
+		{
+			change.huItemId(hu.getM_HU_Item_Parent_ID());
+		}
+
+		topologyCache.onTopologyChanged(change.build());
+	}
+}
@@ -0,0 +1,104 @@
+package de.metas.handlingunits.topology.interceptor;
+
+import org.adempiere.ad.modelvalidator.annotations.Interceptor;
+import org.adempiere.ad.modelvalidator.annotations.ModelChange;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.ModelValidator;
+
+import de.metas.handlingunits.model.I_M_HU_Item;
+import de.metas.handlingunits.topology.HUTopologyCache;
+import de.metas.handlingunits.topology.HUTopologyCache.TopologyChange;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tells the {@link HUTopologyCache} about HU items which were added to or removed from an HU.
+ */
+@Interceptor(I_M_HU_Item.class)
+public class M_HU_Item
+{
+	public static final M_HU_Item INSTANCE = new M_HU_Item();
+
+	private M_HU_Item()
+	{
+	}
+
+	/**
+	 * NOTE: a new item is not known to the cache of any node, so only its transaction shall not use the cache for it.
+	 */
+	@ModelChange(timings = ModelValidator.TYPE_AFTER_NEW)
+	public void onNew(@NonNull final I_M_HU_Item huItem)
+	{
+		final HUTopologyCache topologyCache = HUTopologyCache.get();
+		if (!topologyCache.isEnabled())
+		{
+			return;
+		}
+
+		topologyCache.onTopologyChanged(TopologyChange.builder()
+				.trxName(InterfaceWrapperHelper.getTrxName(huItem))
+				.huId(huItem.getM_HU_ID())
+				.newHuItemId(huItem.getM_HU_Item_ID())
+				.build());
+	}
+
+	@ModelChange(timings = ModelValidator.TYPE_AFTER_DELETE)
+	public void onDelete(@NonNull final I_M_HU_Item huItem)
+	{
+		final HUTopologyCache topologyCache = HUTopologyCache.get();
+		if (!topologyCache.isEnabled())
+		{
+			return;
+		}
+
+		topologyCache.onTopologyChanged(TopologyChange.builder()
+				.trxName(InterfaceWrapperHelper.getTrxName(huItem))
+				.huId(huItem.getM_HU_ID())
+				.huItemId(huItem.getM_HU_Item_ID())
+				.build());
+	}
+
+	/**
+	 * NOTE: the item type is also checked because the items of an HU are ordered by it.
+	 */
+	@ModelChange( //
+			timings = ModelValidator.TYPE_AFTER_CHANGE, //
+			ifColumnsChanged = { I_M_HU_Item.COLUMNNAME_M_HU_ID, I_M_HU_Item.COLUMNNAME_IsActive, I_M_HU_Item.COLUMNNAME_ItemType })
+	public void onHUChanged(@NonNull final I_M_HU_Item huItem)
+	{
+		final HUTopologyCache topologyCache = HUTopologyCache.get();
+		if (!topologyCache.isEnabled())
+		{
+			return;
+		}
+
+		final I_M_HU_Item huItemOld = InterfaceWrapperHelper.createOld(huItem, I_M_HU_Item.class);
+
+		topologyCache.onTopologyChanged(TopologyChange.builder()
+				.trxName(InterfaceWrapperHelper.getTrxName(huItem))
+				.huId(huItemOld.getM_HU_ID())
+				.huId(huItem.getM_HU_ID())
+				.build());
+	}
+}
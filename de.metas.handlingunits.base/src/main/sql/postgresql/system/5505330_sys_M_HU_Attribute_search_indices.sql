@@ -0,0 +1,25 @@
+
+--
+-- Indices for searching HUs by attribute value (see HUQueryBuilder_Attributes and HUAttributeQueryFilterVO).
+-- Each attribute filter is rendered as "M_HU_ID IN (SELECT M_HU_ID FROM M_HU_Attribute WHERE IsActive='Y' AND M_Attribute_ID=? AND <ValueColumn> IN (...))",
+-- so there is one index per typed value column, which has the M_HU_ID as last column to allow index only scans.
+-- The two subqueries of the "missing or null" filter (all rows of the attribute; the rows whose value is null) are served by the same indices.
+--
+CREATE INDEX IF NOT EXISTS m_hu_attribute_search_value
+  ON public.m_hu_attribute
+  USING btree
+  (m_attribute_id, value, m_hu_id)
+  WHERE isactive = 'Y';
+
+CREATE INDEX IF NOT EXISTS m_hu_attribute_search_valuenumber
+  ON public.m_hu_attribute
+  USING btree
+  (m_attribute_id, valuenumber, m_hu_id)
+  WHERE isactive = 'Y';
+
+CREATE INDEX IF NOT EXISTS m_hu_attribute_search_valuedate
+  ON public.m_hu_attribute
+  USING btree
+  (m_attribute_id, valuedate, m_hu_id)
+  WHERE isactive = 'Y';
+
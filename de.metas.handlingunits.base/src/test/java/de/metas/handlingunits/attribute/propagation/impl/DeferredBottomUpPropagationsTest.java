@@ -0,0 +1,122 @@
+package de.metas.handlingunits.attribute.propagation.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_M_Attribute;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.handlingunits.attribute.propagation.impl.DeferredBottomUpPropagations.DeferredPropagation;
+import de.metas.handlingunits.attribute.storage.IAttributeStorage;
+import de.metas.handlingunits.attribute.strategy.impl.NullAggregationStrategy;
+import mockit.Expectations;
+import mockit.Injectable;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DeferredBottomUpPropagationsTest
+{
+	@Injectable
+	private IAttributeStorage storage1;
+	@Injectable
+	private IAttributeStorage storage2;
+	@Injectable
+	private IAttributeStorage storage3;
+
+	private I_M_Attribute attribute;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		attribute = newInstance(I_M_Attribute.class);
+		saveRecord(attribute);
+
+		// @formatter:off
+		new Expectations()
+		{{
+			storage1.getId(); result = "1"; minTimes = 0;
+			storage2.getId(); result = "2"; minTimes = 0;
+			storage3.getId(); result = "3"; minTimes = 0;
+		}};
+		// @formatter:on
+	}
+
+	@Test
+	public void executeAll_oncePerParentAndAttribute_inOrder()
+	{
+		final DeferredBottomUpPropagations propagations = new DeferredBottomUpPropagations();
+		final DeferredPropagation storage1First = createPropagation(storage1);
+		final DeferredPropagation storage1Second = createPropagation(storage1);
+		final DeferredPropagation storage2First = createPropagation(storage2);
+		propagations.add(storage1First);
+		propagations.add(storage2First);
+		propagations.add(storage1Second); // replaces storage1First but keeps its position
+
+		final List<DeferredPropagation> executed = new ArrayList<>();
+		propagations.executeAll(executed::add);
+
+		assertThat(executed).containsExactly(storage1Second, storage2First);
+	}
+
+	@Test
+	public void executeAll_propagationsAddedWhileExecuting()
+	{
+		final DeferredBottomUpPropagations propagations = new DeferredBottomUpPropagations();
+		propagations.add(createPropagation(storage1));
+		propagations.add(createPropagation(storage2));
+
+		final DeferredPropagation storage3Propagation = createPropagation(storage3);
+
+		final List<IAttributeStorage> executedParents = new ArrayList<>();
+		propagations.executeAll(propagation -> {
+			executedParents.add(propagation.getParentAttributeStorage());
+			if (propagation.getParentAttributeStorage() == storage1)
+			{
+				propagations.add(storage3Propagation); // i.e. storage3 is the parent of storage1 and storage2
+			}
+		});
+
+		assertThat(executedParents).containsExactly(storage1, storage2, storage3);
+	}
+
+	private DeferredPropagation createPropagation(final IAttributeStorage parentAttributeStorage)
+	{
+		final BottomUpHUAttributePropagator propagator = new BottomUpHUAttributePropagator();
+		return DeferredPropagation.builder()
+				.bottomUpPropagator(propagator)
+				.parentAttributeStorage(parentAttributeStorage)
+				.attribute(attribute)
+				.aggregationStrategy(NullAggregationStrategy.instance)
+				.parentPropagator(propagator)
+				.parentPropagationContext(new HUAttributePropagationContext(parentAttributeStorage, propagator, attribute))
+				.build();
+	}
+}
@@ -0,0 +1,84 @@
+package de.metas.handlingunits.attribute.propagation.impl;
+
+import java.math.BigDecimal;
+
+import org.adempiere.service.ISysConfigBL;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+
+import de.metas.handlingunits.attributes.impl.AbstractWeightAttributeTest;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+
+/**
+ * Compares the time needed to create a wide LU (88 TUs) and to propagate its weights, with and without {@link DeferredBottomUpPropagations}.
+ * <p>
+ * Run it manually; the results are printed to console.
+ */
+@Ignore
+// benchmark; run manually
+public class DeferredBottomUpPropagations_Benchmark extends AbstractWeightAttributeTest
+{
+	private static final BigDecimal CU_QTY_880 = BigDecimal.valueOf(880); // 88 x IFCO, which is the maximum per LU
+	private static final BigDecimal INPUT_GROSS_1000 = BigDecimal.valueOf(1000);
+
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int ROUNDS = 10;
+
+	@Test
+	public void wideLU()
+	{
+		for (int i = 0; i < WARMUP_ROUNDS; i++)
+		{
+			createWideLU(false);
+			createWideLU(true);
+		}
+
+		final Stopwatch stopwatchImmediate = Stopwatch.createUnstarted();
+		final Stopwatch stopwatchDeferred = Stopwatch.createUnstarted();
+		for (int i = 0; i < ROUNDS; i++)
+		{
+			stopwatchImmediate.start();
+			createWideLU(false);
+			stopwatchImmediate.stop();
+
+			stopwatchDeferred.start();
+			createWideLU(true);
+			stopwatchDeferred.stop();
+		}
+
+		System.out.println("Created " + ROUNDS + " LUs with 88 TUs each:");
+		System.out.println("immediate bottom-up propagations: " + stopwatchImmediate);
+		System.out.println("deferred bottom-up propagations: " + stopwatchDeferred);
+	}
+
+	private void createWideLU(final boolean deferredBottomUpPropagations)
+	{
+		Services.get(ISysConfigBL.class).setValue(DeferredBottomUpPropagations.SYSCONFIG_Enabled, deferredBottomUpPropagations, 0);
+		createIncomingLoadingUnit(huItemIFCO_10, materialItemProductTomato_10, CU_QTY_880, INPUT_GROSS_1000);
+	}
+}
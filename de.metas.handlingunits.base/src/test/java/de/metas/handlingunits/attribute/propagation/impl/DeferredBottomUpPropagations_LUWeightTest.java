@@ -0,0 +1,97 @@
+package de.metas.handlingunits.attribute.propagation.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.model.I_M_Attribute;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.handlingunits.IHandlingUnitsDAO;
+import de.metas.handlingunits.attribute.storage.IAttributeStorage;
+import de.metas.handlingunits.attributes.impl.AbstractWeightAttributeTest;
+import de.metas.handlingunits.model.I_M_HU;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Sets the gross weight on an LU with several TUs, which is propagated top-down to the TUs and whose net weights are propagated back bottom-up to the LU,
+ * and verifies that the weights are the same no matter if the bottom-up propagations are {@link DeferredBottomUpPropagations deferred} or not.
+ */
+public class DeferredBottomUpPropagations_LUWeightTest extends AbstractWeightAttributeTest
+{
+	private static final BigDecimal INPUT_GROSS_100 = BigDecimal.valueOf(100);
+
+	@Test
+	public void sameWeightsAsImmediatePropagation()
+	{
+		setDeferredBottomUpPropagationsEnabled(false);
+		final I_M_HU luImmediate = createIncomingLoadingUnit(huItemIFCO_10, materialItemProductTomato_10, CU_QTY_85, INPUT_GROSS_100); // 85 x Tomato
+		final List<BigDecimal> weightsImmediate = retrieveLUAndTUWeights(luImmediate);
+
+		setDeferredBottomUpPropagationsEnabled(true);
+		final I_M_HU luDeferred = createIncomingLoadingUnit(huItemIFCO_10, materialItemProductTomato_10, CU_QTY_85, INPUT_GROSS_100); // 85 x Tomato
+		assertLoadingUnitStorageWeights(luDeferred, huItemIFCO_10, 9,
+				newHUWeightsExpectation("100", "66", "34", "0"),
+				newHUWeightsExpectation("4.882", "3.882", "1", "0"),
+				newHUWeightsExpectation("70.118", "62.118", "8", "0"));
+
+		assertThat(retrieveLUAndTUWeights(luDeferred))
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactlyElementsOf(weightsImmediate);
+	}
+
+	private void setDeferredBottomUpPropagationsEnabled(final boolean enabled)
+	{
+		Services.get(ISysConfigBL.class).setValue(DeferredBottomUpPropagations.SYSCONFIG_Enabled, enabled, 0);
+	}
+
+	/**
+	 * @return gross, net, tare and tare adjust weights of the LU, followed by the ones of each of its TUs
+	 */
+	private List<BigDecimal> retrieveLUAndTUWeights(final I_M_HU lu)
+	{
+		final List<I_M_HU> hus = new ArrayList<>();
+		hus.add(lu);
+		hus.addAll(Services.get(IHandlingUnitsDAO.class).retrieveIncludedHUs(lu));
+		assertThat(hus).hasSize(10);
+
+		final List<I_M_Attribute> weightAttributes = ImmutableList.of(attr_WeightGross, attr_WeightNet, attr_WeightTare, attr_WeightTareAdjust);
+		final List<BigDecimal> weights = new ArrayList<>();
+		for (final I_M_HU hu : hus)
+		{
+			final IAttributeStorage attributeStorage = attributeStorageFactory.getAttributeStorage(hu);
+			for (final I_M_Attribute weightAttribute : weightAttributes)
+			{
+				weights.add(attributeStorage.getValueAsBigDecimal(weightAttribute));
+			}
+		}
+		return weights;
+	}
+}
@@ -36,6 +36,8 @@ import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.util.text.ExtendedReflectionToStringBuilder;
 import org.adempiere.util.text.RecursiveIndentedMultilineToStringStyle;
 import org.adempiere.warehouse.WarehouseId;
+import org.compiere.model.I_M_Attribute;
+import org.compiere.model.X_M_Attribute;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -44,6 +46,7 @@ import com.google.common.collect.ImmutableList;
 
 import de.metas.adempiere.model.I_M_Product;
 import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Attribute;
 import de.metas.handlingunits.model.I_M_HU_Reservation;
 import de.metas.handlingunits.model.I_M_HU_Storage;
 import de.metas.handlingunits.model.I_M_Locator;
@@ -194,6 +197,42 @@ public class HUQueryBuilderTest
 		assertThat(huFilters.accept(hus.get(4))).isTrue();
 	}
 
+	@Test
+	public void createQueryFilter_attribute_notNull_and_missingOrNull()
+	{
+		final I_M_Attribute lotAttribute = newInstance(I_M_Attribute.class);
+		lotAttribute.setValue("Lot");
+		lotAttribute.setAttributeValueType(X_M_Attribute.ATTRIBUTEVALUETYPE_StringMax40);
+		save(lotAttribute);
+
+		createHUAttributeRecord(hus.get(0), lotAttribute, "lot1");
+		createHUAttributeRecord(hus.get(1), lotAttribute, null);
+		// the other HUs have no lot attribute
+
+		final IQueryFilter<I_M_HU> notNullFilter = huQueryBuilder.copy()
+				.addOnlyWithAttributeNotNull("Lot")
+				.createQueryFilter();
+		assertThat(notNullFilter.accept(hus.get(0))).isTrue();
+		assertThat(notNullFilter.accept(hus.get(1))).isFalse();
+		assertThat(notNullFilter.accept(hus.get(2))).isFalse();
+
+		final IQueryFilter<I_M_HU> missingOrNullFilter = huQueryBuilder.copy()
+				.addOnlyWithAttributeMissingOrNull("Lot")
+				.createQueryFilter();
+		assertThat(missingOrNullFilter.accept(hus.get(0))).isFalse();
+		assertThat(missingOrNullFilter.accept(hus.get(1))).isTrue();
+		assertThat(missingOrNullFilter.accept(hus.get(2))).isTrue();
+	}
+
+	private void createHUAttributeRecord(final I_M_HU hu, final I_M_Attribute attribute, final String value)
+	{
+		final I_M_HU_Attribute huAttributeRecord = newInstance(I_M_HU_Attribute.class);
+		huAttributeRecord.setM_HU(hu);
+		huAttributeRecord.setM_Attribute_ID(attribute.getM_Attribute_ID());
+		huAttributeRecord.setValue(value);
+		saveRecord(huAttributeRecord);
+	}
+
 	private void createReservationRecord(final OrderLineId orderLineId, final I_M_HU hu)
 	{
 		hu.setIsReserved(true);
@@ -0,0 +1,206 @@
+package de.metas.handlingunits.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.getId;
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.save;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.handlingunits.HUTrees;
+import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Attribute;
+import de.metas.handlingunits.model.I_M_HU_Item;
+import de.metas.handlingunits.model.I_M_HU_Item_Storage;
+import de.metas.handlingunits.model.I_M_HU_Storage;
+import de.metas.handlingunits.model.X_M_HU_Item;
+import de.metas.handlingunits.topology.HUTopologyCache.SubtreeTopology;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class HUTreesLoaderTest
+{
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@Test
+	public void load_empty()
+	{
+		final HUTrees huTrees = HUTreesLoader.load(ImmutableList.of());
+
+		assertThat(huTrees.getHUs()).isEmpty();
+		assertThat(huTrees.getItems()).isEmpty();
+	}
+
+	@Test
+	public void load_LU_TU_CU()
+	{
+		final I_M_HU lu = createHU(null);
+		final I_M_HU_Item luPackingItem = createItem(lu, X_M_HU_Item.ITEMTYPE_PackingMaterial);
+		final I_M_HU_Item luItem = createItem(lu, X_M_HU_Item.ITEMTYPE_HandlingUnit);
+
+		final I_M_HU tu1 = createHU(luItem);
+		final I_M_HU_Item tu1Item = createItem(tu1, X_M_HU_Item.ITEMTYPE_HandlingUnit);
+		final I_M_HU tu2 = createHU(luItem);
+
+		final I_M_HU cu = createHU(tu1Item);
+		final I_M_HU_Item cuItem = createItem(cu, X_M_HU_Item.ITEMTYPE_Material);
+		final I_M_HU_Storage cuStorage = createStorage(cu);
+		final I_M_HU_Item_Storage cuItemStorage = createItemStorage(cuItem);
+		final I_M_HU_Attribute cuAttribute = createAttribute(cu);
+
+		final HUTrees huTrees = HUTreesLoader.load(ImmutableList.of(lu));
+
+		assertThat(huTrees.getHUs()).extracting(I_M_HU::getM_HU_ID).containsExactly(id(lu), id(tu1), id(tu2), id(cu));
+
+		// items are ordered like HandlingUnitsDAO.retrieveItems() would do it
+		assertThat(huTrees.getItems(lu)).extracting(I_M_HU_Item::getM_HU_Item_ID).containsExactly(id(luItem), id(luPackingItem));
+		assertThat(huTrees.getItems(tu2)).isEmpty();
+		assertThat(huTrees.getIncludedHUs(luItem)).extracting(I_M_HU::getM_HU_ID).containsExactly(id(tu1), id(tu2));
+		assertThat(huTrees.getIncludedHUs(tu1Item)).extracting(I_M_HU::getM_HU_ID).containsExactly(id(cu));
+
+		// loaded records are linked to the loaded parents
+		final I_M_HU loadedCU = huTrees.getHUs().get(3);
+		assertThat(loadedCU.getM_HU_Item_Parent()).isSameAs(huTrees.getItems(tu1).get(0));
+		assertThat(huTrees.getItems(cu).get(0).getM_HU()).isSameAs(loadedCU);
+
+		assertThat(huTrees.getStorages(cu)).extracting(I_M_HU_Storage::getM_HU_Storage_ID).containsExactly(id(cuStorage));
+		assertThat(huTrees.getStorages(lu)).isEmpty();
+		assertThat(huTrees.getItemStorages(cuItem)).extracting(I_M_HU_Item_Storage::getM_HU_Item_Storage_ID).containsExactly(id(cuItemStorage));
+		assertThat(huTrees.getAttributes(cu)).extracting(I_M_HU_Attribute::getM_HU_Attribute_ID).containsExactly(id(cuAttribute));
+		assertThat(huTrees.getAttributes(tu1)).isEmpty();
+	}
+
+	@Test
+	public void loadSubtree_LU_TU_CU()
+	{
+		final I_M_HU lu = createHU(null);
+		final I_M_HU_Item luItem = createItem(lu, X_M_HU_Item.ITEMTYPE_HandlingUnit);
+		final I_M_HU tu = createHU(luItem);
+		final I_M_HU_Item tuItem = createItem(tu, X_M_HU_Item.ITEMTYPE_HandlingUnit);
+		final I_M_HU cu = createHU(tuItem);
+
+		// the CU's items are not known
+		final SubtreeTopology topology = SubtreeTopology.of(
+				ImmutableMap.of(id(lu), ImmutableList.of(id(luItem)), id(tu), ImmutableList.of(id(tuItem))),
+				ImmutableMap.of(id(luItem), ImmutableList.of(id(tu)), id(tuItem), ImmutableList.of(id(cu))));
+
+		final HUTrees subtree = HUTreesLoader.loadSubtree(lu, topology);
+
+		assertThat(subtree).isNotNull();
+		assertThat(subtree.getHUs()).extracting(I_M_HU::getM_HU_ID).containsExactly(id(lu), id(tu));
+		assertThat(subtree.getHUs().get(0)).isSameAs(lu);
+		assertThat(subtree.getItems()).extracting(I_M_HU_Item::getM_HU_Item_ID).containsExactly(id(luItem), id(tuItem));
+		assertThat(subtree.getIncludedHUs(tuItem)).extracting(I_M_HU::getM_HU_ID).containsExactly(id(cu));
+
+		// loaded records are linked to the loaded parents
+		final I_M_HU loadedTU = subtree.getIncludedHUs(luItem).get(0);
+		assertThat(loadedTU).isSameAs(subtree.getHUs().get(1));
+		assertThat(subtree.getItems(lu).get(0).getM_HU()).isSameAs(lu);
+		assertThat(loadedTU.getM_HU_Item_Parent()).isSameAs(subtree.getItems(lu).get(0));
+		assertThat(subtree.getIncludedHUs(tuItem).get(0).getM_HU_Item_Parent()).isSameAs(subtree.getItems(loadedTU).get(0));
+	}
+
+	@Test
+	public void loadSubtree_includedHUWasMoved_null()
+	{
+		final I_M_HU lu = createHU(null);
+		final I_M_HU_Item luItem = createItem(lu, X_M_HU_Item.ITEMTYPE_HandlingUnit);
+		final I_M_HU tu = createHU(null);
+
+		final SubtreeTopology topology = SubtreeTopology.of(
+				ImmutableMap.of(id(lu), ImmutableList.of(id(luItem))),
+				ImmutableMap.of(id(luItem), ImmutableList.of(id(tu))));
+
+		assertThat(HUTreesLoader.loadSubtree(lu, topology)).isNull();
+	}
+
+	@Test
+	public void loadSubtree_itemWasDeactivated_null()
+	{
+		final I_M_HU lu = createHU(null);
+		final I_M_HU_Item luItem = createItem(lu, X_M_HU_Item.ITEMTYPE_HandlingUnit);
+		luItem.setIsActive(false);
+		save(luItem);
+
+		final SubtreeTopology topology = SubtreeTopology.of(
+				ImmutableMap.of(id(lu), ImmutableList.of(id(luItem))),
+				ImmutableMap.of());
+
+		assertThat(HUTreesLoader.loadSubtree(lu, topology)).isNull();
+	}
+
+	private static int id(final Object model)
+	{
+		return getId(model);
+	}
+
+	private static I_M_HU createHU(final I_M_HU_Item parentItem)
+	{
+		final I_M_HU hu = newInstance(I_M_HU.class);
+		hu.setM_HU_Item_Parent(parentItem);
+		save(hu);
+		return hu;
+	}
+
+	private static I_M_HU_Item createItem(final I_M_HU hu, final String itemType)
+	{
+		final I_M_HU_Item item = newInstance(I_M_HU_Item.class);
+		item.setM_HU(hu);
+		item.setItemType(itemType);
+		save(item);
+		return item;
+	}
+
+	private static I_M_HU_Storage createStorage(final I_M_HU hu)
+	{
+		final I_M_HU_Storage storage = newInstance(I_M_HU_Storage.class);
+		storage.setM_HU(hu);
+		save(storage);
+		return storage;
+	}
+
+	private static I_M_HU_Item_Storage createItemStorage(final I_M_HU_Item item)
+	{
+		final I_M_HU_Item_Storage itemStorage = newInstance(I_M_HU_Item_Storage.class);
+		itemStorage.setM_HU_Item(item);
+		save(itemStorage);
+		return itemStorage;
+	}
+
+	private static I_M_HU_Attribute createAttribute(final I_M_HU hu)
+	{
+		final I_M_HU_Attribute huAttribute = newInstance(I_M_HU_Attribute.class);
+		huAttribute.setM_HU(hu);
+		save(huAttribute);
+		return huAttribute;
+	}
+}
@@ -0,0 +1,248 @@
+package de.metas.handlingunits.topology;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.save;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.handlingunits.HUTrees;
+import de.metas.handlingunits.model.I_M_HU;
+import de.metas.handlingunits.model.I_M_HU_Item;
+import de.metas.handlingunits.topology.HUTopologyCache.SubtreeTopology;
+import de.metas.handlingunits.topology.HUTopologyCache.TopologyChange;
+
+/*
+ * #%L
+ * de.metas.handlingunits.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class HUTopologyCacheTest
+{
+	private HUTopologyCache cache;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		cache = new HUTopologyCache(100);
+	}
+
+	private static I_M_HU createHU(final I_M_HU_Item parentItem)
+	{
+		final I_M_HU hu = newInstance(I_M_HU.class);
+		hu.setM_HU_Item_Parent(parentItem);
+		save(hu);
+		return hu;
+	}
+
+	private static I_M_HU_Item createHUItem(final I_M_HU hu)
+	{
+		final I_M_HU_Item huItem = newInstance(I_M_HU_Item.class);
+		huItem.setM_HU_ID(hu.getM_HU_ID());
+		save(huItem);
+		return huItem;
+	}
+
+	private static final class CountingLoader<P, T> implements Function<P, List<T>>
+	{
+		private final Function<P, List<T>> delegate;
+		private final AtomicInteger loadsCount = new AtomicInteger(0);
+
+		private CountingLoader(final Function<P, List<T>> delegate)
+		{
+			this.delegate = delegate;
+		}
+
+		@Override
+		public List<T> apply(final P parent)
+		{
+			loadsCount.incrementAndGet();
+			return delegate.apply(parent);
+		}
+	}
+
+	/** Remembers the topology it was called with, instead of loading it */
+	private static final class RecordingSubtreeLoader implements Function<SubtreeTopology, HUTrees>
+	{
+		private final AtomicReference<SubtreeTopology> topology = new AtomicReference<>();
+		private final HUTrees subtree;
+
+		private RecordingSubtreeLoader(final boolean matchesTopology)
+		{
+			this.subtree = !matchesTopology ? null : HUTrees.builder()
+					.hus(ImmutableList.of())
+					.items(ImmutableList.of())
+					.itemsByHUId(ImmutableListMultimap.of())
+					.includedHUsByItemId(ImmutableListMultimap.of())
+					.build();
+		}
+
+		@Override
+		public HUTrees apply(final SubtreeTopology topology)
+		{
+			this.topology.set(topology);
+			return subtree;
+		}
+	}
+
+	@Test
+	public void loadItems_subtreeIsCached()
+	{
+		final I_M_HU hu = createHU(null);
+		final I_M_HU_Item huItem1 = createHUItem(hu);
+		final I_M_HU_Item huItem2 = createHUItem(hu);
+		final CountingLoader<I_M_HU, I_M_HU_Item> loader = new CountingLoader<>(parent -> ImmutableList.of(huItem2, huItem1));
+
+		final List<I_M_HU_Item> items = cache.loadItems(hu, loader);
+		assertThat(items).allSatisfy(item -> assertThat(item.getM_HU()).isSameAs(hu));
+
+		final RecordingSubtreeLoader subtreeLoader = new RecordingSubtreeLoader(true);
+		assertThat(cache.retrieveSubtree(hu, subtreeLoader)).isNotNull();
+
+		assertThat(loader.loadsCount.get()).isEqualTo(1);
+		assertThat(subtreeLoader.topology.get().getItemIdsByHUId())
+				.containsOnlyKeys(hu.getM_HU_ID())
+				.containsEntry(hu.getM_HU_ID(), ImmutableList.of(huItem2.getM_HU_Item_ID(), huItem1.getM_HU_Item_ID())); // same order as loaded
+		assertThat(cache.getMissesCount()).isEqualTo(1);
+		assertThat(cache.getHitsCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void retrieveSubtree_wholeCachedSubtreeAtOnce()
+	{
+		final I_M_HU lu = createHU(null);
+		final I_M_HU_Item luItem = createHUItem(lu);
+		final I_M_HU tu = createHU(luItem);
+		final I_M_HU_Item tuItem = createHUItem(tu);
+		final I_M_HU cu = createHU(tuItem);
+
+		cache.loadItems(lu, parent -> ImmutableList.of(luItem));
+		cache.loadIncludedHUs(luItem, parent -> ImmutableList.of(tu));
+		cache.loadItems(tu, parent -> ImmutableList.of(tuItem));
+		cache.loadIncludedHUs(tuItem, parent -> ImmutableList.of(cu));
+
+		final RecordingSubtreeLoader subtreeLoader = new RecordingSubtreeLoader(true);
+		assertThat(cache.retrieveSubtree(lu, subtreeLoader)).isNotNull();
+
+		final SubtreeTopology topology = subtreeLoader.topology.get();
+		assertThat(topology.getItemIdsByHUId()).isEqualTo(ImmutableMap.of(
+				lu.getM_HU_ID(), ImmutableList.of(luItem.getM_HU_Item_ID()),
+				tu.getM_HU_ID(), ImmutableList.of(tuItem.getM_HU_Item_ID())));
+		assertThat(topology.getIncludedHUIdsByItemId()).isEqualTo(ImmutableMap.of(
+				luItem.getM_HU_Item_ID(), ImmutableList.of(tu.getM_HU_ID()),
+				tuItem.getM_HU_Item_ID(), ImmutableList.of(cu.getM_HU_ID())));
+	}
+
+	@Test
+	public void retrieveSubtree_leafItem()
+	{
+		final I_M_HU_Item huItem = createHUItem(createHU(null));
+		cache.loadIncludedHUs(huItem, parent -> ImmutableList.of());
+
+		final RecordingSubtreeLoader subtreeLoader = new RecordingSubtreeLoader(true);
+		assertThat(cache.retrieveSubtree(huItem, subtreeLoader)).isNotNull();
+
+		assertThat(subtreeLoader.topology.get().getItemIdsByHUId()).isEmpty();
+		assertThat(subtreeLoader.topology.get().getIncludedHUIdsByItemId()).isEqualTo(ImmutableMap.of(huItem.getM_HU_Item_ID(), ImmutableList.of()));
+	}
+
+	@Test
+	public void retrieveSubtree_notCached()
+	{
+		final I_M_HU hu = createHU(null);
+
+		final RecordingSubtreeLoader subtreeLoader = new RecordingSubtreeLoader(true);
+		assertThat(cache.retrieveSubtree(hu, subtreeLoader)).isNull();
+
+		assertThat(subtreeLoader.topology.get()).isNull();
+		assertThat(cache.getHitsCount()).isZero();
+	}
+
+	@Test
+	public void retrieveSubtree_recordsDontMatch_topologyIsInvalidated()
+	{
+		final I_M_HU hu = createHU(null);
+		final I_M_HU_Item huItem = createHUItem(hu);
+		cache.loadItems(hu, parent -> ImmutableList.of(huItem));
+		cache.loadIncludedHUs(huItem, parent -> ImmutableList.of());
+
+		assertThat(cache.retrieveSubtree(hu, new RecordingSubtreeLoader(false))).isNull();
+
+		assertThat(cache.size()).isZero();
+		assertThat(cache.getHitsCount()).isZero();
+	}
+
+	@Test
+	public void invalidate()
+	{
+		final I_M_HU hu = createHU(null);
+		final I_M_HU_Item huItem1 = createHUItem(hu);
+		cache.loadItems(hu, parent -> ImmutableList.of(huItem1));
+
+		cache.invalidate(ImmutableList.of(hu.getM_HU_ID()), ImmutableList.of());
+
+		assertThat(cache.retrieveSubtree(hu, new RecordingSubtreeLoader(true))).isNull();
+	}
+
+	@Test
+	public void invalidatedWhileLoading_loadedIdsAreNotCached()
+	{
+		final I_M_HU hu = createHU(null);
+		final I_M_HU_Item huItem1 = createHUItem(hu);
+		final CountingLoader<I_M_HU, I_M_HU_Item> loader = new CountingLoader<>(parent -> {
+			cache.invalidate(ImmutableList.of(), ImmutableList.of(huItem1.getM_HU_Item_ID())); // e.g. concurrent commit
+			return ImmutableList.of(huItem1);
+		});
+
+		cache.loadItems(hu, loader);
+
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	public void newRecordsCommitted_nothingInvalidated()
+	{
+		final I_M_HU hu = createHU(null);
+		final I_M_HU_Item huItem = createHUItem(hu);
+		cache.loadItems(hu, parent -> ImmutableList.of(huItem));
+		cache.loadIncludedHUs(huItem, parent -> ImmutableList.of());
+
+		// not in a transaction, i.e. as if committed right away
+		cache.onTopologyChanged(TopologyChange.builder()
+				.newHuId(hu.getM_HU_ID())
+				.newHuItemId(huItem.getM_HU_Item_ID())
+				.build());
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.retrieveSubtree(hu, new RecordingSubtreeLoader(true))).isNotNull();
+	}
+}
@@ -0,0 +1,71 @@
+package de.metas.material.dispo.commons.interceptor;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.adempiere.ad.modelvalidator.annotations.Interceptor;
+import org.adempiere.ad.modelvalidator.annotations.ModelChange;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.ModelValidator;
+import org.springframework.stereotype.Component;
+
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseRepository;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Tells the {@link AvailableToPromiseRepository} about changed candidates, so that it can invalidate the cached ATP records of their products.
+ * <p>
+ * NOTE: this is registered on every node which is running the material dispo code, also if that node did not use the ATP cache yet, because the other nodes might.
+ */
+@Interceptor(I_MD_Candidate.class)
+@Component("de.metas.material.dispo.commons.interceptor.MD_Candidate")
+public class MD_Candidate
+{
+	private final AvailableToPromiseRepository availableToPromiseRepository;
+
+	public MD_Candidate(@NonNull final AvailableToPromiseRepository availableToPromiseRepository)
+	{
+		this.availableToPromiseRepository = availableToPromiseRepository;
+	}
+
+	@ModelChange(timings = { ModelValidator.TYPE_AFTER_NEW, ModelValidator.TYPE_AFTER_CHANGE, ModelValidator.TYPE_AFTER_DELETE })
+	public void invalidateAvailableToPromiseCache(@NonNull final I_MD_Candidate candidate)
+	{
+		final Set<Integer> productIds = new LinkedHashSet<>();
+		if (candidate.getM_Product_ID() > 0)
+		{
+			productIds.add(candidate.getM_Product_ID());
+		}
+
+		final I_MD_Candidate candidateOld = InterfaceWrapperHelper.createOld(candidate, I_MD_Candidate.class);
+		if (candidateOld.getM_Product_ID() > 0)
+		{
+			productIds.add(candidateOld.getM_Product_ID());
+		}
+
+		availableToPromiseRepository.onCandidateChanged(InterfaceWrapperHelper.getTrxName(candidate), productIds);
+	}
+}
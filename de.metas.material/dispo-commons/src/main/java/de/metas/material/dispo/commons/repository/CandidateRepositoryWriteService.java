@@ -9,11 +9,15 @@ import static org.adempiere.model.InterfaceWrapperHelper.save;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.sql.Timestamp;
+import java.util.Date;
 import java.util.Objects;
 
 import javax.annotation.Nullable;
 
+import org.adempiere.ad.dao.ICompositeQueryFilter;
+import org.adempiere.ad.dao.ICompositeQueryUpdaterExecutor;
 import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
 import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -106,6 +110,51 @@ public class CandidateRepositoryWriteService
 		return addOrUpdate(query, candidate, false);
 	}
 
+	/**
+	 * Adds the given {@code qtyDelta} to the qty of all candidates which are matched by the given {@code query}
+	 * and which are after the given {@code date} and {@code seqNo}, i.e. which have a later date, or the same date and a bigger seqNo.
+	 * <p>
+	 * The candidates are updated with one SQL statement, so the cost does not depend on how many candidates are matched.
+	 * Note that only the {@code I_MD_Candidate} records are updated, not their details.
+	 *
+	 * @param groupId if > 0, then the matched candidates' groupId is also set to this value
+	 * @return how many candidates were updated
+	 */
+	public int addQtyDeltaToCandidatesAfter(
+			@NonNull final CandidatesQuery query,
+			@NonNull final Date date,
+			final int seqNo,
+			@NonNull final BigDecimal qtyDelta,
+			final int groupId)
+	{
+		final IQueryBL queryBL = Services.get(IQueryBL.class);
+		final Timestamp timestamp = new Timestamp(date.getTime());
+
+		// together with DateProjected >= date this means "later date, or same date and bigger seqNo"
+		final ICompositeQueryFilter<I_MD_Candidate> afterDateAndSeqNoFilter = queryBL
+				.createCompositeQueryFilter(I_MD_Candidate.class)
+				.setJoinOr()
+				.addCompareFilter(I_MD_Candidate.COLUMN_DateProjected, Operator.GREATER, timestamp)
+				.addCompareFilter(I_MD_Candidate.COLUMN_SeqNo, Operator.GREATER, seqNo);
+
+		final ICompositeQueryUpdaterExecutor<I_MD_Candidate> updater = RepositoryCommons
+				.mkQueryBuilder(query)
+				.addCompareFilter(I_MD_Candidate.COLUMN_DateProjected, Operator.GREATER_OR_EQUAL, timestamp)
+				.filter(afterDateAndSeqNoFilter)
+				.create()
+				.updateDirectly()
+				.addAddValueToColumn(I_MD_Candidate.COLUMNNAME_Qty, qtyDelta);
+		if (groupId > 0)
+		{
+			updater.addSetColumnValue(I_MD_Candidate.COLUMNNAME_MD_Candidate_GroupId, groupId);
+		}
+
+		final int updatedCount = updater.execute();
+		Loggables.get().addLog("addQtyDeltaToCandidatesAfter - added qtyDelta={} to {} candidates after date={} and seqNo={}; query={}", qtyDelta, updatedCount, date, seqNo, query);
+
+		return updatedCount;
+	}
+
 	private Candidate addOrUpdate(@NonNull final Candidate candidate, final boolean preserveExistingSeqNoAndParentId)
 	{
 		final CandidatesQuery query = CandidatesQuery.fromCandidate(candidate, preserveExistingSeqNoAndParentId);
@@ -0,0 +1,204 @@
+package de.metas.material.dispo.commons.repository.atp;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_M_Product;
+import org.compiere.util.Util;
+import org.compiere.util.Util.ArrayKey;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.cache.CCache;
+import de.metas.material.event.commons.AttributesKey;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Caches the ATP records of single {@link AvailableToPromiseQuery}s.
+ * <p>
+ * The query's date is not part of the cache key. Instead, all STOCK records of the query are cached and the ones which are relevant at the query's date
+ * are picked when reading, so that queries for different dates (e.g. "now") share the same entry.
+ * <p>
+ * Each cached entry remembers the products of its query. When a candidate is changed, only the entries of that candidate's product are invalidated,
+ * see {@link AvailableToPromiseRepository#onCandidateChanged(de.metas.material.dispo.model.I_MD_Candidate)}.
+ */
+/* package */ final class AvailableToPromiseCache extends CCache<AvailableToPromiseCache.CacheKey, AvailableToPromiseCache.CachedQueryResult>
+{
+	private static final String CACHE_NAME = "AvailableToPromise";
+
+	private final AtomicLong hitsCount = new AtomicLong(0);
+	private final AtomicLong missesCount = new AtomicLong(0);
+
+	/**
+	 * @param maximumWeightInBytes if set, it's limiting the cache instead of <code>maxSize</code>; a single entry might hold the whole stock timeline of a product
+	 */
+	public AvailableToPromiseCache(final int maxSize, final int expireMinutes, final Long maximumWeightInBytes)
+	{
+		// NOTE: the cache name is not a table name, because the candidate changes are not propagated via CacheMgt, but by AvailableToPromiseRepository
+		super(CACHE_NAME,
+				null, // tableName
+				ImmutableSet.of(),
+				maxSize,
+				expireMinutes,
+				CacheMapType.LRU,
+				maximumWeightInBytes,
+				CachedQueryResult::getRecordRefs);
+	}
+
+	/**
+	 * @param stockTimelineLoader supplies all the STOCK records matching the given <code>query</code>, no matter the query's date
+	 * @return the ATP records of given <code>query</code>, i.e. the latest STOCK record at the query's date of each product, warehouse, bpartner and storage attributes key;
+	 *         the STOCK records are taken from cache, if there are none yet, they are retrieved using given <code>stockTimelineLoader</code> and then cached
+	 */
+	public ImmutableList<AddToResultGroupRequest> getOrLoadRequests(
+			@NonNull final AvailableToPromiseQuery query,
+			@NonNull final Supplier<? extends Collection<AddToResultGroupRequest>> stockTimelineLoader)
+	{
+		final boolean[] loaded = new boolean[] { false };
+		final CachedQueryResult cachedResult = getOrLoad(CacheKey.of(query), () -> {
+			final Collection<AddToResultGroupRequest> stockTimeline = stockTimelineLoader.get();
+			loaded[0] = true;
+			return CachedQueryResult.of(stockTimeline, extractRecordRefs(query));
+		});
+
+		if (loaded[0])
+		{
+			missesCount.incrementAndGet();
+		}
+		else
+		{
+			hitsCount.incrementAndGet();
+		}
+
+		return cachedResult.getRequestsAtDate(query.getDate());
+	}
+
+	private static ImmutableList<TableRecordReference> extractRecordRefs(final AvailableToPromiseQuery query)
+	{
+		return query.getProductIds()
+				.stream()
+				.map(productId -> TableRecordReference.of(I_M_Product.Table_Name, productId))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * Invalidates the entries whose queries are about any of the given products.
+	 */
+	public long resetForProductIds(@NonNull final Collection<Integer> productIds)
+	{
+		return productIds.stream()
+				.map(productId -> TableRecordReference.of(I_M_Product.Table_Name, productId))
+				.mapToLong(this::resetForKnownRecordId)
+				.sum();
+	}
+
+	public long getHitsCount()
+	{
+		return hitsCount.get();
+	}
+
+	public long getMissesCount()
+	{
+		return missesCount.get();
+	}
+
+	/** Like {@link AvailableToPromiseQuery}, but without the date */
+	@Value
+	static final class CacheKey
+	{
+		public static CacheKey of(@NonNull final AvailableToPromiseQuery query)
+		{
+			return new CacheKey(query.getWarehouseIds(), query.getProductIds(), query.getStorageAttributesKeys(), query.getBpartnerId());
+		}
+
+		ImmutableSet<Integer> warehouseIds;
+		ImmutableList<Integer> productIds;
+		ImmutableList<AttributesKey> storageAttributesKeys;
+		int bpartnerId;
+	}
+
+	static final class CachedQueryResult
+	{
+		public static CachedQueryResult of(
+				@NonNull final Collection<AddToResultGroupRequest> stockTimeline,
+				@NonNull final Collection<TableRecordReference> recordRefs)
+		{
+			return new CachedQueryResult(stockTimeline, recordRefs);
+		}
+
+		/** sorted by date and seqNo, latest first */
+		private final ImmutableList<AddToResultGroupRequest> stockTimeline;
+		private final Collection<TableRecordReference> recordRefs;
+
+		private CachedQueryResult(
+				@NonNull final Collection<AddToResultGroupRequest> stockTimeline,
+				@NonNull final Collection<TableRecordReference> recordRefs)
+		{
+			this.stockTimeline = stockTimeline.stream()
+					.sorted(Comparator.comparing(AddToResultGroupRequest::getDate)
+							.thenComparing(AddToResultGroupRequest::getSeqNo)
+							.reversed())
+					.collect(ImmutableList.toImmutableList());
+			this.recordRefs = recordRefs;
+		}
+
+		public Collection<TableRecordReference> getRecordRefs()
+		{
+			return recordRefs;
+		}
+
+		/**
+		 * Picks the latest record with date &lt;= the given date of each product, warehouse, bpartner and storage attributes key,
+		 * just like the DB function {@code de_metas_material.retrieve_atp_at_date} does.
+		 */
+		public ImmutableList<AddToResultGroupRequest> getRequestsAtDate(@NonNull final LocalDateTime date)
+		{
+			final Set<ArrayKey> seenKeys = new HashSet<>();
+			final ImmutableList.Builder<AddToResultGroupRequest> result = ImmutableList.builder();
+			for (final AddToResultGroupRequest request : stockTimeline)
+			{
+				if (request.getDate().isAfter(date))
+				{
+					continue;
+				}
+
+				final ArrayKey key = Util.mkKey(request.getProductId(), request.getWarehouseId(), request.getBpartnerId(), request.getStorageAttributesKey());
+				if (seenKeys.add(key))
+				{
+					result.add(request);
+				}
+			}
+			return result.build();
+		}
+	}
+}
@@ -2,24 +2,39 @@ package de.metas.material.dispo.commons.repository.atp;
 
 import java.math.BigDecimal;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.ad.trx.spi.TrxOnCommitCollectorFactory;
 import org.adempiere.service.ISysConfigBL;
 import org.compiere.model.IQuery;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
+import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
 import com.google.common.base.Predicates;
 import com.google.common.base.Splitter;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
+import de.metas.event.Event;
+import de.metas.event.IEventBusFactory;
+import de.metas.event.Topic;
+import de.metas.event.Type;
+import de.metas.logging.LogManager;
 import de.metas.material.dispo.model.I_MD_Candidate_ATP_QueryResult;
 import de.metas.material.event.commons.AttributesKey;
+import de.metas.util.Check;
 import de.metas.util.Services;
 import lombok.NonNull;
 import lombok.Value;
@@ -51,6 +66,28 @@ public class AvailableToPromiseRepository
 {
 	private static final String SYSCONFIG_ATP_ATTRIBUTES_KEYS = "de.metas.ui.web.window.descriptor.sql.ProductLookupDescriptor.ATP.AttributesKeys";
 
+	/**
+	 * If enabled, the STOCK records are cached per query (but independent of the query's date), see {@link AvailableToPromiseCache}.
+	 */
+	private static final String SYSCONFIG_CacheEnabled = "de.metas.material.dispo.commons.repository.atp.AvailableToPromiseRepository.Cache.Enabled";
+	private static final String SYSCONFIG_CacheMaxSize = "de.metas.material.dispo.commons.repository.atp.AvailableToPromiseRepository.Cache.MaxSize";
+	private static final String SYSCONFIG_CacheExpireMinutes = "de.metas.material.dispo.commons.repository.atp.AvailableToPromiseRepository.Cache.ExpireMinutes";
+	private static final String SYSCONFIG_CacheMaximumWeightInBytes = "de.metas.material.dispo.commons.repository.atp.AvailableToPromiseRepository.Cache.MaximumWeightInBytes";
+	private static final int DEFAULT_CacheMaximumWeightInBytes = 50 * 1024 * 1024;
+
+	/** Tells the other cluster nodes which products had their candidates changed in a committed transaction */
+	private static final Topic TOPIC_CandidatesChanged = Topic.builder()
+			.name("de.metas.material.dispo.commons.repository.atp.CandidatesChanged")
+			.type(Type.REMOTE)
+			.build();
+	private static final String EVENT_PROPERTY_ProductIds = "ProductIds";
+
+	private static final Logger logger = LogManager.getLogger(AvailableToPromiseRepository.class);
+
+	private final Supplier<AvailableToPromiseCache> cacheSupplier = Suppliers.memoize(AvailableToPromiseRepository::createCache);
+	private final AtomicBoolean lastCacheEnabled = new AtomicBoolean(false);
+	private final ChangedProductIdsCollector changedProductIdsCollector = new ChangedProductIdsCollector();
+
 	@NonNull
 	public BigDecimal retrieveAvailableStockQtySum(@NonNull final AvailableToPromiseMultiQuery multiQuery)
 	{
@@ -72,10 +109,35 @@ public class AvailableToPromiseRepository
 				? AvailableToPromiseResult.createEmptyWithPredefinedBuckets(multiQuery)
 				: AvailableToPromiseResult.createEmpty();
 
+		final ImmutableList<AddToResultGroupRequest> requests = isCacheUsable()
+				? retrieveRequestsUsingCache(multiQuery)
+				: retrieveRequestsFromDB(multiQuery);
+
+		for (final AddToResultGroupRequest request : requests)
+		{
+			if (multiQuery.isAddToPredefinedBuckets())
+			{
+				result.addQtyToAllMatchingGroups(request);
+			}
+			else
+			{
+				result.addToNewGroupIfFeasible(request);
+			}
+		}
+		return result;
+	}
+
+	public AvailableToPromiseResult retrieveAvailableStock(@NonNull AvailableToPromiseQuery query)
+	{
+		return retrieveAvailableStock(AvailableToPromiseMultiQuery.of(query));
+	}
+
+	private ImmutableList<AddToResultGroupRequest> retrieveRequestsFromDB(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
 		final IQuery<I_MD_Candidate_ATP_QueryResult> dbQuery = createDBQueryForMaterialQueryOrNull(multiQuery);
 		if (dbQuery == null)
 		{
-			return result;
+			return ImmutableList.of();
 		}
 
 		final Function<I_MD_Candidate_ATP_QueryResult, Boolean> compareByWhetherRecordHasBPartnerId = record -> record.getC_BPartner_Customer_ID() > 0;
@@ -90,28 +152,146 @@ public class AvailableToPromiseRepository
 				.collect(ImmutableList.toImmutableList());
 
 		// note: this is a dedicated step in order to ease debugging (i.e. have a chance to take a look at the atpRecords)
-		final ImmutableList<AddToResultGroupRequest> requests = atpRecords
+		return atpRecords
 				.stream()
 				.map(AvailableToPromiseRepository::createAddToResultGroupRequest)
 				.collect(ImmutableList.toImmutableList());
+	}
 
-		for (final AddToResultGroupRequest request : requests)
+	/**
+	 * Gets the (unsorted) ATP records of each single query from cache and then sorts their union the same way as {@link #retrieveRequestsFromDB(AvailableToPromiseMultiQuery)} does.
+	 * Records which are matched by more than one query are added just once, like the DB's "union distinct" does.
+	 */
+	private ImmutableList<AddToResultGroupRequest> retrieveRequestsUsingCache(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		final AvailableToPromiseCache cache = getCache();
+
+		final Set<AddToResultGroupRequest> requests = new LinkedHashSet<>();
+		for (final AvailableToPromiseQuery query : multiQuery.getQueries())
 		{
-			if (multiQuery.isAddToPredefinedBuckets())
-			{
-				result.addQtyToAllMatchingGroups(request);
-			}
-			else
+			requests.addAll(cache.getOrLoadRequests(query, () -> retrieveStockTimelineFromDB(query)));
+		}
+
+		final Function<AddToResultGroupRequest, Boolean> compareByWhetherRequestHasBPartnerId = request -> request.getBpartnerId() > 0;
+
+		return requests.stream()
+				.sorted(Comparator
+						.comparing(compareByWhetherRequestHasBPartnerId) // note that true > false
+						.thenComparing(AddToResultGroupRequest::getDate)
+						.thenComparing(AddToResultGroupRequest::getSeqNo)
+						.reversed())
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private static ImmutableList<AddToResultGroupRequest> retrieveStockTimelineFromDB(@NonNull final AvailableToPromiseQuery query)
+	{
+		return AvailableToPromiseSqlHelper.createDBQueryForStockTimeline(query)
+				.stream()
+				.map(AvailableToPromiseRepository::createAddToResultGroupRequest)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * The cache is only used out of transaction, because within a transaction we might see (and would then cache) uncommitted candidates.
+	 */
+	private boolean isCacheUsable()
+	{
+		if (!isCacheEnabled())
+		{
+			return false;
+		}
+
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		return !trxManager.isActive(trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone));
+	}
+
+	/**
+	 * @return true if the cache is enabled; when it's enabled (again), the entries cached before are discarded because they were not kept in sync meanwhile
+	 */
+	private boolean isCacheEnabled()
+	{
+		final boolean enabled = Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_CacheEnabled, false);
+		if (lastCacheEnabled.getAndSet(enabled) != enabled && enabled)
+		{
+			getCache().reset();
+		}
+		return enabled;
+	}
+
+	/**
+	 * Shall be called when a candidate was created, changed or deleted.
+	 * The cached entries of the given products are invalidated right away and once again when the candidate's transaction is committed,
+	 * because until then other threads might still load and cache the old data. On commit, the other cluster nodes are notified to do the same.
+	 *
+	 * @param productIds the candidate's product and, if it was changed, also its former product
+	 */
+	public void onCandidateChanged(final String trxName, @NonNull final Set<Integer> productIds)
+	{
+		if (productIds.isEmpty() || !isCacheEnabled())
+		{
+			return;
+		}
+
+		getCache().resetForProductIds(productIds);
+		changedProductIdsCollector.collect(ChangedProductIds.of(trxName, productIds));
+	}
+
+	private void invalidateAndNotify(final Set<Integer> productIds)
+	{
+		getCache().resetForProductIds(productIds);
+
+		final Event event = Event.builder()
+				.putProperty(EVENT_PROPERTY_ProductIds, Joiner.on(",").join(productIds))
+				.build();
+		Services.get(IEventBusFactory.class)
+				.getEventBus(TOPIC_CandidatesChanged)
+				.postEvent(event);
+	}
+
+	@VisibleForTesting
+	AvailableToPromiseCache getCache()
+	{
+		return cacheSupplier.get();
+	}
+
+	private static AvailableToPromiseCache createCache()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final AvailableToPromiseCache cache = new AvailableToPromiseCache(
+				sysConfigBL.getIntValue(SYSCONFIG_CacheMaxSize, 1000),
+				sysConfigBL.getIntValue(SYSCONFIG_CacheExpireMinutes, 5),
+				(long)sysConfigBL.getIntValue(SYSCONFIG_CacheMaximumWeightInBytes, DEFAULT_CacheMaximumWeightInBytes));
+
+		// invalidate the entries of the products whose candidates were changed on other nodes; we don't need the events before we have a cache
+		Services.get(IEventBusFactory.class).registerGlobalEventListener(TOPIC_CandidatesChanged, (eventBus, event) -> {
+			// Ignore local events; we already invalidated when the transaction was committed
+			if (event.isLocalEvent())
 			{
-				result.addToNewGroupIfFeasible(request);
+				return;
 			}
-		}
-		return result;
+
+			final List<Integer> productIds = parseProductIds(event.getPropertyAsString(EVENT_PROPERTY_ProductIds));
+			logger.debug("Invalidating ATP for productIds={} because we got remote event: {}", productIds, event);
+			cache.resetForProductIds(productIds);
+		});
+
+		return cache;
 	}
 
-	public AvailableToPromiseResult retrieveAvailableStock(@NonNull AvailableToPromiseQuery query)
+	private static List<Integer> parseProductIds(final String productIdsStr)
 	{
-		return retrieveAvailableStock(AvailableToPromiseMultiQuery.of(query));
+		if (Check.isEmpty(productIdsStr, true))
+		{
+			return ImmutableList.of();
+		}
+
+		return Splitter.on(",")
+				.trimResults()
+				.omitEmptyStrings()
+				.splitToList(productIdsStr)
+				.stream()
+				.map(Integer::valueOf)
+				.collect(ImmutableList.toImmutableList());
 	}
 
 	private IQuery<I_MD_Candidate_ATP_QueryResult> createDBQueryForMaterialQueryOrNull(
@@ -190,4 +370,47 @@ public class AvailableToPromiseRepository
 		int productId;
 		String attributeKey;
 	}
+
+	@Value(staticConstructor = "of")
+	private static class ChangedProductIds
+	{
+		String trxName;
+		Set<Integer> productIds;
+	}
+
+	/** Collects the changed product IDs of a transaction and invalidates them when the transaction was committed */
+	private final class ChangedProductIdsCollector extends TrxOnCommitCollectorFactory<Set<Integer>, ChangedProductIds>
+	{
+		private final String trxPropertyName = AvailableToPromiseRepository.class.getName() + "#" + System.identityHashCode(AvailableToPromiseRepository.this);
+
+		@Override
+		protected String getTrxProperyName()
+		{
+			return trxPropertyName;
+		}
+
+		@Override
+		protected String extractTrxNameFromItem(final ChangedProductIds item)
+		{
+			return item.getTrxName();
+		}
+
+		@Override
+		protected Set<Integer> newCollector(final ChangedProductIds firstItem)
+		{
+			return new LinkedHashSet<>();
+		}
+
+		@Override
+		protected void collectItem(final Set<Integer> collector, final ChangedProductIds item)
+		{
+			collector.addAll(item.getProductIds());
+		}
+
+		@Override
+		protected void processCollector(final Set<Integer> collector)
+		{
+			invalidateAndNotify(collector);
+		}
+	}
 }
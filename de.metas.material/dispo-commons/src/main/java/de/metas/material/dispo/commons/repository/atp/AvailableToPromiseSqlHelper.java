@@ -47,36 +47,69 @@ import de.metas.util.Services;
 @UtilityClass
 /* package */ final class AvailableToPromiseSqlHelper
 {
+	/**
+	 * Select the STOCK candidates' columns as returned by {@code de_metas_material.retrieve_atp_at_date}, but without restricting them to the latest ones at a given date.
+	 */
+	private static final String SQL_FROM_StockTimeline = "(SELECT M_Product_ID, M_Warehouse_ID, C_BPartner_Customer_ID, StorageAttributesKey, DateProjected, SeqNo, Qty"
+			+ " FROM MD_Candidate"
+			+ " WHERE IsActive='Y' AND MD_Candidate_Type='STOCK') " + I_MD_Candidate_ATP_QueryResult.Table_Name;
+
 	@VisibleForTesting
 	public IQuery<I_MD_Candidate_ATP_QueryResult> createDBQueryForStockQuery(@NonNull final AvailableToPromiseQuery query)
 	{
-		final IQueryBuilder<I_MD_Candidate_ATP_QueryResult> queryBuilder = createDBQueryForStockQueryBuilder(query);
-
-		final IQuery<I_MD_Candidate_ATP_QueryResult> dbQuery = queryBuilder
+		final IQuery<I_MD_Candidate_ATP_QueryResult> dbQuery = createDBQueryForStockQueryBuilder(query, true)
 				.setOption(IQueryBuilder.OPTION_Explode_OR_Joins_To_SQL_Unions)
 				.create();
 
 		if (isRealSqlQuery())
 		{
-			Check.assume(dbQuery instanceof TypedSqlQuery, "If we are not in unit test mode, then our query has to be an sql query; query={}", dbQuery);
-			final TypedSqlQuery<I_MD_Candidate_ATP_QueryResult> sqlDbQuery = (TypedSqlQuery<I_MD_Candidate_ATP_QueryResult>)dbQuery;
-
 			final String dateString = Database.TO_DATE(TimeUtil.asTimestamp(query.getDate()), false);
-			sqlDbQuery.setSqlFrom("de_metas_material.retrieve_atp_at_date(" + dateString + ")");
+			toSqlQuery(dbQuery).setSqlFrom("de_metas_material.retrieve_atp_at_date(" + dateString + ")");
 		}
 
 		//
 		return dbQuery;
 	}
 
+	/**
+	 * Creates a query which returns <b>all</b> the STOCK records matching the given query, no matter the query's date.
+	 * It's up to the caller to pick the latest record (by date and seqNo) of each product, warehouse, bpartner and storage attributes key at the date it's interested in.
+	 */
+	public IQuery<I_MD_Candidate_ATP_QueryResult> createDBQueryForStockTimeline(@NonNull final AvailableToPromiseQuery query)
+	{
+		final IQuery<I_MD_Candidate_ATP_QueryResult> dbQuery = createDBQueryForStockQueryBuilder(query, false)
+				.setOption(IQueryBuilder.OPTION_Explode_OR_Joins_To_SQL_Unions)
+				.create();
+
+		if (isRealSqlQuery())
+		{
+			toSqlQuery(dbQuery).setSqlFrom(SQL_FROM_StockTimeline);
+		}
+
+		return dbQuery;
+	}
+
+	private TypedSqlQuery<I_MD_Candidate_ATP_QueryResult> toSqlQuery(final IQuery<I_MD_Candidate_ATP_QueryResult> dbQuery)
+	{
+		Check.assume(dbQuery instanceof TypedSqlQuery, "If we are not in unit test mode, then our query has to be an sql query; query={}", dbQuery);
+		return (TypedSqlQuery<I_MD_Candidate_ATP_QueryResult>)dbQuery;
+	}
+
 	@VisibleForTesting
 	IQueryBuilder<I_MD_Candidate_ATP_QueryResult> createDBQueryForStockQueryBuilder(@NonNull final AvailableToPromiseQuery query)
+	{
+		return createDBQueryForStockQueryBuilder(query, true);
+	}
+
+	private IQueryBuilder<I_MD_Candidate_ATP_QueryResult> createDBQueryForStockQueryBuilder(
+			@NonNull final AvailableToPromiseQuery query,
+			final boolean filterByDate)
 	{
 		final IQueryBL queryBL = Services.get(IQueryBL.class);
 		final IQueryBuilder<I_MD_Candidate_ATP_QueryResult> queryBuilder = //
 				queryBL.createQueryBuilder(I_MD_Candidate_ATP_QueryResult.class);
 
-		if (!isRealSqlQuery())
+		if (filterByDate && !isRealSqlQuery())
 		{
 			// Date; this only makes sense in unit test's there the I_MD_Candidate_ATP_QueryResult records to return were hand-crafted for the respective test
 			queryBuilder.addCompareFilter(I_MD_Candidate_ATP_QueryResult.COLUMN_DateProjected, Operator.LESS_OR_EQUAL, TimeUtil.asTimestamp(query.getDate()));
@@ -414,4 +414,35 @@ public class CandidateRepositoryWriteServiceTests
 		assertThat(transactionDetailRecord.getMovementQty()).isEqualByComparingTo("1");
 		assertThat(transactionDetailRecord.getM_Transaction_ID()).isEqualTo(33);
 	}
+
+	@Test
+	public void addQtyDeltaToCandidatesAfter()
+	{
+		final Candidate stockCandidate = repositoryTestHelper.stockCandidate;
+		final Candidate laterStockCandidate = repositoryTestHelper.laterStockCandidate;
+		final CandidatesQuery query = repositoryTestHelper.mkQueryForStockFromDate(NOW);
+
+		final int updatedCount = candidateRepositoryWriteService.addQtyDeltaToCandidatesAfter(query, NOW, stockCandidate.getSeqNo(), TEN, 0);
+
+		assertThat(updatedCount).isEqualTo(1);
+		assertThat(load(stockCandidate.getId().getRepoId(), I_MD_Candidate.class).getQty()).isEqualByComparingTo("11");
+		assertThat(load(laterStockCandidate.getId().getRepoId(), I_MD_Candidate.class).getQty()).isEqualByComparingTo("20");
+	}
+
+	@Test
+	public void addQtyDeltaToCandidatesAfter_sameDateAndBiggerSeqNo()
+	{
+		final Candidate stockCandidate = repositoryTestHelper.stockCandidate;
+		final Candidate laterStockCandidate = repositoryTestHelper.laterStockCandidate;
+		final CandidatesQuery query = repositoryTestHelper.mkQueryForStockFromDate(NOW);
+
+		final int updatedCount = candidateRepositoryWriteService.addQtyDeltaToCandidatesAfter(query, NOW, stockCandidate.getSeqNo() - 1, TEN.negate(), laterStockCandidate.getGroupId());
+
+		assertThat(updatedCount).isEqualTo(2);
+
+		final I_MD_Candidate stockCandidateRecord = load(stockCandidate.getId().getRepoId(), I_MD_Candidate.class);
+		assertThat(stockCandidateRecord.getQty()).isEqualByComparingTo("1");
+		assertThat(stockCandidateRecord.getMD_Candidate_GroupId()).isEqualTo(laterStockCandidate.getGroupId());
+		assertThat(load(laterStockCandidate.getId().getRepoId(), I_MD_Candidate.class).getQty()).isEqualByComparingTo("0");
+	}
 }
@@ -0,0 +1,117 @@
+package de.metas.material.dispo.commons.repository.atp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.material.event.commons.AttributesKey;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class AvailableToPromiseCacheTest
+{
+	private static final LocalDateTime DATE = LocalDateTime.of(2018, 10, 1, 0, 0);
+
+	private AvailableToPromiseCache cache;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		cache = new AvailableToPromiseCache(100, 0, null);
+	}
+
+	private static AvailableToPromiseQuery createQuery(final int productId)
+	{
+		return AvailableToPromiseQuery.builder()
+				.productId(productId)
+				.storageAttributesKey(AttributesKey.ALL)
+				.date(DATE)
+				.build();
+	}
+
+	@Test
+	public void getOrLoadRequests()
+	{
+		final AvailableToPromiseQuery query = createQuery(10);
+
+		assertThat(cache.getOrLoadRequests(query, ImmutableList::of)).isEmpty();
+		assertThat(cache.getOrLoadRequests(query, () -> {
+			throw new AssertionError("shall not load again");
+		})).isEmpty();
+
+		assertThat(cache.getMissesCount()).isEqualTo(1);
+		assertThat(cache.getHitsCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void resetForProductIds_resetsOnlyTheirEntries()
+	{
+		final AvailableToPromiseQuery query10 = createQuery(10);
+		final AvailableToPromiseQuery query20 = createQuery(20);
+		cache.getOrLoadRequests(query10, ImmutableList::of);
+		cache.getOrLoadRequests(query20, ImmutableList::of);
+
+		cache.resetForProductIds(ImmutableList.of(10, 30));
+
+		assertThat(cache.keySet()).containsExactly(AvailableToPromiseCache.CacheKey.of(query20));
+	}
+
+	@Test
+	public void getOrLoadRequests_differentDates_shareEntry()
+	{
+		final AddToResultGroupRequest stock1 = createStockRequest(DATE.minusDays(2), 1);
+		final AddToResultGroupRequest stock2 = createStockRequest(DATE.minusDays(1), 2);
+		final AddToResultGroupRequest stock3 = createStockRequest(DATE.minusDays(1), 3);
+		final AddToResultGroupRequest stock4 = createStockRequest(DATE.plusDays(1), 4);
+		final AvailableToPromiseQuery query = createQuery(10);
+
+		assertThat(cache.getOrLoadRequests(query, () -> ImmutableList.of(stock1, stock2, stock3, stock4))).containsExactly(stock3);
+		assertThat(cache.getOrLoadRequests(query.withDateTime(DATE.minusDays(2)), ImmutableList::of)).containsExactly(stock1);
+		assertThat(cache.getOrLoadRequests(query.withDateTime(DATE.minusDays(3)), ImmutableList::of)).isEmpty();
+		assertThat(cache.getOrLoadRequests(query.withDateTime(DATE.plusDays(2)), ImmutableList::of)).containsExactly(stock4);
+
+		assertThat(cache.getMissesCount()).isEqualTo(1);
+		assertThat(cache.getHitsCount()).isEqualTo(3);
+	}
+
+	private static AddToResultGroupRequest createStockRequest(final LocalDateTime date, final int seqNo)
+	{
+		return AddToResultGroupRequest.builder()
+				.productId(10)
+				.warehouseId(1)
+				.storageAttributesKey(AttributesKey.ALL)
+				.bpartnerId(AvailableToPromiseQuery.BPARTNER_ID_ANY)
+				.qty(BigDecimal.valueOf(seqNo))
+				.date(date)
+				.seqNo(seqNo)
+				.build();
+	}
+}
@@ -15,6 +15,7 @@ import java.sql.Timestamp;
 import java.util.Date;
 import java.util.List;
 
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.test.AdempiereTestWatcher;
 import org.compiere.util.TimeUtil;
@@ -30,6 +31,7 @@ import de.metas.material.event.EventTestHelper;
 import de.metas.material.event.commons.AttributesKey;
 import de.metas.material.event.commons.MaterialDescriptor;
 import de.metas.material.event.commons.ProductDescriptor;
+import de.metas.util.Services;
 
 /*
  * #%L
@@ -220,6 +222,28 @@ public class AvailableToPromiseRepositoryTest
 				.allSatisfy(group -> assertThat(group.getQty()).isEqualByComparingTo(TEN));
 	}
 
+	@Test
+	public void retrieveAvailableStock_withCache()
+	{
+		Services.get(ISysConfigBL.class).setValue("de.metas.material.dispo.commons.repository.atp.AvailableToPromiseRepository.Cache.Enabled", true, 0);
+
+		createStockRecordWithBPartner(0, BEFORE_NOW); // belongs to "any" bpartner
+		createStockRecordWithBPartner(BPARTNER_ID, BEFORE_BEFORE_NOW);
+		createStockRecordWithBPartner(BPARTNER_ID + 10, BEFORE_NOW); // belongs to an unrelated bPartner
+
+		final MaterialDescriptor materialDescriptor = createMaterialDescriptor();
+		final AvailableToPromiseMultiQuery query = AvailableToPromiseMultiQuery.forDescriptorAndAllPossibleBPartnerIds(materialDescriptor);
+
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo(TWENTY);
+		assertThat(availableToPromiseRepository.getCache().getMissesCount()).isEqualTo(2); // one for each single query
+		assertThat(availableToPromiseRepository.getCache().getHitsCount()).isEqualTo(0);
+
+		// same result as without cache, but this time without DB query
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo(TWENTY);
+		assertThat(availableToPromiseRepository.getCache().getMissesCount()).isEqualTo(2);
+		assertThat(availableToPromiseRepository.getCache().getHitsCount()).isEqualTo(2);
+	}
+
 	@Test
 	public void retrieveAvailableStock_differentStorageAttributesKeys_addToPredefinedBuckets()
 	{
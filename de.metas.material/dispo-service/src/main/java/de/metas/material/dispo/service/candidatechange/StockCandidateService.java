@@ -4,7 +4,6 @@ import static org.adempiere.model.InterfaceWrapperHelper.load;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 
 import java.math.BigDecimal;
-import java.util.List;
 
 import org.springframework.stereotype.Service;
 
@@ -152,13 +151,13 @@ public class StockCandidateService
 	}
 
 	/**
-	 * Selects all stock candidates which have the same product and locator but a later timestamp than the one from the given {@code materialDescriptor}.
-	 * Iterate them and add the given {@code delta} to their quantity.
+	 * Adds the given {@code stockWithDelta}'s quantity to all stock candidates which have the same product and locator but a later timestamp
+	 * (or the same timestamp and a bigger seqNo) than the given {@code stockWithDelta}.
 	 * <p>
+	 * Note that the stock candidates' quantities are running totals, so every later stock candidate needs the delta;
+	 * still, they are all updated with one SQL statement, so the cost does not depend on the number of later stock candidates.
 	 *
-	 * @param materialDescriptor the product to match against
-	 * @param groupId the groupId to set to every stock record that we matched
-	 * @param delta the quantity (positive or negative) to add to every stock record that we matched
+	 * @param stockWithDelta the product etc to match against; its quantity is the delta to add, its groupId is set to every stock record that we matched
 	 */
 	public void applyDeltaToMatchingLaterStockCandidates(
 			@NonNull final Candidate stockWithDelta)
@@ -167,24 +166,12 @@ public class StockCandidateService
 				stockWithDelta,
 				DateOperator.AT_OR_AFTER);
 
-		final List<Candidate> candidatesToUpdate = candidateRepositoryRetrieval.retrieveOrderedByDateAndSeqNo(query);
-		for (final Candidate candidate : candidatesToUpdate)
-		{
-			final boolean sameDateButLowerSeqNo = //
-					candidate.getDate().equals(stockWithDelta.getDate())
-							&& candidate.getSeqNo() <= stockWithDelta.getSeqNo();
-			if (sameDateButLowerSeqNo)
-			{
-				continue;
-			}
-
-			final BigDecimal delta = stockWithDelta.getQuantity();
-			final BigDecimal newQty = candidate.getQuantity().add(delta);
-
-			candidateRepositoryWriteService.updateCandidateById(candidate
-					.withQuantity(newQty)
-					.withGroupId(stockWithDelta.getGroupId()));
-		}
+		candidateRepositoryWriteService.addQtyDeltaToCandidatesAfter(
+				query,
+				stockWithDelta.getDate(),
+				stockWithDelta.getSeqNo(),
+				stockWithDelta.getQuantity(),
+				stockWithDelta.getGroupId());
 	}
 
 	private CandidatesQuery createStockQueryBuilderWithDateOperator(
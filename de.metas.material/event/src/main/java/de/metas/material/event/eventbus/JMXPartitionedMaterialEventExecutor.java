@@ -0,0 +1,87 @@
+package de.metas.material.event.eventbus;
+
+import org.adempiere.util.jmx.IJMXNameAware;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class JMXPartitionedMaterialEventExecutor implements JMXPartitionedMaterialEventExecutorMBean, IJMXNameAware
+{
+	private final String jmxName;
+	private final PartitionedMaterialEventExecutor executor;
+
+	/* package */ JMXPartitionedMaterialEventExecutor(@NonNull final PartitionedMaterialEventExecutor executor)
+	{
+		this.jmxName = "de.metas.material.event:type=PartitionedMaterialEventExecutor";
+		this.executor = executor;
+	}
+
+	@Override
+	public String getJMXName()
+	{
+		return jmxName;
+	}
+
+	@Override
+	public int getPartitionsCount()
+	{
+		return executor.getPartitionsCount();
+	}
+
+	@Override
+	public int getBacklog()
+	{
+		return executor.getBacklog();
+	}
+
+	@Override
+	public long getProcessedEventsCount()
+	{
+		return executor.getProcessedEventsCount();
+	}
+
+	@Override
+	public long getBarrierEventsCount()
+	{
+		return executor.getBarrierEventsCount();
+	}
+
+	@Override
+	public long getMaxLatencyMillis()
+	{
+		return executor.getMaxLatencyMillis();
+	}
+
+	@Override
+	public String[] getPartitionInfos()
+	{
+		return executor.getPartitionInfos().toArray(new String[0]);
+	}
+
+	@Override
+	public void resetStatistics()
+	{
+		executor.resetStatistics();
+	}
+}
@@ -0,0 +1,114 @@
+package de.metas.material.event.eventbus;
+
+import javax.annotation.Nullable;
+
+import de.metas.material.event.MaterialEvent;
+import de.metas.material.event.commons.MaterialDescriptor;
+import de.metas.material.event.purchase.PurchaseCandidateAdvisedEvent;
+import de.metas.material.event.purchase.PurchaseCandidateEvent;
+import de.metas.material.event.purchase.PurchaseCandidateRequestedEvent;
+import de.metas.material.event.receiptschedule.AbstractReceiptScheduleEvent;
+import de.metas.material.event.shipmentschedule.AbstractShipmentScheduleEvent;
+import de.metas.material.event.stock.StockChangedEvent;
+import de.metas.material.event.supplyrequired.SupplyRequiredEvent;
+import de.metas.material.event.transactions.AbstractTransactionEvent;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The product and warehouse which a material event is about. Events with the same key need to be processed in the order they were received.
+ */
+@Value(staticConstructor = "of")
+public class MaterialEventPartitionKey
+{
+	/**
+	 * @return the given event's key or <code>null</code> if the event is not about exactly one product and warehouse (e.g. a production or distribution order with many lines)
+	 */
+	@Nullable
+	public static MaterialEventPartitionKey ofEventOrNull(final MaterialEvent event)
+	{
+		if (event instanceof AbstractShipmentScheduleEvent)
+		{
+			return ofMaterialDescriptorOrNull(((AbstractShipmentScheduleEvent)event).getMaterialDescriptor());
+		}
+		else if (event instanceof AbstractReceiptScheduleEvent)
+		{
+			return ofMaterialDescriptorOrNull(((AbstractReceiptScheduleEvent)event).getMaterialDescriptor());
+		}
+		else if (event instanceof AbstractTransactionEvent)
+		{
+			return ofMaterialDescriptorOrNull(((AbstractTransactionEvent)event).getMaterialDescriptor());
+		}
+		else if (event instanceof PurchaseCandidateEvent)
+		{
+			return ofMaterialDescriptorOrNull(((PurchaseCandidateEvent)event).getPurchaseMaterialDescriptor());
+		}
+		else if (event instanceof PurchaseCandidateRequestedEvent)
+		{
+			return ofMaterialDescriptorOrNull(((PurchaseCandidateRequestedEvent)event).getPurchaseMaterialDescriptor());
+		}
+		else if (event instanceof PurchaseCandidateAdvisedEvent)
+		{
+			return ofMaterialDescriptorOrNull(((PurchaseCandidateAdvisedEvent)event).getSupplyRequiredDescriptor().getMaterialDescriptor());
+		}
+		else if (event instanceof SupplyRequiredEvent)
+		{
+			return ofMaterialDescriptorOrNull(((SupplyRequiredEvent)event).getSupplyRequiredDescriptor().getMaterialDescriptor());
+		}
+		else if (event instanceof StockChangedEvent)
+		{
+			final StockChangedEvent stockChangedEvent = (StockChangedEvent)event;
+			if (stockChangedEvent.getProductDescriptor() == null)
+			{
+				return null;
+			}
+			return ofIdsOrNull(stockChangedEvent.getProductDescriptor().getProductId(), stockChangedEvent.getWarehouseId());
+		}
+		else
+		{
+			return null;
+		}
+	}
+
+	private static MaterialEventPartitionKey ofMaterialDescriptorOrNull(@Nullable final MaterialDescriptor materialDescriptor)
+	{
+		if (materialDescriptor == null)
+		{
+			return null;
+		}
+		return ofIdsOrNull(materialDescriptor.getProductId(), materialDescriptor.getWarehouseId());
+	}
+
+	private static MaterialEventPartitionKey ofIdsOrNull(final int productId, final int warehouseId)
+	{
+		if (productId <= 0 || warehouseId <= 0)
+		{
+			return null;
+		}
+		return of(productId, warehouseId);
+	}
+
+	int productId;
+	int warehouseId;
+}
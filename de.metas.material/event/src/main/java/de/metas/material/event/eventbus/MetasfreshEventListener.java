@@ -2,7 +2,12 @@ package de.metas.material.event.eventbus;
 
 import java.util.Properties;
 
+import javax.annotation.PreDestroy;
+
 import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.jmx.JMXRegistry;
+import org.adempiere.util.jmx.JMXRegistry.OnJMXAlreadyExistsPolicy;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.Adempiere;
 import org.compiere.util.Env;
@@ -53,6 +58,18 @@ public class MetasfreshEventListener
 
 	private final MaterialEventConverter materialEventConverter;
 
+	/**
+	 * If greater than zero, the material events are processed by that many threads, see {@link PartitionedMaterialEventExecutor}.
+	 * Otherwise they are processed one after another in the event bus thread.
+	 */
+	private static final String SYSCONFIG_PartitionsCount = "de.metas.material.event.eventbus.MetasfreshEventListener.PartitionsCount";
+
+	/** How many events a partition can have waiting before the event bus thread is blocked */
+	private static final String SYSCONFIG_MaxBacklogPerPartition = "de.metas.material.event.eventbus.MetasfreshEventListener.MaxBacklogPerPartition";
+
+	/** null if the events shall be processed in the event bus thread */
+	private final PartitionedMaterialEventExecutor partitionedExecutor;
+
 	private final IEventListener internalListener = new IEventListener()
 	{
 		@Override
@@ -61,24 +78,14 @@ public class MetasfreshEventListener
 			final MaterialEvent lightWeightEvent = materialEventConverter.toMaterialEvent(event);
 			logger.info("Received MaterialEvent={}", lightWeightEvent);
 
-			//
-			// make sure that every record we create has the correct AD_Client_ID and AD_Org_ID
-			final Properties temporaryCtx = Env.copyCtx(Env.getCtx());
-
-			Env.setContext(temporaryCtx, Env.CTXNAME_AD_Client_ID, lightWeightEvent.getEventDescriptor().getClientId());
-			Env.setContext(temporaryCtx, Env.CTXNAME_AD_Org_ID, lightWeightEvent.getEventDescriptor().getOrgId());
-
-			try (final IAutoCloseable c = Env.switchContext(temporaryCtx))
+			if (partitionedExecutor != null)
 			{
-				invokeListenerInTrx(lightWeightEvent);
+				partitionedExecutor.submit(event, lightWeightEvent);
+			}
+			else
+			{
+				processEvent(lightWeightEvent);
 			}
-		}
-
-		private void invokeListenerInTrx(@NonNull final MaterialEvent materialEvent)
-		{
-			Services.get(ITrxManager.class).run(() -> {
-				materialEventHandlerRegistry.onEvent(materialEvent);
-			});
 		}
 
 		@Override
@@ -96,7 +103,59 @@ public class MetasfreshEventListener
 		this.materialEventConverter = materialEventConverter;
 		this.materialEventHandlerRegistry = materialEventHandlerRegistry;
 		this.metasfreshEventBusService = metasfreshEventBusService;
+		this.partitionedExecutor = createPartitionedExecutorOrNull();
 
 		this.metasfreshEventBusService.subscribe(internalListener);
 	}
+
+	private PartitionedMaterialEventExecutor createPartitionedExecutorOrNull()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int partitionsCount = sysConfigBL.getIntValue(SYSCONFIG_PartitionsCount, 0);
+		if (partitionsCount <= 0)
+		{
+			return null;
+		}
+
+		final int maxBacklogPerPartition = sysConfigBL.getIntValue(SYSCONFIG_MaxBacklogPerPartition, 1000);
+		logger.info("Processing material events using {} partitions with maxBacklogPerPartition={}", partitionsCount, maxBacklogPerPartition);
+		final PartitionedMaterialEventExecutor executor = new PartitionedMaterialEventExecutor(partitionsCount, maxBacklogPerPartition, this::processEvent);
+		JMXRegistry.get().registerJMX(new JMXPartitionedMaterialEventExecutor(executor), OnJMXAlreadyExistsPolicy.Replace);
+		return executor;
+	}
+
+	/**
+	 * Processes the events which were already handed to the partitions, so they are not lost when the application is stopped.
+	 * Events which are received afterwards are rejected, and that error is stored in their event log.
+	 */
+	@PreDestroy
+	public void shutdown()
+	{
+		if (partitionedExecutor != null)
+		{
+			partitionedExecutor.shutdown();
+		}
+	}
+
+	private void processEvent(@NonNull final MaterialEvent lightWeightEvent)
+	{
+		//
+		// make sure that every record we create has the correct AD_Client_ID and AD_Org_ID
+		final Properties temporaryCtx = Env.copyCtx(Env.getCtx());
+
+		Env.setContext(temporaryCtx, Env.CTXNAME_AD_Client_ID, lightWeightEvent.getEventDescriptor().getClientId());
+		Env.setContext(temporaryCtx, Env.CTXNAME_AD_Org_ID, lightWeightEvent.getEventDescriptor().getOrgId());
+
+		try (final IAutoCloseable c = Env.switchContext(temporaryCtx))
+		{
+			invokeListenerInTrx(lightWeightEvent);
+		}
+	}
+
+	private void invokeListenerInTrx(@NonNull final MaterialEvent materialEvent)
+	{
+		Services.get(ITrxManager.class).run(() -> {
+			materialEventHandlerRegistry.onEvent(materialEvent);
+		});
+	}
 }
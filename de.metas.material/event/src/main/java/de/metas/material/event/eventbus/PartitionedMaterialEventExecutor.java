@@ -0,0 +1,173 @@
+package de.metas.material.event.eventbus;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.adempiere.util.concurrent.StripedExecutor;
+import org.compiere.Adempiere;
+import org.slf4j.Logger;
+
+import de.metas.event.Event;
+import de.metas.event.log.EventLogSystemBusTools;
+import de.metas.event.log.EventLogUserService;
+import de.metas.event.log.impl.EventLogEntryCollector;
+import de.metas.logging.LogManager;
+import de.metas.material.event.MaterialEvent;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Processes material events on a fixed number of partitions, each having its own thread.
+ * <p>
+ * Events are assigned to a partition by their {@link MaterialEventPartitionKey}, so the events of one product and warehouse are processed in the order they were submitted,
+ * while events of different products can be processed in parallel.
+ * <p>
+ * Events without a key (i.e. events about more than one product) are processed as barriers:
+ * we wait until all partitions processed the events submitted so far, then process the event in the submitting thread and only then accept new events.
+ * <p>
+ * If an event fails in a partition, the error is logged and stored in the event's log, like the event bus does for the events which it processes itself.
+ * A failing barrier event's exception is propagated to the event bus.
+ * <p>
+ * {@link #shutdown()} processes the events which were already submitted, so they are not lost when the application is stopped.
+ *
+ * @see StripedExecutor
+ */
+public final class PartitionedMaterialEventExecutor
+{
+	private static final Logger logger = LogManager.getLogger(PartitionedMaterialEventExecutor.class);
+
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 60;
+
+	private final Consumer<MaterialEvent> eventProcessor;
+	private final StripedExecutor partitions;
+
+	/**
+	 * @param maxBacklogPerPartition how many events a partition can have waiting before {@link #submit(Event, MaterialEvent)} blocks
+	 * @param eventProcessor processes one event; it's invoked in the partition's thread
+	 */
+	public PartitionedMaterialEventExecutor(
+			final int partitionsCount,
+			final int maxBacklogPerPartition,
+			@NonNull final Consumer<MaterialEvent> eventProcessor)
+	{
+		this.eventProcessor = eventProcessor;
+		this.partitions = new StripedExecutor(PartitionedMaterialEventExecutor.class.getName(), partitionsCount, maxBacklogPerPartition);
+	}
+
+	/**
+	 * @param event the event bus event which was received; it's needed to collect the event log entries of the handlers
+	 * @param materialEvent the material event which was extracted from <code>event</code>
+	 */
+	public void submit(@NonNull final Event event, @NonNull final MaterialEvent materialEvent)
+	{
+		final MaterialEventPartitionKey key = MaterialEventPartitionKey.ofEventOrNull(materialEvent);
+		if (key == null)
+		{
+			// NOTE: the event bus already provided an event log collector for the current thread and stores the error if the processing fails
+			partitions.executeAsBarrier(() -> eventProcessor.accept(materialEvent));
+		}
+		else
+		{
+			partitions.execute(key, () -> {
+				try (final EventLogEntryCollector collector = EventLogSystemBusTools.provideEventLogEntryCollectorForCurrentThread(event))
+				{
+					processInPartition(materialEvent);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Processes the event and, because there is nobody to propagate to, logs and stores the error if it fails.
+	 */
+	private void processInPartition(final MaterialEvent materialEvent)
+	{
+		try
+		{
+			eventProcessor.accept(materialEvent);
+		}
+		catch (final RuntimeException e)
+		{
+			logger.error("Failed processing {}", materialEvent, e);
+			if (!Adempiere.isUnitTestMode())
+			{
+				final EventLogUserService eventLogUserService = Adempiere.getBean(EventLogUserService.class);
+				eventLogUserService
+						.newErrorLogEntry(eventProcessor.getClass(), e)
+						.createAndStore();
+			}
+		}
+	}
+
+	/**
+	 * Stops accepting new events and waits until the events which were already submitted were processed.
+	 */
+	public void shutdown()
+	{
+		logger.info("Shutting down; waiting for {} events to be processed", partitions.getBacklog());
+		if (!partitions.shutdownAndAwaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+		{
+			logger.warn("Not all material events were processed after {} seconds; {} events are lost", SHUTDOWN_TIMEOUT_SECONDS, partitions.getBacklog());
+		}
+	}
+
+	public int getPartitionsCount()
+	{
+		return partitions.getStripesCount();
+	}
+
+	public long getBarrierEventsCount()
+	{
+		return partitions.getBarrierTasksCount();
+	}
+
+	public int getBacklog()
+	{
+		return partitions.getBacklog();
+	}
+
+	public long getProcessedEventsCount()
+	{
+		return partitions.getExecutedTasksCount();
+	}
+
+	/**
+	 * @return the biggest time an event had to wait in its partition's queue and to be processed; since the last statistics reset
+	 */
+	public long getMaxLatencyMillis()
+	{
+		return partitions.getMaxLatencyMillis();
+	}
+
+	public List<String> getPartitionInfos()
+	{
+		return partitions.getStripeInfos();
+	}
+
+	public void resetStatistics()
+	{
+		partitions.resetStatistics();
+	}
+}
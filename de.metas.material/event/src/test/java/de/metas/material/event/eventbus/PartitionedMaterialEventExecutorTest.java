@@ -0,0 +1,169 @@
+package de.metas.material.event.eventbus;
+
+import static de.metas.material.event.EventTestHelper.createProductDescriptorWithProductId;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.event.Event;
+import de.metas.material.event.MaterialEvent;
+import de.metas.material.event.commons.EventDescriptor;
+import de.metas.material.event.pporder.PPOrderDeletedEvent;
+import de.metas.material.event.stock.StockChangedEvent;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class PartitionedMaterialEventExecutorTest
+{
+	private static final EventDescriptor EVENT_DESCRIPTOR = EventDescriptor.ofClientAndOrg(1, 2);
+
+	private final List<MaterialEvent> processedEvents = Collections.synchronizedList(new ArrayList<>());
+	private PartitionedMaterialEventExecutor executor;
+
+	@Before
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@After
+	public void shutdown()
+	{
+		if (executor != null)
+		{
+			executor.shutdown();
+		}
+	}
+
+	private static StockChangedEvent stockChangedEvent(final int productId, final int qtyOnHand)
+	{
+		return StockChangedEvent.builder()
+				.eventDescriptor(EVENT_DESCRIPTOR)
+				.productDescriptor(createProductDescriptorWithProductId(productId))
+				.warehouseId(1)
+				.qtyOnHand(BigDecimal.valueOf(qtyOnHand))
+				.qtyOnHandOld(BigDecimal.ZERO)
+				.build();
+	}
+
+	private List<Integer> getProcessedQtysOfProduct(final int productId)
+	{
+		synchronized (processedEvents)
+		{
+			return processedEvents.stream()
+					.filter(event -> event instanceof StockChangedEvent)
+					.map(event -> (StockChangedEvent)event)
+					.filter(event -> event.getProductId() == productId)
+					.map(event -> event.getQtyOnHand().intValue())
+					.collect(Collectors.toList());
+		}
+	}
+
+	@Test
+	public void partitionKey()
+	{
+		assertThat(MaterialEventPartitionKey.ofEventOrNull(stockChangedEvent(10, 1)))
+				.isEqualTo(MaterialEventPartitionKey.of(10, 1));
+
+		assertThat(MaterialEventPartitionKey.ofEventOrNull(PPOrderDeletedEvent.builder().eventDescriptor(EVENT_DESCRIPTOR).ppOrderId(3).build()))
+				.isNull();
+	}
+
+	@Test
+	public void sameProductInOrder_barrierAfterAll()
+	{
+		executor = new PartitionedMaterialEventExecutor(4, 1000, processedEvents::add);
+
+		for (int i = 1; i <= 50; i++)
+		{
+			executor.submit(Event.builder().build(), stockChangedEvent(10, i));
+			executor.submit(Event.builder().build(), stockChangedEvent(20, i));
+		}
+
+		final PPOrderDeletedEvent barrierEvent = PPOrderDeletedEvent.builder().eventDescriptor(EVENT_DESCRIPTOR).ppOrderId(3).build();
+		executor.submit(Event.builder().build(), barrierEvent);
+
+		// the barrier event was processed in this thread, after all the events submitted before
+		assertThat(processedEvents).hasSize(101);
+		assertThat(processedEvents.get(100)).isSameAs(barrierEvent);
+
+		final List<Integer> expectedQtys = new ArrayList<>();
+		for (int i = 1; i <= 50; i++)
+		{
+			expectedQtys.add(i);
+		}
+		assertThat(getProcessedQtysOfProduct(10)).isEqualTo(expectedQtys);
+		assertThat(getProcessedQtysOfProduct(20)).isEqualTo(expectedQtys);
+
+		assertThat(executor.getProcessedEventsCount()).isEqualTo(100);
+		assertThat(executor.getBarrierEventsCount()).isEqualTo(1);
+		assertThat(executor.getBacklog()).isEqualTo(0);
+	}
+
+	@Test
+	public void eventFailsInPartition_nextEventsAreProcessed()
+	{
+		final Consumer<MaterialEvent> failingOnQty2 = event -> {
+			if (event instanceof StockChangedEvent && ((StockChangedEvent)event).getQtyOnHand().intValue() == 2)
+			{
+				throw new IllegalStateException("failed");
+			}
+			processedEvents.add(event);
+		};
+		executor = new PartitionedMaterialEventExecutor(4, 1000, failingOnQty2);
+
+		for (int i = 1; i <= 3; i++)
+		{
+			executor.submit(Event.builder().build(), stockChangedEvent(10, i));
+		}
+		executor.shutdown();
+
+		assertThat(getProcessedQtysOfProduct(10)).containsExactly(1, 3);
+		assertThat(executor.getProcessedEventsCount()).isEqualTo(3);
+	}
+
+	@Test
+	public void shutdown_processesTheSubmittedEvents()
+	{
+		executor = new PartitionedMaterialEventExecutor(4, 1000, processedEvents::add);
+
+		for (int i = 1; i <= 50; i++)
+		{
+			executor.submit(Event.builder().build(), stockChangedEvent(10, i));
+		}
+		executor.shutdown();
+
+		assertThat(getProcessedQtysOfProduct(10)).hasSize(50);
+		assertThat(executor.getBacklog()).isEqualTo(0);
+	}
+}
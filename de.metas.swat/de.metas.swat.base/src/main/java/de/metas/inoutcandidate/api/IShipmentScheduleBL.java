@@ -86,6 +86,19 @@ public interface IShipmentScheduleBL extends ISingletonService
 			List<OlAndSched> olsAndScheds,
 			String trxName);
 
+	/**
+	 * Same as {@link #updateSchedules(Properties, List, String)}, but the given schedules are split into partitions which don't share any storage or delivery group.
+	 * The partitions are updated concurrently, each of them in its own transaction.
+	 * <p>
+	 * Note: the partitions don't see the caller's uncommitted changes, so the given schedules shall be committed.
+	 *
+	 * @param threadsCount how many partitions shall be updated concurrently; if less than 2, the schedules are updated in the thread inherited transaction
+	 */
+	void updateSchedulesInParallel(
+			Properties ctx,
+			List<OlAndSched> olsAndScheds,
+			int threadsCount);
+
 	void registerCandidateProcessor(IShipmentSchedulesAfterFirstPassUpdater processor);
 
 	/**
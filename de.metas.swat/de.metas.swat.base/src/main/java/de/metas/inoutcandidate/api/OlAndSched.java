@@ -141,4 +141,13 @@ public final class OlAndSched
 	{
 		shipmentSchedule.setLineNetAmt(lineNetAmt);
 	}
+
+	/**
+	 * Sets the transaction of the shipment schedule and of the sales order line.
+	 */
+	public void setTrxName(final String trxName)
+	{
+		InterfaceWrapperHelper.setTrxName(shipmentSchedule, trxName);
+		salesOrderLine.ifPresent(orderLine -> InterfaceWrapperHelper.setTrxName(orderLine, trxName));
+	}
 }
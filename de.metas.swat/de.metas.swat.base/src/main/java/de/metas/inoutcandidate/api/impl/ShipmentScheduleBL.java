@@ -31,7 +31,13 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.inout.util.DeliveryGroupCandidate;
 import org.adempiere.inout.util.DeliveryLineCandidate;
@@ -48,6 +54,7 @@ import org.adempiere.service.OrgId;
 import org.adempiere.uom.UomId;
 import org.adempiere.uom.api.IUOMConversionBL;
 import org.adempiere.util.agg.key.IAggregationKeyBuilder;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.IContextAware;
 import org.adempiere.util.lang.NullAutoCloseable;
@@ -183,17 +190,107 @@ public class ShipmentScheduleBL implements IShipmentScheduleBL
 			return;
 		}
 
-		//
-		// Services
-		final IBPartnerBL bpartnerBL = Services.get(IBPartnerBL.class);
-		final IShipmentScheduleDeliveryDayBL shipmentScheduleDeliveryDayBL = Services.get(IShipmentScheduleDeliveryDayBL.class);
-		final IDocumentBL docActionBL = Services.get(IDocumentBL.class);
-		final IShipmentScheduleEffectiveBL shipmentScheduleEffectiveBL = Services.get(IShipmentScheduleEffectiveBL.class);
+		prepareSchedules(olsAndScheds);
+		updatePreparedSchedules(ctx, olsAndScheds, trxName);
+	}
 
-		//
-		// Briefly update our shipment schedules:
-		// * set BPartnerAddress_Override if was not set before
-		// * update HeaderAggregationKey
+	@Override
+	public void updateSchedulesInParallel(
+			final Properties ctx,
+			final List<OlAndSched> olsAndScheds,
+			final int threadsCount)
+	{
+		if (olsAndScheds.isEmpty())
+		{
+			return;
+		}
+
+		// NOTE: we need the warehouse and BPartnerAddress_Override to be set before partitioning
+		prepareSchedules(olsAndScheds);
+
+		final List<List<OlAndSched>> partitions = ShipmentSchedulesPartitioner.partition(olsAndScheds);
+		if (threadsCount <= 1 || partitions.size() <= 1)
+		{
+			updatePreparedSchedules(ctx, olsAndScheds, ITrx.TRXNAME_ThreadInherited);
+			return;
+		}
+
+		final int threadsCountEffective = Math.min(threadsCount, partitions.size());
+		logger.info("Updating {} shipment schedules in {} partitions, using {} threads", olsAndScheds.size(), partitions.size(), threadsCountEffective);
+
+		// NOTE: we create new threads on each run, so they inherit the caller's inheritable thread locals (e.g. IShipmentScheduleUpdater's "running" flag)
+		final ExecutorService executor = Executors.newFixedThreadPool(
+				threadsCountEffective,
+				CustomizableThreadFactory.builder()
+						.setThreadNamePrefix(ShipmentScheduleBL.class.getName() + "-updateSchedules")
+						.setDaemon(true)
+						.build());
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>(partitions.size());
+			for (final List<OlAndSched> partition : partitions)
+			{
+				futures.add(executor.submit(() -> updatePreparedSchedulesInNewTrx(ctx, partition)));
+			}
+
+			// wait for all partitions, also if some of them failed; the other partitions were updated (and committed) nevertheless
+			AdempiereException exception = null;
+			for (final Future<?> future : futures)
+			{
+				try
+				{
+					future.get();
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					throw new AdempiereException("Interrupted while waiting for the shipment schedule partitions", e);
+				}
+				catch (final ExecutionException e)
+				{
+					final AdempiereException partitionException = AdempiereException.wrapIfNeeded(e.getCause());
+					if (exception == null)
+					{
+						exception = partitionException;
+					}
+					else
+					{
+						exception.addSuppressed(partitionException);
+					}
+				}
+			}
+
+			if (exception != null)
+			{
+				throw exception;
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	private void updatePreparedSchedulesInNewTrx(final Properties ctx, final List<OlAndSched> olsAndScheds)
+	{
+		try (final IAutoCloseable ctxRestorer = Env.switchContext(ctx))
+		{
+			Services.get(ITrxManager.class).runInNewTrx(localTrxName -> {
+				olsAndScheds.forEach(olAndSched -> olAndSched.setTrxName(ITrx.TRXNAME_ThreadInherited));
+				updatePreparedSchedules(ctx, olsAndScheds, ITrx.TRXNAME_ThreadInherited);
+			});
+		}
+	}
+
+	/**
+	 * Briefly update our shipment schedules:
+	 * <ul>
+	 * <li>set BPartnerAddress_Override if was not set before
+	 * <li>update HeaderAggregationKey
+	 * </ul>
+	 */
+	private void prepareSchedules(final List<OlAndSched> olsAndScheds)
+	{
 		for (final OlAndSched olAndSched : olsAndScheds)
 		{
 			final I_M_ShipmentSchedule sched = olAndSched.getSched();
@@ -206,6 +303,19 @@ public class ShipmentScheduleBL implements IShipmentScheduleBL
 
 			updateShipmentConstraints(sched);
 		}
+	}
+
+	private void updatePreparedSchedules(
+			final Properties ctx,
+			final List<OlAndSched> olsAndScheds,
+			final String trxName)
+	{
+		//
+		// Services
+		final IBPartnerBL bpartnerBL = Services.get(IBPartnerBL.class);
+		final IShipmentScheduleDeliveryDayBL shipmentScheduleDeliveryDayBL = Services.get(IShipmentScheduleDeliveryDayBL.class);
+		final IDocumentBL docActionBL = Services.get(IDocumentBL.class);
+		final IShipmentScheduleEffectiveBL shipmentScheduleEffectiveBL = Services.get(IShipmentScheduleEffectiveBL.class);
 
 		final ShipmentSchedulesDuringUpdate firstRun = generate(ctx, olsAndScheds, null, trxName);
 		firstRun.updateCompleteStatusAndSetQtyToZeroWhereNeeded();
@@ -30,6 +30,7 @@ import java.util.Properties;
 import java.util.Set;
 
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.service.ISysConfigBL;
 import org.slf4j.Logger;
 
 import com.google.common.collect.ImmutableSet;
@@ -58,6 +59,12 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 
 	private static final Logger logger = LogManager.getLogger(ShipmentScheduleUpdater.class);
 
+	/**
+	 * If greater than one, the invalid schedules are split into independent partitions (see {@link ShipmentSchedulesPartitioner}) which are updated by that many threads.
+	 * Otherwise all schedules are updated in the caller's thread and transaction.
+	 */
+	private static final String SYSCONFIG_ThreadsCount = "de.metas.inoutcandidate.api.impl.ShipmentScheduleUpdater.ThreadsCount";
+
 	@Override
 	public int updateShipmentSchedule(final Properties ctx, final int adUserId, final PInstanceId adPInstanceId)
 	{
@@ -97,7 +104,15 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 			final List<OlAndSched> collectResult = retrieveOlsAndSchedsToProcess(adPInstanceId);
 
 			logger.debug("Invoking shipmentScheduleBL to update {} shipment schedule entries.", collectResult.size());
-			shipmentScheduleBL.updateSchedules(ctx, collectResult, ITrx.TRXNAME_ThreadInherited);
+			final int threadsCount = getThreadsCount(updateOnlyLocked);
+			if (threadsCount > 1)
+			{
+				shipmentScheduleBL.updateSchedulesInParallel(ctx, collectResult, threadsCount);
+			}
+			else
+			{
+				shipmentScheduleBL.updateSchedules(ctx, collectResult, ITrx.TRXNAME_ThreadInherited);
+			}
 
 			// cleanup the marker/pointer tables
 			invalidSchedulesRepo.deleteRecomputeMarkersOutOfTrx(adPInstanceId);
@@ -120,6 +135,16 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 		}
 	}
 
+	private static int getThreadsCount(final boolean updateOnlyLocked)
+	{
+		if (!updateOnlyLocked)
+		{
+			// the missing schedules were created in our transaction, so other transactions would not see them
+			return 1;
+		}
+		return Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_ThreadsCount, 1);
+	}
+
 	@Override
 	public boolean isRunning()
 	{
@@ -0,0 +1,166 @@
+package de.metas.inoutcandidate.api.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.adempiere.warehouse.WarehouseId;
+import org.adempiere.warehouse.api.IWarehouseDAO;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.inoutcandidate.api.IShipmentScheduleEffectiveBL;
+import de.metas.inoutcandidate.api.OlAndSched;
+import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Splits shipment schedules into partitions which can be updated independently of each other.
+ * <p>
+ * Two schedules end up in the same partition if they share a key, directly or via other schedules. The keys of a schedule are
+ * <ul>
+ * <li>its product and each warehouse of its warehouse's picking group, because the schedules compete for the same storage
+ * (the qty on hand of a schedule is taken from all warehouses of the picking group, see {@link org.adempiere.inout.util.ShipmentScheduleQtyOnHandStorage})
+ * <li>its warehouse and delivery address, because the schedules could end up in the same delivery group (the group is built per order or per shipper, but always per warehouse and address)
+ * </ul>
+ * The partitions are ordered by their first schedule and the schedules keep their original order within a partition,
+ * so updating the partitions gives the same result as updating all schedules together.
+ */
+/* package */ final class ShipmentSchedulesPartitioner
+{
+	public static List<List<OlAndSched>> partition(@NonNull final List<OlAndSched> olsAndScheds)
+	{
+		final IShipmentScheduleEffectiveBL shipmentScheduleEffectiveBL = Services.get(IShipmentScheduleEffectiveBL.class);
+		final IWarehouseDAO warehouseDAO = Services.get(IWarehouseDAO.class);
+		return partition(olsAndScheds, olAndSched -> extractKeys(olAndSched.getSched(), shipmentScheduleEffectiveBL, warehouseDAO));
+	}
+
+	private static List<Object> extractKeys(
+			final I_M_ShipmentSchedule sched,
+			final IShipmentScheduleEffectiveBL shipmentScheduleEffectiveBL,
+			final IWarehouseDAO warehouseDAO)
+	{
+		final WarehouseId warehouseId = shipmentScheduleEffectiveBL.getWarehouseId(sched);
+
+		final ImmutableList.Builder<Object> keys = ImmutableList.builder();
+		for (final WarehouseId storageWarehouseId : warehouseDAO.getWarehouseIdsOfSamePickingGroup(warehouseId))
+		{
+			keys.add(StorageKey.of(sched.getM_Product_ID(), storageWarehouseId.getRepoId()));
+		}
+		keys.add(DeliveryGroupKey.of(warehouseId.getRepoId(), sched.getBPartnerAddress_Override()));
+		return keys.build();
+	}
+
+	/**
+	 * @param keysExtractor provides the keys of an item; items sharing a key are put in the same partition
+	 */
+	public static <T> List<List<T>> partition(
+			@NonNull final List<T> items,
+			@NonNull final Function<T, ? extends Collection<?>> keysExtractor)
+	{
+		final int[] parents = new int[items.size()];
+		final Map<Object, Integer> firstItemIndexByKey = new HashMap<>();
+		for (int itemIndex = 0; itemIndex < items.size(); itemIndex++)
+		{
+			parents[itemIndex] = itemIndex;
+			for (final Object key : keysExtractor.apply(items.get(itemIndex)))
+			{
+				final Integer otherItemIndex = firstItemIndexByKey.putIfAbsent(key, itemIndex);
+				if (otherItemIndex != null)
+				{
+					union(parents, otherItemIndex, itemIndex);
+				}
+			}
+		}
+
+		// NOTE: because we always link to the smaller index, the root is the partition's first item, so iterating in item order gives us partitions in item order
+		final Map<Integer, List<T>> partitionsByRootIndex = new LinkedHashMap<>();
+		for (int itemIndex = 0; itemIndex < items.size(); itemIndex++)
+		{
+			final int rootIndex = findRoot(parents, itemIndex);
+			partitionsByRootIndex.computeIfAbsent(rootIndex, k -> new ArrayList<>()).add(items.get(itemIndex));
+		}
+
+		return ImmutableList.copyOf(partitionsByRootIndex.values());
+	}
+
+	private static int findRoot(final int[] parents, final int index)
+	{
+		int root = index;
+		while (parents[root] != root)
+		{
+			root = parents[root];
+		}
+
+		// path compression
+		int current = index;
+		while (parents[current] != root)
+		{
+			final int next = parents[current];
+			parents[current] = root;
+			current = next;
+		}
+
+		return root;
+	}
+
+	private static void union(final int[] parents, final int index1, final int index2)
+	{
+		final int root1 = findRoot(parents, index1);
+		final int root2 = findRoot(parents, index2);
+		if (root1 < root2)
+		{
+			parents[root2] = root1;
+		}
+		else if (root2 < root1)
+		{
+			parents[root1] = root2;
+		}
+	}
+
+	@Value(staticConstructor = "of")
+	private static final class StorageKey
+	{
+		int productId;
+		int warehouseId;
+	}
+
+	@Value(staticConstructor = "of")
+	private static final class DeliveryGroupKey
+	{
+		int warehouseId;
+		String bpartnerAddress;
+	}
+
+	private ShipmentSchedulesPartitioner()
+	{
+	}
+}
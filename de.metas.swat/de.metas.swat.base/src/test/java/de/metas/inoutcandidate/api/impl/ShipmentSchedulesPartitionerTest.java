@@ -0,0 +1,160 @@
+package de.metas.inoutcandidate.api.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.save;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_M_Warehouse;
+import org.compiere.model.I_M_Warehouse_PickingGroup;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.inoutcandidate.api.OlAndSched;
+import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ShipmentSchedulesPartitionerTest
+{
+	@Test
+	public void partition_noSharedKeys()
+	{
+		final Item item1 = new Item("1", "P1", "A1");
+		final Item item2 = new Item("2", "P2", "A2");
+		final Item item3 = new Item("3", "P3", "A3");
+
+		final List<List<Item>> partitions = partition(item1, item2, item3);
+
+		assertThat(partitions).containsExactly(
+				ImmutableList.of(item1),
+				ImmutableList.of(item2),
+				ImmutableList.of(item3));
+	}
+
+	@Test
+	public void partition_sharedKeys()
+	{
+		final Item item1 = new Item("1", "P1", "A1");
+		final Item item2 = new Item("2", "P2", "A2");
+		final Item item3 = new Item("3", "P1", "A3"); // same product as item1
+		final Item item4 = new Item("4", "P4", "A4");
+		final Item item5 = new Item("5", "P5", "A2"); // same address as item2
+
+		final List<List<Item>> partitions = partition(item1, item2, item3, item4, item5);
+
+		assertThat(partitions).containsExactly(
+				ImmutableList.of(item1, item3),
+				ImmutableList.of(item2, item5),
+				ImmutableList.of(item4));
+	}
+
+	@Test
+	public void partition_transitivelySharedKeys()
+	{
+		final Item item1 = new Item("1", "P1", "A1");
+		final Item item2 = new Item("2", "P2", "A2");
+		final Item item3 = new Item("3", "P3", "A3");
+		final Item item4 = new Item("4", "P2", "A1"); // links item2 to item1
+		final Item item5 = new Item("5", "P3", "A2"); // links item3 to item2
+
+		final List<List<Item>> partitions = partition(item1, item2, item3, item4, item5);
+
+		assertThat(partitions).containsExactly(
+				ImmutableList.of(item1, item2, item3, item4, item5));
+	}
+
+	@Test
+	public void partition_empty()
+	{
+		assertThat(partition()).isEmpty();
+	}
+
+	@Test
+	public void partition_warehousesOfSamePickingGroup()
+	{
+		AdempiereTestHelper.get().init();
+
+		final I_M_Warehouse_PickingGroup pickingGroup = newInstance(I_M_Warehouse_PickingGroup.class);
+		save(pickingGroup);
+		final I_M_Warehouse warehouse1 = createWarehouse(pickingGroup);
+		final I_M_Warehouse warehouse2 = createWarehouse(pickingGroup);
+		final I_M_Warehouse warehouse3 = createWarehouse(null);
+
+		final OlAndSched olAndSched1 = createOlAndSched(10, warehouse1, "A1");
+		final OlAndSched olAndSched2 = createOlAndSched(20, warehouse1, "A2");
+		final OlAndSched olAndSched3 = createOlAndSched(10, warehouse2, "A3"); // same product and picking group as olAndSched1
+		final OlAndSched olAndSched4 = createOlAndSched(10, warehouse3, "A4"); // same product, but other picking group
+
+		final List<List<OlAndSched>> partitions = ShipmentSchedulesPartitioner.partition(ImmutableList.of(olAndSched1, olAndSched2, olAndSched3, olAndSched4));
+
+		assertThat(partitions).containsExactly(
+				ImmutableList.of(olAndSched1, olAndSched3),
+				ImmutableList.of(olAndSched2),
+				ImmutableList.of(olAndSched4));
+	}
+
+	private static I_M_Warehouse createWarehouse(final I_M_Warehouse_PickingGroup pickingGroup)
+	{
+		final I_M_Warehouse warehouse = newInstance(I_M_Warehouse.class);
+		if (pickingGroup != null)
+		{
+			warehouse.setM_Warehouse_PickingGroup_ID(pickingGroup.getM_Warehouse_PickingGroup_ID());
+		}
+		save(warehouse);
+		return warehouse;
+	}
+
+	private static OlAndSched createOlAndSched(final int productId, final I_M_Warehouse warehouse, final String bpartnerAddress)
+	{
+		final I_M_ShipmentSchedule sched = newInstance(I_M_ShipmentSchedule.class);
+		sched.setM_Product_ID(productId);
+		sched.setM_Warehouse_ID(warehouse.getM_Warehouse_ID());
+		sched.setBPartnerAddress_Override(bpartnerAddress);
+		save(sched);
+
+		return OlAndSched.builder()
+				.shipmentSchedule(sched)
+				.deliverRequest(() -> BigDecimal.ZERO)
+				.build();
+	}
+
+	private static List<List<Item>> partition(final Item... items)
+	{
+		return ShipmentSchedulesPartitioner.partition(Arrays.asList(items), item -> ImmutableList.of("P-" + item.getProduct(), "A-" + item.getAddress()));
+	}
+
+	@Value
+	private static class Item
+	{
+		String name;
+		String product;
+		String address;
+	}
+}
@@ -0,0 +1,361 @@
+package org.adempiere.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.util.Check;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.util
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Executes tasks on a fixed number of stripes, each having its own thread.
+ * <p>
+ * Tasks are assigned to a stripe by the hash code of their stripe key, so the tasks with the same key are executed in the order they were submitted,
+ * while tasks with different keys can be executed in parallel.
+ * <p>
+ * Tasks which can't be assigned to one key are executed as barriers (see {@link #executeAsBarrier(Runnable)}):
+ * we wait until all stripes executed the tasks submitted so far, then execute the task in the submitting thread and only then accept new tasks.
+ * <p>
+ * If a stripe has <code>maxBacklogPerStripe</code> tasks waiting or executing, the submitting thread is blocked until the stripe catches up,
+ * so the submitters can't get arbitrarily far ahead of the execution.
+ * <p>
+ * The exceptions of barrier tasks are propagated to the submitting thread. The tasks which are executed by the stripes are expected to handle their own exceptions.
+ * <p>
+ * Call {@link #shutdownAndAwaitTermination(long, TimeUnit)} when the executor is not needed anymore, so that the tasks submitted so far are not lost.
+ */
+public final class StripedExecutor
+{
+	private final String name;
+	private final ImmutableList<Stripe> stripes;
+
+	private final AtomicLong barrierTasksCount = new AtomicLong(0);
+
+	/**
+	 * Creates an executor whose stripes' backlogs are not limited.
+	 *
+	 * @param name used for thread names and error messages
+	 */
+	public StripedExecutor(@NonNull final String name, final int stripesCount)
+	{
+		this(name, stripesCount, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param name used for thread names and error messages
+	 * @param maxBacklogPerStripe how many tasks a stripe can have waiting or executing before the submitting threads are blocked
+	 */
+	public StripedExecutor(@NonNull final String name, final int stripesCount, final int maxBacklogPerStripe)
+	{
+		Check.assumeGreaterThanZero(stripesCount, "stripesCount");
+		Check.assumeGreaterThanZero(maxBacklogPerStripe, "maxBacklogPerStripe");
+
+		this.name = name;
+
+		final ImmutableList.Builder<Stripe> stripes = ImmutableList.builder();
+		for (int i = 0; i < stripesCount; i++)
+		{
+			stripes.add(new Stripe(i, maxBacklogPerStripe));
+		}
+		this.stripes = stripes.build();
+	}
+
+	@Override
+	public String toString()
+	{
+		return name + "[stripes=" + stripes.size() + "]";
+	}
+
+	/**
+	 * Executes given task asynchronously, after all the tasks with the same stripe key which were submitted before.
+	 * If the task's stripe has too many tasks waiting, this method blocks until the stripe caught up.
+	 *
+	 * @throws RejectedExecutionException if the executor was shut down or if the current thread was interrupted while waiting
+	 */
+	public synchronized void execute(@NonNull final Object stripeKey, @NonNull final Runnable task)
+	{
+		getStripe(stripeKey).execute(task);
+	}
+
+	/**
+	 * Waits until all tasks which were submitted before were executed, and then executes given task in the current thread.
+	 * Exceptions thrown by the task are propagated to the caller.
+	 *
+	 * @throws RejectedExecutionException if the executor was shut down or if the current thread was interrupted while waiting
+	 */
+	public synchronized void executeAsBarrier(@NonNull final Runnable task)
+	{
+		barrierTasksCount.incrementAndGet();
+		awaitAllStripesIdle();
+
+		task.run();
+	}
+
+	private Stripe getStripe(final Object stripeKey)
+	{
+		final int index = Math.floorMod(stripeKey.hashCode(), stripes.size());
+		return stripes.get(index);
+	}
+
+	private void awaitAllStripesIdle()
+	{
+		final List<Future<?>> markers = new ArrayList<>(stripes.size());
+		for (final Stripe stripe : stripes)
+		{
+			markers.add(stripe.submitMarker());
+		}
+
+		for (final Future<?> marker : markers)
+		{
+			try
+			{
+				marker.get();
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new RejectedExecutionException("Interrupted while waiting for the stripes of " + name, e);
+			}
+			catch (final ExecutionException e)
+			{
+				// shall not happen because the markers are doing nothing
+				throw new IllegalStateException("Failed waiting for the stripes of " + name, e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Stops accepting new tasks. The tasks which were submitted so far are still executed.
+	 */
+	public void shutdown()
+	{
+		stripes.forEach(Stripe::shutdown);
+	}
+
+	/**
+	 * Stops accepting new tasks and waits until the tasks which were submitted so far were executed, but not longer than the given timeout.
+	 *
+	 * @return true if all submitted tasks were executed; false if the timeout elapsed or the current thread was interrupted before
+	 */
+	public boolean shutdownAndAwaitTermination(final long timeout, @NonNull final TimeUnit unit)
+	{
+		shutdown();
+
+		final long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+		for (final Stripe stripe : stripes)
+		{
+			try
+			{
+				if (!stripe.awaitTermination(deadlineNanos - System.nanoTime()))
+				{
+					return false;
+				}
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public int getStripesCount()
+	{
+		return stripes.size();
+	}
+
+	public long getBarrierTasksCount()
+	{
+		return barrierTasksCount.get();
+	}
+
+	/**
+	 * @return how many tasks are waiting to be executed or are executing, summed over all stripes
+	 */
+	public int getBacklog()
+	{
+		return stripes.stream().mapToInt(Stripe::getBacklog).sum();
+	}
+
+	/**
+	 * @return how many tasks were executed by the stripes, i.e. without the barrier tasks; since the last statistics reset
+	 */
+	public long getExecutedTasksCount()
+	{
+		return stripes.stream().mapToLong(Stripe::getExecutedTasksCount).sum();
+	}
+
+	/**
+	 * @return the biggest time a task had to wait in its stripe's queue and to be executed; since the last statistics reset
+	 */
+	public long getMaxLatencyMillis()
+	{
+		return stripes.stream().mapToLong(Stripe::getMaxLatencyMillis).max().orElse(0);
+	}
+
+	public List<String> getStripeInfos()
+	{
+		return stripes.stream().map(Stripe::toString).collect(ImmutableList.toImmutableList());
+	}
+
+	public void resetStatistics()
+	{
+		barrierTasksCount.set(0);
+		stripes.forEach(Stripe::resetStatistics);
+	}
+
+	private final class Stripe
+	{
+		private final int index;
+		private final ExecutorService executor;
+		private final Semaphore backlogPermits;
+
+		private final AtomicInteger backlog = new AtomicInteger(0);
+		private final AtomicLong executedTasksCount = new AtomicLong(0);
+		private final AtomicLong totalLatencyMillis = new AtomicLong(0);
+		private final AtomicLong maxLatencyMillis = new AtomicLong(0);
+
+		private Stripe(final int index, final int maxBacklog)
+		{
+			this.index = index;
+			this.backlogPermits = new Semaphore(maxBacklog);
+			this.executor = new ThreadPoolExecutor(
+					1, 1, // corePoolSize, maximumPoolSize
+					0, TimeUnit.MILLISECONDS, // keepAliveTime
+					new LinkedBlockingQueue<>(),
+					CustomizableThreadFactory.builder()
+							.setThreadNamePrefix(name + "-" + index)
+							.setDaemon(true)
+							.build());
+		}
+
+		@Override
+		public String toString()
+		{
+			final long executedTasksCount = getExecutedTasksCount();
+			return "stripe " + index
+					+ ": backlog=" + getBacklog()
+					+ ", executed=" + executedTasksCount
+					+ ", avgLatencyMillis=" + (executedTasksCount > 0 ? totalLatencyMillis.get() / executedTasksCount : 0)
+					+ ", maxLatencyMillis=" + getMaxLatencyMillis();
+		}
+
+		public void execute(final Runnable task)
+		{
+			acquireBacklogPermit();
+
+			final long submittedMillis = System.currentTimeMillis();
+			backlog.incrementAndGet();
+			try
+			{
+				executor.execute(() -> {
+					try
+					{
+						task.run();
+					}
+					finally
+					{
+						backlog.decrementAndGet();
+						backlogPermits.release();
+
+						final long latencyMillis = System.currentTimeMillis() - submittedMillis;
+						executedTasksCount.incrementAndGet();
+						totalLatencyMillis.addAndGet(latencyMillis);
+						maxLatencyMillis.accumulateAndGet(latencyMillis, Math::max);
+					}
+				});
+			}
+			catch (final RejectedExecutionException e)
+			{
+				backlog.decrementAndGet();
+				backlogPermits.release();
+				throw e;
+			}
+		}
+
+		private void acquireBacklogPermit()
+		{
+			try
+			{
+				backlogPermits.acquire();
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new RejectedExecutionException("Interrupted while waiting for stripe " + index + " of " + name, e);
+			}
+		}
+
+		public Future<?> submitMarker()
+		{
+			return executor.submit(() -> {
+				// nothing to do; we just want to know when all tasks submitted before were executed
+			});
+		}
+
+		public void shutdown()
+		{
+			executor.shutdown();
+		}
+
+		public boolean awaitTermination(final long timeoutNanos) throws InterruptedException
+		{
+			return executor.awaitTermination(timeoutNanos, TimeUnit.NANOSECONDS);
+		}
+
+		public int getBacklog()
+		{
+			return backlog.get();
+		}
+
+		public long getExecutedTasksCount()
+		{
+			return executedTasksCount.get();
+		}
+
+		public long getMaxLatencyMillis()
+		{
+			return maxLatencyMillis.get();
+		}
+
+		public void resetStatistics()
+		{
+			executedTasksCount.set(0);
+			totalLatencyMillis.set(0);
+			maxLatencyMillis.set(0);
+		}
+	}
+}
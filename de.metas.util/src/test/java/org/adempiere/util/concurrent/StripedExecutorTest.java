@@ -0,0 +1,156 @@
+package org.adempiere.util.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.util
+ * %%
+ * Copyright (C) 2018 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class StripedExecutorTest
+{
+	private final List<Execution> executions = Collections.synchronizedList(new ArrayList<>());
+	private StripedExecutor executor;
+
+	@Before
+	public void init()
+	{
+		executor = new StripedExecutor(StripedExecutorTest.class.getName(), 4);
+	}
+
+	@After
+	public void shutdown()
+	{
+		executor.shutdown();
+	}
+
+	@Value
+	private static class Execution
+	{
+		String key;
+		int seqNo;
+	}
+
+	private void execute(final String key, final int seqNo)
+	{
+		executor.execute(key, () -> executions.add(new Execution(key, seqNo)));
+	}
+
+	private List<Integer> getExecutedSeqNos(final String key)
+	{
+		synchronized (executions)
+		{
+			return executions.stream()
+					.filter(execution -> key.equals(execution.getKey()))
+					.map(Execution::getSeqNo)
+					.collect(Collectors.toList());
+		}
+	}
+
+	@Test
+	public void sameKeyInOrder_barrierAfterAll()
+	{
+		final List<Integer> expectedSeqNos = new ArrayList<>();
+		for (int seqNo = 1; seqNo <= 50; seqNo++)
+		{
+			execute("key1", seqNo);
+			execute("key2", seqNo);
+			execute("key3", seqNo);
+			expectedSeqNos.add(seqNo);
+		}
+
+		final Execution barrierExecution = new Execution("barrier", 1);
+		executor.executeAsBarrier(() -> executions.add(barrierExecution));
+
+		// the barrier task was executed in this thread, after all the tasks submitted before
+		assertThat(executions).hasSize(151);
+		assertThat(executions.get(150)).isSameAs(barrierExecution);
+
+		assertThat(getExecutedSeqNos("key1")).isEqualTo(expectedSeqNos);
+		assertThat(getExecutedSeqNos("key2")).isEqualTo(expectedSeqNos);
+		assertThat(getExecutedSeqNos("key3")).isEqualTo(expectedSeqNos);
+
+		assertThat(executor.getExecutedTasksCount()).isEqualTo(150);
+		assertThat(executor.getBarrierTasksCount()).isEqualTo(1);
+		assertThat(executor.getBacklog()).isEqualTo(0);
+	}
+
+	@Test
+	public void shutdownAndAwaitTermination_executesTheSubmittedTasks() throws Exception
+	{
+		final CountDownLatch start = new CountDownLatch(1);
+		executor.execute("key1", () -> awaitNoFail(start));
+		for (int seqNo = 1; seqNo <= 10; seqNo++)
+		{
+			execute("key1", seqNo);
+		}
+		start.countDown();
+
+		assertThat(executor.shutdownAndAwaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(getExecutedSeqNos("key1")).hasSize(10);
+		assertThat(executor.getBacklog()).isEqualTo(0);
+	}
+
+	@Test
+	public void afterShutdown_tasksAreRejected()
+	{
+		executor.shutdown();
+
+		assertThatThrownBy(() -> execute("key1", 1)).isInstanceOf(RejectedExecutionException.class);
+		assertThatThrownBy(() -> executor.executeAsBarrier(() -> {})).isInstanceOf(RejectedExecutionException.class);
+		assertThat(executor.getBacklog()).isEqualTo(0);
+	}
+
+	@Test
+	public void barrierTaskFails_exceptionIsPropagated()
+	{
+		assertThatThrownBy(() -> executor.executeAsBarrier(() -> {
+			throw new IllegalStateException("barrier failed");
+		})).isInstanceOf(IllegalStateException.class).hasMessage("barrier failed");
+	}
+
+	private static void awaitNoFail(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}